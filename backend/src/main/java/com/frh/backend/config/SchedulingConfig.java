@@ -0,0 +1,9 @@
+package com.frh.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables {@code @Scheduled} background jobs (e.g. listing catalog refresh). */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
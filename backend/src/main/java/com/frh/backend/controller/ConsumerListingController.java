@@ -1,9 +1,19 @@
 package com.frh.backend.controller;
 
 import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.service.ListingFacetIndex.Facet;
+import com.frh.backend.dto.ListingPageDTO;
+import com.frh.backend.service.ListingJsonCache;
 import com.frh.backend.service.ListingService;
+import com.frh.backend.service.ListingSort;
+import com.frh.backend.util.ListingCursor;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,6 +21,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * REST Controller for Consumer Listing operations Provides read-only endpoints for consumer
@@ -21,17 +32,45 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin(origins = "*") // Allow requests from Android app
 public class ConsumerListingController {
 
+  // Larger radii cover the whole service area anyway and only make the geo lookup expensive
+  private static final double MAX_NEARBY_RADIUS_KM = 50.0;
+
   @Autowired private ListingService listingService;
 
   /**
    * Get all active listings with available inventory GET /api/listings
    *
-   * @return List of all active listings
+   * <p>Paged when {@code limit} or {@code cursor} is given: GET /api/listings?limit=20, then
+   * GET /api/listings?limit=20&cursor={nextCursor} until {@code nextCursor} is null. Without either
+   * parameter the full list is returned as before, with an ETag for conditional polling.
+   *
+   * <p>With {@code sort} (newest, price, price_desc, discount, expiry, distance) only the first
+   * {@code limit} listings in that order are returned, e.g. GET /api/listings?sort=price&limit=20.
+   * {@code sort=distance} also needs {@code lat} and {@code lng}.
+   *
+   * @return List of all active listings, or a {@link ListingPageDTO}
    */
   @GetMapping
-  public ResponseEntity<List<ListingDTO>> getAllListings() {
-    List<ListingDTO> listings = listingService.getAllActiveListings();
-    return ResponseEntity.ok(listings);
+  public ResponseEntity<?> getAllListings(
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) Double lat,
+      @RequestParam(required = false) Double lng) {
+    if (sort != null) {
+      ListingSort order = parseSort(sort, cursor, lat, lng);
+      return ResponseEntity.ok(listingService.getTopActiveListings(order, lat, lng, limit));
+    }
+    if (isPaged(limit, cursor)) {
+      return ResponseEntity.ok(listingService.getActiveListingsPage(decodeCursor(cursor), limit));
+    }
+    // Pre-serialized bytes go straight to the output stream; Spring answers a matching
+    // If-None-Match with 304 (and no body) because the response carries an ETag.
+    ListingJsonCache.Entry json = listingService.getAllActiveListingsJson();
+    return ResponseEntity.ok()
+        .eTag(json.getEtag())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(json.getBody());
   }
 
   /**
@@ -40,14 +79,34 @@ public class ConsumerListingController {
    *
    * @param lat User's latitude
    * @param lng User's longitude
-   * @param radius Search radius in km (optional, default: 5km)
-   * @return List of nearby listings within the specified radius
+   * @param radius Search radius in km (optional, default: 5km, at most 50km)
+   * @param limit Page size (optional, enables paging)
+   * @param cursor {@code nextCursor} of the previous page (optional, enables paging)
+   * @param sort Server-side order (optional); returns the first {@code limit} listings
+   * @return List of nearby listings within the specified radius, or a {@link ListingPageDTO}
    */
   @GetMapping("/nearby")
-  public ResponseEntity<List<ListingDTO>> getNearbyListings(
+  public ResponseEntity<?> getNearbyListings(
       @RequestParam Double lat,
       @RequestParam Double lng,
-      @RequestParam(required = false, defaultValue = "5.0") Double radius) {
+      @RequestParam(required = false, defaultValue = "5.0") Double radius,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) String sort) {
+    // also rejects NaN
+    if (!(radius <= MAX_NEARBY_RADIUS_KM)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "radius must be at most " + MAX_NEARBY_RADIUS_KM + " km");
+    }
+    if (sort != null) {
+      ListingSort order = parseSort(sort, cursor, lat, lng);
+      return ResponseEntity.ok(
+          listingService.getTopNearbyListings(lat, lng, radius, order, limit));
+    }
+    if (isPaged(limit, cursor)) {
+      return ResponseEntity.ok(
+          listingService.getNearbyListingsPage(lat, lng, radius, decodeCursor(cursor), limit));
+    }
     List<ListingDTO> listings = listingService.getNearbyListings(lat, lng, radius);
     return ResponseEntity.ok(listings);
   }
@@ -56,11 +115,102 @@ public class ConsumerListingController {
    * Get listings filtered by category GET /api/listings/category/Bakery
    *
    * @param category Store category (e.g., Bakery, Cafe, Restaurant, etc.)
-   * @return List of listings matching the category
+   * @param limit Page size (optional, enables paging)
+   * @param cursor {@code nextCursor} of the previous page (optional, enables paging)
+   * @param sort Server-side order (optional); returns the first {@code limit} listings
+   * @return List of listings matching the category, or a {@link ListingPageDTO}
    */
   @GetMapping("/category/{category}")
-  public ResponseEntity<List<ListingDTO>> getListingsByCategory(@PathVariable String category) {
+  public ResponseEntity<?> getListingsByCategory(
+      @PathVariable String category,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) Double lat,
+      @RequestParam(required = false) Double lng) {
+    if (sort != null) {
+      ListingSort order = parseSort(sort, cursor, lat, lng);
+      return ResponseEntity.ok(
+          listingService.getTopListingsByCategory(category, order, lat, lng, limit));
+    }
+    if (isPaged(limit, cursor)) {
+      return ResponseEntity.ok(
+          listingService.getListingsByCategoryPage(category, decodeCursor(cursor), limit));
+    }
     List<ListingDTO> listings = listingService.getListingsByCategory(category);
     return ResponseEntity.ok(listings);
   }
+
+  /**
+   * Combined facet filter GET /api/listings/filter?storeType=Bakery&dietary=Vegan&price=under-5
+   *
+   * <p>Every parameter is optional and repeatable; values of one parameter are alternatives, and
+   * different parameters must all match. Prices are {@code under-5, 5-10, 10-20, over-20},
+   * discounts {@code under-25, 25-50, 50-75, over-75} (percent) and pickup windows {@code morning,
+   * afternoon, evening, night}. With {@code sort} only the first {@code limit} matches in that
+   * order are returned; {@code total} still counts all of them.
+   *
+   * @return matching listings, newest first, with counts per facet value
+   */
+  @GetMapping("/filter")
+  public ResponseEntity<ListingFacetResultDTO> filterListings(
+      @RequestParam(required = false) List<String> storeType,
+      @RequestParam(required = false) List<String> dietary,
+      @RequestParam(required = false) List<String> category,
+      @RequestParam(required = false) List<String> price,
+      @RequestParam(required = false) List<String> discount,
+      @RequestParam(required = false) List<String> pickup,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) Double lat,
+      @RequestParam(required = false) Double lng,
+      @RequestParam(required = false) Integer limit) {
+    Map<Facet, List<String>> selected = new EnumMap<>(Facet.class);
+    putIfPresent(selected, Facet.STORE_TYPE, storeType);
+    putIfPresent(selected, Facet.DIETARY, dietary);
+    putIfPresent(selected, Facet.CATEGORY, category);
+    putIfPresent(selected, Facet.PRICE, price);
+    putIfPresent(selected, Facet.DISCOUNT, discount);
+    putIfPresent(selected, Facet.PICKUP, pickup);
+    if (sort != null) {
+      ListingSort order = parseSort(sort, null, lat, lng);
+      return ResponseEntity.ok(listingService.filterListings(selected, order, lat, lng, limit));
+    }
+    return ResponseEntity.ok(listingService.filterListings(selected));
+  }
+
+  private void putIfPresent(Map<Facet, List<String>> selected, Facet facet, List<String> values) {
+    if (values != null && !values.isEmpty()) {
+      selected.put(facet, values);
+    }
+  }
+
+  private boolean isPaged(Integer limit, String cursor) {
+    return limit != null || cursor != null;
+  }
+
+  // Sorted results are a single top-K page, so there is nothing for a cursor to continue
+  private ListingSort parseSort(String sort, String cursor, Double lat, Double lng) {
+    if (cursor != null) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "cursor cannot be combined with sort");
+    }
+    try {
+      ListingSort order = ListingSort.fromParam(sort);
+      if (order.requiresLocation() && (lat == null || lng == null)) {
+        throw new IllegalArgumentException("sort=distance requires lat and lng");
+      }
+      return order;
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
+
+  // A cursor the client tampered with is a bad request, not a server error
+  private ListingCursor decodeCursor(String cursor) {
+    try {
+      return ListingCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
 }
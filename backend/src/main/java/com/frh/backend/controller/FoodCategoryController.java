@@ -1,7 +1,7 @@
 package com.frh.backend.controller;
 
 import com.frh.backend.model.FoodCategory;
-import com.frh.backend.repository.FoodCategoryRepository;
+import com.frh.backend.service.FoodCategoryService;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,10 +13,10 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/food-categories")
 public class FoodCategoryController {
 
-  @Autowired private FoodCategoryRepository foodCategoryRepository;
+  @Autowired private FoodCategoryService foodCategoryService;
 
   @GetMapping
   public ResponseEntity<List<FoodCategory>> getAllFoodCategories() {
-    return ResponseEntity.ok(foodCategoryRepository.findAll());
+    return ResponseEntity.ok(foodCategoryService.getAllFoodCategories());
   }
 }
@@ -1,19 +1,24 @@
 package com.frh.backend.controller;
 
 import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.model.Listing;
 import com.frh.backend.model.ListingPhoto;
 import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.StoreRepository;
 import com.frh.backend.service.ListingService;
+import com.frh.backend.service.NdjsonExportService;
 import com.frh.backend.service.PhotoStorageService;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,6 +31,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 // changed to this route to avoid conflict with ConsumerListingController
@@ -40,6 +46,10 @@ public class ListingController {
 
   @Autowired private PhotoStorageService photoStorageService;
 
+  @Autowired private NdjsonExportService ndjsonExportService;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   // ==========================================
   // CREATE
   // expects: POST /api/supplier/listings?storeId=1
@@ -116,6 +126,7 @@ public class ListingController {
 
       listing.getPhotos().add(photo);
       listingRepository.save(listing);
+      eventPublisher.publishEvent(new ListingChangedEvent(id));
 
       return ResponseEntity.ok(photoUrl);
     } catch (IOException ex) {
@@ -133,6 +144,16 @@ public class ListingController {
     return ResponseEntity.ok(listings);
   }
 
+  // Same data as NDJSON, streamed row by row (Accept: application/x-ndjson)
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAllListings() {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            ndjsonExportService.stream(
+                listingRepository::streamAllOrderById, Function.identity()));
+  }
+
   // ==========================================
   // READ ALL BY SUPPLIER
   // ==========================================
@@ -195,6 +216,7 @@ public class ListingController {
     }
 
     listingRepository.deleteById(id);
+    eventPublisher.publishEvent(new ListingChangedEvent(id));
     return ResponseEntity.ok("Listing deleted successfully");
   }
 
@@ -1,5 +1,6 @@
 package com.frh.backend.controller;
 
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.model.ConsumerProfile;
 import com.frh.backend.model.Inventory;
 import com.frh.backend.model.Listing;
@@ -20,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,6 +49,7 @@ public class MobileCheckoutController {
   @Autowired private OrderRepository orderRepository;
   @Autowired private ConsumerProfileRepository consumerProfileRepository;
   @Autowired private StripeService stripeService;
+  @Autowired private ApplicationEventPublisher eventPublisher;
 
   @PostMapping("/start")
   @Transactional
@@ -109,6 +112,7 @@ public class MobileCheckoutController {
       // Decrement stock (reserve it)
       inventory.setQtyAvailable(inventory.getQtyAvailable() - reqItem.quantity);
       inventory.setQtyReserved(inventory.getQtyReserved() + reqItem.quantity);
+      eventPublisher.publishEvent(new ListingChangedEvent(listing.getListingId()));
 
       Store store = listing.getStore();
 
@@ -5,6 +5,7 @@ import com.frh.backend.dto.ErrorResponse;
 import com.frh.backend.exception.InsufficientStockException;
 import com.frh.backend.mapper.OrderResponseMapper;
 import com.frh.backend.model.Order;
+import com.frh.backend.service.NdjsonExportService;
 import com.frh.backend.service.OrderService;
 import jakarta.servlet.http.HttpSession;
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -25,6 +27,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -35,6 +38,7 @@ public class OrderController {
 
   @Autowired private final OrderService orderService;
   private final OrderResponseMapper orderResponseMapper;
+  private final NdjsonExportService ndjsonExportService;
 
   /** Create a new order POST /api/orders */
   @PostMapping
@@ -101,6 +105,19 @@ public class OrderController {
     }
   }
 
+  /**
+   * Stream all orders as NDJSON, one order per line GET /api/orders with Accept:
+   * application/x-ndjson
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            ndjsonExportService.stream(
+                orderService::streamAllOrders, orderResponseMapper::toOrderResponse));
+  }
+
   /** Get all orders GET /api/orders */
   @GetMapping
   public ResponseEntity<?> getAllOrders() {
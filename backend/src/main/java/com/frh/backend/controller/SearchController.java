@@ -0,0 +1,32 @@
+package com.frh.backend.controller;
+
+import com.frh.backend.service.SearchSuggestService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+  private final SearchSuggestService searchSuggestService;
+
+  /**
+   * Autocomplete for the search box, answered from memory.
+   *
+   * <p>GET /api/search/suggest?q=chi&limit=8
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<List<String>> suggest(
+      @RequestParam(name = "q", required = false) String q,
+      @RequestParam(name = "limit", required = false) Integer limit) {
+    return ResponseEntity.ok(searchSuggestService.suggest(q, limit));
+  }
+}
@@ -21,6 +21,7 @@ public class ListingDTO {
   private LocalDateTime pickupEnd;
   private LocalDateTime expiryAt;
   private String status;
+  private LocalDateTime createdAt;
 
   // Store information
   private Long storeId;
@@ -42,6 +43,9 @@ public class ListingDTO {
   private List<ListingCategoryWeightDTO> categoryWeights;
   private BigDecimal estimatedWeightKg;
 
+  // Dietary tags, e.g. "Vegan", "Halal"
+  private List<String> dietaryTags;
+
   // Inventory
   private Integer qtyAvailable;
   private Integer qtyReserved;
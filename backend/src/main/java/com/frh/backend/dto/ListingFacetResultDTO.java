@@ -0,0 +1,23 @@
+package com.frh.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listings matching a facet filter, newest first, plus per-value counts for every facet. A value's
+ * count applies the selections of every other facet but not its own, so sibling values of a
+ * selected chip keep showing what they would add.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingFacetResultDTO {
+
+  private List<ListingDTO> listings;
+  private int total;
+  // facet name -> value -> matching listings
+  private Map<String, Map<String, Integer>> facets;
+}
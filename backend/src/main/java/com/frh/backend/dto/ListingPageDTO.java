@@ -0,0 +1,16 @@
+package com.frh.backend.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One page of the consumer listing feed. {@code nextCursor} is null on the last page. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingPageDTO {
+
+  private List<ListingDTO> listings;
+  private String nextCursor;
+}
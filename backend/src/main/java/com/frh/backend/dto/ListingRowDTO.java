@@ -0,0 +1,44 @@
+package com.frh.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Flat listing + store + inventory row, selected with a JPQL constructor expression (see {@code
+ * ListingRepository.LISTING_ROW_SELECT}) so the consumer feed can be built without loading
+ * entities. The field order is the constructor order used by that query.
+ */
+@Getter
+@AllArgsConstructor
+public class ListingRowDTO {
+
+  private Long listingId;
+  private String title;
+  private String description;
+  private BigDecimal originalPrice;
+  private BigDecimal rescuePrice;
+  private BigDecimal estimatedWeightKg;
+  private LocalDateTime pickupStart;
+  private LocalDateTime pickupEnd;
+  private LocalDateTime expiryAt;
+  private String status;
+  private LocalDateTime createdAt;
+
+  // Store
+  private Long storeId;
+  private String storeName;
+  private String storeDescription;
+  private String addressLine;
+  private String postalCode;
+  private BigDecimal lat;
+  private BigDecimal lng;
+  private String pickupInstructions;
+  private String openingHours;
+  private String category; // StoreType.typeName, null when the supplier has none
+
+  // Inventory
+  private Integer qtyAvailable;
+  private Integer qtyReserved;
+}
@@ -0,0 +1,15 @@
+package com.frh.backend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published whenever a listing's details, status or stock level change. Listeners receive it after
+ * the surrounding transaction commits, so they always reload committed state.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ListingChangedEvent {
+
+  private final Long listingId;
+}
@@ -0,0 +1,16 @@
+package com.frh.backend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a listing's engagement counters (views, clicks, add-to-carts) change. Kept apart
+ * from {@link ListingChangedEvent} because it fires on every interaction and only the
+ * recommendation features depend on these counters.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ListingStatsChangedEvent {
+
+  private final Long listingId;
+}
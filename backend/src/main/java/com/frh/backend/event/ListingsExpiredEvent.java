@@ -0,0 +1,16 @@
+package com.frh.backend.event;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by the expiry sweeper after a batch of listings has been flipped to {@code EXPIRED}.
+ * One event per batch, so caches can drop all of them in a single step.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ListingsExpiredEvent {
+
+  private final List<Long> listingIds;
+}
@@ -0,0 +1,12 @@
+package com.frh.backend.exception;
+
+/**
+ * Thrown by {@code RecommenderClient} when a call is refused before it is sent, because the
+ * circuit breaker is open or too many calls are already in flight.
+ */
+public class RecommenderUnavailableException extends RuntimeException {
+
+  public RecommenderUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -12,7 +12,11 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 
 @Entity
-@Table(name = "listings")
+@Table(
+    name = "listings",
+    indexes = {
+      @Index(name = "idx_listings_status_created", columnList = "status, created_at, listing_id")
+    })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
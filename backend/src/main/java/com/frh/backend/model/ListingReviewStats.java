@@ -0,0 +1,74 @@
+package com.frh.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * Running totals of the reviews left on one listing. Kept in step with {@code listing_reviews} by
+ * ListingReviewService so listing pages can show average ratings without scanning every review.
+ */
+@Entity
+@Table(name = "listing_review_stats")
+@Getter
+@Setter
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class ListingReviewStats {
+
+  @Id
+  @Column(name = "listing_id", nullable = false)
+  private Long listingId;
+
+  // --- One-to-One Relationship (Shared Primary Key) ---
+
+  @OneToOne(fetch = FetchType.LAZY)
+  @MapsId
+  @JoinColumn(name = "listing_id")
+  @JsonIgnoreProperties({"store", "inventory", "dietaryTags", "photos"})
+  private Listing listing;
+
+  // --- Aggregates ---
+
+  @Column(name = "review_count", nullable = false)
+  private Integer reviewCount = 0;
+
+  @Column(name = "listing_accuracy_sum", nullable = false)
+  private Integer listingAccuracySum = 0;
+
+  @Column(name = "on_time_pickup_sum", nullable = false)
+  private Integer onTimePickupSum = 0;
+
+  @Column(name = "store_rating_sum", nullable = false)
+  private Integer storeRatingSum = 0;
+
+  @UpdateTimestamp
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+
+  public void addReview(ListingReview review) {
+    reviewCount += 1;
+    listingAccuracySum += review.getListingAccuracy();
+    onTimePickupSum += review.getOnTimePickup();
+    storeRatingSum += review.getStoreRating();
+  }
+
+  public void removeReview(ListingReview review) {
+    reviewCount = Math.max(0, reviewCount - 1);
+    listingAccuracySum = Math.max(0, listingAccuracySum - review.getListingAccuracy());
+    onTimePickupSum = Math.max(0, onTimePickupSum - review.getOnTimePickup());
+    storeRatingSum = Math.max(0, storeRatingSum - review.getStoreRating());
+  }
+
+  /** Average listing accuracy (1-5), or {@code null} when there are no reviews. */
+  public Double getAvgListingAccuracy() {
+    return reviewCount > 0 ? (double) listingAccuracySum / reviewCount : null;
+  }
+
+  /** Average on-time pickup (1-5), or {@code null} when there are no reviews. */
+  public Double getAvgOnTimePickup() {
+    return reviewCount > 0 ? (double) onTimePickupSum / reviewCount : null;
+  }
+}
@@ -7,7 +7,11 @@ import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
 
 @Entity
-@Table(name = "store_types")
+@Table(
+    name = "store_types",
+    indexes = {
+      @Index(name = "idx_store_types_type_name", columnList = "type_name, supplier_id")
+    })
 @Data
 public class StoreType {
 
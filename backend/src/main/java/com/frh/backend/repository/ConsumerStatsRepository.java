@@ -2,8 +2,10 @@ package com.frh.backend.repository;
 
 import com.frh.backend.model.ConsumerStats;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -61,6 +63,16 @@ public interface ConsumerStatsRepository extends JpaRepository<ConsumerStats, Lo
           + "ORDER BY cs.updatedAt DESC")
   List<ConsumerStats> findNewConsumers(@Param("maxOrders") Integer maxOrders);
 
+  // Consumers active since the given time that have a default location, most recent first:
+  // [consumerId, default_lat, default_lng]
+  @Query(
+      "SELECT cs.consumerId, c.default_lat, c.default_lng FROM ConsumerStats cs JOIN cs.consumer c "
+          + "WHERE cs.updatedAt >= :since "
+          + "AND c.default_lat IS NOT NULL AND c.default_lng IS NOT NULL "
+          + "ORDER BY cs.updatedAt DESC")
+  List<Object[]> findActiveConsumerLocations(
+      @Param("since") LocalDateTime since, Pageable pageable);
+
   // Calculate total revenue from all consumers
   @Query("SELECT SUM(cs.totalSpend) FROM ConsumerStats cs")
   BigDecimal calculateTotalRevenue();
@@ -1,18 +1,36 @@
 package com.frh.backend.repository;
 
+import com.frh.backend.dto.ListingRowDTO;
 import com.frh.backend.model.Listing;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long> {
 
+  // Flat projection used by the consumer feed; joins must alias store "s", inventory "i" and the
+  // store type "st"
+  String LISTING_ROW_SELECT =
+      "SELECT new com.frh.backend.dto.ListingRowDTO("
+          + "l.listingId, l.title, l.description, l.originalPrice, l.rescuePrice, "
+          + "l.estimatedWeightKg, l.pickupStart, l.pickupEnd, l.expiryAt, l.status, l.createdAt, "
+          + "s.storeId, s.storeName, s.description, s.addressLine, s.postalCode, s.lat, s.lng, "
+          + "s.pickupInstructions, s.openingHours, st.typeName, i.qtyAvailable, i.qtyReserved) ";
+
   // Find all active listings
   @EntityGraph(
       attributePaths = {
@@ -24,6 +42,17 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
       })
   List<Listing> findByStatus(String status);
 
+  // Hydrate search hits with the same graph as findByStatus
+  @EntityGraph(
+      attributePaths = {
+        "store",
+        "store.supplierProfile",
+        "store.supplierProfile.storeType",
+        "inventory",
+        "photos"
+      })
+  List<Listing> findByListingIdInAndStatus(Collection<Long> listingIds, String status);
+
   // Find listings by supplier (through store relationship)
   @Query(
       "SELECT DISTINCT l FROM Listing l "
@@ -32,7 +61,7 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
           + "ORDER BY l.createdAt DESC")
   List<Listing> findByStore_SupplierProfile_SupplierId(@Param("supplierId") Long supplierId);
 
-  // Find active listings with available inventory
+  // Find active listings with available inventory (entity graph; the feed reads rows instead)
   @Query(
       "SELECT DISTINCT l FROM Listing l "
           + "JOIN FETCH l.store s "
@@ -41,9 +70,48 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
           + "LEFT JOIN FETCH s.supplierProfile sp "
           + "LEFT JOIN FETCH sp.storeType "
           + "WHERE l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
-          + "ORDER BY l.createdAt DESC")
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
   List<Listing> findAllActiveListingsWithDetails();
 
+  // ---- Flat projections for the consumer feed: one row per listing, no entities and no photo
+  // fan-out. Photos and food categories are loaded separately in batches (see below).
+
+  @Query(
+      LISTING_ROW_SELECT
+          + "FROM Listing l JOIN l.store s JOIN l.inventory i "
+          + "LEFT JOIN s.supplierProfile sp LEFT JOIN sp.storeType st "
+          + "WHERE l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<ListingRowDTO> findAllActiveListingRows();
+
+  // Active, in-stock listings of the given stores (candidates from the in-memory geo index)
+  @Query(
+      LISTING_ROW_SELECT
+          + "FROM Listing l JOIN l.store s JOIN l.inventory i "
+          + "LEFT JOIN s.supplierProfile sp LEFT JOIN sp.storeType st "
+          + "WHERE s.storeId IN :storeIds AND l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<ListingRowDTO> findActiveListingRowsByStoreIds(
+      @Param("storeIds") Collection<Long> storeIds);
+
+  // Rows for the given IDs regardless of status (pages and single-listing catalog updates)
+  @Query(
+      LISTING_ROW_SELECT
+          + "FROM Listing l JOIN l.store s LEFT JOIN l.inventory i "
+          + "LEFT JOIN s.supplierProfile sp LEFT JOIN sp.storeType st "
+          + "WHERE l.listingId IN :ids "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<ListingRowDTO> findListingRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Every listing with the given status, in stock or not (recommendation features)
+  @Query(
+      LISTING_ROW_SELECT
+          + "FROM Listing l JOIN l.store s LEFT JOIN l.inventory i "
+          + "LEFT JOIN s.supplierProfile sp LEFT JOIN sp.storeType st "
+          + "WHERE l.status = :status "
+          + "ORDER BY l.listingId")
+  List<ListingRowDTO> findListingRowsByStatus(@Param("status") String status);
+
   // Find nearby listings based on coordinates and radius (in km)
   @Query(
       "SELECT DISTINCT l FROM Listing l "
@@ -60,10 +128,106 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
   List<Listing> findNearbyListings(
       @Param("lat") Double lat, @Param("lng") Double lng, @Param("radius") Double radius);
 
+  // ---- Keyset (seek) pagination: newest first, strictly after the cursor (createdAt, listingId).
+  // Each page selects limit + 1 IDs through the (status, created_at, listing_id) index, then loads
+  // the rows of just those IDs.
+
+  @Query(
+      "SELECT l.listingId FROM Listing l JOIN l.inventory i "
+          + "WHERE l.store.storeId IN :storeIds AND l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
+          + "AND (l.createdAt < :createdAt "
+          + "OR (l.createdAt = :createdAt AND l.listingId < :listingId)) "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<Long> findActiveListingIdsByStoreIdsAfter(
+      @Param("storeIds") Collection<Long> storeIds,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("listingId") Long listingId,
+      Limit limit);
+
+  @Query(
+      "SELECT l.listingId FROM Listing l JOIN l.inventory i "
+          + "JOIN l.store s JOIN s.supplierProfile sp JOIN sp.storeType st "
+          + "WHERE st.typeName = :category "
+          + "AND l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
+          + "AND (l.createdAt < :createdAt "
+          + "OR (l.createdAt = :createdAt AND l.listingId < :listingId)) "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<Long> findActiveListingIdsByCategoryAfter(
+      @Param("category") String category,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("listingId") Long listingId,
+      Limit limit);
+
+  // Active, in-stock listings of one store type, filtered in SQL. Plain equality so the type_name
+  // index is usable; MySQL's default collation already makes it case-insensitive.
+  @Query(
+      LISTING_ROW_SELECT
+          + "FROM Listing l JOIN l.store s JOIN l.inventory i "
+          + "JOIN s.supplierProfile sp JOIN sp.storeType st "
+          + "WHERE st.typeName = :category AND l.status = 'ACTIVE' AND i.qtyAvailable > 0 "
+          + "ORDER BY l.createdAt DESC, l.listingId DESC")
+  List<ListingRowDTO> findActiveListingRowsByCategory(@Param("category") String category);
+
+  // Photo URLs of a batch of listings, in display order. Returns [listingId, photoUrl]
+  @Query(
+      "SELECT p.listing.listingId, p.photoUrl FROM ListingPhoto p "
+          + "WHERE p.listing.listingId IN :ids "
+          + "ORDER BY p.listing.listingId, p.sortOrder")
+  List<Object[]> findPhotoUrlsByListingIds(@Param("ids") Collection<Long> ids);
+
+  // Food category links of a batch of listings. Returns [listingId, categoryId, name, weightKg]
+  @Query(
+      "SELECT lfc.listing.listingId, c.id, c.name, lfc.weightKg "
+          + "FROM ListingFoodCategory lfc JOIN lfc.category c "
+          + "WHERE lfc.listing.listingId IN :ids")
+  List<Object[]> findCategoryWeightsByListingIds(@Param("ids") Collection<Long> ids);
+
+  // Dietary tags of a batch of listings. Returns [listingId, tagName]
+  @Query(
+      "SELECT l.listingId, t.tagName FROM Listing l JOIN l.dietaryTags t "
+          + "WHERE l.listingId IN :ids ORDER BY l.listingId, t.tagName")
+  List<Object[]> findDietaryTagNamesByListingIds(@Param("ids") Collection<Long> ids);
+
   // Pessimistic lock for stock deduction
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT l FROM Listing l WHERE l.listingId = :id")
   Listing findByIdForUpdate(@Param("id") Long id);
 
   List<Listing> findByStoreStoreId(Long storeId); // this returns every listifng
+
+  // Full export, read row by row; the caller must keep a transaction open while consuming it
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT l FROM Listing l ORDER BY l.listingId")
+  Stream<Listing> streamAllOrderById();
+
+  // Expiry deadlines of every active listing: [listingId, expiryAt, pickupEnd]
+  @Query("SELECT l.listingId, l.expiryAt, l.pickupEnd FROM Listing l WHERE l.status = 'ACTIVE'")
+  List<Object[]> findActiveExpiryDeadlines();
+
+  @Query(
+      "SELECT l.listingId, l.expiryAt, l.pickupEnd FROM Listing l "
+          + "WHERE l.status = 'ACTIVE' AND l.listingId IN :ids")
+  List<Object[]> findActiveExpiryDeadlinesByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Re-checks the deadline so a listing extended after it was queued is left alone
+  @Modifying(clearAutomatically = true)
+  @Query(
+      "UPDATE Listing l SET l.status = 'EXPIRED' "
+          + "WHERE l.listingId IN :ids AND l.status = 'ACTIVE' "
+          + "AND (l.expiryAt <= :now OR l.pickupEnd <= :now)")
+  int expireListings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+  @Query("SELECT l.listingId FROM Listing l WHERE l.listingId IN :ids AND l.status = 'EXPIRED'")
+  List<Long> findExpiredListingIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Text indexed by ListingSearchIndex: [listingId, title, description, storeName]
+  @Query(
+      "SELECT l.listingId, l.title, l.description, s.storeName FROM Listing l "
+          + "LEFT JOIN l.store s WHERE l.status = 'ACTIVE'")
+  List<Object[]> findActiveSearchText();
+
+  @Query(
+      "SELECT l.listingId, l.title, l.description, s.storeName FROM Listing l "
+          + "LEFT JOIN l.store s WHERE l.status = 'ACTIVE' AND l.listingId IN :ids")
+  List<Object[]> findActiveSearchTextByIdIn(@Param("ids") Collection<Long> ids);
 }
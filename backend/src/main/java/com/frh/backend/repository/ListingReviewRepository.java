@@ -3,6 +3,7 @@ package com.frh.backend.repository;
 import com.frh.backend.model.ListingReview;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -17,4 +18,14 @@ public interface ListingReviewRepository extends JpaRepository<ListingReview, Lo
 
   boolean existsByOrder_OrderIdAndListing_ListingIdAndConsumer_ConsumerId(
       Long orderId, Long listingId, Long consumerId);
+
+  // Per-listing review totals for listings that have no listing_review_stats row yet
+  // Returns [listingId, count, accuracySum, onTimeSum, storeRatingSum]
+  @Query(
+      "SELECT r.listing.listingId, COUNT(r), SUM(r.listingAccuracy), SUM(r.onTimePickup), "
+          + "SUM(r.storeRating) FROM ListingReview r "
+          + "WHERE NOT EXISTS (SELECT 1 FROM ListingReviewStats s "
+          + "WHERE s.listingId = r.listing.listingId) "
+          + "GROUP BY r.listing.listingId")
+  List<Object[]> aggregateReviewsWithoutStats();
 }
@@ -0,0 +1,32 @@
+package com.frh.backend.repository;
+
+import com.frh.backend.model.ListingReviewStats;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ListingReviewStatsRepository extends JpaRepository<ListingReviewStats, Long> {
+
+  // Lock the aggregate row while a review is added or removed
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM ListingReviewStats s WHERE s.listingId = :listingId")
+  Optional<ListingReviewStats> findByListingIdForUpdate(@Param("listingId") Long listingId);
+
+  // Creates an empty aggregate row unless one exists. The no-op update still takes the row's
+  // exclusive lock, so concurrent first reviews queue here instead of racing to insert it
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO listing_review_stats (listing_id, review_count, listing_accuracy_sum, "
+              + "on_time_pickup_sum, store_rating_sum, updated_at) "
+              + "VALUES (:listingId, 0, 0, 0, 0, CURRENT_TIMESTAMP) "
+              + "ON DUPLICATE KEY UPDATE listing_id = listing_id",
+      nativeQuery = true)
+  void insertIfAbsent(@Param("listingId") Long listingId);
+}
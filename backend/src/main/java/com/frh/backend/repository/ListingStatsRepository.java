@@ -1,6 +1,7 @@
 package com.frh.backend.repository;
 
 import com.frh.backend.model.ListingStats;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +15,9 @@ public interface ListingStatsRepository extends JpaRepository<ListingStats, Long
   // Find stats by listing ID
   Optional<ListingStats> findByListingId(Long listingId);
 
+  // Stats of a batch of listings in one query; listings without stats are simply missing
+  List<ListingStats> findByListingIdIn(Collection<Long> listingIds);
+
   // Find top viewed listings
   @Query("SELECT ls FROM ListingStats ls " + "ORDER BY ls.viewCount DESC")
   List<ListingStats> findTopViewed();
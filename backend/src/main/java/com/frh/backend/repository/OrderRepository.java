@@ -4,13 +4,17 @@ import com.frh.backend.dto.Co2CategoryBreakdownDto;
 import com.frh.backend.dto.TopSellingItemDto;
 import com.frh.backend.model.Order;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -93,4 +97,9 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT o FROM Order o WHERE o.orderId = :id")
   Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+  // Full export, read row by row; the caller must keep a transaction open while consuming it
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT o FROM Order o ORDER BY o.orderId")
+  Stream<Order> streamAllOrderById();
 }
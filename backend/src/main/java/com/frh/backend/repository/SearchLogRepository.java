@@ -3,6 +3,7 @@ package com.frh.backend.repository;
 import com.frh.backend.model.SearchLog;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -39,6 +40,14 @@ public interface SearchLogRepository extends JpaRepository<SearchLog, Long> {
           + "ORDER BY searchCount DESC")
   List<Object[]> findPopularQueries();
 
+  // Same as above, only the top entries
+  @Query(
+      "SELECT sl.queryText, COUNT(sl) as searchCount "
+          + "FROM SearchLog sl "
+          + "GROUP BY sl.queryText "
+          + "ORDER BY searchCount DESC")
+  List<Object[]> findPopularQueries(Limit limit);
+
   // Get searches with low results
   @Query(
       "SELECT sl FROM SearchLog sl "
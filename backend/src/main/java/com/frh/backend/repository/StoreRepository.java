@@ -3,6 +3,7 @@ package com.frh.backend.repository;
 import com.frh.backend.model.Store;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +12,9 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
 
   // Find all active stores
   List<Store> findByIsActive(boolean isActive);
+
+  // Coordinates of every store that has them, for the in-memory geo index
+  // Returns [storeId, lat, lng]
+  @Query("SELECT s.storeId, s.lat, s.lng FROM Store s WHERE s.lat IS NOT NULL AND s.lng IS NOT NULL")
+  List<Object[]> findAllCoordinates();
 }
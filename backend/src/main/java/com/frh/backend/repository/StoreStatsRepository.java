@@ -2,6 +2,7 @@ package com.frh.backend.repository;
 
 import com.frh.backend.model.StoreStats;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,6 +16,9 @@ public interface StoreStatsRepository extends JpaRepository<StoreStats, Long> {
   // Find stats by store ID
   Optional<StoreStats> findByStoreId(Long storeId);
 
+  // Stats of a batch of stores in one query; stores without stats are simply missing
+  List<StoreStats> findByStoreIdIn(Collection<Long> storeIds);
+
   // Find top rated stores
   @Query(
       "SELECT ss FROM StoreStats ss "
@@ -0,0 +1,88 @@
+package com.frh.backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar form of a recommender request, sent instead of one map per candidate once the
+ * recommender accepts it (see {@link RecommenderClient}):
+ *
+ * <pre>
+ * {"format": "columnar", "user_id": 7, "top_k": 5, "count": 3,
+ *  "shared":  {"page_context": "homepage", "day_of_week": 2, ...},
+ *  "columns": {"listing_id": [11, 12, 13], "distance": [0.4, 2.1, null], ...}}
+ * </pre>
+ *
+ * <p>A feature with the same value for every candidate (the user and time context) is sent once
+ * in {@code shared}; every other feature is an array in {@code columns} with one value per
+ * candidate, in candidate order. So each key is written once per request rather than once per
+ * candidate, and numeric columns are plain number arrays.
+ */
+final class ColumnarCandidates {
+
+  static final String FORMAT = "columnar";
+
+  private ColumnarCandidates() {}
+
+  /** {@code requestBody} ({@code user_id}, {@code top_k}, {@code candidates}) in columnar form. */
+  @SuppressWarnings("unchecked")
+  static Map<String, Object> encode(Map<String, Object> requestBody) {
+    List<Map<String, Object>> candidates =
+        (List<Map<String, Object>>) requestBody.getOrDefault("candidates", List.of());
+
+    Map<String, Object> shared = new LinkedHashMap<>();
+    Map<String, Object> columns = new LinkedHashMap<>();
+    if (!candidates.isEmpty()) {
+      for (String key : candidates.get(0).keySet()) {
+        Object first = candidates.get(0).get(key);
+        boolean same = true;
+        for (int i = 1; i < candidates.size() && same; i++) {
+          same = Objects.equals(first, candidates.get(i).get(key));
+        }
+        if (same && candidates.size() > 1) {
+          shared.put(key, first);
+        } else {
+          columns.put(key, column(candidates, key));
+        }
+      }
+    }
+
+    Map<String, Object> columnar = new LinkedHashMap<>();
+    columnar.put("format", FORMAT);
+    columnar.put("user_id", requestBody.get("user_id"));
+    columnar.put("top_k", requestBody.get("top_k"));
+    columnar.put("count", candidates.size());
+    columnar.put("shared", shared);
+    columnar.put("columns", columns);
+    return columnar;
+  }
+
+  /** Values of {@code key}: long[] or double[] when all are integral or all are numbers. */
+  private static Object column(List<Map<String, Object>> candidates, String key) {
+    int n = candidates.size();
+    long[] longs = new long[n];
+    double[] doubles = new double[n];
+    boolean integral = true;
+    for (int i = 0; i < n; i++) {
+      Object value = candidates.get(i).get(key);
+      if (!(value instanceof Number number)) {
+        List<Object> values = new ArrayList<>(n);
+        for (Map<String, Object> candidate : candidates) {
+          values.add(candidate.get(key));
+        }
+        return values;
+      }
+      integral &=
+          number instanceof Integer
+              || number instanceof Long
+              || number instanceof Short
+              || number instanceof Byte;
+      longs[i] = number.longValue();
+      doubles[i] = number.doubleValue();
+    }
+    return integral ? longs : doubles;
+  }
+}
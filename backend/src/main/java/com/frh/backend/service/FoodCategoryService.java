@@ -0,0 +1,20 @@
+package com.frh.backend.service;
+
+import com.frh.backend.model.FoodCategory;
+import com.frh.backend.repository.FoodCategoryRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class FoodCategoryService {
+
+  private final FoodCategoryRepository foodCategoryRepository;
+  private final RequestCoalescer requestCoalescer;
+
+  /** All categories; concurrent callers share one query. */
+  public List<FoodCategory> getAllFoodCategories() {
+    return requestCoalescer.coalesce("food-categories", "all", foodCategoryRepository::findAll);
+  }
+}
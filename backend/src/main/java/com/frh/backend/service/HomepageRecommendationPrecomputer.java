@@ -0,0 +1,202 @@
+package com.frh.backend.service;
+
+import com.frh.backend.repository.ConsumerStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Batch job that ranks the homepage of recently active consumers ahead of time, so the app-open
+ * bursts at lunch and closing time are mostly served from {@link RecommendationResultCache}; a
+ * request it did not cover (or whose result was invalidated) is ranked live as before.
+ *
+ * <p>On {@code recommendation.precompute.cron} ({@code -} turns it off) it takes up to {@code
+ * recommendation.precompute.max-consumers} consumers whose stats changed in the last {@code
+ * recommendation.precompute.active-days} and who have a default location, groups them by the
+ * cache's location cell, and ranks the cells in batches on a pool of {@code
+ * recommendation.precompute.threads} threads. Each batch generates the candidates of its cell once,
+ * and again only when one of those candidates changes meanwhile. Results are cached for {@code
+ * recommendation.precompute.ttl-seconds} under the consumer's default location, so they are hit
+ * when the app is opened near it.
+ */
+@Slf4j
+@Service
+public class HomepageRecommendationPrecomputer {
+
+  private static final int CELL_BATCH_SIZE = 100;
+
+  private final ConsumerStatsRepository consumerStatsRepository;
+  private final RecommendationCandidateGenerator recommendationCandidateGenerator;
+  private final RecommendationService recommendationService;
+  private final RecommendationResultCache recommendationResultCache;
+  private final int topK;
+  private final int activeDays;
+  private final int maxConsumers;
+  private final long ttlSeconds;
+  private final ExecutorService executor;
+
+  private final Timer duration;
+  private final Counter precomputed;
+  private final Counter failed;
+
+  public HomepageRecommendationPrecomputer(
+      ConsumerStatsRepository consumerStatsRepository,
+      RecommendationCandidateGenerator recommendationCandidateGenerator,
+      RecommendationService recommendationService,
+      RecommendationResultCache recommendationResultCache,
+      @Value("${recommendation.precompute.top-k:5}") int topK,
+      @Value("${recommendation.precompute.active-days:7}") int activeDays,
+      @Value("${recommendation.precompute.max-consumers:2000}") int maxConsumers,
+      @Value("${recommendation.precompute.ttl-seconds:1200}") long ttlSeconds,
+      @Value("${recommendation.precompute.threads:4}") int threads,
+      MeterRegistry meterRegistry) {
+    this.consumerStatsRepository = consumerStatsRepository;
+    this.recommendationCandidateGenerator = recommendationCandidateGenerator;
+    this.recommendationService = recommendationService;
+    this.recommendationResultCache = recommendationResultCache;
+    this.topK = topK;
+    this.activeDays = activeDays;
+    this.maxConsumers = maxConsumers;
+    this.ttlSeconds = ttlSeconds;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            task -> {
+              Thread thread =
+                  new Thread(task, "recommendation-precompute-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    this.duration =
+        Timer.builder("recommendation.precompute.duration")
+            .description("Time to precompute the homepage of all active consumers")
+            .register(meterRegistry);
+    this.precomputed = consumerCounter("ok", meterRegistry);
+    this.failed = consumerCounter("failed", meterRegistry);
+  }
+
+  @Scheduled(cron = "${recommendation.precompute.cron:0 */15 * * * *}")
+  public void run() {
+    duration.record(this::precomputeAll);
+  }
+
+  /** Precomputes every active consumer, returning once all cells are done. */
+  void precomputeAll() {
+    List<Object[]> rows =
+        consumerStatsRepository.findActiveConsumerLocations(
+            LocalDateTime.now().minusDays(activeDays), PageRequest.of(0, maxConsumers));
+    Map<String, List<ConsumerLocation>> byCell = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      ConsumerLocation consumer =
+          new ConsumerLocation(
+              (Long) row[0],
+              ((BigDecimal) row[1]).doubleValue(),
+              ((BigDecimal) row[2]).doubleValue());
+      byCell
+          .computeIfAbsent(
+              recommendationResultCache.cell(consumer.lat, consumer.lng), c -> new ArrayList<>())
+          .add(consumer);
+    }
+
+    List<Future<?>> batches = new ArrayList<>();
+    for (List<ConsumerLocation> consumers : byCell.values()) {
+      // candidates come from the middle of the cell's consumers
+      double lat = 0;
+      double lng = 0;
+      for (ConsumerLocation consumer : consumers) {
+        lat += consumer.lat / consumers.size();
+        lng += consumer.lng / consumers.size();
+      }
+      double cellLat = lat;
+      double cellLng = lng;
+      // a crowded cell is split so it does not hold up the pool on one thread
+      for (int from = 0; from < consumers.size(); from += CELL_BATCH_SIZE) {
+        List<ConsumerLocation> batch =
+            consumers.subList(from, Math.min(from + CELL_BATCH_SIZE, consumers.size()));
+        batches.add(executor.submit(() -> precomputeBatch(batch, cellLat, cellLng)));
+      }
+    }
+    for (Future<?> batch : batches) {
+      try {
+        batch.get();
+      } catch (ExecutionException e) {
+        log.warn("Homepage precompute batch failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        batches.forEach(b -> b.cancel(true));
+        return;
+      }
+    }
+  }
+
+  private void precomputeBatch(List<ConsumerLocation> consumers, double lat, double lng) {
+    long generation = -1;
+    List<Long> candidateIds = List.of();
+    for (ConsumerLocation consumer : consumers) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      try {
+        if (generation < 0
+            || recommendationResultCache.changedSince(candidateIds, generation)) {
+          generation = recommendationResultCache.generation();
+          candidateIds = recommendationCandidateGenerator.generate(lat, lng);
+        }
+        List<Long> candidates = candidateIds;
+        recommendationResultCache.put(
+            consumer.consumerId,
+            topK,
+            consumer.lat,
+            consumer.lng,
+            ttlSeconds,
+            generation,
+            () ->
+                recommendationService.rankForHomepage(
+                    consumer.consumerId, topK, consumer.lat, consumer.lng, candidates));
+        precomputed.increment();
+      } catch (RuntimeException e) {
+        failed.increment();
+        log.warn("Homepage precompute failed for consumer {}", consumer.consumerId, e);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static Counter consumerCounter(String result, MeterRegistry meterRegistry) {
+    return Counter.builder("recommendation.precompute.consumers")
+        .description("Consumers whose homepage was precomputed")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  @RequiredArgsConstructor
+  private static final class ConsumerLocation {
+    private final Long consumerId;
+    private final double lat;
+    private final double lng;
+  }
+}
@@ -1,6 +1,7 @@
 package com.frh.backend.service;
 
 import com.frh.backend.dto.UserInteractionRequest;
+import com.frh.backend.event.ListingStatsChangedEvent;
 import com.frh.backend.model.ConsumerProfile;
 import com.frh.backend.model.ConsumerStats;
 import com.frh.backend.model.Listing;
@@ -12,6 +13,7 @@ import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.ListingStatsRepository;
 import com.frh.backend.repository.UserInteractionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class InteractionService {
   private final ListingRepository listingRepository;
   private final ListingStatsRepository listingStatsRepository;
   private final ConsumerStatsRepository consumerStatsRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /** Record a user interaction (VIEW, CLICK, etc.) */
   @Transactional
@@ -99,6 +102,7 @@ public class InteractionService {
       }
 
       listingStatsRepository.save(listingStats);
+      eventPublisher.publishEvent(new ListingStatsChangedEvent(listingId));
 
       // Update consumer stats
       ConsumerStats consumerStats =
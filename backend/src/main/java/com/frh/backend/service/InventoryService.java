@@ -1,9 +1,11 @@
 package com.frh.backend.service;
 
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.exception.InsufficientStockException;
 import com.frh.backend.model.Inventory;
 import com.frh.backend.repository.InventoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +14,8 @@ public class InventoryService {
 
   @Autowired private InventoryRepository inventoryRepository;
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   // Read-only stock check (no lock)
   /**
    * Returns {@code true} when the listing has at least {@code qty} units. Called early in
@@ -50,7 +54,9 @@ public class InventoryService {
     }
 
     inv.setQtyAvailable(inv.getQtyAvailable() - qty);
-    return inventoryRepository.save(inv);
+    Inventory saved = inventoryRepository.save(inv);
+    eventPublisher.publishEvent(new ListingChangedEvent(listingId));
+    return saved;
   }
 
   // Locked restore (called on REJECT or CANCEL after an ACCEPT)
@@ -67,7 +73,9 @@ public class InventoryService {
                 () -> new RuntimeException("Inventory not found for listing " + listingId));
 
     inv.setQtyAvailable(inv.getQtyAvailable() + qty);
-    return inventoryRepository.save(inv);
+    Inventory saved = inventoryRepository.save(inv);
+    eventPublisher.publishEvent(new ListingChangedEvent(listingId));
+    return saved;
   }
 
   // supplier restocks or removes spoiled
@@ -95,7 +103,9 @@ public class InventoryService {
     }
 
     inv.setQtyAvailable(newQty);
-    return inventoryRepository.save(inv);
+    Inventory saved = inventoryRepository.save(inv);
+    eventPublisher.publishEvent(new ListingChangedEvent(listingId));
+    return saved;
   }
 
   @Transactional(readOnly = true)
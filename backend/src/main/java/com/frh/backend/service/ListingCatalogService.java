@@ -0,0 +1,173 @@
+package com.frh.backend.service;
+
+import com.frh.backend.dto.ListingDTO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Getter;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory snapshot of every active, in-stock listing shown on the consumer homepage.
+ *
+ * <p>Readers call {@link #current()} and get an immutable {@link Snapshot} without any locking.
+ * Writers build a new snapshot (copy-on-write) and swap it in atomically, so a reader never sees a
+ * half-applied change. The snapshot is empty ({@code null}) until the first full build.
+ *
+ * <p>Single-listing changes are counted ({@link #changeCount()}), so a full rebuild can tell which
+ * listings changed after it read the database and keep their current state instead.
+ */
+@Service
+public class ListingCatalogService {
+
+  /** Same order as {@code findAllActiveListingRows}: newest first. */
+  static final Comparator<ListingDTO> NEWEST_FIRST =
+      Comparator.comparing(
+              ListingDTO::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+          .thenComparing(ListingDTO::getListingId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+  // guarded by this: listing ID -> change count of its last single-listing change
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long changes;
+  private long rebuiltSince = -1;
+
+  /** Returns the current snapshot, or {@code null} if the catalog has not been built yet. */
+  public Snapshot current() {
+    return current.get();
+  }
+
+  /** Number of single-listing changes so far; read it before loading a full rebuild. */
+  public synchronized long changeCount() {
+    return changes;
+  }
+
+  /**
+   * Replaces the catalog with {@code listings}, read from the database when {@link #changeCount()}
+   * was {@code since}. Listings changed after that keep their current state (or absence), and a
+   * rebuild read before the last applied one is dropped as older.
+   */
+  public synchronized Snapshot replaceAll(List<ListingDTO> listings, long since) {
+    if (since < rebuiltSince) {
+      return current.get();
+    }
+    rebuiltSince = since;
+    Snapshot previous = current.get();
+    Map<Long, ListingDTO> next = new LinkedHashMap<>();
+    for (ListingDTO listing : listings) {
+      if (!changedSince(listing.getListingId(), since)) {
+        next.put(listing.getListingId(), listing);
+      }
+    }
+    for (Map.Entry<Long, Long> changed : changedAt.entrySet()) {
+      ListingDTO kept = previous != null ? previous.get(changed.getKey()) : null;
+      if (changed.getValue() > since && kept != null) {
+        next.put(changed.getKey(), kept);
+      }
+    }
+    changedAt.values().removeIf(changed -> changed <= since);
+    return replaceAll(new ArrayList<>(next.values()));
+  }
+
+  /** Replaces the whole catalog, e.g. after a full reload from the database. */
+  public synchronized Snapshot replaceAll(List<ListingDTO> listings) {
+    Snapshot previous = current.get();
+    Snapshot next = new Snapshot(nextVersion(previous), listings);
+    current.set(next);
+    return next;
+  }
+
+  /**
+   * Inserts or replaces a single listing. Ignored until the catalog has been built once, because
+   * the first full build will pick the listing up anyway.
+   */
+  public synchronized void upsert(ListingDTO listing) {
+    Snapshot previous = current.get();
+    if (previous == null || listing == null || listing.getListingId() == null) {
+      return;
+    }
+    changedAt.put(listing.getListingId(), ++changes);
+    Map<Long, ListingDTO> next = new LinkedHashMap<>(previous.byId);
+    next.put(listing.getListingId(), listing);
+    current.set(new Snapshot(previous.version + 1, new ArrayList<>(next.values())));
+  }
+
+  /** Drops a listing (sold out, deactivated or deleted). */
+  public synchronized void remove(Long listingId) {
+    Snapshot previous = current.get();
+    if (previous == null) {
+      return;
+    }
+    // recorded even when absent, so a rebuild that read it before the change does not add it
+    changedAt.put(listingId, ++changes);
+    if (!previous.byId.containsKey(listingId)) {
+      return;
+    }
+    Map<Long, ListingDTO> next = new LinkedHashMap<>(previous.byId);
+    next.remove(listingId);
+    current.set(new Snapshot(previous.version + 1, new ArrayList<>(next.values())));
+  }
+
+  /** Drops several listings at once with a single version bump (e.g. an expiry batch). */
+  public synchronized void removeAll(Collection<Long> listingIds) {
+    Snapshot previous = current.get();
+    if (previous == null || listingIds.isEmpty()) {
+      return;
+    }
+    changes++;
+    for (Long listingId : listingIds) {
+      changedAt.put(listingId, changes);
+    }
+    Map<Long, ListingDTO> next = new LinkedHashMap<>(previous.byId);
+    if (!next.keySet().removeAll(listingIds)) {
+      return;
+    }
+    current.set(new Snapshot(previous.version + 1, new ArrayList<>(next.values())));
+  }
+
+  private boolean changedSince(Long listingId, long since) {
+    Long changed = changedAt.get(listingId);
+    return changed != null && changed > since;
+  }
+
+  private long nextVersion(Snapshot previous) {
+    return previous == null ? 1L : previous.version + 1;
+  }
+
+  /** Immutable view of the catalog at one point in time. Treat the DTOs as read-only. */
+  @Getter
+  public static final class Snapshot {
+
+    private final long version;
+    private final List<ListingDTO> listings;
+    private final Map<Long, ListingDTO> byId;
+
+    Snapshot(long version, List<ListingDTO> listings) {
+      List<ListingDTO> sorted = new ArrayList<>(listings);
+      sorted.sort(NEWEST_FIRST);
+      Map<Long, ListingDTO> index = new LinkedHashMap<>();
+      for (ListingDTO dto : sorted) {
+        index.put(dto.getListingId(), dto);
+      }
+      this.version = version;
+      this.listings = Collections.unmodifiableList(sorted);
+      this.byId = Collections.unmodifiableMap(index);
+    }
+
+    public ListingDTO get(Long listingId) {
+      return byId.get(listingId);
+    }
+
+    public int size() {
+      return listings.size();
+    }
+  }
+}
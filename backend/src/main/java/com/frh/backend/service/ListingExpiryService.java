@@ -0,0 +1,223 @@
+package com.frh.backend.service;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Flips {@code ACTIVE} listings to {@code EXPIRED} once their {@code expiryAt} or {@code pickupEnd}
+ * (whichever comes first) has passed, so read paths filtering on {@code ACTIVE} only see live rows.
+ *
+ * <p>Upcoming deadlines sit in a min-heap; a sweep only looks at the head of the heap, so an idle
+ * tick costs O(1). Due listings are expired with batched UPDATEs and announced with one {@link
+ * ListingsExpiredEvent} per sweep; a transaction is only opened when something is due. A
+ * rescheduled listing leaves its old heap entry behind; entries that no longer match the listing's
+ * current deadline are skipped when polled. The heap is rebuilt from the database periodically as a
+ * safety net, keeping the deadlines an event updated while it was reading.
+ */
+@Slf4j
+@Service
+public class ListingExpiryService {
+
+  static final int BATCH_SIZE = 500;
+
+  private final ListingRepository listingRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transaction;
+
+  // all fields below are guarded by this
+  private final PriorityQueue<Deadline> queue =
+      new PriorityQueue<>(Comparator.comparing((Deadline d) -> d.at));
+  // listing ID -> current deadline; heap entries not matching this are stale
+  private final Map<Long, LocalDateTime> deadlines = new HashMap<>();
+  // listing ID -> change count of its last update by an event, pruned by reload
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long changes;
+  private long rebuiltSince = -1;
+
+  private volatile boolean loaded;
+
+  public ListingExpiryService(
+      ListingRepository listingRepository,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager) {
+    this.listingRepository = listingRepository;
+    this.eventPublisher = eventPublisher;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @Scheduled(fixedDelayString = "${listing.expiry.sweep-interval-ms:1000}")
+  public void sweep() {
+    expireDue(LocalDateTime.now());
+  }
+
+  /** Rebuild the heap from the database, picking up anything changed outside the application. */
+  @Scheduled(
+      initialDelayString = "${listing.expiry.reload-interval-ms:600000}",
+      fixedDelayString = "${listing.expiry.reload-interval-ms:600000}")
+  @Transactional(readOnly = true)
+  public void reload() {
+    long since;
+    synchronized (this) {
+      since = changes;
+    }
+    List<Object[]> rows = listingRepository.findActiveExpiryDeadlines();
+    synchronized (this) {
+      if (since < rebuiltSince) {
+        return; // a reload that read later was already applied
+      }
+      rebuiltSince = since;
+      // listings updated by an event since the read keep the deadline the event wrote
+      Map<Long, LocalDateTime> kept = new HashMap<>();
+      for (Map.Entry<Long, Long> changed : changedAt.entrySet()) {
+        LocalDateTime at = deadlines.get(changed.getKey());
+        if (changed.getValue() > since && at != null) {
+          kept.put(changed.getKey(), at);
+        }
+      }
+      queue.clear();
+      deadlines.clear();
+      for (Object[] row : rows) {
+        if (!changedSince((Long) row[0], since)) {
+          track((Long) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+        }
+      }
+      kept.forEach((listingId, at) -> track(listingId, at, null));
+      changedAt.values().removeIf(changed -> changed <= since);
+      loaded = true;
+    }
+  }
+
+  /** Re-read the deadline of a changed listing once its transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (!loaded) {
+      return; // the first load reads every deadline anyway
+    }
+    List<Object[]> rows =
+        listingRepository.findActiveExpiryDeadlinesByIdIn(List.of(event.getListingId()));
+    synchronized (this) {
+      changedAt.put(event.getListingId(), ++changes);
+      if (rows.isEmpty()) {
+        deadlines.remove(event.getListingId());
+      } else {
+        Object[] row = rows.get(0);
+        track((Long) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+      }
+    }
+  }
+
+  /** Expire every listing due at {@code now}; returns the IDs that were actually expired. */
+  List<Long> expireDue(LocalDateTime now) {
+    if (!loaded) {
+      reload();
+    }
+    List<Long> due = pollDue(now);
+    if (due.isEmpty()) {
+      return due;
+    }
+
+    List<Long> expired = new ArrayList<>();
+    try {
+      transaction.executeWithoutResult(
+          status -> {
+            for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+              List<Long> batch = due.subList(from, Math.min(due.size(), from + BATCH_SIZE));
+              if (listingRepository.expireListings(batch, now) > 0) {
+                expired.addAll(listingRepository.findExpiredListingIdsByIdIn(batch));
+              }
+            }
+          });
+    } catch (RuntimeException e) {
+      requeue(due, now);
+      throw e;
+    }
+
+    if (!expired.isEmpty()) {
+      log.debug("Expired {} listings", expired.size());
+      eventPublisher.publishEvent(new ListingsExpiredEvent(expired));
+    }
+    return expired;
+  }
+
+  /** Number of listings with a pending deadline. */
+  synchronized int pendingCount() {
+    return deadlines.size();
+  }
+
+  private synchronized List<Long> pollDue(LocalDateTime now) {
+    List<Long> due = new ArrayList<>();
+    while (!queue.isEmpty() && !queue.peek().at.isAfter(now)) {
+      Deadline head = queue.poll();
+      if (head.at.equals(deadlines.get(head.listingId))) {
+        deadlines.remove(head.listingId);
+        due.add(head.listingId);
+      }
+    }
+    return due;
+  }
+
+  // callers hold the monitor
+  private boolean changedSince(Long listingId, long since) {
+    Long changed = changedAt.get(listingId);
+    return changed != null && changed > since;
+  }
+
+  private synchronized void requeue(Collection<Long> listingIds, LocalDateTime at) {
+    for (Long listingId : listingIds) {
+      deadlines.putIfAbsent(listingId, at);
+      queue.add(new Deadline(deadlines.get(listingId), listingId));
+    }
+  }
+
+  // callers hold the monitor
+  private void track(Long listingId, LocalDateTime expiryAt, LocalDateTime pickupEnd) {
+    LocalDateTime at = earliest(expiryAt, pickupEnd);
+    if (at == null) {
+      deadlines.remove(listingId);
+      return;
+    }
+    if (!at.equals(deadlines.put(listingId, at))) {
+      queue.add(new Deadline(at, listingId));
+    }
+  }
+
+  private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    return a.isBefore(b) ? a : b;
+  }
+
+  private static final class Deadline {
+
+    private final LocalDateTime at;
+    private final Long listingId;
+
+    private Deadline(LocalDateTime at, Long listingId) {
+      this.at = at;
+      this.listingId = listingId;
+    }
+  }
+}
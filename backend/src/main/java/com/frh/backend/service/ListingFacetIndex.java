@@ -0,0 +1,323 @@
+package com.frh.backend.service;
+
+import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.util.TopK;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bitmap index over the catalog snapshot for combined filters (store type, dietary tag, food
+ * category, price, discount and pickup window).
+ *
+ * <p>Every listing gets a dense ordinal, and every facet value keeps a {@link BitSet} of the
+ * ordinals carrying it. Values of one facet are ORed, facets are ANDed, and facet counts are the
+ * cardinalities of those intersections, so a filter never walks the listings themselves. Ordinals
+ * freed by removed listings are reused to keep the bitmaps dense. {@link ListingService} keeps the
+ * index in step with {@link ListingCatalogService}.
+ */
+@Service
+public class ListingFacetIndex {
+
+  /** The filterable facets; {@link #getParam()} is the request parameter and response key. */
+  public enum Facet {
+    STORE_TYPE("storeType"),
+    DIETARY("dietary"),
+    CATEGORY("category"),
+    PRICE("price"),
+    DISCOUNT("discount"),
+    PICKUP("pickup");
+
+    private final String param;
+
+    Facet(String param) {
+      this.param = param;
+    }
+
+    public String getParam() {
+      return param;
+    }
+  }
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // all fields below are guarded by lock
+  private final List<ListingDTO> listings = new ArrayList<>(); // ordinal -> listing
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final BitSet live = new BitSet();
+  // facet -> value (case-insensitive) -> ordinals
+  private final Map<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+  private boolean loaded;
+
+  public ListingFacetIndex() {
+    for (Facet facet : Facet.values()) {
+      bitmaps.put(facet, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+    }
+  }
+
+  public boolean isLoaded() {
+    lock.readLock().lock();
+    try {
+      return loaded;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Listings matching {@code selected}, newest first, with counts for every facet value. Facets
+   * missing from {@code selected} or with no values do not filter.
+   */
+  public ListingFacetResultDTO filter(Map<Facet, ? extends Collection<String>> selected) {
+    return filter(selected, ListingCatalogService.NEWEST_FIRST, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Like {@link #filter(Map)}, but only the first {@code limit} matches under {@code order} are
+   * returned; {@code total} still counts every match.
+   */
+  public ListingFacetResultDTO filter(
+      Map<Facet, ? extends Collection<String>> selected,
+      Comparator<ListingDTO> order,
+      int limit) {
+    lock.readLock().lock();
+    try {
+      Map<Facet, BitSet> masks = new EnumMap<>(Facet.class);
+      for (Map.Entry<Facet, ? extends Collection<String>> e : selected.entrySet()) {
+        if (e.getValue() != null && !e.getValue().isEmpty()) {
+          masks.put(e.getKey(), union(e.getKey(), e.getValue()));
+        }
+      }
+      BitSet matches = intersect(masks, null);
+
+      List<ListingDTO> matched = new ArrayList<>(matches.cardinality());
+      for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+        matched.add(listings.get(i));
+      }
+      List<ListingDTO> result = TopK.of(matched, limit, order);
+
+      Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+      for (Facet facet : Facet.values()) {
+        // A facet's own selection does not narrow its counts
+        BitSet base = masks.containsKey(facet) ? intersect(masks, facet) : matches;
+        Map<String, Integer> valueCounts = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> e : bitmaps.get(facet).entrySet()) {
+          BitSet both = (BitSet) e.getValue().clone();
+          both.and(base);
+          valueCounts.put(e.getKey(), both.cardinality());
+        }
+        counts.put(facet.getParam(), valueCounts);
+      }
+      return new ListingFacetResultDTO(result, matched.size(), counts);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Re-indexes the whole catalog. */
+  public void replaceAll(Collection<ListingDTO> catalog) {
+    lock.writeLock().lock();
+    try {
+      listings.clear();
+      ordinals.clear();
+      live.clear();
+      bitmaps.values().forEach(Map::clear);
+      for (ListingDTO listing : catalog) {
+        put(listing);
+      }
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Inserts or re-indexes one listing; ignored until the first {@link #replaceAll}. */
+  public void upsert(ListingDTO listing) {
+    if (listing == null || listing.getListingId() == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (loaded) {
+        put(listing);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long listingId) {
+    removeAll(List.of(listingId));
+  }
+
+  public void removeAll(Collection<Long> listingIds) {
+    lock.writeLock().lock();
+    try {
+      listingIds.forEach(this::clear);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Number of indexed listings. */
+  int size() {
+    lock.readLock().lock();
+    try {
+      return live.cardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // callers hold the write lock
+  private void put(ListingDTO listing) {
+    clear(listing.getListingId());
+    int ordinal = live.nextClearBit(0);
+    if (ordinal == listings.size()) {
+      listings.add(listing);
+    } else {
+      listings.set(ordinal, listing);
+    }
+    live.set(ordinal);
+    ordinals.put(listing.getListingId(), ordinal);
+    for (Facet facet : Facet.values()) {
+      for (String value : valuesOf(facet, listing)) {
+        bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+      }
+    }
+  }
+
+  // callers hold the write lock; the stored DTO tells which bitmaps the ordinal is in
+  private void clear(Long listingId) {
+    Integer ordinal = ordinals.remove(listingId);
+    if (ordinal == null) {
+      return;
+    }
+    ListingDTO old = listings.get(ordinal);
+    for (Facet facet : Facet.values()) {
+      Map<String, BitSet> values = bitmaps.get(facet);
+      for (String value : valuesOf(facet, old)) {
+        BitSet bits = values.get(value);
+        if (bits != null) {
+          bits.clear(ordinal);
+          if (bits.isEmpty()) {
+            values.remove(value);
+          }
+        }
+      }
+    }
+    listings.set(ordinal, null);
+    live.clear(ordinal);
+  }
+
+  // callers hold the lock
+  private BitSet union(Facet facet, Collection<String> values) {
+    BitSet bits = new BitSet();
+    for (String value : values) {
+      BitSet valueBits = value == null ? null : bitmaps.get(facet).get(value.trim());
+      if (valueBits != null) {
+        bits.or(valueBits);
+      }
+    }
+    return bits;
+  }
+
+  /** Live ordinals passing every mask except the one of {@code skip}. */
+  private BitSet intersect(Map<Facet, BitSet> masks, Facet skip) {
+    BitSet bits = (BitSet) live.clone();
+    for (Map.Entry<Facet, BitSet> e : masks.entrySet()) {
+      if (e.getKey() != skip) {
+        bits.and(e.getValue());
+      }
+    }
+    return bits;
+  }
+
+  /** Facet values of a listing; price, discount and pickup are bucketed. */
+  static List<String> valuesOf(Facet facet, ListingDTO listing) {
+    List<String> values = new ArrayList<>();
+    switch (facet) {
+      case STORE_TYPE -> addIfPresent(values, listing.getCategory());
+      case DIETARY -> addAll(values, listing.getDietaryTags());
+      case CATEGORY -> addAll(values, listing.getCategoryNames());
+      case PRICE -> addIfPresent(values, priceBucket(listing.getRescuePrice()));
+      case DISCOUNT ->
+          addIfPresent(
+              values, discountBucket(listing.getOriginalPrice(), listing.getRescuePrice()));
+      case PICKUP -> {
+        LocalDateTime at =
+            listing.getPickupStart() != null ? listing.getPickupStart() : listing.getPickupEnd();
+        addIfPresent(values, at == null ? null : pickupBucket(at.getHour()));
+      }
+    }
+    return values;
+  }
+
+  static String priceBucket(BigDecimal price) {
+    if (price == null) {
+      return null;
+    }
+    if (price.compareTo(BigDecimal.valueOf(5)) < 0) {
+      return "under-5";
+    }
+    if (price.compareTo(BigDecimal.TEN) < 0) {
+      return "5-10";
+    }
+    return price.compareTo(BigDecimal.valueOf(20)) < 0 ? "10-20" : "over-20";
+  }
+
+  static String discountBucket(BigDecimal originalPrice, BigDecimal rescuePrice) {
+    if (originalPrice == null || rescuePrice == null || originalPrice.signum() <= 0) {
+      return null;
+    }
+    int percent =
+        originalPrice
+            .subtract(rescuePrice)
+            .multiply(BigDecimal.valueOf(100))
+            .divide(originalPrice, 0, RoundingMode.FLOOR)
+            .intValue();
+    if (percent < 25) {
+      return "under-25";
+    }
+    if (percent < 50) {
+      return "25-50";
+    }
+    return percent < 75 ? "50-75" : "over-75";
+  }
+
+  // by time of day, so the bucket of a listing does not change as the clock moves
+  static String pickupBucket(int hour) {
+    if (hour >= 5 && hour < 12) {
+      return "morning";
+    }
+    if (hour >= 12 && hour < 17) {
+      return "afternoon";
+    }
+    return hour >= 17 && hour < 21 ? "evening" : "night";
+  }
+
+  private static void addAll(List<String> values, List<String> source) {
+    if (source != null) {
+      source.forEach(value -> addIfPresent(values, value));
+    }
+  }
+
+  private static void addIfPresent(List<String> values, String value) {
+    if (value != null && !value.isBlank()) {
+      values.add(value.trim());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.frh.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Getter;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serialized UTF-8 JSON of the listing catalog, kept per catalog snapshot version.
+ *
+ * <p>The catalog version changes on every listing or inventory change (see {@link
+ * ListingService#onListingChanged}), so a cached entry is reused until the next change and then
+ * rebuilt once on the following read. The ETag is derived from the bytes, so it stays valid across
+ * restarts even though versions start again from 1.
+ */
+@Service
+public class ListingJsonCache {
+
+  private final ObjectMapper objectMapper;
+  private final RequestCoalescer requestCoalescer;
+  private final AtomicReference<Entry> current = new AtomicReference<>();
+
+  public ListingJsonCache(ObjectMapper objectMapper, RequestCoalescer requestCoalescer) {
+    this.objectMapper = objectMapper;
+    this.requestCoalescer = requestCoalescer;
+  }
+
+  /** JSON array of {@code snapshot.getListings()}, serialized at most once per version. */
+  public Entry get(ListingCatalogService.Snapshot snapshot) {
+    Entry cached = current.get();
+    if (cached != null && cached.version == snapshot.getVersion()) {
+      return cached;
+    }
+    // Readers arriving together after a change share one serialization
+    Entry fresh =
+        requestCoalescer.coalesce(
+            "listings.json", snapshot.getVersion(), () -> serialize(snapshot));
+    // Keep whichever is newer if two readers raced on different versions
+    current.accumulateAndGet(
+        fresh, (prev, next) -> prev != null && prev.version > next.version ? prev : next);
+    return fresh;
+  }
+
+  private Entry serialize(ListingCatalogService.Snapshot snapshot) {
+    try {
+      byte[] body = objectMapper.writeValueAsBytes(snapshot.getListings());
+      return new Entry(snapshot.getVersion(), body, strongEtag(body));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize listing catalog", e);
+    }
+  }
+
+  private static String strongEtag(byte[] body) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+      return "\""
+          + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16))
+          + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /** Immutable serialized catalog. Do not modify {@link #getBody()}. */
+  @Getter
+  public static final class Entry {
+
+    private final long version;
+    private final byte[] body;
+    private final String etag;
+
+    public Entry(long version, byte[] body, String etag) {
+      this.version = version;
+      this.body = body;
+      this.etag = etag;
+    }
+  }
+}
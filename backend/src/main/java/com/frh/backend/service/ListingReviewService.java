@@ -2,11 +2,15 @@ package com.frh.backend.service;
 
 import com.frh.backend.dto.CreateListingReviewRequest;
 import com.frh.backend.dto.ListingReviewResponse;
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.model.Listing;
 import com.frh.backend.model.ListingReview;
+import com.frh.backend.model.ListingReviewStats;
 import com.frh.backend.model.Order;
 import com.frh.backend.model.StoreStats;
+import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.ListingReviewRepository;
+import com.frh.backend.repository.ListingReviewStatsRepository;
 import com.frh.backend.repository.OrderRepository;
 import com.frh.backend.repository.StoreStatsRepository;
 import java.math.BigDecimal;
@@ -15,6 +19,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +36,9 @@ public class ListingReviewService {
   private final ListingReviewRepository listingReviewRepository;
   private final OrderRepository orderRepository;
   private final StoreStatsRepository storeStatsRepository;
+  private final ListingReviewStatsRepository listingReviewStatsRepository;
+  private final ListingRepository listingRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Transactional
   public ListingReviewResponse createReview(Long consumerId, CreateListingReviewRequest request) {
@@ -106,8 +116,21 @@ public class ListingReviewService {
 
     ListingReview saved = listingReviewRepository.save(review);
 
+    // Fold the new review into the listing's running totals; the first review creates the row
+    listingReviewStatsRepository.insertIfAbsent(listing.getListingId());
+    ListingReviewStats stats =
+        listingReviewStatsRepository
+            .findByListingIdForUpdate(listing.getListingId())
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "No review stats for listing " + listing.getListingId()));
+    stats.addReview(saved);
+    listingReviewStatsRepository.save(stats);
+
     // Update store stats with new rating
     updateStoreStats(listing.getStore().getStoreId());
+    eventPublisher.publishEvent(new ListingChangedEvent(listing.getListingId()));
 
     return toResponse(saved);
   }
@@ -149,6 +172,34 @@ public class ListingReviewService {
     }
 
     listingReviewRepository.delete(review);
+
+    Long listingId = review.getListing().getListingId();
+    listingReviewStatsRepository
+        .findByListingIdForUpdate(listingId)
+        .ifPresent(
+            stats -> {
+              stats.removeReview(review);
+              listingReviewStatsRepository.save(stats);
+            });
+    eventPublisher.publishEvent(new ListingChangedEvent(listingId));
+  }
+
+  /**
+   * Create listing_review_stats rows for listings whose reviews predate the aggregate table. Runs
+   * once at startup; listings that already have a row are maintained incrementally.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void backfillReviewStats() {
+    for (Object[] row : listingReviewRepository.aggregateReviewsWithoutStats()) {
+      ListingReviewStats stats = new ListingReviewStats();
+      stats.setListing(listingRepository.getReferenceById((Long) row[0]));
+      stats.setReviewCount(((Number) row[1]).intValue());
+      stats.setListingAccuracySum(((Number) row[2]).intValue());
+      stats.setOnTimePickupSum(((Number) row[3]).intValue());
+      stats.setStoreRatingSum(((Number) row[4]).intValue());
+      listingReviewStatsRepository.save(stats);
+    }
   }
 
   private ListingReviewResponse toResponse(ListingReview review) {
@@ -0,0 +1,361 @@
+package com.frh.backend.service;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.util.SearchText;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Inverted index over the title and description of every {@code ACTIVE} listing, so keyword
+ * search resolves matching IDs from posting lists instead of scanning the whole catalog.
+ *
+ * <p>Every word is indexed under its {@link SearchText#forms} (itself and its singular) in a sorted
+ * map, and every form of a query word is matched as a prefix ("bre" finds "bread" and
+ * "breakfast", "cookie" finds "cookies" and the other way round). All query words must match. The
+ * index is loaded on first use, follows {@link ListingChangedEvent} and {@link
+ * ListingsExpiredEvent}, and is rebuilt periodically as a safety net. A rebuild fills a new index
+ * and swaps it in, so searches never see a half-built one; listings an event updated while it was
+ * reading keep what the event wrote.
+ *
+ * <p>{@link #fuzzySearch} tolerates typos ("croisant", "sandwhich"). Words from titles and store
+ * names form a vocabulary with a trigram index on top; a misspelled word is resolved to its most
+ * similar vocabulary words first, so the cost depends on the vocabulary, not the catalog size.
+ */
+@Service
+public class ListingSearchIndex {
+
+  /** Minimum trigram similarity (Jaccard) for a vocabulary word to count as a typo match. */
+  static final double MIN_SIMILARITY = 0.3;
+  /** Most similar vocabulary words kept per query word. */
+  static final int MAX_WORDS_PER_QUERY_WORD = 10;
+  /** Upper bound on fuzzy results handed to the ranker. */
+  static final int MAX_FUZZY_RESULTS = 100;
+
+  private final ListingRepository listingRepository;
+
+  // updated in place by events under the monitor, replaced whole by reload
+  private volatile Index index = new Index();
+  // guarded by this: listing ID -> change count of its last update by an event, pruned by reload
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long changes;
+  private long rebuiltSince = -1;
+  private volatile boolean loaded;
+
+  public ListingSearchIndex(ListingRepository listingRepository) {
+    this.listingRepository = listingRepository;
+  }
+
+  /** IDs of active listings matching every word of {@code query}, in ascending order. */
+  public List<Long> search(String query) {
+    List<String> words = SearchText.tokenize(query);
+    if (words.isEmpty()) {
+      return new ArrayList<>();
+    }
+    ensureLoaded();
+    Index current = index;
+
+    Set<Long> result = null;
+    for (String word : new HashSet<>(words)) {
+      Set<Long> matches = new HashSet<>();
+      for (String form : SearchText.forms(word)) {
+        for (Set<Long> ids : current.withPrefix(form).values()) {
+          matches.addAll(ids);
+        }
+      }
+      if (result == null) {
+        result = matches;
+      } else {
+        result.retainAll(matches);
+      }
+      if (result.isEmpty()) {
+        return new ArrayList<>();
+      }
+    }
+    List<Long> sorted = new ArrayList<>(result);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Typo-tolerant variant of {@link #search} over titles and store names. Every query word must
+   * resemble a word of the listing. Results are ordered by summed similarity, best first, and
+   * capped at {@link #MAX_FUZZY_RESULTS}.
+   */
+  public List<Long> fuzzySearch(String query) {
+    List<String> words = SearchText.tokenize(query);
+    if (words.isEmpty()) {
+      return new ArrayList<>();
+    }
+    ensureLoaded();
+    Index current = index;
+
+    Map<Long, Double> scores = null;
+    for (String word : new HashSet<>(words)) {
+      Map<Long, Double> best = new HashMap<>();
+      for (Map.Entry<String, Double> similar : similarWords(current, word).entrySet()) {
+        Set<Long> ids = current.vocabulary.get(similar.getKey());
+        if (ids != null) {
+          for (Long id : ids) {
+            best.merge(id, similar.getValue(), Math::max);
+          }
+        }
+      }
+      if (scores == null) {
+        scores = best;
+      } else {
+        scores.keySet().retainAll(best.keySet());
+        scores.replaceAll((id, score) -> score + best.get(id));
+      }
+      if (scores.isEmpty()) {
+        return new ArrayList<>();
+      }
+    }
+
+    List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+    ranked.sort(
+        Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+    List<Long> result = new ArrayList<>();
+    for (int i = 0; i < ranked.size() && i < MAX_FUZZY_RESULTS; i++) {
+      result.add(ranked.get(i).getKey());
+    }
+    return result;
+  }
+
+  /** Rebuild the index from the database. */
+  @Scheduled(
+      initialDelayString = "${listing.search.reload-interval-ms:600000}",
+      fixedDelayString = "${listing.search.reload-interval-ms:600000}")
+  @Transactional(readOnly = true)
+  public void reload() {
+    long since;
+    synchronized (this) {
+      since = changes;
+    }
+    List<Object[]> rows = listingRepository.findActiveSearchText();
+    Index next = new Index();
+    for (Object[] row : rows) {
+      next.put(row);
+    }
+    synchronized (this) {
+      if (since < rebuiltSince) {
+        return; // a rebuild that read later was already applied
+      }
+      rebuiltSince = since;
+      // listings updated by an event since the read keep what the event wrote
+      for (Map.Entry<Long, Long> changed : changedAt.entrySet()) {
+        if (changed.getValue() > since) {
+          next.copy(changed.getKey(), index);
+        }
+      }
+      changedAt.values().removeIf(changed -> changed <= since);
+      index = next;
+      loaded = true;
+    }
+  }
+
+  /** Re-index a changed listing once its transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (!loaded) {
+      return; // the first load indexes everything
+    }
+    List<Object[]> rows =
+        listingRepository.findActiveSearchTextByIdIn(List.of(event.getListingId()));
+    synchronized (this) {
+      changedAt.put(event.getListingId(), ++changes);
+      if (rows.isEmpty()) {
+        index.remove(event.getListingId());
+      } else {
+        index.put(rows.get(0));
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onListingsExpired(ListingsExpiredEvent event) {
+    changes++;
+    for (Long listingId : event.getListingIds()) {
+      changedAt.put(listingId, changes);
+      index.remove(listingId);
+    }
+  }
+
+  /** Number of distinct terms, for diagnostics and tests. */
+  int termCount() {
+    return index.postings.size();
+  }
+
+  /** Number of distinct words behind {@link #fuzzySearch}, for diagnostics and tests. */
+  int vocabularySize() {
+    return index.vocabulary.size();
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (!loaded) {
+        reload();
+      }
+    }
+  }
+
+  /** Vocabulary words with trigram similarity of at least {@link #MIN_SIMILARITY}, best first. */
+  private static Map<String, Double> similarWords(Index index, String word) {
+    Set<String> queryGrams = trigramsOf(word);
+    Map<String, Integer> shared = new HashMap<>();
+    for (String gram : queryGrams) {
+      Set<String> candidates = index.trigrams.get(gram);
+      if (candidates != null) {
+        for (String candidate : candidates) {
+          shared.merge(candidate, 1, Integer::sum);
+        }
+      }
+    }
+
+    List<Map.Entry<String, Double>> similar = new ArrayList<>();
+    for (Map.Entry<String, Integer> e : shared.entrySet()) {
+      int common = e.getValue();
+      int union = queryGrams.size() + trigramsOf(e.getKey()).size() - common;
+      double similarity = (double) common / union;
+      if (similarity >= MIN_SIMILARITY) {
+        similar.add(Map.entry(e.getKey(), similarity));
+      }
+    }
+    similar.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+
+    Map<String, Double> top = new LinkedHashMap<>();
+    for (int i = 0; i < similar.size() && i < MAX_WORDS_PER_QUERY_WORD; i++) {
+      top.put(similar.get(i).getKey(), similar.get(i).getValue());
+    }
+    return top;
+  }
+
+  /** Trigrams of a word padded like pg_trgm ("  cat "), so short words and word starts count. */
+  static Set<String> trigramsOf(String word) {
+    String padded = "  " + word + " ";
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      grams.add(padded.substring(i, i + 3));
+    }
+    return grams;
+  }
+
+  /** Removes {@code value} under {@code key}; returns true if that emptied and dropped the key. */
+  private static <K, V> boolean removeFromPostings(Map<K, Set<V>> map, K key, V value) {
+    Set<V> values = map.get(key);
+    if (values == null) {
+      return false;
+    }
+    values.remove(value);
+    if (values.isEmpty()) {
+      map.remove(key);
+      return true;
+    }
+    return false;
+  }
+
+  // callers hold the monitor of the service, or own an index nobody reads yet
+  private static final class Index {
+
+    // word form -> listing IDs
+    private final ConcurrentSkipListMap<String, Set<Long>> postings =
+        new ConcurrentSkipListMap<>();
+    // listing ID -> its terms, so an update can remove the old ones
+    private final Map<Long, Set<String>> termsByListing = new ConcurrentHashMap<>();
+
+    // unstemmed title / store name word -> listing IDs
+    private final Map<String, Set<Long>> vocabulary = new ConcurrentHashMap<>();
+    // trigram -> vocabulary words containing it
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> wordsByListing = new ConcurrentHashMap<>();
+
+    private NavigableMap<String, Set<Long>> withPrefix(String prefix) {
+      return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    // row is [listingId, title, description, storeName]
+    private void put(Object[] row) {
+      String title = (String) row[1];
+      String description = (String) row[2];
+      String storeName = row.length > 3 ? (String) row[3] : null;
+
+      Set<String> terms = SearchText.terms(title);
+      terms.addAll(SearchText.terms(description));
+      Set<String> words = new HashSet<>(SearchText.tokenize(title));
+      words.addAll(SearchText.tokenize(storeName));
+      add((Long) row[0], terms, words);
+    }
+
+    /** Makes {@code listingId} indexed here exactly as in {@code from}, or not at all. */
+    private void copy(Long listingId, Index from) {
+      Set<String> terms = from.termsByListing.get(listingId);
+      if (terms == null) {
+        remove(listingId);
+      } else {
+        add(listingId, terms, from.wordsByListing.get(listingId));
+      }
+    }
+
+    private void add(Long listingId, Set<String> terms, Set<String> words) {
+      remove(listingId);
+      for (String term : terms) {
+        postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(listingId);
+      }
+      termsByListing.put(listingId, terms);
+
+      for (String word : words) {
+        vocabulary
+            .computeIfAbsent(
+                word,
+                w -> {
+                  for (String gram : trigramsOf(w)) {
+                    trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(w);
+                  }
+                  return ConcurrentHashMap.newKeySet();
+                })
+            .add(listingId);
+      }
+      wordsByListing.put(listingId, words);
+    }
+
+    private void remove(Long listingId) {
+      Set<String> terms = termsByListing.remove(listingId);
+      if (terms != null) {
+        for (String term : terms) {
+          removeFromPostings(postings, term, listingId);
+        }
+      }
+      Set<String> words = wordsByListing.remove(listingId);
+      if (words != null) {
+        for (String word : words) {
+          if (removeFromPostings(vocabulary, word, listingId)) {
+            for (String gram : trigramsOf(word)) {
+              removeFromPostings(trigrams, gram, word);
+            }
+          }
+        }
+      }
+    }
+  }
+}
@@ -2,40 +2,218 @@ package com.frh.backend.service;
 
 import com.frh.backend.dto.ListingCategoryWeightDTO;
 import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.dto.ListingPageDTO;
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.model.DietaryTag;
 import com.frh.backend.model.Listing;
 import com.frh.backend.model.ListingFoodCategory;
 import com.frh.backend.model.ListingPhoto;
-import com.frh.backend.model.ListingReview;
+import com.frh.backend.model.ListingReviewStats;
 import com.frh.backend.repository.FoodCategoryRepository;
 import com.frh.backend.repository.ListingRepository;
-import com.frh.backend.repository.ListingReviewRepository;
+import com.frh.backend.repository.ListingReviewStatsRepository;
 import com.frh.backend.repository.StoreRepository;
+import com.frh.backend.util.ListingCursor;
+import com.frh.backend.util.TopK;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 public class ListingService {
 
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int MAX_PAGE_SIZE = 100;
+
   @Autowired private ListingRepository listingRepository;
 
   @Autowired private FoodCategoryRepository foodCategoryRepository;
 
   @Autowired private StoreRepository storeRepository;
 
-  @Autowired private ListingReviewRepository listingReviewRepository;
+  @Autowired private ListingReviewStatsRepository listingReviewStatsRepository;
+
+  @Autowired private ListingCatalogService listingCatalogService;
+
+  @Autowired private ListingFacetIndex listingFacetIndex;
+
+  @Autowired private ListingJsonCache listingJsonCache;
 
-  /** Get all active listings with available inventory */
+  @Autowired private StoreGeoIndex storeGeoIndex;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private RequestCoalescer requestCoalescer;
+
+  /**
+   * Get all active listings with available inventory. Served from the in-memory catalog snapshot;
+   * the database is only hit to build the snapshot the first time, once for all concurrent readers.
+   */
   @Transactional(readOnly = true)
   public List<ListingDTO> getAllActiveListings() {
-    List<Listing> listings = listingRepository.findAllActiveListingsWithDetails();
-    return listings.stream().map(this::convertToDto).collect(Collectors.toList());
+    ListingCatalogService.Snapshot snapshot = listingCatalogService.current();
+    if (snapshot != null) {
+      return snapshot.getListings();
+    }
+    return requestCoalescer.coalesce("listings.catalog", "all", this::refreshCatalog);
+  }
+
+  /**
+   * Same content as {@link #getAllActiveListings()}, already serialized to JSON together with a
+   * strong ETag. Serialization happens once per catalog version, not once per request.
+   */
+  @Transactional(readOnly = true)
+  public ListingJsonCache.Entry getAllActiveListingsJson() {
+    ListingCatalogService.Snapshot snapshot = listingCatalogService.current();
+    if (snapshot == null) {
+      snapshot =
+          requestCoalescer.coalesce(
+              "listings.catalog.json",
+              "all",
+              () -> {
+                long since = listingCatalogService.changeCount();
+                return replaceCatalog(loadCatalog(), since);
+              });
+    }
+    return listingJsonCache.get(snapshot);
+  }
+
+  /**
+   * Catalog listings matching every selected facet (any of the values within one facet), with
+   * counts per facet value. Answered from bitmaps in {@link ListingFacetIndex}.
+   */
+  @Transactional(readOnly = true)
+  public ListingFacetResultDTO filterListings(
+      Map<ListingFacetIndex.Facet, ? extends Collection<String>> selected) {
+    if (!listingFacetIndex.isLoaded()) {
+      refreshCatalog();
+    }
+    return listingFacetIndex.filter(selected);
+  }
+
+  /** {@link #filterListings(Map)} keeping the first {@code limit} matches under {@code sort}. */
+  @Transactional(readOnly = true)
+  public ListingFacetResultDTO filterListings(
+      Map<ListingFacetIndex.Facet, ? extends Collection<String>> selected,
+      ListingSort sort,
+      Double lat,
+      Double lng,
+      Integer limit) {
+    if (!listingFacetIndex.isLoaded()) {
+      refreshCatalog();
+    }
+    return listingFacetIndex.filter(
+        selected, sort.comparator(lat, lng), normalizePageSize(limit));
+  }
+
+  /**
+   * The first {@code limit} catalog listings under {@code sort}, e.g. the 20 cheapest. Selected
+   * with a bounded heap over the snapshot, so the cost is O(n log k) rather than a full sort.
+   */
+  @Transactional(readOnly = true)
+  public List<ListingDTO> getTopActiveListings(
+      ListingSort sort, Double lat, Double lng, Integer limit) {
+    int k = normalizePageSize(limit);
+    if (sort == ListingSort.NEWEST) {
+      List<ListingDTO> all = getAllActiveListings(); // the snapshot is already newest first
+      return new ArrayList<>(all.subList(0, Math.min(k, all.size())));
+    }
+    return TopK.of(getAllActiveListings(), k, sort.comparator(lat, lng));
+  }
+
+  /** {@link #getNearbyListings} reduced to the first {@code limit} under {@code sort}. */
+  @Transactional(readOnly = true)
+  public List<ListingDTO> getTopNearbyListings(
+      Double lat, Double lng, Double radius, ListingSort sort, Integer limit) {
+    return TopK.of(
+        getNearbyListings(lat, lng, radius), normalizePageSize(limit), sort.comparator(lat, lng));
+  }
+
+  /** {@link #getListingsByCategory} reduced to the first {@code limit} under {@code sort}. */
+  @Transactional(readOnly = true)
+  public List<ListingDTO> getTopListingsByCategory(
+      String category, ListingSort sort, Double lat, Double lng, Integer limit) {
+    return TopK.of(
+        getListingsByCategory(category), normalizePageSize(limit), sort.comparator(lat, lng));
+  }
+
+  /**
+   * Rebuild the whole catalog snapshot from the database. Runs periodically as a safety net (and to
+   * keep "time remaining" labels fresh); individual changes are applied by {@link
+   * #onListingChanged}.
+   */
+  @Scheduled(
+      initialDelayString = "${listing.catalog.refresh-interval-ms:60000}",
+      fixedDelayString = "${listing.catalog.refresh-interval-ms:60000}")
+  @Transactional(readOnly = true)
+  public List<ListingDTO> refreshCatalog() {
+    long since = listingCatalogService.changeCount();
+    List<ListingDTO> listings = loadCatalog();
+    replaceCatalog(listings, since);
+    return listings;
+  }
+
+  private List<ListingDTO> loadCatalog() {
+    return convertRowsToDtos(listingRepository.findAllActiveListingRows());
+  }
+
+  // The facet index always follows the catalog snapshot, including listings it kept
+  private ListingCatalogService.Snapshot replaceCatalog(List<ListingDTO> listings, long since) {
+    ListingCatalogService.Snapshot snapshot = listingCatalogService.replaceAll(listings, since);
+    listingFacetIndex.replaceAll(snapshot.getListings());
+    return snapshot;
+  }
+
+  /** Re-map a single changed listing into the catalog once its transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (listingCatalogService.current() == null) {
+      return; // not built yet, the first read will load everything
+    }
+    List<ListingRowDTO> rows =
+        listingRepository.findListingRowsByIdIn(List.of(event.getListingId()));
+    if (!rows.isEmpty() && isCatalogListing(rows.get(0))) {
+      ListingDTO dto = convertRowsToDtos(rows).get(0);
+      listingCatalogService.upsert(dto);
+      listingFacetIndex.upsert(dto);
+    } else {
+      listingCatalogService.remove(event.getListingId());
+      listingFacetIndex.remove(event.getListingId());
+    }
+  }
+
+  /** Drop listings the expiry sweeper has just marked {@code EXPIRED}. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingsExpired(ListingsExpiredEvent event) {
+    listingCatalogService.removeAll(event.getListingIds());
+    listingFacetIndex.removeAll(event.getListingIds());
+  }
+
+  /** Same filter as {@code findAllActiveListingRows}. */
+  private boolean isCatalogListing(ListingRowDTO row) {
+    return "ACTIVE".equals(row.getStatus())
+        && row.getQtyAvailable() != null
+        && row.getQtyAvailable() > 0;
   }
 
   /**
@@ -50,29 +228,117 @@ public class ListingService {
     if (radius == null || radius <= 0) {
       radius = 5.0; // Default 5km radius
     }
-    List<Listing> listings = listingRepository.findNearbyListings(lat, lng, radius);
-    return listings.stream().map(this::convertToDto).collect(Collectors.toList());
+    // Grid lookup + exact distance check in memory, then one indexed query by store ID, shared by
+    // concurrent requests for the same point
+    double searchRadius = radius;
+    return requestCoalescer.coalesce(
+        "listings.nearby",
+        List.of(lat, lng, searchRadius),
+        () -> {
+          List<Long> storeIds = storeGeoIndex.findStoreIdsWithin(lat, lng, searchRadius);
+          if (storeIds.isEmpty()) {
+            return new ArrayList<>();
+          }
+          return convertRowsToDtos(listingRepository.findActiveListingRowsByStoreIds(storeIds));
+        });
   }
 
   /** Get listings for a supplier (DTO-safe) */
   @Transactional(readOnly = true)
   public List<ListingDTO> getListingsBySupplier(Long supplierId) {
     List<Listing> listings = listingRepository.findByStore_SupplierProfile_SupplierId(supplierId);
-    return listings.stream().map(this::convertToDto).collect(Collectors.toList());
+    return convertToDtos(listings);
   }
 
-  /** Filter listings by category */
+  /**
+   * Filter listings by category. The store-type filter runs in SQL and the result is read as flat
+   * projections, so a niche category only costs its own rows.
+   */
   @Transactional(readOnly = true)
   public List<ListingDTO> getListingsByCategory(String category) {
-    List<Listing> allListings = listingRepository.findAllActiveListingsWithDetails();
-    return allListings.stream()
-        .filter(
-            listing -> {
-              String storeCategory = getStoreCategory(listing);
-              return category.equalsIgnoreCase("All") || category.equalsIgnoreCase(storeCategory);
-            })
-        .map(this::convertToDto)
-        .collect(Collectors.toList());
+    if ("All".equalsIgnoreCase(category)) {
+      return getAllActiveListings();
+    }
+    return requestCoalescer.coalesce(
+        "listings.category",
+        category,
+        () -> convertRowsToDtos(listingRepository.findActiveListingRowsByCategory(category)));
+  }
+
+  /**
+   * One page of the consumer feed, newest first, strictly after {@code after}. The catalog
+   * snapshot is already sorted by (createdAt, listingId), so the cursor position is found by binary
+   * search instead of going back to the database.
+   */
+  @Transactional(readOnly = true)
+  public ListingPageDTO getActiveListingsPage(ListingCursor after, Integer limit) {
+    int pageSize = normalizePageSize(limit);
+    List<ListingDTO> all = getAllActiveListings();
+
+    ListingDTO probe = new ListingDTO();
+    probe.setCreatedAt(after.getCreatedAt());
+    probe.setListingId(after.getListingId());
+    int pos = Collections.binarySearch(all, probe, ListingCatalogService.NEWEST_FIRST);
+    int from = pos >= 0 ? pos + 1 : -pos - 1;
+    int to = Math.min(all.size(), from + pageSize);
+
+    List<ListingDTO> page = new ArrayList<>(all.subList(from, to));
+    return new ListingPageDTO(page, to < all.size() ? nextCursor(page) : null);
+  }
+
+  /** Paged variant of {@link #getNearbyListings}, using a seek query over the matching stores. */
+  @Transactional(readOnly = true)
+  public ListingPageDTO getNearbyListingsPage(
+      Double lat, Double lng, Double radius, ListingCursor after, Integer limit) {
+    if (radius == null || radius <= 0) {
+      radius = 5.0; // Default 5km radius
+    }
+    int pageSize = normalizePageSize(limit);
+    List<Long> storeIds = storeGeoIndex.findStoreIdsWithin(lat, lng, radius);
+    if (storeIds.isEmpty()) {
+      return new ListingPageDTO(new ArrayList<>(), null);
+    }
+    List<Long> ids =
+        listingRepository.findActiveListingIdsByStoreIdsAfter(
+            storeIds, after.getCreatedAt(), after.getListingId(), Limit.of(pageSize + 1));
+    return loadPage(ids, pageSize);
+  }
+
+  /** Paged variant of {@link #getListingsByCategory}, filtered on the store type in SQL. */
+  @Transactional(readOnly = true)
+  public ListingPageDTO getListingsByCategoryPage(
+      String category, ListingCursor after, Integer limit) {
+    if ("All".equalsIgnoreCase(category)) {
+      return getActiveListingsPage(after, limit);
+    }
+    int pageSize = normalizePageSize(limit);
+    List<Long> ids =
+        listingRepository.findActiveListingIdsByCategoryAfter(
+            category, after.getCreatedAt(), after.getListingId(), Limit.of(pageSize + 1));
+    return loadPage(ids, pageSize);
+  }
+
+  /** {@code ids} holds up to pageSize + 1 IDs; the extra one only signals that more pages exist. */
+  private ListingPageDTO loadPage(List<Long> ids, int pageSize) {
+    boolean hasMore = ids.size() > pageSize;
+    List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+    if (pageIds.isEmpty()) {
+      return new ListingPageDTO(new ArrayList<>(), null);
+    }
+    List<ListingDTO> page = convertRowsToDtos(listingRepository.findListingRowsByIdIn(pageIds));
+    return new ListingPageDTO(page, hasMore ? nextCursor(page) : null);
+  }
+
+  private String nextCursor(List<ListingDTO> page) {
+    ListingDTO last = page.get(page.size() - 1);
+    return new ListingCursor(last.getCreatedAt(), last.getListingId()).encode();
+  }
+
+  private int normalizePageSize(Integer limit) {
+    if (limit == null || limit <= 0) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.min(limit, MAX_PAGE_SIZE);
   }
 
   /** Get a single listing by ID with calculated ratings */
@@ -83,8 +349,31 @@ public class ListingService {
     return convertToDto(listing);
   }
 
-  /** Convert Listing entity to ListingDTO */
+  /**
+   * Convert a batch of listings, loading all their review aggregates with a single IN query instead
+   * of one review query per listing.
+   */
+  private List<ListingDTO> convertToDtos(List<Listing> listings) {
+    if (listings.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<Long> ids = listings.stream().map(Listing::getListingId).collect(Collectors.toList());
+    Map<Long, ListingReviewStats> statsById =
+        listingReviewStatsRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(ListingReviewStats::getListingId, Function.identity()));
+    return listings.stream()
+        .map(listing -> convertToDto(listing, statsById.get(listing.getListingId())))
+        .collect(Collectors.toList());
+  }
+
+  /** Convert a single Listing entity to ListingDTO */
   private ListingDTO convertToDto(Listing listing) {
+    return convertToDto(
+        listing, listingReviewStatsRepository.findById(listing.getListingId()).orElse(null));
+  }
+
+  /** Convert Listing entity to ListingDTO */
+  private ListingDTO convertToDto(Listing listing, ListingReviewStats reviewStats) {
     ListingDTO dto = new ListingDTO();
 
     // Basic listing info
@@ -97,6 +386,7 @@ public class ListingService {
     dto.setPickupEnd(listing.getPickupEnd());
     dto.setExpiryAt(listing.getExpiryAt());
     dto.setStatus(listing.getStatus());
+    dto.setCreatedAt(listing.getCreatedAt());
 
     // Store info
     if (listing.getStore() != null) {
@@ -164,33 +454,125 @@ public class ListingService {
     }
     dto.setEstimatedWeightKg(listing.getEstimatedWeightKg());
 
-    // Calculated fields
-    dto.setTimeRemaining(calculateTimeRemaining(listing.getPickupEnd()));
-    dto.setSavingsAmount(listing.getOriginalPrice().subtract(listing.getRescuePrice()));
-    dto.setSavingsLabel("Worth $" + listing.getOriginalPrice().intValue() + "+");
-
-    // Calculate average ratings from reviews
-    List<ListingReview> reviews =
-        listingReviewRepository.findByListing_ListingIdOrderByCreatedAtDesc(
-            listing.getListingId());
-    if (!reviews.isEmpty()) {
-      double avgAccuracy =
-          reviews.stream()
-              .mapToInt(ListingReview::getListingAccuracy)
-              .average()
-              .orElse(0.0);
-      double avgOnTime =
-          reviews.stream().mapToInt(ListingReview::getOnTimePickup).average().orElse(0.0);
+    if (listing.getDietaryTags() != null) {
+      dto.setDietaryTags(
+          listing.getDietaryTags().stream()
+              .map(DietaryTag::getTagName)
+              .collect(Collectors.toList()));
+    }
+
+    applyCalculatedFields(dto, reviewStats);
+    return dto;
+  }
+
+  /**
+   * Build DTOs from flat projection rows. Photos, food categories, dietary tags and review
+   * aggregates are each loaded with one IN query for the whole batch; no entities are materialized.
+   */
+  private List<ListingDTO> convertRowsToDtos(List<ListingRowDTO> rows) {
+    if (rows.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<Long> ids = rows.stream().map(ListingRowDTO::getListingId).collect(Collectors.toList());
+
+    Map<Long, List<String>> photoUrlsById = new HashMap<>();
+    for (Object[] row : listingRepository.findPhotoUrlsByListingIds(ids)) {
+      photoUrlsById.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+    }
+    Map<Long, List<ListingCategoryWeightDTO>> categoriesById = new HashMap<>();
+    for (Object[] row : listingRepository.findCategoryWeightsByListingIds(ids)) {
+      ListingCategoryWeightDTO w = new ListingCategoryWeightDTO();
+      w.setCategoryId((Long) row[1]);
+      w.setCategoryName((String) row[2]);
+      w.setWeightKg((BigDecimal) row[3]);
+      categoriesById.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(w);
+    }
+    Map<Long, List<String>> dietaryTagsById = new HashMap<>();
+    for (Object[] row : listingRepository.findDietaryTagNamesByListingIds(ids)) {
+      dietaryTagsById.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+    }
+    Map<Long, ListingReviewStats> statsById =
+        listingReviewStatsRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(ListingReviewStats::getListingId, Function.identity()));
+
+    List<ListingDTO> dtos = new ArrayList<>(rows.size());
+    for (ListingRowDTO row : rows) {
+      Long id = row.getListingId();
+      ListingDTO dto =
+          convertRowToDto(
+              row,
+              photoUrlsById.get(id),
+              categoriesById.getOrDefault(id, List.of()),
+              statsById.get(id));
+      dto.setDietaryTags(dietaryTagsById.getOrDefault(id, List.of()));
+      dtos.add(dto);
+    }
+    return dtos;
+  }
+
+  private ListingDTO convertRowToDto(
+      ListingRowDTO row,
+      List<String> photoUrls,
+      List<ListingCategoryWeightDTO> categoryWeights,
+      ListingReviewStats reviewStats) {
+    ListingDTO dto = new ListingDTO();
+    dto.setListingId(row.getListingId());
+    dto.setTitle(row.getTitle());
+    dto.setDescription(row.getDescription());
+    dto.setOriginalPrice(row.getOriginalPrice());
+    dto.setRescuePrice(row.getRescuePrice());
+    dto.setPickupStart(row.getPickupStart());
+    dto.setPickupEnd(row.getPickupEnd());
+    dto.setExpiryAt(row.getExpiryAt());
+    dto.setStatus(row.getStatus());
+    dto.setCreatedAt(row.getCreatedAt());
+
+    dto.setStoreId(row.getStoreId());
+    dto.setStoreName(row.getStoreName());
+    dto.setStoreDescription(row.getStoreDescription());
+    dto.setAddressLine(row.getAddressLine());
+    dto.setPostalCode(row.getPostalCode());
+    dto.setLat(row.getLat());
+    dto.setLng(row.getLng());
+    dto.setPickupInstructions(row.getPickupInstructions());
+    dto.setOpeningHours(row.getOpeningHours());
+    dto.setCategory(row.getCategory() != null ? row.getCategory() : "Unknown");
+
+    dto.setQtyAvailable(row.getQtyAvailable() != null ? row.getQtyAvailable() : 0);
+    dto.setQtyReserved(row.getQtyReserved() != null ? row.getQtyReserved() : 0);
+    dto.setPhotoUrls(photoUrls);
+
+    dto.setCategoryIds(
+        categoryWeights.stream()
+            .map(ListingCategoryWeightDTO::getCategoryId)
+            .collect(Collectors.toList()));
+    dto.setCategoryNames(
+        categoryWeights.stream()
+            .map(ListingCategoryWeightDTO::getCategoryName)
+            .collect(Collectors.toList()));
+    dto.setCategoryWeights(categoryWeights);
+    dto.setEstimatedWeightKg(row.getEstimatedWeightKg());
+
+    applyCalculatedFields(dto, reviewStats);
+    return dto;
+  }
+
+  /** Time remaining, savings and review percentages; needs prices and pickupEnd already set. */
+  private void applyCalculatedFields(ListingDTO dto, ListingReviewStats reviewStats) {
+    dto.setTimeRemaining(calculateTimeRemaining(dto.getPickupEnd()));
+    dto.setSavingsAmount(dto.getOriginalPrice().subtract(dto.getRescuePrice()));
+    dto.setSavingsLabel("Worth $" + dto.getOriginalPrice().intValue() + "+");
+
+    // Average ratings from the review aggregates
+    if (reviewStats != null && reviewStats.getReviewCount() > 0) {
       // Convert to percentage (rating is 1-5, so multiply by 20)
-      dto.setAvgListingAccuracy(avgAccuracy * 20.0);
-      dto.setAvgOnTimePickup(avgOnTime * 20.0);
+      dto.setAvgListingAccuracy(reviewStats.getAvgListingAccuracy() * 20.0);
+      dto.setAvgOnTimePickup(reviewStats.getAvgOnTimePickup() * 20.0);
     } else {
       // No reviews yet - set to null or 0
       dto.setAvgListingAccuracy(null);
       dto.setAvgOnTimePickup(null);
     }
-
-    return dto;
   }
 
   /** Get store category from listing */
@@ -245,7 +627,8 @@ public class ListingService {
     listing.setStore(storeRepository.getReferenceById(storeId));
 
     Listing savedListing = listingRepository.save(listing);
-    return convertToDto(savedListing);
+    eventPublisher.publishEvent(new ListingChangedEvent(savedListing.getListingId()));
+    return convertToDto(savedListing, null); // brand new, no reviews yet
   }
 
   @Transactional
@@ -260,6 +643,7 @@ public class ListingService {
     applyFoodCategories(listing, dto, false);
 
     Listing savedListing = listingRepository.save(listing);
+    eventPublisher.publishEvent(new ListingChangedEvent(listingId));
     return convertToDto(savedListing);
   }
 
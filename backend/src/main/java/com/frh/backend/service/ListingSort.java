@@ -0,0 +1,103 @@
+package com.frh.backend.service;
+
+import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.util.GeoUtils;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Server-side orderings for the consumer listing endpoints ({@code sort=} parameter). Ties fall
+ * back to newest first, so every order is total and results are stable between requests.
+ */
+public enum ListingSort {
+  NEWEST("newest"),
+  PRICE("price"),
+  PRICE_DESC("price_desc"),
+  DISCOUNT("discount"),
+  EXPIRY("expiry"),
+  DISTANCE("distance");
+
+  private final String param;
+
+  ListingSort(String param) {
+    this.param = param;
+  }
+
+  public String getParam() {
+    return param;
+  }
+
+  /** Parses a {@code sort=} value; throws IllegalArgumentException for unknown values. */
+  public static ListingSort fromParam(String value) {
+    String key = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    for (ListingSort sort : values()) {
+      if (sort.param.equals(key)) {
+        return sort;
+      }
+    }
+    throw new IllegalArgumentException("Unknown sort: " + value);
+  }
+
+  /** {@link #DISTANCE} is measured from the caller's position. */
+  public boolean requiresLocation() {
+    return this == DISTANCE;
+  }
+
+  /** Listing order for this sort; {@code lat}/{@code lng} are only used by {@link #DISTANCE}. */
+  public Comparator<ListingDTO> comparator(Double lat, Double lng) {
+    Comparator<ListingDTO> order =
+        switch (this) {
+          case NEWEST -> ListingCatalogService.NEWEST_FIRST;
+          case PRICE ->
+              Comparator.comparing(
+                  ListingDTO::getRescuePrice, Comparator.nullsLast(Comparator.naturalOrder()));
+          case PRICE_DESC ->
+              Comparator.comparing(
+                  ListingDTO::getRescuePrice,
+                  Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()));
+          case DISCOUNT -> Comparator.comparingDouble(ListingSort::discount).reversed();
+          case EXPIRY ->
+              Comparator.comparing(
+                  ListingSort::deadline, Comparator.nullsLast(Comparator.naturalOrder()));
+          case DISTANCE -> {
+            if (lat == null || lng == null) {
+              throw new IllegalArgumentException("sort=distance requires lat and lng");
+            }
+            yield Comparator.comparingDouble(dto -> distanceKm(dto, lat, lng));
+          }
+        };
+    return order.thenComparing(ListingCatalogService.NEWEST_FIRST);
+  }
+
+  /** Fraction of the original price saved; 0 when unknown. */
+  private static double discount(ListingDTO dto) {
+    BigDecimal original = dto.getOriginalPrice();
+    BigDecimal rescue = dto.getRescuePrice();
+    if (original == null || rescue == null || original.signum() <= 0) {
+      return 0.0;
+    }
+    return 1.0 - rescue.doubleValue() / original.doubleValue();
+  }
+
+  /** Same deadline as the expiry sweeper: the earlier of expiryAt and pickupEnd. */
+  private static LocalDateTime deadline(ListingDTO dto) {
+    LocalDateTime expiryAt = dto.getExpiryAt();
+    LocalDateTime pickupEnd = dto.getPickupEnd();
+    if (expiryAt == null) {
+      return pickupEnd;
+    }
+    if (pickupEnd == null) {
+      return expiryAt;
+    }
+    return expiryAt.isBefore(pickupEnd) ? expiryAt : pickupEnd;
+  }
+
+  private static double distanceKm(ListingDTO dto, double lat, double lng) {
+    if (dto.getLat() == null || dto.getLng() == null) {
+      return Double.MAX_VALUE; // unknown location sorts last
+    }
+    return GeoUtils.haversineKm(lat, lng, dto.getLat().doubleValue(), dto.getLng().doubleValue());
+  }
+}
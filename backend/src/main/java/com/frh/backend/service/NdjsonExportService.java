@@ -0,0 +1,83 @@
+package com.frh.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes large result sets as newline-delimited JSON (one object per line) while the rows are
+ * still being read from the database, so a full table export never has to sit in memory.
+ *
+ * <p>The source stream is opened inside a read-only transaction that stays open until the last
+ * line is written. Each entity is detached after it has been written and the persistence context
+ * is cleared every {@link #CLEAR_INTERVAL} rows, so the session does not keep every row alive.
+ */
+@Service
+public class NdjsonExportService {
+
+  static final int CLEAR_INTERVAL = 500;
+
+  private static final byte NEWLINE = '\n';
+
+  private final ObjectMapper objectMapper;
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+
+  public NdjsonExportService(
+      ObjectMapper objectMapper,
+      EntityManager entityManager,
+      PlatformTransactionManager transactionManager) {
+    this.objectMapper = objectMapper;
+    this.entityManager = entityManager;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Response body that streams every entity from {@code source}, converted by {@code mapper}.
+   * Entities must be fully converted by {@code mapper} because they are detached right after.
+   */
+  public <T> StreamingResponseBody stream(
+      Supplier<Stream<T>> source, Function<? super T, ?> mapper) {
+    return out -> write(source, mapper, out);
+  }
+
+  <T> void write(Supplier<Stream<T>> source, Function<? super T, ?> mapper, OutputStream out)
+      throws IOException {
+    try {
+      readOnlyTransaction.executeWithoutResult(
+          status -> {
+            try (Stream<T> rows = source.get()) {
+              int written = 0;
+              Iterator<T> it = rows.iterator();
+              while (it.hasNext()) {
+                T entity = it.next();
+                out.write(objectMapper.writeValueAsBytes(mapper.apply(entity)));
+                out.write(NEWLINE);
+                entityManager.detach(entity);
+                if (++written % CLEAR_INTERVAL == 0) {
+                  entityManager.clear();
+                  out.flush();
+                }
+              }
+              out.flush();
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      // client went away or the socket failed; let the MVC async handling deal with it
+      throw e.getCause();
+    }
+  }
+}
@@ -3,12 +3,14 @@ package com.frh.backend.service;
 import com.frh.backend.model.*;
 import com.frh.backend.dto.CreateOrderRequest;
 import com.frh.backend.dto.OrderSummaryDTO;
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.exception.InsufficientStockException;
 import com.frh.backend.exception.OrderStateException;
 import com.frh.backend.repository.*;
 import com.frh.backend.util.PickupTokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +22,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.data.domain.PageRequest;
 
 /**
@@ -40,6 +43,7 @@ public class OrderService {
     private final InventoryService inventoryService;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new order from cart.
@@ -85,6 +89,7 @@ public class OrderService {
 
             listing.setAvailableQty(availableQty - item.getQuantity());
             listingRepository.save(listing);
+            eventPublisher.publishEvent(new ListingChangedEvent(listingId));
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -351,6 +356,13 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    /**
+     * Stream all orders by ID. Must be consumed inside a transaction, see {@code NdjsonExportService}.
+     */
+    public Stream<Order> streamAllOrders() {
+        return orderRepository.streamAllOrderById();
+    }
+
     /**
      * Get orders by consumer ID.
      */
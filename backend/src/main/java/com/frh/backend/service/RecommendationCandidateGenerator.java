@@ -0,0 +1,116 @@
+package com.frh.backend.service;
+
+import com.frh.backend.util.GeoUtils;
+import com.frh.backend.util.TopK;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Candidate generation for homepage recommendations: narrows the active listings of {@link
+ * RecommendationFeatureStore} to a shortlist before they are ranked, so the recommender request
+ * does not grow with the whole catalog.
+ *
+ * <p>A listing stays a candidate when it is in stock, its pickup window ends at least {@code
+ * recommendation.candidates.min-minutes-to-pickup-end} from now and, when the user's location is
+ * known, its store lies within {@code recommendation.candidates.radius-km}. If no store is that
+ * close the radius is dropped rather than showing nothing. The survivors are capped at {@code
+ * recommendation.candidates.max} by the user-independent part of {@link RecommendationRanker}'s
+ * score.
+ */
+@Service
+public class RecommendationCandidateGenerator {
+
+  private static final double UNKNOWN_DISTANCE = 999.0;
+
+  private final RecommendationFeatureStore recommendationFeatureStore;
+  private final RecommendationRanker recommendationRanker;
+  private final double radiusKm;
+  private final long minSecondsToPickupEnd;
+  private final int maxCandidates;
+
+  public RecommendationCandidateGenerator(
+      RecommendationFeatureStore recommendationFeatureStore,
+      RecommendationRanker recommendationRanker,
+      @Value("${recommendation.candidates.radius-km:10}") double radiusKm,
+      @Value("${recommendation.candidates.min-minutes-to-pickup-end:30}")
+          long minMinutesToPickupEnd,
+      @Value("${recommendation.candidates.max:200}") int maxCandidates) {
+    this.recommendationFeatureStore = recommendationFeatureStore;
+    this.recommendationRanker = recommendationRanker;
+    this.radiusKm = radiusKm;
+    this.minSecondsToPickupEnd = minMinutesToPickupEnd * 60;
+    this.maxCandidates = maxCandidates;
+  }
+
+  /** IDs of the shortlisted listings, best prior score first. */
+  public List<Long> generate(Double userLat, Double userLng) {
+    long now = RecommendationFeatureStore.epochSecond(LocalDateTime.now());
+    boolean located = userLat != null && userLng != null;
+    Shortlist shortlist = collect(now, located, userLat, userLng, located);
+    if (shortlist.size == 0 && located) {
+      shortlist = collect(now, true, userLat, userLng, false);
+    }
+
+    int[] best = TopK.indices(Arrays.copyOf(shortlist.priors, shortlist.size), maxCandidates);
+    List<Long> ids = new ArrayList<>(best.length);
+    for (int i : best) {
+      ids.add(shortlist.ids[i]);
+    }
+    return ids;
+  }
+
+  private Shortlist collect(
+      long now, boolean located, Double userLat, Double userLng, boolean withinRadius) {
+    Shortlist shortlist = new Shortlist();
+    recommendationFeatureStore.forEach(
+        null,
+        row -> {
+          if (row.qtyAvailable() <= 0 || row.secondsUntilPickupEnd(now) < minSecondsToPickupEnd) {
+            return;
+          }
+          double distance = UNKNOWN_DISTANCE;
+          if (located && !Double.isNaN(row.storeLat()) && !Double.isNaN(row.storeLng())) {
+            // cheap latitude band check before the exact distance
+            if (withinRadius
+                && Math.abs(userLat - row.storeLat()) * GeoUtils.KM_PER_DEGREE_LAT > radiusKm) {
+              return;
+            }
+            distance = GeoUtils.haversineKm(userLat, userLng, row.storeLat(), row.storeLng());
+          }
+          if (withinRadius && distance > radiusKm) {
+            return;
+          }
+          shortlist.add(
+              row.listingId(),
+              recommendationRanker.score(
+                  distance,
+                  row.discountRate(),
+                  row.storeAvgRating(),
+                  row.ctr(),
+                  row.hoursUntilExpiry(now),
+                  0,
+                  false));
+        });
+    return shortlist;
+  }
+
+  /** Listing IDs and prior scores of the survivors, in parallel primitive arrays. */
+  private static final class Shortlist {
+    long[] ids = new long[64];
+    double[] priors = new double[64];
+    int size;
+
+    void add(long id, double prior) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        priors = Arrays.copyOf(priors, size * 2);
+      }
+      ids[size] = id;
+      priors[size++] = prior;
+    }
+  }
+}
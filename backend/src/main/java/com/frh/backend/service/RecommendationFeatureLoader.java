@@ -0,0 +1,69 @@
+package com.frh.backend.service;
+
+import com.frh.backend.model.ListingStats;
+import com.frh.backend.model.StoreStats;
+import com.frh.backend.model.UserStoreInteraction;
+import com.frh.backend.repository.ListingStatsRepository;
+import com.frh.backend.repository.StoreStatsRepository;
+import com.frh.backend.repository.UserStoreInteractionRepository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Batch reads behind the recommendation features: {@link ListingStats} and {@link StoreStats} for
+ * a set of listings and stores with one IN query each (used by {@link
+ * RecommendationFeatureStore}), and the {@link UserStoreInteraction} rows of one consumer.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationFeatureLoader {
+
+  private final ListingStatsRepository listingStatsRepository;
+  private final StoreStatsRepository storeStatsRepository;
+  private final UserStoreInteractionRepository userStoreInteractionRepository;
+
+  /** Stats rows of the given listings and stores; an empty ID collection costs no query. */
+  public CandidateStats load(Collection<Long> listingIds, Collection<Long> storeIds) {
+    CandidateStats stats = new CandidateStats();
+    if (!listingIds.isEmpty()) {
+      for (ListingStats row : listingStatsRepository.findByListingIdIn(listingIds)) {
+        stats.listingStats.put(row.getListingId(), row);
+      }
+    }
+    if (!storeIds.isEmpty()) {
+      for (StoreStats row : storeStatsRepository.findByStoreIdIn(storeIds)) {
+        stats.storeStats.put(row.getStoreId(), row);
+      }
+    }
+    return stats;
+  }
+
+  /** The consumer's interactions keyed by store ID; empty without a consumer. */
+  public Map<Long, UserStoreInteraction> loadInteractions(Long consumerId) {
+    Map<Long, UserStoreInteraction> interactions = new HashMap<>();
+    if (consumerId != null) {
+      for (UserStoreInteraction row : userStoreInteractionRepository.findByConsumerId(consumerId)) {
+        interactions.put(row.getStoreId(), row);
+      }
+    }
+    return interactions;
+  }
+
+  /** Loaded rows keyed by listing / store ID; lookups return null where no row exists. */
+  public static final class CandidateStats {
+
+    private final Map<Long, ListingStats> listingStats = new HashMap<>();
+    private final Map<Long, StoreStats> storeStats = new HashMap<>();
+
+    public ListingStats listingStats(Long listingId) {
+      return listingStats.get(listingId);
+    }
+
+    public StoreStats storeStats(Long storeId) {
+      return storeStats.get(storeId);
+    }
+  }
+}
@@ -0,0 +1,543 @@
+package com.frh.backend.service;
+
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingStatsChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.model.ListingStats;
+import com.frh.backend.model.StoreStats;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.service.RecommendationFeatureLoader.CandidateStats;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Listing- and store-level recommendation features of every {@code ACTIVE} listing (prices,
+ * discount rate, stock, pickup times, engagement counters, store type, address, location, rating,
+ * completion and on-time rates), kept in primitive column arrays so a request only computes the
+ * user and context features, and its results are filled in without loading the entities again.
+ *
+ * <p>Listings sit at dense ordinals (freed ones are reused) and point at a store ordinal, so the
+ * store columns are shared by all listings of a store. The store is loaded on first use, follows
+ * {@link ListingChangedEvent}, {@link ListingsExpiredEvent} and {@link ListingStatsChangedEvent},
+ * and is rebuilt periodically because store stats are also written outside this application.
+ * {@link #version()} moves on every change. A rebuild leaves alone the listings an event updated
+ * while it was reading, since its rows for them may predate that update.
+ */
+@Service
+public class RecommendationFeatureStore {
+
+  private static final int INITIAL_CAPACITY = 256;
+  // pickup / expiry column value of a listing without that time
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private final ListingRepository listingRepository;
+  private final RecommendationFeatureLoader recommendationFeatureLoader;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // all fields below are guarded by lock
+  private final Map<Long, Integer> listingOrdinals = new HashMap<>();
+  private final BitSet live = new BitSet();
+  // listing columns, indexed by listing ordinal
+  private long[] listingIds = new long[INITIAL_CAPACITY];
+  private int[] storeOrdinal = new int[INITIAL_CAPACITY];
+  private String[] titles = new String[INITIAL_CAPACITY];
+  private String[] photoUrls = new String[INITIAL_CAPACITY];
+  private double[] originalPrice = new double[INITIAL_CAPACITY];
+  private double[] rescuePrice = new double[INITIAL_CAPACITY];
+  private double[] discountRate = new double[INITIAL_CAPACITY];
+  private int[] qtyAvailable = new int[INITIAL_CAPACITY];
+  private long[] pickupStart = new long[INITIAL_CAPACITY]; // epoch seconds of the local time
+  private long[] pickupEnd = new long[INITIAL_CAPACITY];
+  private long[] expiryAt = new long[INITIAL_CAPACITY];
+  private int[] viewCount = new int[INITIAL_CAPACITY];
+  private int[] clickCount = new int[INITIAL_CAPACITY];
+  private int[] orderCount = new int[INITIAL_CAPACITY];
+  private double[] ctr = new double[INITIAL_CAPACITY];
+  // store columns, indexed by store ordinal; stores are few and never dropped
+  private final Map<Long, Integer> storeOrdinals = new HashMap<>();
+  private long[] storeIds = new long[INITIAL_CAPACITY];
+  private String[] storeNames = new String[INITIAL_CAPACITY];
+  private String[] storeTypes = new String[INITIAL_CAPACITY];
+  private String[] storeAddresses = new String[INITIAL_CAPACITY];
+  private double[] storeLat = new double[INITIAL_CAPACITY]; // NaN when unknown
+  private double[] storeLng = new double[INITIAL_CAPACITY];
+  private double[] avgRating = new double[INITIAL_CAPACITY];
+  private int[] storeTotalOrders = new int[INITIAL_CAPACITY];
+  private double[] completionRate = new double[INITIAL_CAPACITY];
+  private double[] onTimeRate = new double[INITIAL_CAPACITY];
+  // listing ID -> version of its last update by an event, pruned by reload
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long version;
+  private volatile boolean loaded;
+
+  public RecommendationFeatureStore(
+      ListingRepository listingRepository,
+      RecommendationFeatureLoader recommendationFeatureLoader) {
+    this.listingRepository = listingRepository;
+    this.recommendationFeatureLoader = recommendationFeatureLoader;
+  }
+
+  /**
+   * Calls {@code visitor} for each of {@code ids} that is an active listing, or for every active
+   * listing when {@code ids} is null, under the read lock. The {@link Row} is reused between calls
+   * and must not escape the visitor. Returns the number of listings visited.
+   */
+  public int forEach(Collection<Long> ids, Consumer<Row> visitor) {
+    ensureLoaded();
+    Row row = new Row();
+    int visited = 0;
+    lock.readLock().lock();
+    try {
+      if (ids == null) {
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+          visitor.accept(row.at(i));
+          visited++;
+        }
+      } else {
+        for (Long id : ids) {
+          Integer ordinal = listingOrdinals.get(id);
+          if (ordinal != null) {
+            visitor.accept(row.at(ordinal));
+            visited++;
+          }
+        }
+      }
+      return visited;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of active listings held. */
+  public int size() {
+    ensureLoaded();
+    lock.readLock().lock();
+    try {
+      return live.cardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Incremented by every reload and update. */
+  public long version() {
+    lock.readLock().lock();
+    try {
+      return version;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Rebuild every column from the database. */
+  @Scheduled(
+      initialDelayString = "${recommendation.features.reload-interval-ms:600000}",
+      fixedDelayString = "${recommendation.features.reload-interval-ms:600000}")
+  @Transactional(readOnly = true)
+  public synchronized void reload() {
+    long startVersion = version();
+    List<ListingRowDTO> rows = listingRepository.findListingRowsByStatus("ACTIVE");
+    List<Long> ids = new ArrayList<>(rows.size());
+    Set<Long> stores = new LinkedHashSet<>();
+    for (ListingRowDTO row : rows) {
+      ids.add(row.getListingId());
+      stores.add(row.getStoreId());
+    }
+    Map<Long, String> photos = firstPhotoUrls(ids);
+    CandidateStats stats = recommendationFeatureLoader.load(ids, stores);
+
+    lock.writeLock().lock();
+    try {
+      // listings updated by an event since the read keep what the event wrote
+      Set<Long> active = new HashSet<>(ids);
+      for (Long id : new ArrayList<>(listingOrdinals.keySet())) {
+        if (!active.contains(id) && !changedSince(id, startVersion)) {
+          removeListing(id);
+        }
+      }
+      for (ListingRowDTO row : rows) {
+        if (!changedSince(row.getListingId(), startVersion)) {
+          put(row, photos.get(row.getListingId()), stats);
+        }
+      }
+      changedAt.values().removeIf(changed -> changed <= startVersion);
+      version++;
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Refresh a changed listing and its store once the transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (!loaded) {
+      return; // the first load reads everything
+    }
+    Long listingId = event.getListingId();
+    List<ListingRowDTO> rows = listingRepository.findListingRowsByIdIn(List.of(listingId));
+    ListingRowDTO row = rows.isEmpty() ? null : rows.get(0);
+    if (row == null || !"ACTIVE".equals(row.getStatus())) {
+      removeAll(List.of(listingId));
+      return;
+    }
+    Map<Long, String> photos = firstPhotoUrls(List.of(listingId));
+    CandidateStats stats =
+        recommendationFeatureLoader.load(List.of(listingId), Set.of(row.getStoreId()));
+    lock.writeLock().lock();
+    try {
+      put(row, photos.get(listingId), stats);
+      changedAt.put(listingId, ++version);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Refresh only the engagement counters of a listing. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingStatsChanged(ListingStatsChangedEvent event) {
+    if (!loaded) {
+      return;
+    }
+    Long listingId = event.getListingId();
+    ListingStats stats =
+        recommendationFeatureLoader.load(List.of(listingId), Set.of()).listingStats(listingId);
+    lock.writeLock().lock();
+    try {
+      Integer ordinal = listingOrdinals.get(listingId);
+      if (ordinal != null) {
+        setListingStats(ordinal, stats);
+        changedAt.put(listingId, ++version);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingsExpired(ListingsExpiredEvent event) {
+    removeAll(event.getListingIds());
+  }
+
+  private void removeAll(Collection<Long> ids) {
+    lock.writeLock().lock();
+    try {
+      version++;
+      for (Long id : ids) {
+        removeListing(id);
+        changedAt.put(id, version);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // callers hold the write lock
+  private void removeListing(Long id) {
+    Integer ordinal = listingOrdinals.remove(id);
+    if (ordinal != null) {
+      live.clear(ordinal);
+      titles[ordinal] = null;
+      photoUrls[ordinal] = null;
+    }
+  }
+
+  // callers hold the write lock
+  private boolean changedSince(Long id, long startVersion) {
+    Long changed = changedAt.get(id);
+    return changed != null && changed > startVersion;
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (!loaded) {
+        reload();
+      }
+    }
+  }
+
+  private Map<Long, String> firstPhotoUrls(List<Long> ids) {
+    Map<Long, String> photos = new HashMap<>();
+    if (!ids.isEmpty()) {
+      // rows come in display order, so the first one per listing wins
+      for (Object[] row : listingRepository.findPhotoUrlsByListingIds(ids)) {
+        photos.putIfAbsent((Long) row[0], (String) row[1]);
+      }
+    }
+    return photos;
+  }
+
+  // callers hold the write lock
+  private void put(ListingRowDTO row, String photoUrl, CandidateStats stats) {
+    Long listingId = row.getListingId();
+    Integer ordinal = listingOrdinals.get(listingId);
+    if (ordinal == null) {
+      ordinal = live.nextClearBit(0);
+      ensureListingCapacity(ordinal + 1);
+      listingOrdinals.put(listingId, ordinal);
+      live.set(ordinal);
+    }
+    int store = putStore(row, stats.storeStats(row.getStoreId()));
+
+    listingIds[ordinal] = listingId;
+    storeOrdinal[ordinal] = store;
+    titles[ordinal] = row.getTitle();
+    photoUrls[ordinal] = photoUrl != null ? photoUrl : "";
+    originalPrice[ordinal] = toDouble(row.getOriginalPrice());
+    rescuePrice[ordinal] = toDouble(row.getRescuePrice());
+    discountRate[ordinal] = discountRate(row.getOriginalPrice(), row.getRescuePrice());
+    qtyAvailable[ordinal] = row.getQtyAvailable() != null ? row.getQtyAvailable() : 0;
+    pickupStart[ordinal] = epochSecond(row.getPickupStart());
+    pickupEnd[ordinal] = epochSecond(row.getPickupEnd());
+    expiryAt[ordinal] = epochSecond(row.getExpiryAt());
+    setListingStats(ordinal, stats.listingStats(listingId));
+  }
+
+  // callers hold the write lock; refreshes the store's columns and returns its ordinal
+  private int putStore(ListingRowDTO row, StoreStats stats) {
+    Integer ordinal = storeOrdinals.get(row.getStoreId());
+    if (ordinal == null) {
+      ordinal = storeOrdinals.size();
+      ensureStoreCapacity(ordinal + 1);
+      storeOrdinals.put(row.getStoreId(), ordinal);
+    }
+    storeIds[ordinal] = row.getStoreId();
+    storeNames[ordinal] = row.getStoreName();
+    storeTypes[ordinal] = row.getCategory() != null ? row.getCategory() : "Unknown";
+    storeAddresses[ordinal] = row.getAddressLine();
+    storeLat[ordinal] = row.getLat() != null ? row.getLat().doubleValue() : Double.NaN;
+    storeLng[ordinal] = row.getLng() != null ? row.getLng().doubleValue() : Double.NaN;
+    avgRating[ordinal] = stats != null ? toDouble(stats.getAvgRating()) : 0.0;
+    storeTotalOrders[ordinal] = stats != null ? stats.getTotalOrders() : 0;
+    completionRate[ordinal] = stats != null ? toDouble(stats.getCompletionRate()) : 0.0;
+    onTimeRate[ordinal] = stats != null ? toDouble(stats.getOnTimeRate()) : 0.0;
+    return ordinal;
+  }
+
+  // callers hold the write lock
+  private void setListingStats(int ordinal, ListingStats stats) {
+    viewCount[ordinal] = stats != null ? stats.getViewCount() : 0;
+    clickCount[ordinal] = stats != null ? stats.getClickCount() : 0;
+    orderCount[ordinal] = stats != null ? stats.getOrderCount() : 0;
+    ctr[ordinal] = stats != null ? toDouble(stats.getCtr()) : 0.0;
+  }
+
+  private void ensureListingCapacity(int capacity) {
+    if (capacity <= listingIds.length) {
+      return;
+    }
+    int size = Math.max(capacity, listingIds.length * 2);
+    listingIds = Arrays.copyOf(listingIds, size);
+    storeOrdinal = Arrays.copyOf(storeOrdinal, size);
+    titles = Arrays.copyOf(titles, size);
+    photoUrls = Arrays.copyOf(photoUrls, size);
+    originalPrice = Arrays.copyOf(originalPrice, size);
+    rescuePrice = Arrays.copyOf(rescuePrice, size);
+    discountRate = Arrays.copyOf(discountRate, size);
+    qtyAvailable = Arrays.copyOf(qtyAvailable, size);
+    pickupStart = Arrays.copyOf(pickupStart, size);
+    pickupEnd = Arrays.copyOf(pickupEnd, size);
+    expiryAt = Arrays.copyOf(expiryAt, size);
+    viewCount = Arrays.copyOf(viewCount, size);
+    clickCount = Arrays.copyOf(clickCount, size);
+    orderCount = Arrays.copyOf(orderCount, size);
+    ctr = Arrays.copyOf(ctr, size);
+  }
+
+  private void ensureStoreCapacity(int capacity) {
+    if (capacity <= storeIds.length) {
+      return;
+    }
+    int size = Math.max(capacity, storeIds.length * 2);
+    storeIds = Arrays.copyOf(storeIds, size);
+    storeNames = Arrays.copyOf(storeNames, size);
+    storeTypes = Arrays.copyOf(storeTypes, size);
+    storeAddresses = Arrays.copyOf(storeAddresses, size);
+    storeLat = Arrays.copyOf(storeLat, size);
+    storeLng = Arrays.copyOf(storeLng, size);
+    avgRating = Arrays.copyOf(avgRating, size);
+    storeTotalOrders = Arrays.copyOf(storeTotalOrders, size);
+    completionRate = Arrays.copyOf(completionRate, size);
+    onTimeRate = Arrays.copyOf(onTimeRate, size);
+  }
+
+  /** 1 - rescue / original, rounded like the recommender's training data; 0 without a price. */
+  static double discountRate(BigDecimal originalPrice, BigDecimal rescuePrice) {
+    if (originalPrice == null || rescuePrice == null || originalPrice.signum() <= 0) {
+      return 0.0;
+    }
+    return 1.0 - rescuePrice.divide(originalPrice, 4, RoundingMode.HALF_UP).doubleValue();
+  }
+
+  /** Seconds of a local time on a fixed offset, the time base of {@link Row}. */
+  static long epochSecond(LocalDateTime time) {
+    return time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+  }
+
+  private static LocalDateTime localTime(long epochSecond) {
+    return epochSecond != NO_TIME
+        ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC)
+        : null;
+  }
+
+  private static double toDouble(BigDecimal value) {
+    return value != null ? value.doubleValue() : 0.0;
+  }
+
+  /** Features of the listing at one ordinal; reads the columns directly, nothing is copied. */
+  public final class Row {
+
+    private int ordinal;
+    private int store;
+
+    private Row at(int ordinal) {
+      this.ordinal = ordinal;
+      this.store = storeOrdinal[ordinal];
+      return this;
+    }
+
+    public long listingId() {
+      return listingIds[ordinal];
+    }
+
+    public String title() {
+      return titles[ordinal];
+    }
+
+    public String photoUrl() {
+      return photoUrls[ordinal];
+    }
+
+    public double originalPrice() {
+      return originalPrice[ordinal];
+    }
+
+    public double rescuePrice() {
+      return rescuePrice[ordinal];
+    }
+
+    public double discountRate() {
+      return discountRate[ordinal];
+    }
+
+    public int qtyAvailable() {
+      return qtyAvailable[ordinal];
+    }
+
+    public int viewCount() {
+      return viewCount[ordinal];
+    }
+
+    public int clickCount() {
+      return clickCount[ordinal];
+    }
+
+    public int orderCount() {
+      return orderCount[ordinal];
+    }
+
+    public double ctr() {
+      return ctr[ordinal];
+    }
+
+    /** Whole hours from {@code now} (see {@link #epochSecond}) to pickup start, 0 if unknown. */
+    public long hoursUntilPickupStart(long now) {
+      return hoursBetween(now, pickupStart[ordinal]);
+    }
+
+    public long hoursUntilExpiry(long now) {
+      return hoursBetween(now, expiryAt[ordinal]);
+    }
+
+    public long pickupWindowHours() {
+      return hoursBetween(pickupStart[ordinal], pickupEnd[ordinal]);
+    }
+
+    /** Pickup start to the second, null if unknown. */
+    public LocalDateTime pickupStart() {
+      return localTime(pickupStart[ordinal]);
+    }
+
+    public LocalDateTime pickupEnd() {
+      return localTime(pickupEnd[ordinal]);
+    }
+
+    /** Seconds from {@code now} to pickup end, {@link Long#MAX_VALUE} if unknown. */
+    public long secondsUntilPickupEnd(long now) {
+      return pickupEnd[ordinal] == NO_TIME ? Long.MAX_VALUE : pickupEnd[ordinal] - now;
+    }
+
+    public long storeId() {
+      return storeIds[store];
+    }
+
+    public String storeName() {
+      return storeNames[store];
+    }
+
+    /** Store type name, "Unknown" when the supplier has none. */
+    public String storeType() {
+      return storeTypes[store];
+    }
+
+    public String storeAddress() {
+      return storeAddresses[store];
+    }
+
+    /** Store latitude, NaN when unknown. */
+    public double storeLat() {
+      return storeLat[store];
+    }
+
+    public double storeLng() {
+      return storeLng[store];
+    }
+
+    public double storeAvgRating() {
+      return avgRating[store];
+    }
+
+    public int storeTotalOrders() {
+      return storeTotalOrders[store];
+    }
+
+    public double storeCompletionRate() {
+      return completionRate[store];
+    }
+
+    public double storeOnTimeRate() {
+      return onTimeRate[store];
+    }
+
+    // truncates towards zero like ChronoUnit.HOURS.between
+    private long hoursBetween(long from, long to) {
+      return from == NO_TIME || to == NO_TIME ? 0 : (to - from) / 3600;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.frh.backend.service;
+
+import com.frh.backend.util.TopK;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process ranker over the candidates of a recommendation request. It scores the same features
+ * that are sent to the Python recommender, using a weighted sum of normalised features, so
+ * recommendations do not go empty when that service is down. It can also be made the primary
+ * ranker with {@code recommendation.ranker.primary=true}.
+ *
+ * <p>Each feature is mapped to [0, 1] before weighting:
+ *
+ * <ul>
+ *   <li>proximity: 1 at the store, 1/2 at 2 km
+ *   <li>discount: the discount rate
+ *   <li>rating: store average rating out of 5
+ *   <li>ctr: listing click-through rate
+ *   <li>urgency: 1 when expiring now, 1/2 with 12 hours left, 0 once expired
+ *   <li>affinity: past orders at the store, plus a bonus for the user's favourite store type
+ * </ul>
+ */
+@Service
+public class RecommendationRanker {
+
+  private static final double UNKNOWN_DISTANCE = 999.0;
+
+  private final boolean primary;
+  private final double distanceWeight;
+  private final double discountWeight;
+  private final double ratingWeight;
+  private final double ctrWeight;
+  private final double expiryWeight;
+  private final double affinityWeight;
+
+  public RecommendationRanker(
+      @Value("${recommendation.ranker.primary:false}") boolean primary,
+      @Value("${recommendation.ranker.weight.distance:0.3}") double distanceWeight,
+      @Value("${recommendation.ranker.weight.discount:0.2}") double discountWeight,
+      @Value("${recommendation.ranker.weight.rating:0.2}") double ratingWeight,
+      @Value("${recommendation.ranker.weight.ctr:0.1}") double ctrWeight,
+      @Value("${recommendation.ranker.weight.expiry:0.1}") double expiryWeight,
+      @Value("${recommendation.ranker.weight.affinity:0.1}") double affinityWeight) {
+    this.primary = primary;
+    this.distanceWeight = distanceWeight;
+    this.discountWeight = discountWeight;
+    this.ratingWeight = ratingWeight;
+    this.ctrWeight = ctrWeight;
+    this.expiryWeight = expiryWeight;
+    this.affinityWeight = affinityWeight;
+  }
+
+  /** Whether to rank locally instead of calling the Python recommender at all. */
+  public boolean isPrimary() {
+    return primary;
+  }
+
+  /**
+   * The {@code topK} best {@code candidates}, best first, each with its {@code predicted_score}
+   * set, in the shape the Python recommender answers with.
+   */
+  public List<Map<String, Object>> rank(List<Map<String, Object>> candidates, int topK) {
+    double[] scores = new double[candidates.size()];
+    for (int i = 0; i < scores.length; i++) {
+      Map<String, Object> c = candidates.get(i);
+      scores[i] =
+          score(
+              number(c.get("distance"), UNKNOWN_DISTANCE),
+              number(c.get("discount_rate"), 0),
+              number(c.get("store_avg_rating"), 0),
+              number(c.get("listing_ctr"), 0),
+              number(c.get("time_until_expiry"), -1),
+              number(c.get("user_store_order_count"), 0),
+              number(c.get("user_store_type_order_count"), 0) > 0);
+    }
+
+    int[] top = TopK.indices(scores, topK);
+    List<Map<String, Object>> ranked = new ArrayList<>(top.length);
+    for (int i : top) {
+      Map<String, Object> candidate = candidates.get(i);
+      candidate.put("predicted_score", scores[i]);
+      ranked.add(candidate);
+    }
+    return ranked;
+  }
+
+  double score(
+      double distanceKm,
+      double discountRate,
+      double avgRating,
+      double ctr,
+      double hoursUntilExpiry,
+      double storeOrderCount,
+      boolean favoriteStoreType) {
+    double proximity = 1 / (1 + Math.max(distanceKm, 0) / 2);
+    double urgency = hoursUntilExpiry < 0 ? 0 : 1 / (1 + hoursUntilExpiry / 12);
+    double affinity =
+        0.7 * (1 - 1 / (1 + Math.max(storeOrderCount, 0))) + (favoriteStoreType ? 0.3 : 0);
+    return distanceWeight * proximity
+        + discountWeight * clamp(discountRate)
+        + ratingWeight * clamp(avgRating / 5)
+        + ctrWeight * clamp(ctr)
+        + expiryWeight * urgency
+        + affinityWeight * affinity;
+  }
+
+  private static double clamp(double value) {
+    return value < 0 ? 0 : Math.min(value, 1);
+  }
+
+  private static double number(Object value, double fallback) {
+    return value instanceof Number n ? n.doubleValue() : fallback;
+  }
+}
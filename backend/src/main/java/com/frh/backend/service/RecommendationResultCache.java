@@ -0,0 +1,298 @@
+package com.frh.backend.service;
+
+import com.frh.backend.dto.StoreRecommendationDTO;
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.util.GeoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Homepage recommendations per consumer, {@code topK}, coarse location (a geohash cell, see
+ * {@code recommendation.cache.geohash-precision}) and time bucket, so reopening the app in the
+ * same place and hour does not rank again.
+ *
+ * <p>At most {@code recommendation.cache.max-entries} results are kept, least recently used out
+ * first, each for at most {@code recommendation.cache.ttl-seconds}. A result is dropped as soon as
+ * one of its listings changes ({@link ListingChangedEvent}, e.g. sells out) or expires ({@link
+ * ListingsExpiredEvent}), and a result computed while one of its own listings changed is not
+ * stored; changes of other listings do not hold it back. Hits and misses are counted in {@code
+ * recommendation.cache.requests}; concurrent misses of one key share one ranking through {@link
+ * RequestCoalescer}.
+ *
+ * <p>{@link HomepageRecommendationPrecomputer} fills it ahead of requests with {@link #put}.
+ */
+@Service
+public class RecommendationResultCache {
+
+  // listings whose last change is remembered; past it, loads started earlier are not stored
+  static final int MAX_TRACKED_CHANGES = 10_000;
+
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final long timeBucketMillis;
+  private final int geohashPrecision;
+  private final LongSupplier clock;
+  private final RequestCoalescer requestCoalescer;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter invalidations;
+  private final Counter precomputed;
+
+  // all fields below are guarded by this
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // listing ID -> keys of the cached results containing it
+  private final Map<Long, Set<Key>> keysByListing = new HashMap<>();
+  // listing ID -> generation of its last change, forgotten up to forgottenThrough
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long forgottenThrough;
+  private long generation;
+
+  @Autowired
+  public RecommendationResultCache(
+      @Value("${recommendation.cache.max-entries:10000}") int maxEntries,
+      @Value("${recommendation.cache.ttl-seconds:300}") long ttlSeconds,
+      @Value("${recommendation.cache.time-bucket-minutes:60}") long timeBucketMinutes,
+      @Value("${recommendation.cache.geohash-precision:5}") int geohashPrecision,
+      RequestCoalescer requestCoalescer,
+      MeterRegistry meterRegistry) {
+    this(
+        maxEntries,
+        ttlSeconds,
+        timeBucketMinutes,
+        geohashPrecision,
+        requestCoalescer,
+        meterRegistry,
+        System::currentTimeMillis);
+  }
+
+  RecommendationResultCache(
+      int maxEntries,
+      long ttlSeconds,
+      long timeBucketMinutes,
+      int geohashPrecision,
+      RequestCoalescer requestCoalescer,
+      MeterRegistry meterRegistry,
+      LongSupplier clock) {
+    this.maxEntries = maxEntries;
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.timeBucketMillis = TimeUnit.MINUTES.toMillis(timeBucketMinutes);
+    this.geohashPrecision = geohashPrecision;
+    this.clock = clock;
+    this.requestCoalescer = requestCoalescer;
+    this.hits = requestCounter("hit", meterRegistry);
+    this.misses = requestCounter("miss", meterRegistry);
+    this.invalidations =
+        Counter.builder("recommendation.cache.invalidations")
+            .description("Cached recommendations dropped because a listing changed or expired")
+            .register(meterRegistry);
+    this.precomputed =
+        Counter.builder("recommendation.cache.precomputed")
+            .description("Recommendations stored ahead of requests")
+            .register(meterRegistry);
+    Gauge.builder("recommendation.cache.size", this, RecommendationResultCache::size)
+        .register(meterRegistry);
+  }
+
+  /**
+   * The cached result for this request, or the one {@code loader} computes, which is then cached.
+   */
+  public List<StoreRecommendationDTO> get(
+      Long consumerId,
+      int topK,
+      Double userLat,
+      Double userLng,
+      Supplier<List<StoreRecommendationDTO>> loader) {
+    long now = clock.getAsLong();
+    Key key = key(consumerId, topK, userLat, userLng, now);
+
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.expiresAt > now) {
+        hits.increment();
+        return entry.result;
+      }
+      if (entry != null) {
+        remove(key);
+      }
+    }
+    misses.increment();
+
+    return requestCoalescer.coalesce(
+        "recommendations.homepage",
+        key,
+        () -> {
+          long loadGeneration;
+          synchronized (this) {
+            loadGeneration = generation;
+          }
+          List<StoreRecommendationDTO> result = List.copyOf(loader.get());
+          store(key, result, now + ttlMillis, loadGeneration);
+          return result;
+        });
+  }
+
+  /**
+   * Computes the result for a request from this place in the current time bucket with {@code
+   * loader} and caches it for {@code ttlSeconds}, replacing any cached one. It is not cached if one
+   * of its listings changed since {@code sinceGeneration}, the {@link #generation()} read before
+   * any input of {@code loader} (e.g. its candidates).
+   */
+  public void put(
+      Long consumerId,
+      int topK,
+      double lat,
+      double lng,
+      long ttlSeconds,
+      long sinceGeneration,
+      Supplier<List<StoreRecommendationDTO>> loader) {
+    long now = clock.getAsLong();
+    Key key = key(consumerId, topK, lat, lng, now);
+    List<StoreRecommendationDTO> result = List.copyOf(loader.get());
+    if (store(key, result, now + TimeUnit.SECONDS.toMillis(ttlSeconds), sinceGeneration)) {
+      precomputed.increment();
+    }
+  }
+
+  /** Advances whenever a listing changes or expires. */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  /** Whether any of {@code listingIds} changed or expired after {@code sinceGeneration}. */
+  public synchronized boolean changedSince(Collection<Long> listingIds, long sinceGeneration) {
+    if (sinceGeneration < forgottenThrough) {
+      return true;
+    }
+    for (Long listingId : listingIds) {
+      Long changed = changedAt.get(listingId);
+      if (changed != null && changed > sinceGeneration) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The location cell requests from this point are cached under. */
+  public String cell(double lat, double lng) {
+    return GeoUtils.geohash(lat, lng, geohashPrecision);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    invalidate(List.of(event.getListingId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingsExpired(ListingsExpiredEvent event) {
+    invalidate(event.getListingIds());
+  }
+
+  private Key key(Long consumerId, int topK, Double lat, Double lng, long now) {
+    String cell = lat != null && lng != null ? cell(lat, lng) : "";
+    return new Key(consumerId, topK, cell, Math.floorDiv(now, timeBucketMillis));
+  }
+
+  private synchronized boolean store(
+      Key key, List<StoreRecommendationDTO> result, long expiresAt, long loadGeneration) {
+    if (maxEntries <= 0) {
+      return false;
+    }
+    List<Long> listingIds = new ArrayList<>(result.size());
+    for (StoreRecommendationDTO dto : result) {
+      listingIds.add(dto.getListingId());
+    }
+    // one of its listings changed while ranking; the result may already be stale
+    if (changedSince(listingIds, loadGeneration)) {
+      return false;
+    }
+    remove(key);
+    entries.put(key, new Entry(result, expiresAt));
+    for (StoreRecommendationDTO dto : result) {
+      keysByListing.computeIfAbsent(dto.getListingId(), id -> new HashSet<>()).add(key);
+    }
+    while (entries.size() > maxEntries) {
+      remove(entries.keySet().iterator().next()); // least recently used
+    }
+    return true;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private synchronized void invalidate(Collection<Long> listingIds) {
+    generation++;
+    if (changedAt.size() + listingIds.size() > MAX_TRACKED_CHANGES) {
+      changedAt.clear();
+      forgottenThrough = generation - 1;
+    }
+    for (Long listingId : listingIds) {
+      changedAt.put(listingId, generation);
+      Set<Key> keys = keysByListing.remove(listingId);
+      if (keys != null) {
+        for (Key key : keys) {
+          if (remove(key)) {
+            invalidations.increment();
+          }
+        }
+      }
+    }
+  }
+
+  // callers hold the monitor
+  private boolean remove(Key key) {
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      return false;
+    }
+    for (StoreRecommendationDTO dto : entry.result) {
+      Set<Key> keys = keysByListing.get(dto.getListingId());
+      if (keys != null && keys.remove(key) && keys.isEmpty()) {
+        keysByListing.remove(dto.getListingId());
+      }
+    }
+    return true;
+  }
+
+  private static Counter requestCounter(String result, MeterRegistry meterRegistry) {
+    return Counter.builder("recommendation.cache.requests")
+        .description("Homepage recommendation cache lookups")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static final class Key {
+    private final Long consumerId;
+    private final int topK;
+    private final String cell;
+    private final long timeBucket;
+  }
+
+  @RequiredArgsConstructor
+  private static final class Entry {
+    private final List<StoreRecommendationDTO> result;
+    private final long expiresAt;
+  }
+}
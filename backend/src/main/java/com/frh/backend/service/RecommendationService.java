@@ -2,57 +2,38 @@ package com.frh.backend.service;
 
 import com.frh.backend.dto.StoreRecommendationDTO;
 import com.frh.backend.model.ConsumerStats;
-import com.frh.backend.model.Listing;
-import com.frh.backend.model.ListingStats;
-import com.frh.backend.model.Store;
-import com.frh.backend.model.StoreStats;
 import com.frh.backend.model.UserStoreInteraction;
 import com.frh.backend.repository.ConsumerStatsRepository;
-import com.frh.backend.repository.ListingRepository;
-import com.frh.backend.repository.ListingStatsRepository;
-import com.frh.backend.repository.StoreRepository;
-import com.frh.backend.repository.StoreStatsRepository;
-import com.frh.backend.repository.UserStoreInteractionRepository;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 /** 推荐系统服务 为Android首页提供个性化商家推荐 */
 @Service
 @RequiredArgsConstructor
 public class RecommendationService {
 
-  // 推荐服务URL(Python Flask服务)
-  @Value("${recommendation.service.url:http://localhost:5000}")
-  private String recommendationServiceUrl;
-
   // Repositories
-  private final ListingRepository listingRepository;
-  private final StoreRepository storeRepository;
   private final ConsumerStatsRepository consumerStatsRepository;
-  private final ListingStatsRepository listingStatsRepository;
-  private final StoreStatsRepository storeStatsRepository;
-  private final UserStoreInteractionRepository userStoreInteractionRepository;
+  private final RecommendationFeatureLoader recommendationFeatureLoader;
+  private final RecommendationFeatureStore recommendationFeatureStore;
+  private final RecommendationCandidateGenerator recommendationCandidateGenerator;
+  private final ListingSearchIndex listingSearchIndex;
 
-  private final RestTemplate restTemplate = new RestTemplate();
+  // Python Flask推荐服务, 不可用时由本地排序兜底
+  private final RecommenderClient recommenderClient;
+  private final ShardedRecommender shardedRecommender;
+  private final RecommendationRanker recommendationRanker;
+  private final RecommendationResultCache recommendationResultCache;
 
   /**
-   * 为用户推荐商家(用于首页显示)
+   * 为用户推荐商家(用于首页显示), 结果按用户、位置格子和时段缓存, 见 {@link RecommendationResultCache}
    *
    * @param consumerId 用户ID
    * @param topK 返回前K个商家(默认5个)
@@ -62,24 +43,36 @@ public class RecommendationService {
    */
   public List<StoreRecommendationDTO> recommendStoresForHomepage(
       Long consumerId, Integer topK, Double userLat, Double userLng) {
-    if (topK == null) {
-      topK = 5;
-    }
+    int k = topK != null ? topK : 5;
+    return recommendationResultCache.get(
+        consumerId, k, userLat, userLng, () -> rankForHomepage(consumerId, k, userLat, userLng));
+  }
 
-    // 1. 获取所有活跃的listings作为候选
-    List<Listing> activeListings = listingRepository.findByStatus("ACTIVE");
+  /** 首页推荐, 未经缓存 */
+  private List<StoreRecommendationDTO> rankForHomepage(
+      Long consumerId, int topK, Double userLat, Double userLng) {
+    // 1. 候选生成: 附近、有库存、未过取餐时间的listing, 按先验分数截取前N个
+    List<Long> candidateIds = recommendationCandidateGenerator.generate(userLat, userLng);
+    return rankForHomepage(consumerId, topK, userLat, userLng, candidateIds);
+  }
 
-    if (activeListings.isEmpty()) {
+  /**
+   * 首页推荐, 使用给定的候选, 未经缓存. {@link HomepageRecommendationPrecomputer} 对同一位置格子的用户共用一次候选生成
+   */
+  List<StoreRecommendationDTO> rankForHomepage(
+      Long consumerId, int topK, Double userLat, Double userLng, List<Long> candidateIds) {
+    if (candidateIds.isEmpty()) {
       return Collections.emptyList();
     }
 
     // 2. 获取用户统计信息
     ConsumerStats consumerStats = consumerStatsRepository.findByConsumerId(consumerId).orElse(null);
 
-    // 3. 构造候选特征并调用推荐服务
+    // 3. 构造候选特征并调用推荐服务, 同时记下候选的展示信息
+    Map<Long, CandidateDetails> details = new HashMap<>();
     Map<String, Object> requestBody =
         buildRecommendationRequest(
-            consumerId, activeListings, consumerStats, userLat, userLng, topK);
+            consumerId, candidateIds, consumerStats, userLat, userLng, topK, details);
 
     // 4. 调用Python推荐服务
     List<Map<String, Object>> recommendations = callRecommendationService(requestBody);
@@ -88,7 +81,7 @@ public class RecommendationService {
     List<StoreRecommendationDTO> result = new ArrayList<>();
     int rank = 1;
     for (Map<String, Object> rec : recommendations) {
-      StoreRecommendationDTO dto = convertToDto(rec, rank++, userLat, userLng);
+      StoreRecommendationDTO dto = convertToDto(rec, rank++, details);
       if (dto != null) {
         result.add(dto);
       }
@@ -97,218 +90,186 @@ public class RecommendationService {
     return result;
   }
 
-  /** 构造推荐请求 */
+  /**
+   * 构造推荐请求. Listing and store features are read from {@link RecommendationFeatureStore};
+   * only the user and context features are computed here.
+   *
+   * @param listingIds candidates, null for every active listing
+   * @param topK null to rank every candidate
+   * @param details filled with the display details of every candidate, by listing ID
+   */
   private Map<String, Object> buildRecommendationRequest(
       Long consumerId,
-      List<Listing> listings,
+      Collection<Long> listingIds,
       ConsumerStats consumerStats,
       Double userLat,
       Double userLng,
-      Integer topK) {
+      Integer topK,
+      Map<Long, CandidateDetails> details) {
     // 获取用户偏好店铺类型
     String favoriteStoreType =
         (consumerStats != null) ? consumerStats.getFavoriteStoreType() : "Unknown";
 
+    // The consumer's store interactions, one query
+    Map<Long, UserStoreInteraction> interactions =
+        recommendationFeatureLoader.loadInteractions(consumerId);
+
+    // User and time context are the same for every candidate
+    Object userTotalOrders = consumerStats != null ? consumerStats.getTotalOrders() : 0;
+    Object userTotalSpend =
+        consumerStats != null ? consumerStats.getTotalSpend().doubleValue() : 0.0;
+    Object userAvgOrderValue =
+        consumerStats != null && consumerStats.getAvgOrderValue() != null
+            ? consumerStats.getAvgOrderValue().doubleValue()
+            : 0.0;
+    Object userDaysSinceLastOrder =
+        consumerStats != null && consumerStats.getCompletedOrders() > 0 ? 7 : 999;
+
+    LocalDateTime now = LocalDateTime.now();
+    long nowSecond = RecommendationFeatureStore.epochSecond(now);
+    Object dayOfWeek = now.getDayOfWeek().getValue();
+    Object hourOfDay = now.getHour();
+    Object isWeekend = (now.getDayOfWeek().getValue() >= 6) ? 1 : 0;
+    int hour = now.getHour();
+    String timePeriod;
+    if (hour >= 6 && hour < 12) timePeriod = "morning";
+    else if (hour >= 12 && hour < 18) timePeriod = "afternoon";
+    else if (hour >= 18 && hour < 22) timePeriod = "evening";
+    else timePeriod = "night";
+
     // 构造候选列表
     List<Map<String, Object>> candidates = new ArrayList<>();
 
-    for (Listing listing : listings) {
-      Map<String, Object> candidate = new HashMap<>();
-
-      // 基本信息
-      candidate.put("listing_id", listing.getListingId());
-      candidate.put("store_id", listing.getStore().getStoreId());
-      candidate.put("store_name", listing.getStore().getStoreName());
-      candidate.put("listing_title", listing.getTitle());
-
-      // 店铺类型
-      String storeType =
-          listing.getStore().getSupplierProfile() != null
-                  && listing.getStore().getSupplierProfile().getStoreType() != null
-              ? listing.getStore().getSupplierProfile().getStoreType().getTypeName()
-              : "Unknown";
-      candidate.put("store_type", storeType);
-
-      // 价格特征
-      candidate.put("original_price", listing.getOriginalPrice().doubleValue());
-      candidate.put("rescue_price", listing.getRescuePrice().doubleValue());
-      double discountRate =
-          1.0
-              - listing
-                  .getRescuePrice()
-                  .divide(listing.getOriginalPrice(), 4, RoundingMode.HALF_UP)
-                  .doubleValue();
-      candidate.put("discount_rate", discountRate);
-
-      // 距离特征
-      Double storeLat =
-          listing.getStore().getLat() != null ? listing.getStore().getLat().doubleValue() : null;
-      Double storeLng =
-          listing.getStore().getLng() != null ? listing.getStore().getLng().doubleValue() : null;
-      Double distance = calculateDistance(userLat, userLng, storeLat, storeLng);
-      candidate.put("distance", distance);
-      candidate.put("within_radius", distance != null && distance <= 5.0 ? 1 : 0);
-
-      // 库存特征
-      Integer qtyAvailable =
-          (listing.getInventory() != null) ? listing.getInventory().getQtyAvailable() : 0;
-      candidate.put("qty_available", qtyAvailable);
-
-      // Listing统计特征
-      ListingStats listingStats =
-          listingStatsRepository.findByListingId(listing.getListingId()).orElse(null);
-
-      candidate.put("listing_view_count", listingStats != null ? listingStats.getViewCount() : 0);
-      candidate.put("listing_click_count", listingStats != null ? listingStats.getClickCount() : 0);
-      candidate.put("listing_order_count", listingStats != null ? listingStats.getOrderCount() : 0);
-      candidate.put(
-          "listing_ctr",
-          listingStats != null && listingStats.getCtr() != null
-              ? listingStats.getCtr().doubleValue()
-              : 0.0);
-
-      // 店铺统计特征
-      StoreStats storeStats =
-          storeStatsRepository.findByStoreId(listing.getStore().getStoreId()).orElse(null);
-
-      candidate.put(
-          "store_avg_rating",
-          storeStats != null && storeStats.getAvgRating() != null
-              ? storeStats.getAvgRating().doubleValue()
-              : 0.0);
-      candidate.put("store_total_orders", storeStats != null ? storeStats.getTotalOrders() : 0);
-      candidate.put(
-          "store_completion_rate",
-          storeStats != null && storeStats.getCompletionRate() != null
-              ? storeStats.getCompletionRate().doubleValue()
-              : 0.0);
-      candidate.put(
-          "store_on_time_rate",
-          storeStats != null && storeStats.getOnTimeRate() != null
-              ? storeStats.getOnTimeRate().doubleValue()
-              : 0.0);
-
-      // 用户特征
-      candidate.put(
-          "user_total_orders", consumerStats != null ? consumerStats.getTotalOrders() : 0);
-      candidate.put(
-          "user_total_spend",
-          consumerStats != null ? consumerStats.getTotalSpend().doubleValue() : 0.0);
-      candidate.put(
-          "user_avg_order_value",
-          consumerStats != null && consumerStats.getAvgOrderValue() != null
-              ? consumerStats.getAvgOrderValue().doubleValue()
-              : 0.0);
-
-      // 用户-店铺交互特征
-      UserStoreInteraction userStoreInteraction =
-          userStoreInteractionRepository
-              .findByConsumerIdAndStoreId(consumerId, listing.getStore().getStoreId())
-              .orElse(null);
-
-      candidate.put(
-          "user_has_ordered_from_store",
-          userStoreInteraction != null && userStoreInteraction.getOrderCount() > 0 ? 1 : 0);
-      candidate.put(
-          "user_store_order_count",
-          userStoreInteraction != null ? userStoreInteraction.getOrderCount() : 0);
-
-      // 上下文特征
-      LocalDateTime now = LocalDateTime.now();
-      candidate.put("day_of_week", now.getDayOfWeek().getValue());
-      candidate.put("hour_of_day", now.getHour());
-      candidate.put("is_weekend", (now.getDayOfWeek().getValue() >= 6) ? 1 : 0);
-
-      // 时间特征
-      long timeUntilPickupStart = ChronoUnit.HOURS.between(now, listing.getPickupStart());
-      long timeUntilExpiry = ChronoUnit.HOURS.between(now, listing.getExpiryAt());
-      long pickupWindowDuration =
-          ChronoUnit.HOURS.between(listing.getPickupStart(), listing.getPickupEnd());
-
-      candidate.put("time_until_pickup_start", timeUntilPickupStart);
-      candidate.put("time_until_expiry", timeUntilExpiry);
-      candidate.put("pickup_window_duration", pickupWindowDuration);
-
-      // 用户偏好匹配
-      candidate.put("user_favorite_store_type", favoriteStoreType);
-      candidate.put("user_store_type_order_count", storeType.equals(favoriteStoreType) ? 1 : 0);
-
-      // 页面上下文(首页)
-      candidate.put("page_context", "homepage");
-
-      // 时间段
-      int hour = now.getHour();
-      String timePeriod;
-      if (hour >= 6 && hour < 12) timePeriod = "morning";
-      else if (hour >= 12 && hour < 18) timePeriod = "afternoon";
-      else if (hour >= 18 && hour < 22) timePeriod = "evening";
-      else timePeriod = "night";
-      candidate.put("time_period", timePeriod);
-
-      // 搜索特征(首页场景下为0)
-      candidate.put("query_title_similarity", 0.0);
-      candidate.put("query_store_type_match", 0);
-      candidate.put("query_dietary_match", 0);
-
-      // 膳食匹配(简化版,默认0)
-      candidate.put("dietary_match_count", 0);
-
-      // 用户注册天数(简化版,假设都是老用户)
-      candidate.put("user_days_since_registration", 30);
-      candidate.put(
-          "user_days_since_last_order",
-          consumerStats != null && consumerStats.getCompletedOrders() > 0 ? 7 : 999);
-
-      // 图片URL(取第一张)
-      String photoUrl = "";
-      if (listing.getPhotos() != null && !listing.getPhotos().isEmpty()) {
-        photoUrl = listing.getPhotos().get(0).getPhotoUrl();
-      }
-      candidate.put("photo_url", photoUrl);
-
-      candidates.add(candidate);
-    }
+    recommendationFeatureStore.forEach(
+        listingIds,
+        row -> {
+          Map<String, Object> candidate = new HashMap<>();
+
+          // 基本信息
+          candidate.put("listing_id", row.listingId());
+          candidate.put("store_id", row.storeId());
+          candidate.put("store_name", row.storeName());
+          candidate.put("listing_title", row.title());
+
+          // 店铺类型
+          String storeType = row.storeType();
+          candidate.put("store_type", storeType);
+
+          // 价格特征
+          candidate.put("original_price", row.originalPrice());
+          candidate.put("rescue_price", row.rescuePrice());
+          candidate.put("discount_rate", row.discountRate());
+
+          // 距离特征
+          Double storeLat = Double.isNaN(row.storeLat()) ? null : row.storeLat();
+          Double storeLng = Double.isNaN(row.storeLng()) ? null : row.storeLng();
+          Double distance = calculateDistance(userLat, userLng, storeLat, storeLng);
+          candidate.put("distance", distance);
+          candidate.put("within_radius", distance != null && distance <= 5.0 ? 1 : 0);
+
+          // 库存特征
+          candidate.put("qty_available", row.qtyAvailable());
+
+          // Listing统计特征
+          candidate.put("listing_view_count", row.viewCount());
+          candidate.put("listing_click_count", row.clickCount());
+          candidate.put("listing_order_count", row.orderCount());
+          candidate.put("listing_ctr", row.ctr());
+
+          // 店铺统计特征
+          candidate.put("store_avg_rating", row.storeAvgRating());
+          candidate.put("store_total_orders", row.storeTotalOrders());
+          candidate.put("store_completion_rate", row.storeCompletionRate());
+          candidate.put("store_on_time_rate", row.storeOnTimeRate());
+
+          // 用户特征
+          candidate.put("user_total_orders", userTotalOrders);
+          candidate.put("user_total_spend", userTotalSpend);
+          candidate.put("user_avg_order_value", userAvgOrderValue);
+
+          // 用户-店铺交互特征
+          UserStoreInteraction userStoreInteraction = interactions.get(row.storeId());
+
+          candidate.put(
+              "user_has_ordered_from_store",
+              userStoreInteraction != null && userStoreInteraction.getOrderCount() > 0 ? 1 : 0);
+          candidate.put(
+              "user_store_order_count",
+              userStoreInteraction != null ? userStoreInteraction.getOrderCount() : 0);
+
+          // 上下文特征
+          candidate.put("day_of_week", dayOfWeek);
+          candidate.put("hour_of_day", hourOfDay);
+          candidate.put("is_weekend", isWeekend);
+
+          // 时间特征
+          candidate.put("time_until_pickup_start", row.hoursUntilPickupStart(nowSecond));
+          candidate.put("time_until_expiry", row.hoursUntilExpiry(nowSecond));
+          candidate.put("pickup_window_duration", row.pickupWindowHours());
+
+          // 用户偏好匹配
+          candidate.put("user_favorite_store_type", favoriteStoreType);
+          candidate.put(
+              "user_store_type_order_count", storeType.equals(favoriteStoreType) ? 1 : 0);
+
+          // 页面上下文(首页)
+          candidate.put("page_context", "homepage");
+
+          // 时间段
+          candidate.put("time_period", timePeriod);
+
+          // 搜索特征(首页场景下为0)
+          candidate.put("query_title_similarity", 0.0);
+          candidate.put("query_store_type_match", 0);
+          candidate.put("query_dietary_match", 0);
+
+          // 膳食匹配(简化版,默认0)
+          candidate.put("dietary_match_count", 0);
+
+          // 用户注册天数(简化版,假设都是老用户)
+          candidate.put("user_days_since_registration", 30);
+          candidate.put("user_days_since_last_order", userDaysSinceLastOrder);
+
+          // 图片URL(取第一张)
+          candidate.put("photo_url", row.photoUrl());
+
+          candidates.add(candidate);
+          details.put(row.listingId(), new CandidateDetails(row, storeLat, storeLng));
+        });
 
     // 构造请求body
     Map<String, Object> requestBody = new HashMap<>();
     requestBody.put("user_id", consumerId);
     requestBody.put("candidates", candidates);
-    requestBody.put("top_k", topK);
+    requestBody.put("top_k", topK != null ? topK : candidates.size());
 
     return requestBody;
   }
 
-  /** 调用Python推荐服务 */
+  /** 调用Python推荐服务(候选多时分片并发调用, 见 {@link ShardedRecommender}), 失败时用本地排序 */
   @SuppressWarnings("unchecked")
   private List<Map<String, Object>> callRecommendationService(Map<String, Object> requestBody) {
+    List<Map<String, Object>> candidates =
+        (List<Map<String, Object>>) requestBody.get("candidates");
+    int topK = (Integer) requestBody.get("top_k");
+    if (recommendationRanker.isPrimary()) {
+      return recommendationRanker.rank(candidates, topK);
+    }
     try {
-      String url = recommendationServiceUrl + "/api/recommend/stores";
-
-      HttpHeaders headers = new HttpHeaders();
-      headers.setContentType(MediaType.APPLICATION_JSON);
-
-      HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-      ResponseEntity<Map<String, Object>> response =
-          restTemplate.postForEntity(
-              url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
-
-      if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-        return (List<Map<String, Object>>) response.getBody().get("recommendations");
+      if (shardedRecommender.shards(candidates.size())) {
+        return shardedRecommender.recommend(requestBody);
       }
-
-      return Collections.emptyList();
-
+      return recommenderClient.recommend(requestBody);
     } catch (Exception e) {
-      // 推荐服务失败时,降级为随机推荐
+      // 推荐服务失败、超时或熔断时,降级为本地排序
       System.err.println("[WARN] 推荐服务调用失败,使用降级策略: " + e.getMessage());
-      return Collections.emptyList();
+      return recommendationRanker.rank(candidates, topK);
     }
   }
 
-  /** 转换为DTO */
+  /** 转换为DTO, 地址、坐标和取餐时间取自本次请求的候选 */
   private StoreRecommendationDTO convertToDto(
-      Map<String, Object> rec, int rank, Double userLat, Double userLng) {
+      Map<String, Object> rec, int rank, Map<Long, CandidateDetails> details) {
     StoreRecommendationDTO dto = new StoreRecommendationDTO();
 
     // 基本信息
@@ -357,25 +318,14 @@ public class RecommendationService {
       dto.setQtyAvailable(0); // 默认值
     }
 
-    // 从数据库获取Store的地址和坐标信息
-    try {
-      Store store = storeRepository.findById(storeId).orElse(null);
-      if (store != null) {
-        dto.setAddressLine(store.getAddressLine());
-        dto.setLat(store.getLat() != null ? store.getLat().doubleValue() : null);
-        dto.setLng(store.getLng() != null ? store.getLng().doubleValue() : null);
-      }
-
-      // 从数据库获取Listing的pickup时间
-      Listing listing = listingRepository.findById(listingId).orElse(null);
-      if (listing != null) {
-        dto.setPickupStart(
-            listing.getPickupStart() != null ? listing.getPickupStart().toString() : null);
-        dto.setPickupEnd(listing.getPickupEnd() != null ? listing.getPickupEnd().toString() : null);
-      }
-    } catch (Exception e) {
-      // 查询失败时忽略,使用已有信息
-      System.err.println("[WARN] 获取详细信息失败: " + e.getMessage());
+    // 候选里已有的地址、坐标和取餐时间
+    CandidateDetails candidate = details.get(listingId);
+    if (candidate != null) {
+      dto.setAddressLine(candidate.addressLine);
+      dto.setLat(candidate.lat);
+      dto.setLng(candidate.lng);
+      dto.setPickupStart(candidate.pickupStart);
+      dto.setPickupEnd(candidate.pickupEnd);
     }
 
     // 生成推荐原因
@@ -400,42 +350,28 @@ public class RecommendationService {
       return Collections.emptyList();
     }
 
-    // 1. Get all active listings
-    List<Listing> activeListings = listingRepository.findByStatus("ACTIVE");
-
-    // 2. Filter listings by keyword (title or description contains keyword)
-    String searchQuery = query.toLowerCase().trim();
-    List<Listing> matchedListings =
-        activeListings.stream()
-            .filter(
-                listing -> {
-                  String title = listing.getTitle() != null ? listing.getTitle().toLowerCase() : "";
-                  String description =
-                      listing.getDescription() != null
-                          ? listing.getDescription().toLowerCase()
-                          : "";
-                  return title.contains(searchQuery) || description.contains(searchQuery);
-                })
-            .collect(Collectors.toList());
-
-    if (matchedListings.isEmpty()) {
+    // 1-2. Resolve matching IDs from the keyword index
+    List<Long> matchedIds = listingSearchIndex.search(query);
+    if (matchedIds.isEmpty()) {
+      // No exact hit: retry typo-tolerant ("croisant" -> "croissant"), bounded result set
+      matchedIds = listingSearchIndex.fuzzySearch(query);
+    }
+    if (matchedIds.isEmpty()) {
       return Collections.emptyList();
     }
 
     // 3. Get user statistics
     ConsumerStats consumerStats = consumerStatsRepository.findByConsumerId(consumerId).orElse(null);
 
-    // 4. Build recommendation request (using all matched listings as candidates)
-    // Set topK to null to get all results sorted by ML model
+    // 4. Build recommendation request from the features of the matched, still active listings,
+    // ranking all of them (topK is applied below)
+    Map<Long, CandidateDetails> details = new HashMap<>();
     Map<String, Object> requestBody =
         buildRecommendationRequest(
-            consumerId,
-            matchedListings,
-            consumerStats,
-            userLat,
-            userLng,
-            matchedListings.size() // Request all matched listings
-            );
+            consumerId, matchedIds, consumerStats, userLat, userLng, null, details);
+    if (((List<?>) requestBody.get("candidates")).isEmpty()) {
+      return Collections.emptyList();
+    }
 
     // 5. Call Python recommendation service for sorting
     List<Map<String, Object>> recommendations = callRecommendationService(requestBody);
@@ -444,7 +380,7 @@ public class RecommendationService {
     List<StoreRecommendationDTO> result = new ArrayList<>();
     int rank = 1;
     for (Map<String, Object> rec : recommendations) {
-      StoreRecommendationDTO dto = convertToDto(rec, rank++, userLat, userLng);
+      StoreRecommendationDTO dto = convertToDto(rec, rank++, details);
       if (dto != null) {
         result.add(dto);
       }
@@ -493,4 +429,21 @@ public class RecommendationService {
 
     return R * c;
   }
+
+  /** Display details of a candidate, copied out of its feature store row. */
+  private static final class CandidateDetails {
+    private final String addressLine;
+    private final Double lat;
+    private final Double lng;
+    private final String pickupStart;
+    private final String pickupEnd;
+
+    CandidateDetails(RecommendationFeatureStore.Row row, Double lat, Double lng) {
+      this.addressLine = row.storeAddress();
+      this.lat = lat;
+      this.lng = lng;
+      this.pickupStart = row.pickupStart() != null ? row.pickupStart().toString() : null;
+      this.pickupEnd = row.pickupEnd() != null ? row.pickupEnd().toString() : null;
+    }
+  }
 }
@@ -0,0 +1,304 @@
+package com.frh.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frh.backend.exception.RecommenderUnavailableException;
+import com.frh.backend.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client of the Python recommender.
+ *
+ * <p>Calls share one JDK {@link HttpClient}, which keeps connections alive and reuses them, with
+ * strict connect and read timeouts. A semaphore caps the calls in flight and a {@link
+ * CircuitBreaker} stops calling while the recommender keeps failing or answering slowly; both
+ * reject immediately with {@link RecommenderUnavailableException} instead of queueing, so a sick
+ * recommender cannot tie up request threads. Latency is recorded per outcome in the {@code
+ * recommender.client.latency} histogram.
+ *
+ * <p>The request body is negotiated with the recommender: it starts as one JSON object per
+ * candidate, and once a response lists {@code columnar} and/or {@code gzip} in its {@value
+ * #ACCEPT_HEADER} header, later requests are sent as {@link ColumnarCandidates} and/or gzipped, as
+ * far as {@code recommendation.client.columnar} (on by default) and {@code
+ * recommendation.client.gzip} (off by default, as it costs more CPU than it saves on a fast
+ * network) allow. A response without the header switches back, and so does a 400 or
+ * 415 answer to a negotiated request, which is then resent in the original form. Bytes sent are
+ * recorded per format in {@code recommender.client.request.size}.
+ */
+@Service
+public class RecommenderClient {
+
+  private static final String RECOMMEND_PATH = "/api/recommend/stores";
+
+  /** Response header listing the request encodings the recommender accepts. */
+  static final String ACCEPT_HEADER = "X-Recommender-Accept";
+
+  // fixed latency buckets on top of the registry's percentile histogram
+  private static final Duration[] LATENCY_BUCKETS = {
+    Duration.ofMillis(50),
+    Duration.ofMillis(100),
+    Duration.ofMillis(250),
+    Duration.ofMillis(500),
+    Duration.ofSeconds(1),
+    Duration.ofSeconds(2)
+  };
+
+  private final String baseUrl;
+  private final RestTemplate restTemplate;
+  private final int maxConcurrentCalls;
+  private final Semaphore bulkhead;
+  private final CircuitBreaker breaker;
+  private final boolean columnarEnabled;
+  private final boolean gzipEnabled;
+  private final ObjectMapper objectMapper;
+
+  // what the last response advertised, see ACCEPT_HEADER
+  private volatile boolean columnarAccepted;
+  private volatile boolean gzipAccepted;
+
+  private final Timer successTimer;
+  private final Timer errorTimer;
+  private final Timer timeoutTimer;
+  private final Counter bulkheadRejections;
+  private final Counter breakerRejections;
+  private final DistributionSummary rowsRequestSize;
+  private final DistributionSummary columnarRequestSize;
+
+  public RecommenderClient(
+      @Value("${recommendation.service.url:http://localhost:5000}") String baseUrl,
+      @Value("${recommendation.client.connect-timeout-ms:500}") long connectTimeoutMs,
+      @Value("${recommendation.client.read-timeout-ms:2000}") long readTimeoutMs,
+      @Value("${recommendation.client.max-concurrent-calls:16}") int maxConcurrentCalls,
+      @Value("${recommendation.client.breaker.window-size:20}") int windowSize,
+      @Value("${recommendation.client.breaker.failure-rate:0.5}") double failureRate,
+      @Value("${recommendation.client.breaker.slow-call-ms:1000}") long slowCallMs,
+      @Value("${recommendation.client.breaker.open-ms:10000}") long openMs,
+      @Value("${recommendation.client.columnar:true}") boolean columnarEnabled,
+      @Value("${recommendation.client.gzip:false}") boolean gzipEnabled,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.baseUrl = baseUrl;
+    HttpClient httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build();
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+    this.restTemplate = new RestTemplate(requestFactory);
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.bulkhead = new Semaphore(maxConcurrentCalls);
+    this.breaker =
+        new CircuitBreaker(
+            windowSize,
+            failureRate,
+            TimeUnit.MILLISECONDS.toNanos(slowCallMs),
+            TimeUnit.MILLISECONDS.toNanos(openMs));
+    this.columnarEnabled = columnarEnabled;
+    this.gzipEnabled = gzipEnabled;
+    this.objectMapper = objectMapper;
+
+    this.successTimer = latencyTimer("success", meterRegistry);
+    this.errorTimer = latencyTimer("error", meterRegistry);
+    this.timeoutTimer = latencyTimer("timeout", meterRegistry);
+    this.bulkheadRejections = rejectionCounter("bulkhead", meterRegistry);
+    this.breakerRejections = rejectionCounter("circuit_open", meterRegistry);
+    this.rowsRequestSize = requestSize("rows", meterRegistry);
+    this.columnarRequestSize = requestSize(ColumnarCandidates.FORMAT, meterRegistry);
+    Gauge.builder("recommender.client.in_flight", bulkhead, b -> inFlight())
+        .register(meterRegistry);
+    Gauge.builder("recommender.client.breaker.state", breaker, b -> b.getState().ordinal())
+        .description("0 = closed, 1 = half-open, 2 = open")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Posts {@code requestBody} to the recommender and returns its {@code recommendations}, or an
+   * empty list when it answers without any.
+   *
+   * @throws RecommenderUnavailableException if the call was not attempted
+   * @throws org.springframework.web.client.RestClientException if the call failed or timed out
+   */
+  @SuppressWarnings("unchecked")
+  public List<Map<String, Object>> recommend(Map<String, Object> requestBody) {
+    if (!bulkhead.tryAcquire()) {
+      bulkheadRejections.increment();
+      throw new RecommenderUnavailableException(
+          "Recommender busy: " + maxConcurrentCalls + " calls in flight");
+    }
+    try {
+      if (!breaker.tryAcquire()) {
+        breakerRejections.increment();
+        throw new RecommenderUnavailableException("Recommender circuit breaker is open");
+      }
+
+      long start = System.nanoTime();
+      ResponseEntity<Map<String, Object>> response;
+      try {
+        response = exchange(requestBody);
+      } catch (RuntimeException e) {
+        long elapsed = System.nanoTime() - start;
+        breaker.onFailure();
+        (isTimeout(e) ? timeoutTimer : errorTimer).record(elapsed, TimeUnit.NANOSECONDS);
+        throw e;
+      }
+      long elapsed = System.nanoTime() - start;
+      breaker.onSuccess(elapsed);
+      successTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+      if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+        Object recommendations = response.getBody().get("recommendations");
+        if (recommendations != null) {
+          return (List<Map<String, Object>>) recommendations;
+        }
+      }
+      return Collections.emptyList();
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  public CircuitBreaker.State getBreakerState() {
+    return breaker.getState();
+  }
+
+  int inFlight() {
+    return maxConcurrentCalls - bulkhead.availablePermits();
+  }
+
+  private ResponseEntity<Map<String, Object>> exchange(Map<String, Object> requestBody) {
+    boolean columnar = columnarAccepted;
+    boolean gzip = gzipAccepted;
+    ResponseEntity<Map<String, Object>> response;
+    try {
+      response = post(requestBody, columnar, gzip);
+    } catch (HttpClientErrorException e) {
+      int status = e.getStatusCode().value();
+      if (!(columnar || gzip) || (status != 400 && status != 415)) {
+        throw e;
+      }
+      // it no longer takes what it advertised, e.g. after a rollback
+      columnarAccepted = false;
+      gzipAccepted = false;
+      response = post(requestBody, false, false);
+    }
+    String accepted = response.getHeaders().getFirst(ACCEPT_HEADER);
+    columnarAccepted = columnarEnabled && lists(accepted, ColumnarCandidates.FORMAT);
+    gzipAccepted = gzipEnabled && lists(accepted, "gzip");
+    return response;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ResponseEntity<Map<String, Object>> post(
+      Map<String, Object> requestBody, boolean columnar, boolean gzip) {
+    byte[] body = serialize(columnar ? ColumnarCandidates.encode(requestBody) : requestBody);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    if (gzip) {
+      body = gzip(body);
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    (columnar ? columnarRequestSize : rowsRequestSize).record(body.length);
+    return restTemplate.postForEntity(
+        baseUrl + RECOMMEND_PATH,
+        new HttpEntity<>(body, headers),
+        (Class<Map<String, Object>>) (Class<?>) Map.class);
+  }
+
+  private byte[] serialize(Map<String, Object> body) {
+    try {
+      return objectMapper.writeValueAsBytes(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize recommender request", e);
+    }
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+    // fastest level: most of the gain at a fraction of the CPU of the default
+    try (GZIPOutputStream gzip =
+        new GZIPOutputStream(out) {
+          {
+            def.setLevel(Deflater.BEST_SPEED);
+          }
+        }) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static boolean lists(String header, String token) {
+    if (header == null) {
+      return false;
+    }
+    for (String value : header.split(",")) {
+      if (value.trim().equalsIgnoreCase(token)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isTimeout(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof HttpTimeoutException || t instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Timer latencyTimer(String outcome, MeterRegistry meterRegistry) {
+    return Timer.builder("recommender.client.latency")
+        .description("Recommender call latency")
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .serviceLevelObjectives(LATENCY_BUCKETS)
+        .register(meterRegistry);
+  }
+
+  private static DistributionSummary requestSize(String format, MeterRegistry meterRegistry) {
+    return DistributionSummary.builder("recommender.client.request.size")
+        .description("Recommender request body size as sent")
+        .baseUnit("bytes")
+        .tag("format", format)
+        .register(meterRegistry);
+  }
+
+  private static Counter rejectionCounter(String reason, MeterRegistry meterRegistry) {
+    return Counter.builder("recommender.client.rejected")
+        .description("Recommender calls refused without being sent")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
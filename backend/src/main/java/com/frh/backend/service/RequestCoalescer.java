@@ -0,0 +1,103 @@
+package com.frh.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-flight for hot reads: concurrent callers of the same read ({@code name}) with equal keys
+ * share one in-flight computation, run on the first caller's thread, and all get its result or its
+ * exception. Nothing is kept once it completes; a later caller computes again.
+ *
+ * <p>Calls are counted per read in {@code request.coalescing.calls}, tagged {@code role=leader}
+ * when they computed and {@code role=follower} when they waited for another caller; {@code
+ * request.coalescing.ratio} is the share of followers so far. The loader must not call back into
+ * the same read with the same key.
+ */
+@Service
+public class RequestCoalescer {
+
+  private final MeterRegistry meterRegistry;
+  private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Calls> callsByName = new ConcurrentHashMap<>();
+
+  public RequestCoalescer(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /** The result of {@code loader}, or of the equal call already in flight. */
+  @SuppressWarnings("unchecked")
+  public <T> T coalesce(String name, Object key, Supplier<T> loader) {
+    Calls calls = callsByName.computeIfAbsent(name, this::register);
+    List<Object> flightKey = Arrays.asList(name, key);
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, mine);
+    if (running != null) {
+      calls.followers.increment();
+      try {
+        return (T) running.join();
+      } catch (CompletionException e) {
+        throw rethrow(e.getCause());
+      }
+    }
+
+    calls.leaders.increment();
+    try {
+      T result = loader.get();
+      mine.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(flightKey, mine);
+    }
+  }
+
+  private Calls register(String name) {
+    Calls calls = new Calls(callCounter(name, "leader"), callCounter(name, "follower"));
+    Gauge.builder("request.coalescing.ratio", calls, Calls::followerRatio)
+        .description("Share of calls that waited for an equal call in flight")
+        .tag("name", name)
+        .register(meterRegistry);
+    return calls;
+  }
+
+  private Counter callCounter(String name, String role) {
+    return Counter.builder("request.coalescing.calls")
+        .description("Coalesced reads by whether the call computed or waited")
+        .tag("name", name)
+        .tag("role", role)
+        .register(meterRegistry);
+  }
+
+  private static RuntimeException rethrow(Throwable cause) {
+    if (cause instanceof RuntimeException e) {
+      return e;
+    }
+    if (cause instanceof Error e) {
+      throw e;
+    }
+    return new IllegalStateException(cause);
+  }
+
+  @RequiredArgsConstructor
+  private static final class Calls {
+    private final Counter leaders;
+    private final Counter followers;
+
+    double followerRatio() {
+      double total = leaders.count() + followers.count();
+      return total == 0 ? 0 : followers.count() / total;
+    }
+  }
+}
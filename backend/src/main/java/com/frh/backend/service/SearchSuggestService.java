@@ -0,0 +1,233 @@
+package com.frh.backend.service;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.SearchLogRepository;
+import com.frh.backend.util.SuggestionTrie;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Search-box autocomplete served from a {@link SuggestionTrie} held in memory, so a suggestion
+ * costs no database or recommender round trip.
+ *
+ * <p>Phrases are the titles of active listings plus the most frequent logged search queries. A
+ * phrase's weight is how often it was searched plus the number of active listings carrying it as
+ * their title. Title changes are applied as they happen; query counts are reloaded on a schedule.
+ * A reload keeps the titles an event changed while it was reading.
+ */
+@Service
+public class SearchSuggestService {
+
+  public static final int DEFAULT_LIMIT = 8;
+  public static final int MAX_LIMIT = 20;
+
+  private static final int MAX_QUERY_LENGTH = 100;
+
+  private final ListingRepository listingRepository;
+  private final SearchLogRepository searchLogRepository;
+  private final int maxQueries;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // all fields below are guarded by lock
+  private SuggestionTrie trie = new SuggestionTrie();
+  // normalized phrase -> search count / number of active listings with that title
+  private Map<String, Long> queryCounts = new HashMap<>();
+  private Map<String, Integer> titleCounts = new HashMap<>();
+  // normalized phrase -> text shown to the user (original title casing wins over query text)
+  private Map<String, String> displayTexts = new HashMap<>();
+  private Map<Long, String> titleByListing = new HashMap<>();
+  // listing ID -> change count of its last title update by an event, pruned by reload
+  private final Map<Long, Long> changedAt = new HashMap<>();
+  private long changes;
+  private long rebuiltSince = -1;
+  private volatile boolean loaded;
+
+  public SearchSuggestService(
+      ListingRepository listingRepository,
+      SearchLogRepository searchLogRepository,
+      @Value("${search.suggest.max-queries:1000}") int maxQueries) {
+    this.listingRepository = listingRepository;
+    this.searchLogRepository = searchLogRepository;
+    this.maxQueries = maxQueries;
+  }
+
+  /** Best phrases containing a word that starts with {@code prefix}. */
+  public List<String> suggest(String prefix, Integer limit) {
+    int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    ensureLoaded();
+    lock.readLock().lock();
+    try {
+      return trie.suggest(prefix, size);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Rebuild from the database; picks up new search counts. */
+  @Scheduled(
+      initialDelayString = "${search.suggest.refresh-interval-ms:300000}",
+      fixedDelayString = "${search.suggest.refresh-interval-ms:300000}")
+  @Transactional(readOnly = true)
+  public void reload() {
+    long since;
+    lock.readLock().lock();
+    try {
+      since = changes;
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    Map<Long, String> nextTitles = new HashMap<>();
+    Map<String, Integer> nextTitleCounts = new HashMap<>();
+    Map<String, String> nextDisplay = new HashMap<>();
+    for (Object[] row : listingRepository.findActiveSearchText()) {
+      String title = (String) row[1];
+      String key = SuggestionTrie.normalize(title);
+      if (!key.isEmpty()) {
+        nextTitles.put((Long) row[0], key);
+        nextTitleCounts.merge(key, 1, Integer::sum);
+        nextDisplay.putIfAbsent(key, title.trim());
+      }
+    }
+
+    Map<String, Long> nextQueryCounts = new HashMap<>();
+    for (Object[] row : searchLogRepository.findPopularQueries(Limit.of(maxQueries))) {
+      String text = (String) row[0];
+      String key = SuggestionTrie.normalize(text);
+      if (key.isEmpty() || text.length() > MAX_QUERY_LENGTH) {
+        continue;
+      }
+      nextQueryCounts.merge(key, ((Number) row[1]).longValue(), Long::sum);
+      nextDisplay.putIfAbsent(key, key);
+    }
+
+    SuggestionTrie nextTrie = new SuggestionTrie();
+    for (Map.Entry<String, String> e : nextDisplay.entrySet()) {
+      String key = e.getKey();
+      long weight = nextQueryCounts.getOrDefault(key, 0L) + nextTitleCounts.getOrDefault(key, 0);
+      nextTrie.put(e.getValue(), weight);
+    }
+
+    lock.writeLock().lock();
+    try {
+      if (since < rebuiltSince) {
+        return; // a reload that read later was already applied
+      }
+      rebuiltSince = since;
+      Map<Long, String> previousTitles = titleByListing;
+      Map<String, String> previousDisplay = displayTexts;
+      trie = nextTrie;
+      queryCounts = nextQueryCounts;
+      titleCounts = nextTitleCounts;
+      displayTexts = nextDisplay;
+      titleByListing = nextTitles;
+      // listings updated by an event since the read keep the title the event wrote
+      for (Map.Entry<Long, Long> changed : changedAt.entrySet()) {
+        if (changed.getValue() > since) {
+          Long listingId = changed.getKey();
+          removeTitle(listingId);
+          String key = previousTitles.get(listingId);
+          if (key != null) {
+            addTitle(listingId, previousDisplay.getOrDefault(key, key));
+          }
+        }
+      }
+      changedAt.values().removeIf(changed -> changed <= since);
+      loaded = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Follow title changes once the listing's transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (!loaded) {
+      return; // the first load reads every title
+    }
+    List<Object[]> rows =
+        listingRepository.findActiveSearchTextByIdIn(List.of(event.getListingId()));
+    String title = rows.isEmpty() ? null : (String) rows.get(0)[1];
+    lock.writeLock().lock();
+    try {
+      changedAt.put(event.getListingId(), ++changes);
+      removeTitle(event.getListingId());
+      if (title != null && !SuggestionTrie.normalize(title).isEmpty()) {
+        addTitle(event.getListingId(), title);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingsExpired(ListingsExpiredEvent event) {
+    lock.writeLock().lock();
+    try {
+      changes++;
+      for (Long listingId : event.getListingIds()) {
+        changedAt.put(listingId, changes);
+        removeTitle(listingId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (!loaded) {
+        reload();
+      }
+    }
+  }
+
+  // callers hold the write lock
+  private void addTitle(Long listingId, String title) {
+    String key = SuggestionTrie.normalize(title);
+    titleByListing.put(listingId, key);
+    titleCounts.merge(key, 1, Integer::sum);
+    displayTexts.put(key, title.trim());
+    refresh(key);
+  }
+
+  // callers hold the write lock
+  private void removeTitle(Long listingId) {
+    String key = titleByListing.remove(listingId);
+    if (key == null) {
+      return;
+    }
+    titleCounts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    refresh(key);
+  }
+
+  // callers hold the write lock
+  private void refresh(String key) {
+    long weight = queryCounts.getOrDefault(key, 0L) + titleCounts.getOrDefault(key, 0);
+    if (weight <= 0) {
+      trie.remove(key);
+      displayTexts.remove(key);
+    } else {
+      trie.put(displayTexts.getOrDefault(key, key), weight);
+    }
+  }
+}
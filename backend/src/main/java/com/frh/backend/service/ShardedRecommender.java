@@ -0,0 +1,146 @@
+package com.frh.backend.service;
+
+import com.frh.backend.exception.RecommenderUnavailableException;
+import com.frh.backend.util.TopK;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scatter-gather over {@link RecommenderClient} for requests with many candidates: the candidates
+ * are split into shards of {@code recommendation.sharding.shard-size}, each shard is scored by its
+ * own recommender call on a pool of {@code recommendation.sharding.threads} threads, and the top
+ * {@code top_k} of all answers are merged by {@code predicted_score}.
+ *
+ * <p>All shards share one deadline, {@code recommendation.sharding.deadline-ms} after the request
+ * started. A shard that fails or has not answered by then is left out (a late one is cancelled),
+ * so a slow shard bounds the latency instead of the whole result; the outcomes are counted in
+ * {@code recommendation.shards}.
+ */
+@Service
+public class ShardedRecommender {
+
+  private final RecommenderClient recommenderClient;
+  private final int shardSize;
+  private final long deadlineMs;
+  private final ExecutorService executor;
+
+  private final Counter answered;
+  private final Counter failed;
+  private final Counter late;
+
+  public ShardedRecommender(
+      RecommenderClient recommenderClient,
+      @Value("${recommendation.sharding.shard-size:500}") int shardSize,
+      @Value("${recommendation.sharding.deadline-ms:800}") long deadlineMs,
+      @Value("${recommendation.sharding.threads:8}") int threads,
+      MeterRegistry meterRegistry) {
+    this.recommenderClient = recommenderClient;
+    this.shardSize = shardSize;
+    this.deadlineMs = deadlineMs;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            task -> {
+              Thread thread =
+                  new Thread(task, "recommendation-shard-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.answered = shardCounter("answered", meterRegistry);
+    this.failed = shardCounter("failed", meterRegistry);
+    this.late = shardCounter("late", meterRegistry);
+  }
+
+  /** Whether a request with this many candidates is split into shards (0 never shards). */
+  public boolean shards(int candidateCount) {
+    return shardSize > 0 && candidateCount > shardSize;
+  }
+
+  /**
+   * The {@code top_k} best recommendations for {@code requestBody} across the shards that answered
+   * in time, best first.
+   *
+   * @throws RecommenderUnavailableException if no shard answered in time
+   */
+  @SuppressWarnings("unchecked")
+  public List<Map<String, Object>> recommend(Map<String, Object> requestBody) {
+    List<Map<String, Object>> candidates =
+        (List<Map<String, Object>>) requestBody.get("candidates");
+    int topK = (Integer) requestBody.get("top_k");
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+    List<Future<List<Map<String, Object>>>> shards = new ArrayList<>();
+    for (int from = 0; from < candidates.size(); from += shardSize) {
+      List<Map<String, Object>> part =
+          candidates.subList(from, Math.min(from + shardSize, candidates.size()));
+      Map<String, Object> shard = new HashMap<>(requestBody);
+      shard.put("candidates", part);
+      shard.put("top_k", Math.min(topK, part.size()));
+      shards.add(executor.submit(() -> recommenderClient.recommend(shard)));
+    }
+
+    List<Map<String, Object>> merged = new ArrayList<>();
+    int answers = 0;
+    for (Future<List<Map<String, Object>>> shard : shards) {
+      try {
+        merged.addAll(shard.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        answers++;
+        answered.increment();
+      } catch (TimeoutException e) {
+        shard.cancel(true);
+        late.increment();
+      } catch (ExecutionException e) {
+        failed.increment();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        shards.forEach(s -> s.cancel(true));
+        throw new RecommenderUnavailableException("Interrupted while waiting for recommender");
+      }
+    }
+    if (answers == 0) {
+      throw new RecommenderUnavailableException(
+          "No recommender shard answered within " + deadlineMs + " ms");
+    }
+
+    double[] scores = new double[merged.size()];
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] =
+          merged.get(i).get("predicted_score") instanceof Number score
+              ? score.doubleValue()
+              : Double.NEGATIVE_INFINITY;
+    }
+    int[] top = TopK.indices(scores, topK);
+    List<Map<String, Object>> result = new ArrayList<>(top.length);
+    for (int i : top) {
+      result.add(merged.get(i));
+    }
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static Counter shardCounter(String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder("recommendation.shards")
+        .description("Recommender shard calls of sharded requests")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,181 @@
+package com.frh.backend.service;
+
+import com.frh.backend.repository.StoreRepository;
+import com.frh.backend.util.GeoUtils;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory uniform grid over store coordinates, used to answer "stores within R km" without
+ * evaluating a distance expression against every row in MySQL.
+ *
+ * <p>The world is split into square lat/lng cells of {@code listing.geo.cell-size-deg} degrees
+ * (default 0.01, roughly 1.1 km). A radius query only visits the cells overlapping the bounding box
+ * of the circle and runs the exact Haversine check on the stores found there; when that box has
+ * more cells than are populated, it walks the populated cells instead.
+ *
+ * <p>The index is loaded from the database on first use and kept in sync by {@link StoreService}.
+ */
+@Service
+public class StoreGeoIndex {
+
+  private final StoreRepository storeRepository;
+  private final double cellSizeDeg;
+  private final int columnCount;
+
+  // cell key -> store IDs in that cell
+  private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+  // store ID -> {lat, lng}
+  private final Map<Long, double[]> coordinates = new ConcurrentHashMap<>();
+
+  private volatile boolean loaded;
+
+  public StoreGeoIndex(
+      StoreRepository storeRepository,
+      @Value("${listing.geo.cell-size-deg:0.01}") double cellSizeDeg) {
+    if (cellSizeDeg <= 0) {
+      throw new IllegalArgumentException("listing.geo.cell-size-deg must be positive");
+    }
+    this.storeRepository = storeRepository;
+    this.cellSizeDeg = cellSizeDeg;
+    this.columnCount = (int) Math.ceil(360.0 / cellSizeDeg);
+  }
+
+  /** IDs of all stores whose coordinates lie within {@code radiusKm} of the given point. */
+  public List<Long> findStoreIdsWithin(double lat, double lng, double radiusKm) {
+    ensureLoaded();
+
+    double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+    int minRow = row(Math.max(-90.0, lat - latDelta));
+    int maxRow = row(Math.min(90.0, lat + latDelta));
+
+    // Widest longitude span occurs at the box edge closest to a pole
+    double widestLat = Math.min(90.0, Math.abs(lat) + latDelta);
+    double cosLat = Math.cos(Math.toRadians(widestLat));
+    int minCol;
+    int maxCol;
+    if (cosLat < 1e-6 || radiusKm / (GeoUtils.KM_PER_DEGREE_LAT * cosLat) >= 180.0) {
+      minCol = 0;
+      maxCol = columnCount - 1;
+    } else {
+      double lngDelta = radiusKm / (GeoUtils.KM_PER_DEGREE_LAT * cosLat);
+      minCol = rawColumn(lng - lngDelta);
+      maxCol = rawColumn(lng + lngDelta);
+      if (maxCol - minCol + 1 >= columnCount) {
+        minCol = 0;
+        maxCol = columnCount - 1;
+      }
+    }
+
+    List<Long> result = new ArrayList<>();
+    if ((long) (maxRow - minRow + 1) * (maxCol - minCol + 1) > cells.size()) {
+      // A wide box has more cells than there are populated ones, so walk those instead
+      for (Map.Entry<Long, Set<Long>> cell : cells.entrySet()) {
+        int r = (int) (cell.getKey() >> 32);
+        if (r >= minRow && r <= maxRow) {
+          addWithin(cell.getValue(), lat, lng, radiusKm, result);
+        }
+      }
+      return result;
+    }
+    for (int r = minRow; r <= maxRow; r++) {
+      for (int c = minCol; c <= maxCol; c++) {
+        Set<Long> storeIds = cells.get(cellKey(r, Math.floorMod(c, columnCount)));
+        if (storeIds != null) {
+          addWithin(storeIds, lat, lng, radiusKm, result);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Add or move a store. Stores without coordinates are dropped from the index. */
+  public synchronized void put(Long storeId, BigDecimal lat, BigDecimal lng) {
+    if (storeId == null) {
+      return;
+    }
+    removeInternal(storeId);
+    if (lat == null || lng == null) {
+      return;
+    }
+    addInternal(storeId, lat.doubleValue(), lng.doubleValue());
+  }
+
+  public synchronized void remove(Long storeId) {
+    removeInternal(storeId);
+  }
+
+  public int size() {
+    ensureLoaded();
+    return coordinates.size();
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (loaded) {
+        return;
+      }
+      for (Object[] row : storeRepository.findAllCoordinates()) {
+        Long storeId = (Long) row[0];
+        // changes applied through put/remove before the first load take precedence
+        if (!coordinates.containsKey(storeId)) {
+          BigDecimal lat = (BigDecimal) row[1];
+          BigDecimal lng = (BigDecimal) row[2];
+          addInternal(storeId, lat.doubleValue(), lng.doubleValue());
+        }
+      }
+      loaded = true;
+    }
+  }
+
+  private void addWithin(
+      Set<Long> storeIds, double lat, double lng, double radiusKm, List<Long> result) {
+    for (Long storeId : storeIds) {
+      double[] point = coordinates.get(storeId);
+      if (point != null && GeoUtils.haversineKm(lat, lng, point[0], point[1]) <= radiusKm) {
+        result.add(storeId);
+      }
+    }
+  }
+
+  private void addInternal(Long storeId, double lat, double lng) {
+    coordinates.put(storeId, new double[] {lat, lng});
+    cells.computeIfAbsent(cellKeyFor(lat, lng), k -> ConcurrentHashMap.newKeySet()).add(storeId);
+  }
+
+  private void removeInternal(Long storeId) {
+    double[] previous = coordinates.remove(storeId);
+    if (previous == null) {
+      return;
+    }
+    Set<Long> storeIds = cells.get(cellKeyFor(previous[0], previous[1]));
+    if (storeIds != null) {
+      storeIds.remove(storeId);
+    }
+  }
+
+  private long cellKeyFor(double lat, double lng) {
+    return cellKey(row(lat), Math.floorMod(rawColumn(lng), columnCount));
+  }
+
+  private int row(double lat) {
+    return (int) Math.floor((lat + 90.0) / cellSizeDeg);
+  }
+
+  private int rawColumn(double lng) {
+    return (int) Math.floor((lng + 180.0) / cellSizeDeg);
+  }
+
+  private static long cellKey(int row, int col) {
+    return ((long) row << 32) | (col & 0xffffffffL);
+  }
+}
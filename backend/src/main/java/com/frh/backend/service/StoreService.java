@@ -19,6 +19,8 @@ public class StoreService {
 
   @Autowired private SupplierProfileRepository supplierProfileRepository;
 
+  @Autowired private StoreGeoIndex storeGeoIndex;
+
   // create new store
   @Transactional
   public StoreResponse createStore(StoreRequest dto) { // Change return type to StoreResponse
@@ -40,6 +42,7 @@ public class StoreService {
     store.setActive(true);
 
     Store savedStore = storeRepository.save(store);
+    storeGeoIndex.put(savedStore.getStoreId(), savedStore.getLat(), savedStore.getLng());
     return mapToResponse(savedStore);
   }
 
@@ -98,6 +101,7 @@ public class StoreService {
     existingStore.setPickupInstructions(dto.getPickupInstructions());
 
     Store savedStore = storeRepository.save(existingStore);
+    storeGeoIndex.put(savedStore.getStoreId(), savedStore.getLat(), savedStore.getLng());
 
     return mapToResponse(savedStore);
   }
@@ -109,5 +113,6 @@ public class StoreService {
       throw new RuntimeException("Store not found");
     }
     storeRepository.deleteById(storeId);
+    storeGeoIndex.remove(storeId);
   }
 }
@@ -0,0 +1,148 @@
+package com.frh.backend.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code windowSize} calls are kept in a
+ * ring; once the window is full and either the failure rate or the slow-call rate reaches the
+ * threshold, the breaker opens and rejects calls for {@code openNanos}. It then lets a single
+ * trial call through (half-open): a fast success closes it with a fresh window, anything else
+ * opens it again.
+ *
+ * <p>Callers ask {@link #tryAcquire()} before a call and report exactly one of {@link
+ * #onSuccess(long)} or {@link #onFailure()} for every permitted call.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  private static final byte OK = 0;
+  private static final byte SLOW = 1;
+  private static final byte FAILED = 2;
+
+  private final byte[] window;
+  private final double threshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final LongSupplier clock;
+
+  // all fields below are guarded by this
+  private int next;
+  private int recorded;
+  private int slow;
+  private int failed;
+  private State state = State.CLOSED;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  public CircuitBreaker(int windowSize, double threshold, long slowCallNanos, long openNanos) {
+    this(windowSize, threshold, slowCallNanos, openNanos, System::nanoTime);
+  }
+
+  CircuitBreaker(
+      int windowSize, double threshold, long slowCallNanos, long openNanos, LongSupplier clock) {
+    if (windowSize <= 0 || threshold <= 0 || threshold > 1) {
+      throw new IllegalArgumentException("windowSize must be positive, threshold in (0, 1]");
+    }
+    this.window = new byte[windowSize];
+    this.threshold = threshold;
+    this.slowCallNanos = slowCallNanos;
+    this.openNanos = openNanos;
+    this.clock = clock;
+  }
+
+  /** Whether a call may go ahead now. */
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (clock.getAsLong() - openedAt < openNanos) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        trialInFlight = true;
+        return true;
+      default: // HALF_OPEN
+        if (trialInFlight) {
+          return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+  }
+
+  /** A permitted call completed; it counts as slow when it took at least the slow threshold. */
+  public synchronized void onSuccess(long durationNanos) {
+    record(durationNanos >= slowCallNanos ? SLOW : OK);
+  }
+
+  /** A permitted call failed. */
+  public synchronized void onFailure() {
+    record(FAILED);
+  }
+
+  public synchronized State getState() {
+    if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+      return State.HALF_OPEN; // the next call will be the trial
+    }
+    return state;
+  }
+
+  // callers hold the monitor
+  private void record(byte outcome) {
+    if (state == State.HALF_OPEN) {
+      trialInFlight = false;
+      if (outcome == OK) {
+        reset();
+      } else {
+        open();
+      }
+      return;
+    }
+    if (state == State.OPEN) {
+      return; // a call admitted before the breaker opened
+    }
+    if (recorded == window.length) {
+      forget(window[next]);
+    } else {
+      recorded++;
+    }
+    window[next] = outcome;
+    next = (next + 1) % window.length;
+    if (outcome == SLOW) {
+      slow++;
+    } else if (outcome == FAILED) {
+      failed++;
+    }
+    if (recorded == window.length
+        && (failed >= threshold * recorded || slow >= threshold * recorded)) {
+      open();
+    }
+  }
+
+  private void forget(byte outcome) {
+    if (outcome == SLOW) {
+      slow--;
+    } else if (outcome == FAILED) {
+      failed--;
+    }
+  }
+
+  private void open() {
+    state = State.OPEN;
+    openedAt = clock.getAsLong();
+  }
+
+  private void reset() {
+    state = State.CLOSED;
+    next = 0;
+    recorded = 0;
+    slow = 0;
+    failed = 0;
+  }
+}
@@ -0,0 +1,72 @@
+package com.frh.backend.util;
+
+public final class GeoUtils {
+
+  /** Mean earth radius in km. */
+  public static final double EARTH_RADIUS_KM = 6371.0;
+
+  /** Length of one degree of latitude in km, on the same sphere as {@link #haversineKm}. */
+  public static final double KM_PER_DEGREE_LAT = EARTH_RADIUS_KM * Math.PI / 180;
+
+  private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+  private GeoUtils() {}
+
+  /** Great-circle distance between two points in km (Haversine formula). */
+  public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+    double latDistance = Math.toRadians(lat2 - lat1);
+    double lngDistance = Math.toRadians(lng2 - lng1);
+
+    double a =
+        Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lngDistance / 2)
+                * Math.sin(lngDistance / 2);
+
+    return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+  }
+
+  /**
+   * Geohash of a point with {@code precision} characters; 5 is a cell of about 4.9 x 4.9 km, 6
+   * about 1.2 x 0.6 km.
+   */
+  public static String geohash(double lat, double lng, int precision) {
+    double minLat = -90;
+    double maxLat = 90;
+    double minLng = -180;
+    double maxLng = 180;
+    StringBuilder hash = new StringBuilder(precision);
+    boolean lngBit = true;
+    int bits = 0;
+    int value = 0;
+    while (hash.length() < precision) {
+      if (lngBit) {
+        double mid = (minLng + maxLng) / 2;
+        if (lng >= mid) {
+          value = value << 1 | 1;
+          minLng = mid;
+        } else {
+          value <<= 1;
+          maxLng = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2;
+        if (lat >= mid) {
+          value = value << 1 | 1;
+          minLat = mid;
+        } else {
+          value <<= 1;
+          maxLat = mid;
+        }
+      }
+      lngBit = !lngBit;
+      if (++bits == 5) {
+        hash.append(BASE32[value]);
+        bits = 0;
+        value = 0;
+      }
+    }
+    return hash.toString();
+  }
+}
@@ -0,0 +1,59 @@
+package com.frh.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.Getter;
+
+/**
+ * Position in the consumer listing feed, which is ordered by {@code createdAt DESC, listingId
+ * DESC}. Clients only ever see the opaque, URL-safe string form.
+ */
+@Getter
+public final class ListingCursor {
+
+  /** Sorts before every real listing, i.e. "start from the newest". */
+  public static final ListingCursor START =
+      new ListingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime createdAt;
+  private final Long listingId;
+
+  public ListingCursor(LocalDateTime createdAt, Long listingId) {
+    this.createdAt = createdAt;
+    this.listingId = listingId;
+  }
+
+  public String encode() {
+    String raw = createdAt + SEPARATOR + listingId;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses a cursor previously returned as {@code nextCursor}; a blank value means the first page.
+   *
+   * @throws IllegalArgumentException if the value was not produced by {@link #encode()}
+   */
+  public static ListingCursor decode(String value) {
+    if (value == null || value.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new ListingCursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          Long.parseLong(raw.substring(separator + 1)));
+    } catch (DateTimeParseException | IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Invalid cursor", ex);
+    }
+  }
+}
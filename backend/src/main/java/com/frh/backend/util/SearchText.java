@@ -0,0 +1,89 @@
+package com.frh.backend.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/** Tokenizing and light stemming shared by the in-memory search structures. */
+public final class SearchText {
+
+  private SearchText() {}
+
+  /** Lower-cased words of {@code text}, split on anything that is not a letter or digit. */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    // "baker's" should index as one word
+    String normalized = text.toLowerCase(Locale.ROOT).replace("'", "").replace("’", "");
+    int start = -1;
+    for (int i = 0; i <= normalized.length(); i++) {
+      boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        tokens.add(normalized.substring(start, i));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  /** {@link #tokenize} with every token expanded to its {@link #forms}. */
+  public static Set<String> terms(String text) {
+    Set<String> terms = new HashSet<>();
+    for (String token : tokenize(text)) {
+      terms.addAll(forms(token));
+    }
+    return terms;
+  }
+
+  /**
+   * {@code token}, its {@link #stem} and, for "-ies" plurals, the "-ie" singular as well:
+   * "cookies" stems to "cooky" while "cookie" stays as it is, so neither form alone matches both.
+   */
+  public static Set<String> forms(String token) {
+    Set<String> forms = new HashSet<>();
+    forms.add(token);
+    forms.add(stem(token));
+    if (token.endsWith("ies") && token.length() > 4) {
+      forms.add(token.substring(0, token.length() - 1));
+    }
+    return forms;
+  }
+
+  /**
+   * Strips English plural endings only ("berries" -> "berry", "boxes" -> "box", "breads" ->
+   * "bread"). Anything more aggressive would break prefix matching of partially typed words.
+   */
+  public static String stem(String token) {
+    int n = token.length();
+    if (n <= 3) {
+      return token;
+    }
+    if (token.endsWith("ies") && n > 4) {
+      char before = token.charAt(n - 4);
+      if (before != 'a' && before != 'e') {
+        return token.substring(0, n - 3) + "y";
+      }
+    }
+    if (token.endsWith("es")
+        && (token.endsWith("sses")
+            || token.endsWith("xes")
+            || token.endsWith("zes")
+            || token.endsWith("ches")
+            || token.endsWith("shes"))) {
+      return token.substring(0, n - 2);
+    }
+    if (token.endsWith("s")
+        && !token.endsWith("ss")
+        && !token.endsWith("us")
+        && !token.endsWith("is")) {
+      return token.substring(0, n - 1);
+    }
+    return token;
+  }
+}
@@ -0,0 +1,256 @@
+package com.frh.backend.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Weighted radix (compressed) trie for autocomplete. Every phrase is reachable from the start of
+ * each of its words, so "ric" suggests "Chicken Rice" as well as "Rice Bowl".
+ *
+ * <p>Each node remembers the highest weight below it, so {@link #suggest} walks the best branches
+ * first and stops after {@code limit} phrases instead of visiting the whole subtree. Not thread
+ * safe; callers synchronize.
+ */
+public final class SuggestionTrie {
+
+  // Highest weight first; on ties a ready phrase beats a subtree, then alphabetical
+  private static final Comparator<Object> BEST_FIRST =
+      Comparator.comparingLong(SuggestionTrie::weightOf)
+          .reversed()
+          .thenComparing(o -> o instanceof Entry ? 0 : 1)
+          .thenComparing(o -> o instanceof Entry entry ? entry.key : ((Node) o).label);
+
+  private final Node root = new Node("");
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /** Lower-cased phrase with single spaces between words, used as the trie key. */
+  public static String normalize(String text) {
+    return text == null ? "" : String.join(" ", SearchText.tokenize(text));
+  }
+
+  /** Adds a phrase or changes its display text and weight. Non-positive weights remove it. */
+  public void put(String text, long weight) {
+    String key = normalize(text);
+    if (key.isEmpty()) {
+      return;
+    }
+    remove(key);
+    if (weight <= 0) {
+      return;
+    }
+    Entry entry = new Entry(text.trim(), key, weight);
+    entries.put(key, entry);
+    for (int start : wordStarts(key)) {
+      Deque<Node> path = new ArrayDeque<>();
+      Node node = insertPath(key.substring(start), path);
+      node.entries.add(entry);
+      updateMaxWeights(path);
+    }
+  }
+
+  public void remove(String text) {
+    String key = normalize(text);
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      return;
+    }
+    for (int start : wordStarts(key)) {
+      Deque<Node> path = new ArrayDeque<>();
+      Node node = findPath(key.substring(start), path);
+      if (node != null) {
+        node.entries.remove(entry);
+        prune(path);
+        updateMaxWeights(path);
+      }
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /** Up to {@code limit} phrases containing a word that starts with {@code prefix}, best first. */
+  public List<String> suggest(String prefix, int limit) {
+    List<String> result = new ArrayList<>();
+    String key = normalize(prefix);
+    if (key.isEmpty() || limit <= 0) {
+      return result;
+    }
+    // a trailing space means the last word is complete
+    if (prefix.endsWith(" ")) {
+      key = key + " ";
+    }
+    Node start = descend(key);
+    if (start == null) {
+      return result;
+    }
+
+    PriorityQueue<Object> queue = new PriorityQueue<>(BEST_FIRST);
+    queue.add(start);
+    Set<Entry> seen = new HashSet<>();
+    while (!queue.isEmpty() && result.size() < limit) {
+      Object next = queue.poll();
+      if (next instanceof Entry entry) {
+        if (seen.add(entry)) {
+          result.add(entry.text);
+        }
+      } else {
+        Node node = (Node) next;
+        queue.addAll(node.entries);
+        queue.addAll(node.children.values());
+      }
+    }
+    return result;
+  }
+
+  private static long weightOf(Object o) {
+    return o instanceof Entry entry ? entry.weight : ((Node) o).maxWeight;
+  }
+
+  private static List<Integer> wordStarts(String key) {
+    List<Integer> starts = new ArrayList<>();
+    starts.add(0);
+    for (int i = 1; i < key.length(); i++) {
+      if (key.charAt(i - 1) == ' ') {
+        starts.add(i);
+      }
+    }
+    return starts;
+  }
+
+  /** Node where {@code key} ends, possibly partway along an edge; null if nothing matches. */
+  private Node descend(String key) {
+    Node node = root;
+    int pos = 0;
+    while (pos < key.length()) {
+      Node child = node.children.get(key.charAt(pos));
+      if (child == null) {
+        return null;
+      }
+      int common = commonPrefix(child.label, key, pos);
+      if (pos + common == key.length()) {
+        return child;
+      }
+      if (common < child.label.length()) {
+        return null;
+      }
+      pos += common;
+      node = child;
+    }
+    return node;
+  }
+
+  private Node insertPath(String key, Deque<Node> path) {
+    Node node = root;
+    path.push(node);
+    int pos = 0;
+    while (pos < key.length()) {
+      char c = key.charAt(pos);
+      Node child = node.children.get(c);
+      if (child == null) {
+        child = new Node(key.substring(pos));
+        node.children.put(c, child);
+        path.push(child);
+        return child;
+      }
+      int common = commonPrefix(child.label, key, pos);
+      if (common < child.label.length()) {
+        // split the edge
+        Node middle = new Node(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        middle.children.put(child.label.charAt(0), child);
+        middle.maxWeight = child.maxWeight;
+        node.children.put(c, middle);
+        child = middle;
+      }
+      pos += common;
+      node = child;
+      path.push(node);
+    }
+    return node;
+  }
+
+  private Node findPath(String key, Deque<Node> path) {
+    Node node = root;
+    path.push(node);
+    int pos = 0;
+    while (pos < key.length()) {
+      Node child = node.children.get(key.charAt(pos));
+      if (child == null || !key.startsWith(child.label, pos)) {
+        return null;
+      }
+      pos += child.label.length();
+      node = child;
+      path.push(node);
+    }
+    return node;
+  }
+
+  /** Drops empty leaves bottom-up; {@code path} keeps only the nodes still attached. */
+  private static void prune(Deque<Node> path) {
+    while (path.size() > 1) {
+      Node node = path.peek();
+      if (!node.entries.isEmpty() || !node.children.isEmpty()) {
+        return;
+      }
+      path.pop();
+      path.peek().children.remove(node.label.charAt(0));
+    }
+  }
+
+  /** Recomputes the subtree maximum of every node on {@code path}, deepest first. */
+  private static void updateMaxWeights(Deque<Node> path) {
+    for (Node node : path) {
+      long max = 0;
+      for (Entry entry : node.entries) {
+        max = Math.max(max, entry.weight);
+      }
+      for (Node child : node.children.values()) {
+        max = Math.max(max, child.maxWeight);
+      }
+      node.maxWeight = max;
+    }
+  }
+
+  private static int commonPrefix(String label, String key, int offset) {
+    int n = Math.min(label.length(), key.length() - offset);
+    int i = 0;
+    while (i < n && label.charAt(i) == key.charAt(offset + i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static final class Node {
+
+    private String label;
+    private final Map<Character, Node> children = new HashMap<>(4);
+    private final List<Entry> entries = new ArrayList<>(1);
+    private long maxWeight;
+
+    private Node(String label) {
+      this.label = label;
+    }
+  }
+
+  private static final class Entry {
+
+    private final String text;
+    private final String key;
+    private final long weight;
+
+    private Entry(String text, String key, long weight) {
+      this.text = text;
+      this.key = key;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.frh.backend.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded-heap selection of the first {@code k} items of a collection under some order, without
+ * sorting the whole collection: O(n log k) time and O(k) extra memory. {@link #indices} does the
+ * same over a primitive score array without boxing.
+ */
+public final class TopK {
+
+  private TopK() {}
+
+  /** The first {@code k} items of {@code items} under {@code order}, in that order. */
+  public static <T> List<T> of(Collection<? extends T> items, int k, Comparator<? super T> order) {
+    if (k <= 0 || items.isEmpty()) {
+      return new ArrayList<>();
+    }
+    // Max-heap on order: the head is the worst item kept so far
+    Comparator<T> worstFirst = (a, b) -> order.compare(b, a);
+    PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, items.size()) + 1, worstFirst);
+    for (T item : items) {
+      if (heap.size() < k) {
+        heap.add(item);
+      } else if (order.compare(item, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(item);
+      }
+    }
+    List<T> result = new ArrayList<>(heap);
+    result.sort(order);
+    return result;
+  }
+
+  /**
+   * Positions of the {@code k} highest {@code scores}, best first; equal scores keep their array
+   * order.
+   */
+  public static int[] indices(double[] scores, int k) {
+    int size = Math.min(k, scores.length);
+    if (size <= 0) {
+      return new int[0];
+    }
+    // Binary min-heap of positions: the root is the worst position kept so far
+    int[] heap = new int[size];
+    int count = 0;
+    for (int i = 0; i < scores.length; i++) {
+      if (count < size) {
+        heap[count] = i;
+        siftUp(heap, count++, scores);
+      } else if (better(i, heap[0], scores)) {
+        heap[0] = i;
+        siftDown(heap, size, scores);
+      }
+    }
+    // Pop worst-first into the back of the result
+    int[] result = new int[size];
+    for (int n = size; n > 0; n--) {
+      result[n - 1] = heap[0];
+      heap[0] = heap[n - 1];
+      siftDown(heap, n - 1, scores);
+    }
+    return result;
+  }
+
+  private static boolean better(int a, int b, double[] scores) {
+    return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+  }
+
+  private static void siftUp(int[] heap, int i, double[] scores) {
+    int item = heap[i];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!better(heap[parent], item, scores)) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = item;
+  }
+
+  private static void siftDown(int[] heap, int size, double[] scores) {
+    if (size == 0) {
+      return;
+    }
+    int item = heap[0];
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && better(heap[child], heap[child + 1], scores)) {
+        child++;
+      }
+      if (!better(item, heap[child], scores)) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = item;
+  }
+}
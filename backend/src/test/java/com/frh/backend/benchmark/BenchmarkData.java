@@ -0,0 +1,143 @@
+package com.frh.backend.benchmark;
+
+import com.frh.backend.model.SupplierProfile;
+import com.frh.backend.repository.SupplierProfileRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Bulk seeding for the opt-in benchmarks. Rows are written with JDBC batches (entity saves are far
+ * too slow at these sizes) using IDs from {@link #ID_OFFSET} upwards, so {@link #cleanUp()} never
+ * touches data created by other tests.
+ */
+class BenchmarkData {
+
+  static final long ID_OFFSET = 1_000_000L;
+  private static final int BATCH_SIZE = 1_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SupplierProfileRepository supplierProfileRepository;
+
+  BenchmarkData(JdbcTemplate jdbcTemplate, SupplierProfileRepository supplierProfileRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.supplierProfileRepository = supplierProfileRepository;
+  }
+
+  /** A seeded store with its coordinates. */
+  static final class SeededStore {
+    final long storeId;
+    final BigDecimal lat;
+    final BigDecimal lng;
+
+    SeededStore(long storeId, BigDecimal lat, BigDecimal lng) {
+      this.storeId = storeId;
+      this.lat = lat;
+      this.lng = lng;
+    }
+  }
+
+  /**
+   * One supplier, then one store + active listing + inventory row per store, spread over Singapore,
+   * with {@code photosPerListing} photos each.
+   */
+  List<SeededStore> seed(int storeCount, int photosPerListing) {
+    SupplierProfile supplier = new SupplierProfile();
+    supplier.setEmail("bench-" + storeCount + "-" + System.nanoTime() + "@test.com");
+    supplier.setPassword("password");
+    supplier.setDisplayName("Benchmark Supplier");
+    Long supplierId = supplierProfileRepository.save(supplier).getSupplierId();
+
+    Random random = new Random(42);
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    Timestamp pickupEnd = Timestamp.valueOf(LocalDateTime.now().plusHours(4));
+    List<SeededStore> seeded = new ArrayList<>();
+    List<Object[]> stores = new ArrayList<>();
+    List<Object[]> listings = new ArrayList<>();
+    List<Object[]> inventory = new ArrayList<>();
+    List<Object[]> photos = new ArrayList<>();
+    for (int i = 0; i < storeCount; i++) {
+      long id = ID_OFFSET + i;
+      BigDecimal lat = coordinate(1.20 + random.nextDouble() * 0.27);
+      BigDecimal lng = coordinate(103.60 + random.nextDouble() * 0.40);
+      stores.add(new Object[] {id, supplierId, "Store " + i, "Address " + i, lat, lng, true, now});
+      listings.add(
+          new Object[] {
+            id, id, "Listing " + i, new BigDecimal("10.00"), new BigDecimal("4.00"),
+            now, pickupEnd, pickupEnd, "ACTIVE", now
+          });
+      inventory.add(new Object[] {id, id, 5, 0, now});
+      for (int p = 0; p < photosPerListing; p++) {
+        photos.add(
+            new Object[] {
+              ID_OFFSET + (long) i * photosPerListing + p, id, "/uploads/" + id + "-" + p, p + 1, now
+            });
+      }
+      seeded.add(new SeededStore(id, lat, lng));
+    }
+    batch(
+        "INSERT INTO stores (store_id, supplier_id, store_name, address_line, lat, lng, "
+            + "is_active, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        stores);
+    batch(
+        "INSERT INTO listings (listing_id, store_id, title, original_price, rescue_price, "
+            + "pickup_start, pickup_end, expiry_at, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        listings);
+    batch(
+        "INSERT INTO inventory (inventory_id, listing_id, qty_available, qty_reserved, "
+            + "last_updated) VALUES (?, ?, ?, ?, ?)",
+        inventory);
+    batch(
+        "INSERT INTO listing_photos (listing_photo_id, listing_id, photo_url, sort_order, "
+            + "uploaded_at) VALUES (?, ?, ?, ?, ?)",
+        photos);
+    return seeded;
+  }
+
+  /** One listing_stats and one store_stats row per seeded store, as the recommender reads them. */
+  void seedStats(List<SeededStore> seeded) {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> listingStats = new ArrayList<>();
+    List<Object[]> storeStats = new ArrayList<>();
+    for (SeededStore store : seeded) {
+      listingStats.add(
+          new Object[] {store.storeId, 200, 20, 8, 4, new BigDecimal("0.1000"), now});
+      storeStats.add(
+          new Object[] {store.storeId, new BigDecimal("4.50"), 30, 40, 38, 35, 3, 500, now});
+    }
+    batch(
+        "INSERT INTO listing_stats (listing_id, view_count, click_count, add_to_cart_count, "
+            + "order_count, ctr, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+        listingStats);
+    batch(
+        "INSERT INTO store_stats (store_id, avg_rating, total_ratings, total_orders, "
+            + "completed_orders, on_time_deliveries, active_listings, total_views, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        storeStats);
+  }
+
+  void cleanUp() {
+    jdbcTemplate.update("DELETE FROM listing_stats WHERE listing_id >= ?", ID_OFFSET);
+    jdbcTemplate.update("DELETE FROM store_stats WHERE store_id >= ?", ID_OFFSET);
+    jdbcTemplate.update("DELETE FROM listing_photos WHERE listing_photo_id >= ?", ID_OFFSET);
+    jdbcTemplate.update("DELETE FROM inventory WHERE inventory_id >= ?", ID_OFFSET);
+    jdbcTemplate.update("DELETE FROM listings WHERE listing_id >= ?", ID_OFFSET);
+    jdbcTemplate.update("DELETE FROM stores WHERE store_id >= ?", ID_OFFSET);
+  }
+
+  private void batch(String sql, List<Object[]> rows) {
+    for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+      jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+    }
+  }
+
+  private static BigDecimal coordinate(double value) {
+    return BigDecimal.valueOf(value).setScale(7, RoundingMode.HALF_UP);
+  }
+}
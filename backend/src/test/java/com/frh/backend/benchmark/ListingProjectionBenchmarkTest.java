@@ -0,0 +1,112 @@
+package com.frh.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.SupplierProfileRepository;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the whole consumer feed both ways: the fetch-join entity query ({@code
+ * findAllActiveListingsWithDetails}) and the flat row projection plus batched photo/category
+ * queries. Reports time and bytes allocated per load. Opt-in: {@code mvn test -Dbenchmark=true
+ * -Dtest=ListingProjectionBenchmarkTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ListingProjectionBenchmarkTest {
+
+  private static final int PHOTOS_PER_LISTING = 3;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 10;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private SupplierProfileRepository supplierProfileRepository;
+
+  @Autowired private ListingRepository listingRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private BenchmarkData data;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setUp() {
+    data = new BenchmarkData(jdbcTemplate, supplierProfileRepository);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    data.cleanUp();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000, 10_000})
+  void activeFeed_entityFetchJoinVersusProjection(int listingCount) {
+    data.seed(listingCount, PHOTOS_PER_LISTING);
+
+    Supplier<Integer> entities =
+        () -> readOnly.execute(s -> listingRepository.findAllActiveListingsWithDetails().size());
+    Supplier<Integer> projection =
+        () ->
+            readOnly.execute(
+                s -> {
+                  List<ListingRowDTO> rows = listingRepository.findAllActiveListingRows();
+                  List<Long> ids = rows.stream().map(ListingRowDTO::getListingId).toList();
+                  listingRepository.findPhotoUrlsByListingIds(ids);
+                  listingRepository.findCategoryWeightsByListingIds(ids);
+                  return rows.size();
+                });
+    assertEquals(entities.get(), projection.get());
+
+    double[] entityCost = measure(entities);
+    double[] projectionCost = measure(projection);
+
+    System.out.printf(
+        "active feed, %d listings x %d photos: entities %.2f ms / %.1f MB, "
+            + "projection %.2f ms / %.1f MB%n",
+        listingCount,
+        PHOTOS_PER_LISTING,
+        entityCost[0],
+        entityCost[1],
+        projectionCost[0],
+        projectionCost[1]);
+  }
+
+  /** Returns {average ms, average MB allocated by this thread} per call. */
+  private static double[] measure(Supplier<Integer> load) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      load.get();
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      load.get();
+    }
+    double ms = (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+    double mb =
+        (threads.getCurrentThreadAllocatedBytes() - bytesBefore) / (1024.0 * 1024.0)
+            / MEASURED_ROUNDS;
+    return new double[] {ms, mb};
+  }
+}
@@ -0,0 +1,135 @@
+package com.frh.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.service.ListingSearchIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Keyword search over 50k synthetic listings: the old lower-case {@code contains()} scan, the
+ * exact inverted index and the trigram typo-tolerant path of {@link ListingSearchIndex}. Purely
+ * in memory, the repository is mocked. Opt-in: {@code mvn test -Dbenchmark=true
+ * -Dtest=ListingSearchBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ListingSearchBenchmarkTest {
+
+  private static final int LISTING_COUNT = 50_000;
+  private static final int WARMUP_ROUNDS = 50;
+  private static final int MEASURED_ROUNDS = 200;
+
+  private static final String[] FOODS = {
+    "croissant", "sandwich", "bagel", "muffin", "chicken", "rice", "noodle", "laksa", "dumpling",
+    "bread", "cake", "salad", "sushi", "curry", "pastry", "tart", "bun", "wrap", "soup", "pie",
+    "brownie", "cookie", "donut", "pizza", "pasta", "burger", "waffle", "scone", "kaya", "toast"
+  };
+  private static final String[] ADJECTIVES = {
+    "butter", "egg", "spicy", "fresh", "mini", "family", "vegan", "almond", "chocolate", "cheese",
+    "tuna", "beef", "veggie", "mixed", "sweet", "savory", "double", "classic", "garden", "honey"
+  };
+  private static final String[] STORE_TYPES = {
+    "Bakery", "Cafe", "Kitchen", "Deli", "Hawker", "Bistro", "Patisserie", "Eatery", "Grocer"
+  };
+
+  private List<Object[]> rows;
+  private ListingSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    Random random = new Random(42);
+    rows = new ArrayList<>();
+    for (long id = 0; id < LISTING_COUNT; id++) {
+      String title =
+          pick(random, ADJECTIVES) + " " + pick(random, FOODS) + (id % 2 == 0 ? " box" : "");
+      String description = "Surplus " + pick(random, FOODS) + " from today";
+      String storeName = "Store " + (id % 2_000) + " " + pick(random, STORE_TYPES);
+      rows.add(new Object[] {id, title, description, storeName});
+    }
+    ListingRepository listingRepository = mock(ListingRepository.class);
+    when(listingRepository.findActiveSearchText()).thenReturn(rows);
+    index = new ListingSearchIndex(listingRepository);
+
+    long start = System.nanoTime();
+    index.reload();
+    System.out.printf(
+        "search index build, %d listings: %.0f ms%n",
+        LISTING_COUNT, (System.nanoTime() - start) / 1_000_000.0);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"croisant", "sandwhich", "chocolat muffn", "bakry"})
+  void misspelledQuery_scanVersusFuzzyIndex(String query) {
+    assertTrue(scan(query).isEmpty());
+    assertTrue(index.search(query).isEmpty());
+    assertFalse(index.fuzzySearch(query).isEmpty());
+
+    double scanMs = time(() -> scan(query));
+    double exactMs = time(() -> index.search(query));
+    double fuzzyMs = time(() -> index.fuzzySearch(query));
+
+    System.out.printf(
+        "'%s', %d listings: contains() scan %.3f ms (0 hits), exact index %.3f ms (0 hits), "
+            + "fuzzy %.3f ms (%d hits)%n",
+        query, LISTING_COUNT, scanMs, exactMs, fuzzyMs, index.fuzzySearch(query).size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"croissant", "spicy laksa"})
+  void exactQuery_scanVersusIndex(String query) {
+    double scanMs = time(() -> scan(query));
+    double exactMs = time(() -> index.search(query));
+    double fuzzyMs = time(() -> index.fuzzySearch(query));
+
+    System.out.printf(
+        "'%s', %d listings: contains() scan %.3f ms (%d hits), exact index %.3f ms (%d hits), "
+            + "fuzzy %.3f ms%n",
+        query,
+        LISTING_COUNT,
+        scanMs,
+        scan(query).size(),
+        exactMs,
+        index.search(query).size(),
+        fuzzyMs);
+  }
+
+  /** What searchWithRecommendations did before the index existed. */
+  private List<Long> scan(String query) {
+    String q = query.toLowerCase(Locale.ROOT).trim();
+    List<Long> hits = new ArrayList<>();
+    for (Object[] row : rows) {
+      String title = ((String) row[1]).toLowerCase(Locale.ROOT);
+      String description = ((String) row[2]).toLowerCase(Locale.ROOT);
+      if (title.contains(q) || description.contains(q)) {
+        hits.add((Long) row[0]);
+      }
+    }
+    return hits;
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static double time(Supplier<?> query) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      query.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      query.get();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+  }
+}
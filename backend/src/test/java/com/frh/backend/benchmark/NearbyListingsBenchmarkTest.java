@@ -0,0 +1,93 @@
+package com.frh.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.SupplierProfileRepository;
+import com.frh.backend.service.ListingService;
+import com.frh.backend.service.StoreGeoIndex;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Compares the SQL Haversine scan ({@code findNearbyListings}) with the grid index path used by
+ * {@link ListingService#getNearbyListings}. Opt-in: {@code mvn test -Dbenchmark=true
+ * -Dtest=NearbyListingsBenchmarkTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NearbyListingsBenchmarkTest {
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 10;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private SupplierProfileRepository supplierProfileRepository;
+
+  @Autowired private ListingRepository listingRepository;
+
+  @Autowired private ListingService listingService;
+
+  @Autowired private StoreGeoIndex storeGeoIndex;
+
+  private BenchmarkData data;
+  private final List<Long> seededStoreIds = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    data = new BenchmarkData(jdbcTemplate, supplierProfileRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    data.cleanUp();
+    seededStoreIds.forEach(storeGeoIndex::remove);
+    seededStoreIds.clear();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10_000, 100_000})
+  void nearbyListings_sqlScanVersusGridIndex(int storeCount) {
+    for (BenchmarkData.SeededStore store : data.seed(storeCount, 1)) {
+      // the app keeps the index current through StoreService; seeding bypasses it
+      storeGeoIndex.put(store.storeId, store.lat, store.lng);
+      seededStoreIds.add(store.storeId);
+    }
+    double lat = 1.3521;
+    double lng = 103.8198;
+    double radius = 2.0;
+
+    int sqlCount = listingRepository.findNearbyListings(lat, lng, radius).size();
+    int indexCount = listingService.getNearbyListings(lat, lng, radius).size();
+    assertEquals(sqlCount, indexCount);
+
+    double sqlMs = time(() -> listingRepository.findNearbyListings(lat, lng, radius));
+    double indexMs = time(() -> listingService.getNearbyListings(lat, lng, radius));
+
+    System.out.printf(
+        "nearby listings, %d stores, %d hits: sql scan %.2f ms, grid index %.2f ms%n",
+        storeCount, indexCount, sqlMs, indexMs);
+  }
+
+  private static double time(Runnable query) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      query.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      query.run();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+  }
+}
@@ -0,0 +1,131 @@
+package com.frh.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.frh.backend.model.Listing;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.ListingStatsRepository;
+import com.frh.backend.repository.StoreStatsRepository;
+import com.frh.backend.repository.SupplierProfileRepository;
+import com.frh.backend.repository.UserStoreInteractionRepository;
+import com.frh.backend.service.RecommendationFeatureLoader;
+import com.frh.backend.service.RecommendationFeatureLoader.CandidateStats;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Feature loading for a recommendation request: three lookups per candidate (what {@code
+ * buildRecommendationRequest} used to do) against the batched queries of {@link
+ * RecommendationFeatureLoader}. Opt-in: {@code mvn test -Dbenchmark=true
+ * -Dtest=RecommendationFeatureBenchmarkTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecommendationFeatureBenchmarkTest {
+
+  // no interaction rows exist for this consumer, the query still runs
+  private static final long CONSUMER_ID = BenchmarkData.ID_OFFSET;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 10;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private SupplierProfileRepository supplierProfileRepository;
+
+  @Autowired private ListingRepository listingRepository;
+
+  @Autowired private ListingStatsRepository listingStatsRepository;
+
+  @Autowired private StoreStatsRepository storeStatsRepository;
+
+  @Autowired private UserStoreInteractionRepository userStoreInteractionRepository;
+
+  @Autowired private RecommendationFeatureLoader recommendationFeatureLoader;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private BenchmarkData data;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setUp() {
+    data = new BenchmarkData(jdbcTemplate, supplierProfileRepository);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    data.cleanUp();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000})
+  void candidateStats_perCandidateVersusBatched(int candidateCount) {
+    List<BenchmarkData.SeededStore> seeded = data.seed(candidateCount, 0);
+    data.seedStats(seeded);
+    List<Long> ids = seeded.stream().map(store -> store.storeId).toList();
+
+    Supplier<Integer> perCandidate =
+        () ->
+            readOnly.execute(
+                s -> {
+                  int found = 0;
+                  for (Listing listing : listingRepository.findAllById(ids)) {
+                    Long storeId = listing.getStore().getStoreId();
+                    found += listingStatsRepository.findByListingId(listing.getListingId())
+                        .isPresent() ? 1 : 0;
+                    found += storeStatsRepository.findByStoreId(storeId).isPresent() ? 1 : 0;
+                    userStoreInteractionRepository.findByConsumerIdAndStoreId(CONSUMER_ID, storeId);
+                  }
+                  return found;
+                });
+    Supplier<Integer> batched =
+        () ->
+            readOnly.execute(
+                s -> {
+                  List<Listing> candidates = listingRepository.findAllById(ids);
+                  Set<Long> storeIds = new LinkedHashSet<>();
+                  candidates.forEach(listing -> storeIds.add(listing.getStore().getStoreId()));
+                  CandidateStats stats = recommendationFeatureLoader.load(ids, storeIds);
+                  recommendationFeatureLoader.loadInteractions(CONSUMER_ID);
+                  int found = 0;
+                  for (Listing listing : candidates) {
+                    found += stats.listingStats(listing.getListingId()) != null ? 1 : 0;
+                    found += stats.storeStats(listing.getStore().getStoreId()) != null ? 1 : 0;
+                  }
+                  return found;
+                });
+    assertEquals(2 * candidateCount, perCandidate.get());
+    assertEquals(2 * candidateCount, batched.get());
+
+    System.out.printf(
+        "candidate stats, %d candidates: per-candidate lookups %.2f ms, batched %.2f ms%n",
+        candidateCount, time(perCandidate), time(batched));
+  }
+
+  private static double time(Supplier<Integer> load) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      load.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      load.get();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+  }
+}
@@ -0,0 +1,168 @@
+package com.frh.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frh.backend.service.RecommendationRanker;
+import com.frh.backend.service.RecommenderClient;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Ranking one homepage request: the call to the recommender, here a local stub that answers at
+ * once with a fixed top 5 (so only serialisation and the HTTP round trip are measured, not the
+ * model), against {@link RecommendationRanker} in process. Opt-in: {@code mvn test
+ * -Dbenchmark=true -Dtest=RecommendationRankerBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecommendationRankerBenchmarkTest {
+
+  private static final int TOP_K = 5;
+  private static final int WARMUP_ROUNDS = 50;
+  private static final int MEASURED_ROUNDS = 200;
+
+  static {
+    // otherwise the stub's separate header and body writes stall on Nagle + delayed ACK
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private HttpServer server;
+  private RecommenderClient client;
+  private final RecommendationRanker ranker =
+      new RecommendationRanker(true, 0.3, 0.2, 0.2, 0.1, 0.1, 0.1);
+
+  @BeforeEach
+  void setUp() throws IOException {
+    StringBuilder json = new StringBuilder("{\"recommendations\":[");
+    for (int i = 0; i < TOP_K; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"listing_id\":").append(i).append('}');
+    }
+    byte[] answer = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/api/recommend/stores",
+        exchange -> {
+          exchange.getRequestBody().readAllBytes();
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, answer.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(answer);
+          }
+        });
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.start();
+    client =
+        new RecommenderClient(
+            "http://127.0.0.1:" + server.getAddress().getPort(),
+            500,
+            5000,
+            16,
+            20,
+            0.5,
+            5000,
+            10000,
+            true,
+            true,
+            new ObjectMapper(),
+            new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {100, 1_000, 5_000})
+  void homepage_remoteCallVersusLocalRanker(int candidateCount) {
+    List<Map<String, Object>> candidates = candidates(candidateCount);
+    Map<String, Object> request = new HashMap<>();
+    request.put("user_id", 1L);
+    request.put("candidates", candidates);
+    request.put("top_k", TOP_K);
+
+    assertEquals(TOP_K, client.recommend(request).size());
+    assertEquals(TOP_K, ranker.rank(candidates, TOP_K).size());
+
+    double remoteMs = time(() -> client.recommend(request));
+    double localMs = time(() -> ranker.rank(candidates, TOP_K));
+
+    System.out.printf(
+        "homepage top %d of %d candidates: remote call %.3f ms, local ranker %.3f ms%n",
+        TOP_K, candidateCount, remoteMs, localMs);
+  }
+
+  /** Candidates carrying the full feature set of a recommendation request. */
+  private static List<Map<String, Object>> candidates(int count) {
+    Random random = new Random(42);
+    List<Map<String, Object>> candidates = new ArrayList<>(count);
+    for (long id = 0; id < count; id++) {
+      Map<String, Object> c = new HashMap<>();
+      c.put("listing_id", id);
+      c.put("store_id", id % 500);
+      c.put("store_name", "Store " + id % 500);
+      c.put("listing_title", "Listing " + id);
+      c.put("store_type", "Bakery");
+      c.put("original_price", 10.0);
+      c.put("rescue_price", 4.0 + random.nextInt(5));
+      c.put("discount_rate", random.nextDouble());
+      c.put("distance", random.nextDouble() * 15);
+      c.put("within_radius", 1);
+      c.put("qty_available", 5);
+      c.put("listing_view_count", random.nextInt(500));
+      c.put("listing_click_count", random.nextInt(100));
+      c.put("listing_order_count", random.nextInt(20));
+      c.put("listing_ctr", random.nextDouble() * 0.3);
+      c.put("store_avg_rating", 3 + random.nextDouble() * 2);
+      c.put("store_total_orders", random.nextInt(1_000));
+      c.put("store_completion_rate", 0.9);
+      c.put("store_on_time_rate", 0.95);
+      c.put("user_total_orders", 6);
+      c.put("user_total_spend", 88.0);
+      c.put("user_avg_order_value", 22.0);
+      c.put("user_has_ordered_from_store", 0);
+      c.put("user_store_order_count", random.nextInt(3));
+      c.put("day_of_week", 3);
+      c.put("hour_of_day", 18);
+      c.put("is_weekend", 0);
+      c.put("time_until_pickup_start", 1L);
+      c.put("time_until_expiry", (long) random.nextInt(48));
+      c.put("pickup_window_duration", 2L);
+      c.put("user_favorite_store_type", "Bakery");
+      c.put("user_store_type_order_count", 1);
+      c.put("page_context", "homepage");
+      c.put("time_period", "evening");
+      c.put("photo_url", "/photos/" + id + ".png");
+      candidates.add(c);
+    }
+    return candidates;
+  }
+
+  private static double time(Supplier<?> ranking) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      ranking.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      ranking.get();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+  }
+}
@@ -4,8 +4,16 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.service.ListingFacetIndex.Facet;
+import com.frh.backend.dto.ListingPageDTO;
+import com.frh.backend.service.ListingJsonCache;
 import com.frh.backend.service.ListingService;
+import com.frh.backend.service.ListingSort;
+import com.frh.backend.util.ListingCursor;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,19 +38,31 @@ class ConsumerListingControllerTest {
   @Test
   void getAllListings_success() throws Exception {
 
-    ListingDTO listing = new ListingDTO();
-    listing.setListingId(1L);
-    listing.setTitle("Bread");
-
-    Mockito.when(listingService.getAllActiveListings()).thenReturn(List.of(listing));
+    byte[] body = "[{\"listingId\":1,\"title\":\"Bread\"}]".getBytes(StandardCharsets.UTF_8);
+    Mockito.when(listingService.getAllActiveListingsJson())
+        .thenReturn(new ListingJsonCache.Entry(1L, body, "\"abc\""));
 
     mockMvc
         .perform(get("/api/listings"))
         .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"abc\""))
         .andExpect(jsonPath("$.length()").value(1))
         .andExpect(jsonPath("$[0].title").value("Bread"));
   }
 
+  @Test
+  void getAllListings_notModifiedWhenEtagMatches() throws Exception {
+
+    byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+    Mockito.when(listingService.getAllActiveListingsJson())
+        .thenReturn(new ListingJsonCache.Entry(2L, body, "\"abc\""));
+
+    mockMvc
+        .perform(get("/api/listings").header("If-None-Match", "\"abc\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
   /* --------------------------------
   GET NEARBY LISTINGS
   -------------------------------- */
@@ -83,4 +103,137 @@ class ConsumerListingControllerTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].title").value("Bakery Item"));
   }
+
+  /* --------------------------------
+  PAGED LISTINGS
+  -------------------------------- */
+  @Test
+  void getAllListings_pagedWhenLimitGiven() throws Exception {
+
+    ListingDTO listing = new ListingDTO();
+    listing.setListingId(4L);
+    listing.setTitle("Paged Bread");
+
+    Mockito.when(
+            listingService.getActiveListingsPage(
+                Mockito.any(ListingCursor.class), Mockito.eq(1)))
+        .thenReturn(new ListingPageDTO(List.of(listing), "abc"));
+
+    mockMvc
+        .perform(get("/api/listings").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.listings[0].title").value("Paged Bread"))
+        .andExpect(jsonPath("$.nextCursor").value("abc"));
+  }
+
+  @Test
+  void getListingsByCategory_invalidCursorIsBadRequest() throws Exception {
+
+    mockMvc
+        .perform(get("/api/listings/category/{category}", "Bakery").param("cursor", "%%%"))
+        .andExpect(status().isBadRequest());
+
+    Mockito.verifyNoInteractions(listingService);
+  }
+
+  /* --------------------------------
+  SORTED TOP-K
+  -------------------------------- */
+  @Test
+  void getAllListings_sortedReturnsTopK() throws Exception {
+
+    ListingDTO listing = new ListingDTO();
+    listing.setListingId(8L);
+    listing.setTitle("Cheap Bun");
+
+    Mockito.when(listingService.getTopActiveListings(ListingSort.PRICE, null, null, 20))
+        .thenReturn(List.of(listing));
+
+    mockMvc
+        .perform(get("/api/listings").param("sort", "price").param("limit", "20"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].title").value("Cheap Bun"));
+  }
+
+  @Test
+  void getNearbyListings_sortedByDistance() throws Exception {
+
+    Mockito.when(
+            listingService.getTopNearbyListings(1.3, 103.8, 5.0, ListingSort.DISTANCE, null))
+        .thenReturn(List.of());
+
+    mockMvc
+        .perform(
+            get("/api/listings/nearby")
+                .param("lat", "1.3")
+                .param("lng", "103.8")
+                .param("sort", "distance"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(0));
+  }
+
+  @Test
+  void getNearbyListings_radiusAboveMaximumIsBadRequest() throws Exception {
+
+    mockMvc
+        .perform(
+            get("/api/listings/nearby")
+                .param("lat", "1.3")
+                .param("lng", "103.8")
+                .param("radius", "20000"))
+        .andExpect(status().isBadRequest());
+
+    Mockito.verifyNoInteractions(listingService);
+  }
+
+  @Test
+  void sort_invalidCombinationsAreBadRequest() throws Exception {
+
+    mockMvc
+        .perform(get("/api/listings").param("sort", "rating"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(get("/api/listings").param("sort", "distance"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            get("/api/listings/category/{category}", "Cafe")
+                .param("sort", "price")
+                .param("cursor", "abc"))
+        .andExpect(status().isBadRequest());
+
+    Mockito.verifyNoInteractions(listingService);
+  }
+
+  /* --------------------------------
+  FACET FILTER
+  -------------------------------- */
+  @Test
+  void filterListings_passesSelectedFacetsAndReturnsCounts() throws Exception {
+
+    ListingDTO listing = new ListingDTO();
+    listing.setListingId(5L);
+    listing.setTitle("Vegan Bun");
+    ListingFacetResultDTO result =
+        new ListingFacetResultDTO(
+            List.of(listing), 1, Map.of("storeType", Map.of("Bakery", 1, "Cafe", 3)));
+
+    Mockito.when(
+            listingService.filterListings(
+                Map.of(
+                    Facet.STORE_TYPE, List.of("Bakery", "Cafe"),
+                    Facet.DIETARY, List.of("Vegan"))))
+        .thenReturn(result);
+
+    mockMvc
+        .perform(
+            get("/api/listings/filter")
+                .param("storeType", "Bakery", "Cafe")
+                .param("dietary", "Vegan"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(1))
+        .andExpect(jsonPath("$.listings[0].title").value("Vegan Bun"))
+        .andExpect(jsonPath("$.facets.storeType.Cafe").value(3));
+  }
 }
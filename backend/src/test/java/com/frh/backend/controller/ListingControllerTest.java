@@ -15,6 +15,7 @@ import com.frh.backend.dto.ListingDTO;
 import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.StoreRepository;
 import com.frh.backend.service.ListingService;
+import com.frh.backend.service.NdjsonExportService;
 import com.frh.backend.service.PhotoStorageService;
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -36,6 +37,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.multipart.MultipartFile;
 
 @WithMockUser(roles = {"CONSUMER", "SUPPLIER", "ADMIN"})
@@ -54,6 +56,8 @@ class ListingControllerTest {
 
   @MockitoBean private PhotoStorageService photoStorageService;
 
+  @MockitoBean private NdjsonExportService ndjsonExportService;
+
   @Autowired private ObjectMapper objectMapper;
 
   /* -----------------------------
@@ -223,6 +227,26 @@ class ListingControllerTest {
     mockMvc.perform(get("/api/supplier/listings")).andExpect(status().isOk());
   }
 
+  @Test
+  void streamAllListings_ndjson() throws Exception {
+
+    Mockito.when(ndjsonExportService.stream(Mockito.any(), Mockito.any()))
+        .thenReturn(out -> out.write("{\"listingId\":1}\n".getBytes()));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/supplier/listings").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string("{\"listingId\":1}\n"));
+    Mockito.verify(listingRepository, Mockito.never()).findAll();
+  }
+
   /* -----------------------------
   GET BY SUPPLIER
   ----------------------------- */
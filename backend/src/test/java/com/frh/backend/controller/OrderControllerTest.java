@@ -10,6 +10,7 @@ import com.frh.backend.model.PickupToken;
 import com.frh.backend.exception.InsufficientStockException;
 import com.frh.backend.mapper.OrderResponseMapper;
 import com.frh.backend.repository.ListingReviewRepository;
+import com.frh.backend.service.NdjsonExportService;
 import com.frh.backend.service.OrderService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,6 +27,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
 @WithMockUser(roles = {"CONSUMER", "SUPPLIER", "ADMIN"})
@@ -40,6 +42,8 @@ class OrderControllerTest {
 
   @MockitoBean private ListingReviewRepository listingReviewRepository;
 
+  @MockitoBean private NdjsonExportService ndjsonExportService;
+
   @Autowired private ObjectMapper objectMapper;
 
   /* -----------------------------
@@ -178,6 +182,29 @@ class OrderControllerTest {
     mockMvc.perform(get("/api/orders")).andExpect(status().isOk());
   }
 
+  /* -----------------------------
+  GET ALL ORDERS – NDJSON STREAM
+  ----------------------------- */
+  @Test
+  void streamAllOrders_ndjson() throws Exception {
+
+    Mockito.when(ndjsonExportService.stream(Mockito.any(), Mockito.any()))
+        .thenReturn(out -> out.write("{\"orderId\":1}\n".getBytes()));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/orders").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string("{\"orderId\":1}\n"));
+    Mockito.verify(orderService, Mockito.never()).getAllOrders();
+  }
+
   /* -----------------------------
   GET ORDERS BY CONSUMER – WRONG ROLE
   ----------------------------- */
@@ -0,0 +1,49 @@
+package com.frh.backend.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.frh.backend.service.SearchSuggestService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WithMockUser(roles = {"CONSUMER", "SUPPLIER", "ADMIN"})
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(SearchController.class)
+class SearchControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockitoBean private SearchSuggestService searchSuggestService;
+
+  @Test
+  void suggest_returnsPhrases() throws Exception {
+
+    Mockito.when(searchSuggestService.suggest("chi", 5))
+        .thenReturn(List.of("Chicken Rice", "chilli crab"));
+
+    mockMvc
+        .perform(get("/api/search/suggest").param("q", "chi").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0]").value("Chicken Rice"));
+  }
+
+  @Test
+  void suggest_withoutQuery_passesNulls() throws Exception {
+
+    Mockito.when(searchSuggestService.suggest(null, null)).thenReturn(List.of());
+
+    mockMvc
+        .perform(get("/api/search/suggest"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(0));
+  }
+}
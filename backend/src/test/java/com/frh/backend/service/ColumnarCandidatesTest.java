@@ -0,0 +1,75 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ColumnarCandidatesTest {
+
+  @Test
+  void encode_sendsConstantFeaturesOnceAndTheRestAsColumns() {
+    Map<String, Object> columnar =
+        ColumnarCandidates.encode(
+            request(candidate(11L, 0.5, 2.0, "Bakery"), candidate(12L, 0.25, null, "Cafe")));
+
+    assertEquals("columnar", columnar.get("format"));
+    assertEquals(7L, columnar.get("user_id"));
+    assertEquals(5, columnar.get("top_k"));
+    assertEquals(2, columnar.get("count"));
+    Map<?, ?> shared = (Map<?, ?>) columnar.get("shared");
+    assertEquals(Map.of("page_context", "homepage", "day_of_week", 3), shared);
+    Map<?, ?> columns = (Map<?, ?>) columnar.get("columns");
+    assertArrayEquals(new long[] {11, 12}, (long[]) columns.get("listing_id"));
+    assertTrue(Arrays.equals(new double[] {0.5, 0.25}, (double[]) columns.get("discount_rate")));
+    // a missing distance keeps the column as plain values
+    assertEquals(Arrays.asList(2.0, null), columns.get("distance"));
+    assertEquals(List.of("Bakery", "Cafe"), columns.get("store_type"));
+  }
+
+  @Test
+  void encode_keepsSingleCandidateInColumns() {
+    Map<String, Object> columnar =
+        ColumnarCandidates.encode(request(candidate(11L, 0.5, 2.0, "Bakery")));
+
+    assertTrue(((Map<?, ?>) columnar.get("shared")).isEmpty());
+    Map<?, ?> columns = (Map<?, ?>) columnar.get("columns");
+    assertArrayEquals(new long[] {3}, (long[]) columns.get("day_of_week"));
+    assertEquals(List.of("homepage"), columns.get("page_context"));
+  }
+
+  @Test
+  void encode_withoutCandidates() {
+    Map<String, Object> columnar = ColumnarCandidates.encode(request());
+
+    assertEquals(0, columnar.get("count"));
+    assertTrue(((Map<?, ?>) columnar.get("columns")).isEmpty());
+  }
+
+  @SafeVarargs
+  private static Map<String, Object> request(Map<String, Object>... candidates) {
+    Map<String, Object> request = new HashMap<>();
+    request.put("user_id", 7L);
+    request.put("candidates", new ArrayList<>(List.of(candidates)));
+    request.put("top_k", 5);
+    return request;
+  }
+
+  private static Map<String, Object> candidate(
+      long listingId, double discountRate, Double distance, String storeType) {
+    Map<String, Object> candidate = new HashMap<>();
+    candidate.put("listing_id", listingId);
+    candidate.put("discount_rate", discountRate);
+    candidate.put("distance", distance);
+    candidate.put("store_type", storeType);
+    candidate.put("page_context", "homepage");
+    candidate.put("day_of_week", 3);
+    return candidate;
+  }
+}
@@ -0,0 +1,150 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.dto.StoreRecommendationDTO;
+import com.frh.backend.repository.ConsumerStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class HomepageRecommendationPrecomputerTest {
+
+  // mid-hour, so the precompute and the request fall in the same time bucket
+  private static final long NOW = 1_000L * 3_600_000 + 1_800_000;
+
+  @Mock private ConsumerStatsRepository consumerStatsRepository;
+
+  @Mock private RecommendationCandidateGenerator recommendationCandidateGenerator;
+
+  @Mock private RecommendationService recommendationService;
+
+  private SimpleMeterRegistry meterRegistry;
+  private RecommendationResultCache cache;
+  private HomepageRecommendationPrecomputer precomputer;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache =
+        new RecommendationResultCache(
+            100, 300, 60, 5, new RequestCoalescer(meterRegistry), meterRegistry, () -> NOW);
+    precomputer =
+        new HomepageRecommendationPrecomputer(
+            consumerStatsRepository,
+            recommendationCandidateGenerator,
+            recommendationService,
+            cache,
+            5,
+            7,
+            100,
+            1200,
+            2,
+            meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    precomputer.shutdown();
+  }
+
+  @Test
+  void precomputeAll_generatesCandidatesOncePerCellAndCachesEveryConsumer() {
+    when(consumerStatsRepository.findActiveConsumerLocations(any(), any(Pageable.class)))
+        .thenReturn(
+            List.of(
+                location(1L, "1.3000", "103.8000"),
+                location(2L, "1.3010", "103.8010"),
+                location(3L, "1.4500", "103.9500")));
+    when(recommendationCandidateGenerator.generate(anyDouble(), anyDouble()))
+        .thenReturn(List.of(10L, 11L));
+    List<StoreRecommendationDTO> ranked = List.of(dto(10L));
+    when(recommendationService.rankForHomepage(
+            any(), eq(5), anyDouble(), anyDouble(), eq(List.of(10L, 11L))))
+        .thenReturn(ranked);
+
+    precomputer.precomputeAll();
+
+    verify(recommendationCandidateGenerator, times(2)).generate(anyDouble(), anyDouble());
+    verify(recommendationService, times(3))
+        .rankForHomepage(any(), eq(5), anyDouble(), anyDouble(), anyList());
+    assertEquals(3, cache.size());
+    assertEquals(3.0, consumers("ok"), 0);
+    // the homepage of a consumer opening the app near their default location is a hit
+    List<StoreRecommendationDTO> served =
+        cache.get(
+            2L,
+            5,
+            1.3010,
+            103.8010,
+            () -> {
+              throw new AssertionError("not precomputed");
+            });
+    assertEquals(ranked, served);
+  }
+
+  @Test
+  void precomputeAll_continuesPastAFailingConsumer() {
+    when(consumerStatsRepository.findActiveConsumerLocations(any(), any(Pageable.class)))
+        .thenReturn(List.of(location(1L, "1.30", "103.80"), location(2L, "1.30", "103.80")));
+    when(recommendationCandidateGenerator.generate(anyDouble(), anyDouble()))
+        .thenReturn(List.of(10L));
+    List<StoreRecommendationDTO> ranked = List.of(dto(10L));
+    when(recommendationService.rankForHomepage(eq(1L), eq(5), anyDouble(), anyDouble(), anyList()))
+        .thenThrow(new IllegalStateException("boom"));
+    when(recommendationService.rankForHomepage(eq(2L), eq(5), anyDouble(), anyDouble(), anyList()))
+        .thenReturn(ranked);
+
+    precomputer.precomputeAll();
+
+    assertEquals(1, cache.size());
+    assertEquals(1.0, consumers("ok"), 0);
+    assertEquals(1.0, consumers("failed"), 0);
+    assertSame(
+        ranked.get(0),
+        cache
+            .get(
+                2L,
+                5,
+                1.30,
+                103.80,
+                () -> {
+                  throw new AssertionError("not precomputed");
+                })
+            .get(0));
+  }
+
+  private double consumers(String result) {
+    return meterRegistry
+        .get("recommendation.precompute.consumers")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static Object[] location(Long consumerId, String lat, String lng) {
+    return new Object[] {consumerId, new BigDecimal(lat), new BigDecimal(lng)};
+  }
+
+  private static StoreRecommendationDTO dto(Long listingId) {
+    StoreRecommendationDTO dto = new StoreRecommendationDTO();
+    dto.setListingId(listingId);
+    return dto;
+  }
+}
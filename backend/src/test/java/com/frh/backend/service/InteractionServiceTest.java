@@ -13,6 +13,7 @@ import com.frh.backend.model.Listing;
 import com.frh.backend.model.ListingStats;
 import com.frh.backend.model.UserInteraction;
 import com.frh.backend.dto.UserInteractionRequest;
+import com.frh.backend.event.ListingStatsChangedEvent;
 import com.frh.backend.repository.ConsumerProfileRepository;
 import com.frh.backend.repository.ConsumerStatsRepository;
 import com.frh.backend.repository.ListingRepository;
@@ -26,6 +27,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class InteractionServiceTest {
@@ -40,6 +42,8 @@ class InteractionServiceTest {
 
   @Mock private ConsumerStatsRepository consumerStatsRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private InteractionService interactionService;
 
   @Test
@@ -72,6 +76,11 @@ class InteractionServiceTest {
     assertEquals(1, listingStatsCaptor.getValue().getViewCount());
     assertEquals(0, listingStatsCaptor.getValue().getClickCount());
 
+    ArgumentCaptor<ListingStatsChangedEvent> eventCaptor =
+        ArgumentCaptor.forClass(ListingStatsChangedEvent.class);
+    verify(eventPublisher).publishEvent(eventCaptor.capture());
+    assertEquals(10L, eventCaptor.getValue().getListingId());
+
     ArgumentCaptor<ConsumerStats> consumerStatsCaptor =
         ArgumentCaptor.forClass(ConsumerStats.class);
     verify(consumerStatsRepository).save(consumerStatsCaptor.capture());
@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.model.Inventory;
 import com.frh.backend.exception.InsufficientStockException;
 import com.frh.backend.repository.InventoryRepository;
@@ -15,12 +16,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class InventoryServiceTest {
 
   @Mock private InventoryRepository inventoryRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private InventoryService inventoryService;
 
   @Test
@@ -53,6 +57,7 @@ class InventoryServiceTest {
 
     assertEquals(5, updated.getQtyAvailable());
     verify(inventoryRepository).save(inventory);
+    verify(eventPublisher).publishEvent(any(ListingChangedEvent.class));
   }
 
   @Test
@@ -0,0 +1,115 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.frh.backend.dto.ListingDTO;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ListingCatalogServiceTest {
+
+  private final ListingCatalogService catalog = new ListingCatalogService();
+
+  @Test
+  void current_isNullUntilFirstBuild() {
+    assertNull(catalog.current());
+
+    catalog.upsert(dto(1L, 0));
+
+    assertNull(catalog.current());
+  }
+
+  @Test
+  void replaceAll_sortsNewestFirstAndIsImmutable() {
+    ListingCatalogService.Snapshot snapshot =
+        catalog.replaceAll(List.of(dto(1L, 3), dto(2L, 1), dto(3L, 2)));
+
+    assertEquals(List.of(2L, 3L, 1L), ids(snapshot));
+    assertEquals(1L, snapshot.getVersion());
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.getListings().clear());
+  }
+
+  @Test
+  void upsert_replacesExistingAndBumpsVersion() {
+    ListingCatalogService.Snapshot before = catalog.replaceAll(List.of(dto(1L, 2), dto(2L, 3)));
+    ListingDTO updated = dto(1L, 2);
+    updated.setTitle("Updated");
+
+    catalog.upsert(updated);
+    catalog.upsert(dto(3L, 1));
+
+    ListingCatalogService.Snapshot after = catalog.current();
+    assertEquals(List.of(3L, 1L, 2L), ids(after));
+    assertSame(updated, after.get(1L));
+    assertEquals(3L, after.getVersion());
+    // readers holding the old snapshot are unaffected
+    assertEquals(2, before.size());
+  }
+
+  @Test
+  void remove_dropsListingAndIgnoresUnknownIds() {
+    catalog.replaceAll(List.of(dto(1L, 1), dto(2L, 2)));
+
+    catalog.remove(1L);
+    catalog.remove(99L);
+
+    assertEquals(List.of(2L), ids(catalog.current()));
+    assertEquals(2L, catalog.current().getVersion());
+  }
+
+  @Test
+  void removeAll_dropsBatchWithSingleVersionBump() {
+    catalog.replaceAll(List.of(dto(1L, 1), dto(2L, 2), dto(3L, 3)));
+
+    catalog.removeAll(List.of(1L, 3L, 99L));
+    catalog.removeAll(List.of(98L));
+
+    assertEquals(List.of(2L), ids(catalog.current()));
+    assertEquals(2L, catalog.current().getVersion());
+  }
+
+  @Test
+  void replaceAllSince_keepsListingsChangedAfterTheRead() {
+    catalog.replaceAll(List.of(dto(1L, 1), dto(2L, 2), dto(3L, 3)));
+    long since = catalog.changeCount();
+    // committed while the rebuild below was reading
+    ListingDTO updated = dto(1L, 1);
+    updated.setTitle("Updated");
+    catalog.upsert(updated);
+    catalog.remove(2L);
+    catalog.remove(4L);
+
+    catalog.replaceAll(List.of(dto(1L, 1), dto(2L, 2), dto(4L, 4), dto(5L, 5)), since);
+
+    assertEquals(List.of(1L, 5L), ids(catalog.current()));
+    assertSame(updated, catalog.current().get(1L));
+  }
+
+  @Test
+  void replaceAllSince_dropsARebuildOlderThanTheLastOne() {
+    catalog.replaceAll(List.of(dto(1L, 1)), 0);
+    catalog.upsert(dto(2L, 2));
+    long since = catalog.changeCount();
+    catalog.replaceAll(List.of(dto(1L, 1), dto(2L, 2)), since);
+
+    catalog.replaceAll(List.of(dto(1L, 1)), since - 1);
+
+    assertEquals(List.of(1L, 2L), ids(catalog.current()));
+  }
+
+  private static List<Long> ids(ListingCatalogService.Snapshot snapshot) {
+    return snapshot.getListings().stream().map(ListingDTO::getListingId).toList();
+  }
+
+  private static ListingDTO dto(Long id, int hoursAgo) {
+    ListingDTO dto = new ListingDTO();
+    dto.setListingId(id);
+    dto.setTitle("Listing " + id);
+    dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0).minusHours(hoursAgo));
+    return dto;
+  }
+}
@@ -0,0 +1,182 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+@ExtendWith(MockitoExtension.class)
+class ListingExpiryServiceTest {
+
+  private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+  @Mock private ListingRepository listingRepository;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ListingExpiryService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new ListingExpiryService(listingRepository, eventPublisher, transactionManager);
+  }
+
+  @Test
+  void expireDue_usesEarliestOfExpiryAndPickupEnd() {
+    load(
+        row(1L, NOON.plusHours(5), NOON.minusMinutes(1)), // pickup window closed
+        row(2L, NOON, null), // expires exactly now
+        row(3L, NOON.plusMinutes(1), NOON.plusHours(2)),
+        row(4L, null, null)); // no deadline at all
+    when(listingRepository.expireListings(List.of(1L, 2L), NOON)).thenReturn(2);
+    when(listingRepository.findExpiredListingIdsByIdIn(List.of(1L, 2L)))
+        .thenReturn(List.of(1L, 2L));
+
+    List<Long> expired = service.expireDue(NOON);
+
+    assertEquals(List.of(1L, 2L), expired);
+    assertEquals(1, service.pendingCount());
+    ArgumentCaptor<ListingsExpiredEvent> captor =
+        ArgumentCaptor.forClass(ListingsExpiredEvent.class);
+    verify(eventPublisher).publishEvent(captor.capture());
+    assertEquals(List.of(1L, 2L), captor.getValue().getListingIds());
+  }
+
+  @Test
+  void expireDue_doesNothingWhenHeadIsInTheFuture() {
+    load(row(1L, NOON.plusHours(1), null));
+
+    assertTrue(service.expireDue(NOON).isEmpty());
+
+    verify(listingRepository, never()).expireListings(anyList(), any());
+    verify(eventPublisher, never()).publishEvent(any());
+    verify(transactionManager, never()).getTransaction(any(TransactionDefinition.class));
+  }
+
+  @Test
+  void expireDue_splitsLargeDueSetIntoBatches() {
+    List<Object[]> rows = new ArrayList<>();
+    LongStream.rangeClosed(1, ListingExpiryService.BATCH_SIZE + 1)
+        .forEach(id -> rows.add(row(id, NOON.minusMinutes(id), null)));
+    when(listingRepository.findActiveExpiryDeadlines()).thenReturn(rows);
+    when(listingRepository.expireListings(anyList(), any())).thenReturn(1);
+    when(listingRepository.findExpiredListingIdsByIdIn(anyList())).thenReturn(List.of(7L));
+
+    service.expireDue(NOON);
+
+    verify(listingRepository, times(2)).expireListings(anyList(), any());
+    verify(eventPublisher).publishEvent(any(ListingsExpiredEvent.class));
+  }
+
+  @Test
+  void expireDue_skipsListingsTheUpdateNoLongerMatches() {
+    load(row(1L, NOON.minusMinutes(1), null));
+    when(listingRepository.expireListings(List.of(1L), NOON)).thenReturn(0);
+
+    assertTrue(service.expireDue(NOON).isEmpty());
+
+    verify(listingRepository, never()).findExpiredListingIdsByIdIn(anyList());
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void onListingChanged_reschedulesAndDropsStaleHeapEntry() {
+    load(row(1L, NOON.minusMinutes(1), null));
+    when(listingRepository.findActiveExpiryDeadlinesByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(row(1L, NOON.plusDays(1), null)));
+
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    assertTrue(service.expireDue(NOON).isEmpty());
+    assertEquals(1, service.pendingCount());
+    verify(listingRepository, never()).expireListings(anyList(), any());
+  }
+
+  @Test
+  void onListingChanged_untracksListingThatIsNoLongerActive() {
+    load(row(1L, NOON.plusMinutes(5), null));
+    when(listingRepository.findActiveExpiryDeadlinesByIdIn(List.of(1L))).thenReturn(List.of());
+
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    assertEquals(0, service.pendingCount());
+    assertTrue(service.expireDue(NOON.plusMinutes(10)).isEmpty());
+  }
+
+  @Test
+  void onListingChanged_ignoredBeforeFirstLoad() {
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    verify(listingRepository, never()).findActiveExpiryDeadlinesByIdIn(anyList());
+  }
+
+  @Test
+  void reload_keepsDeadlinesChangedDuringTheRead() {
+    load(row(1L, NOON.plusHours(1), null), row(2L, NOON.minusMinutes(1), null));
+    when(listingRepository.findActiveExpiryDeadlinesByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(row(1L, NOON.minusMinutes(1), null)));
+    when(listingRepository.findActiveExpiryDeadlinesByIdIn(List.of(2L))).thenReturn(List.of());
+    when(listingRepository.findActiveExpiryDeadlines())
+        .thenAnswer(
+            invocation -> {
+              service.onListingChanged(new ListingChangedEvent(1L));
+              service.onListingChanged(new ListingChangedEvent(2L));
+              return List.of(row(1L, NOON.plusHours(1), null), row(2L, NOON.minusMinutes(1), null));
+            });
+    when(listingRepository.expireListings(List.of(1L), NOON)).thenReturn(1);
+    when(listingRepository.findExpiredListingIdsByIdIn(List.of(1L))).thenReturn(List.of(1L));
+
+    service.reload();
+
+    assertEquals(List.of(1L), service.expireDue(NOON));
+    assertEquals(0, service.pendingCount());
+  }
+
+  @Test
+  void expireDue_requeuesBatchWhenUpdateFails() {
+    load(row(1L, NOON.minusMinutes(1), null));
+    when(listingRepository.expireListings(List.of(1L), NOON))
+        .thenThrow(new RuntimeException("Lock wait timeout"))
+        .thenReturn(1);
+    when(listingRepository.findExpiredListingIdsByIdIn(List.of(1L))).thenReturn(List.of(1L));
+
+    assertThrows(RuntimeException.class, () -> service.expireDue(NOON));
+
+    assertEquals(List.of(1L), service.expireDue(NOON));
+    verify(transactionManager).rollback(any());
+    verify(transactionManager).commit(any());
+  }
+
+  private void load(Object[]... rows) {
+    when(listingRepository.findActiveExpiryDeadlines()).thenReturn(List.of(rows));
+    service.reload();
+  }
+
+  private static Object[] row(Long id, LocalDateTime expiryAt, LocalDateTime pickupEnd) {
+    return new Object[] {id, expiryAt, pickupEnd};
+  }
+}
@@ -0,0 +1,180 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.service.ListingFacetIndex.Facet;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ListingFacetIndexTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+  private ListingFacetIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ListingFacetIndex();
+    index.replaceAll(
+        List.of(
+            listing(1L, "Bakery", List.of("Vegan"), List.of("Bread"), "4.00", "10.00", 9),
+            listing(
+                2L, "Bakery", List.of("Halal"), List.of("Bread", "Pastry"), "8.00", "10.00", 19),
+            listing(
+                3L, "Cafe", List.of("Vegan", "Halal"), List.of("Salad"), "12.00", "30.00", 14),
+            listing(4L, "Cafe", List.of(), List.of("Pastry"), "25.00", "26.00", 22)));
+  }
+
+  @Test
+  void filter_withoutSelectionReturnsEverythingNewestFirst() {
+    ListingFacetResultDTO result = index.filter(Map.of());
+
+    assertEquals(4, result.getTotal());
+    assertEquals(List.of(4L, 3L, 2L, 1L), ids(result));
+    assertEquals(Map.of("Bakery", 2, "Cafe", 2), result.getFacets().get("storeType"));
+    assertEquals(
+        Map.of("under-5", 1, "5-10", 1, "10-20", 1, "over-20", 1),
+        result.getFacets().get("price"));
+    assertEquals(
+        Map.of("morning", 1, "afternoon", 1, "evening", 1, "night", 1),
+        result.getFacets().get("pickup"));
+  }
+
+  @Test
+  void filter_orsWithinFacetAndAndsAcrossFacets() {
+    ListingFacetResultDTO result =
+        index.filter(
+            Map.of(
+                Facet.DIETARY, List.of("Vegan", "Halal"),
+                Facet.STORE_TYPE, List.of("bakery")));
+
+    assertEquals(List.of(2L, 1L), ids(result));
+  }
+
+  @Test
+  void filter_countsIgnoreOwnFacetSelection() {
+    ListingFacetResultDTO result = index.filter(Map.of(Facet.STORE_TYPE, List.of("Cafe")));
+
+    assertEquals(List.of(4L, 3L), ids(result));
+    // sibling store type still shows what it would add
+    assertEquals(Map.of("Bakery", 2, "Cafe", 2), result.getFacets().get("storeType"));
+    // other facets are narrowed to cafes
+    assertEquals(Map.of("Vegan", 1, "Halal", 1), result.getFacets().get("dietary"));
+    assertEquals(
+        Map.of("Bread", 0, "Pastry", 1, "Salad", 1), result.getFacets().get("category"));
+  }
+
+  @Test
+  void filter_unknownValueMatchesNothing() {
+    ListingFacetResultDTO result = index.filter(Map.of(Facet.DIETARY, List.of("Kosher")));
+
+    assertEquals(0, result.getTotal());
+    assertTrue(result.getListings().isEmpty());
+  }
+
+  @Test
+  void filter_bucketsPriceAndDiscount() {
+    // 1 and 3 are 60% off, 2 is 20% off, 4 is 3% off
+    assertEquals(List.of(3L, 1L), ids(index.filter(Map.of(Facet.DISCOUNT, List.of("50-75")))));
+    assertEquals(
+        List.of(4L, 2L), ids(index.filter(Map.of(Facet.DISCOUNT, List.of("under-25")))));
+    assertEquals(
+        List.of(4L, 3L), ids(index.filter(Map.of(Facet.PRICE, List.of("10-20", "over-20")))));
+  }
+
+  @Test
+  void filter_sortedKeepsFirstKButCountsAll() {
+    ListingFacetResultDTO result =
+        index.filter(
+            Map.of(Facet.STORE_TYPE, List.of("Bakery", "Cafe")),
+            ListingSort.PRICE.comparator(null, null),
+            2);
+
+    assertEquals(List.of(1L, 2L), ids(result));
+    assertEquals(4, result.getTotal());
+  }
+
+  @Test
+  void upsert_reindexesChangedListing() {
+    index.upsert(listing(1L, "Cafe", List.of("Halal"), List.of("Bread"), "4.00", "10.00", 9));
+
+    assertEquals(4, index.size());
+    assertEquals(
+        List.of(3L, 2L, 1L), ids(index.filter(Map.of(Facet.DIETARY, List.of("Halal")))));
+    assertEquals(
+        Map.of("Bakery", 1, "Cafe", 3), index.filter(Map.of()).getFacets().get("storeType"));
+  }
+
+  @Test
+  void remove_dropsListingAndEmptyValues() {
+    index.removeAll(List.of(3L, 4L));
+
+    ListingFacetResultDTO result = index.filter(Map.of());
+    assertEquals(List.of(2L, 1L), ids(result));
+    assertFalse(result.getFacets().get("storeType").containsKey("Cafe"));
+    assertFalse(result.getFacets().get("category").containsKey("Salad"));
+  }
+
+  @Test
+  void put_reusesFreedOrdinals() {
+    index.remove(2L);
+    index.upsert(listing(5L, "Deli", List.of(), List.of(), "3.00", "6.00", 10));
+
+    assertEquals(4, index.size());
+    assertEquals(List.of(5L), ids(index.filter(Map.of(Facet.STORE_TYPE, List.of("Deli")))));
+  }
+
+  @Test
+  void upsert_ignoredBeforeFirstLoad() {
+    ListingFacetIndex empty = new ListingFacetIndex();
+    empty.upsert(listing(1L, "Bakery", List.of(), List.of(), "4.00", "10.00", 9));
+
+    assertFalse(empty.isLoaded());
+    assertEquals(0, empty.size());
+  }
+
+  @Test
+  void buckets_handleMissingValues() {
+    assertNull(ListingFacetIndex.priceBucket(null));
+    assertNull(ListingFacetIndex.discountBucket(BigDecimal.ZERO, BigDecimal.ONE));
+    assertEquals(
+        "over-75", ListingFacetIndex.discountBucket(new BigDecimal("10"), BigDecimal.ONE));
+    assertEquals("night", ListingFacetIndex.pickupBucket(2));
+  }
+
+  private static List<Long> ids(ListingFacetResultDTO result) {
+    return result.getListings().stream()
+        .map(ListingDTO::getListingId)
+        .collect(Collectors.toList());
+  }
+
+  private static ListingDTO listing(
+      Long id,
+      String storeType,
+      List<String> dietaryTags,
+      List<String> categories,
+      String rescuePrice,
+      String originalPrice,
+      int pickupHour) {
+    ListingDTO dto = new ListingDTO();
+    dto.setListingId(id);
+    dto.setCategory(storeType);
+    dto.setDietaryTags(dietaryTags);
+    dto.setCategoryNames(categories);
+    dto.setRescuePrice(new BigDecimal(rescuePrice));
+    dto.setOriginalPrice(new BigDecimal(originalPrice));
+    dto.setPickupStart(BASE.withHour(pickupHour));
+    dto.setCreatedAt(BASE.plusMinutes(id));
+    return dto;
+  }
+}
@@ -0,0 +1,73 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.frh.backend.dto.ListingDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ListingJsonCacheTest {
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  private final ListingCatalogService catalog = new ListingCatalogService();
+  private final RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
+  private final ListingJsonCache cache = new ListingJsonCache(objectMapper, requestCoalescer);
+
+  @Test
+  void get_serializesOncePerVersion() {
+    ListingCatalogService.Snapshot snapshot = catalog.replaceAll(List.of(dto(1L, "Bread")));
+
+    ListingJsonCache.Entry first = cache.get(snapshot);
+    ListingJsonCache.Entry second = cache.get(snapshot);
+
+    assertSame(first, second);
+    String json = new String(first.getBody(), StandardCharsets.UTF_8);
+    assertTrue(json.startsWith("[{"));
+    assertTrue(json.contains("\"title\":\"Bread\""));
+    assertTrue(json.contains("\"createdAt\":\"2026-01-01T12:00:00\""));
+  }
+
+  @Test
+  void get_newVersionChangesBodyAndEtag() {
+    ListingJsonCache.Entry before = cache.get(catalog.replaceAll(List.of(dto(1L, "Bread"))));
+
+    catalog.upsert(dto(2L, "Cake"));
+    ListingJsonCache.Entry after = cache.get(catalog.current());
+
+    assertEquals(2L, after.getVersion());
+    assertNotEquals(before.getEtag(), after.getEtag());
+    assertTrue(after.getEtag().startsWith("\"") && after.getEtag().endsWith("\""));
+  }
+
+  @Test
+  void get_sameContentGivesSameEtagAcrossInstances() {
+    ListingJsonCache other = new ListingJsonCache(objectMapper, requestCoalescer);
+    ListingCatalogService otherCatalog = new ListingCatalogService();
+
+    String etag = cache.get(catalog.replaceAll(List.of(dto(1L, "Bread")))).getEtag();
+    String restartedEtag = other.get(otherCatalog.replaceAll(List.of(dto(1L, "Bread")))).getEtag();
+
+    assertEquals(etag, restartedEtag);
+  }
+
+  private static ListingDTO dto(Long id, String title) {
+    ListingDTO dto = new ListingDTO();
+    dto.setListingId(id);
+    dto.setTitle(title);
+    dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+    return dto;
+  }
+}
@@ -10,13 +10,17 @@ import static org.mockito.Mockito.when;
 
 import com.frh.backend.model.ConsumerProfile;
 import com.frh.backend.model.Listing;
+import com.frh.backend.event.ListingChangedEvent;
 import com.frh.backend.model.ListingReview;
+import com.frh.backend.model.ListingReviewStats;
 import com.frh.backend.model.Order;
 import com.frh.backend.model.OrderItem;
 import com.frh.backend.model.Store;
 import com.frh.backend.dto.CreateListingReviewRequest;
 import com.frh.backend.dto.ListingReviewResponse;
+import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.ListingReviewRepository;
+import com.frh.backend.repository.ListingReviewStatsRepository;
 import com.frh.backend.repository.OrderRepository;
 import com.frh.backend.repository.StoreStatsRepository;
 import java.math.BigDecimal;
@@ -25,9 +29,11 @@ import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -40,6 +46,12 @@ class ListingReviewServiceTest {
 
   @Mock private StoreStatsRepository storeStatsRepository;
 
+  @Mock private ListingReviewStatsRepository listingReviewStatsRepository;
+
+  @Mock private ListingRepository listingRepository;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private ListingReviewService listingReviewService;
 
   @Test
@@ -59,6 +71,8 @@ class ListingReviewServiceTest {
               review.setCreatedAt(LocalDateTime.now());
               return review;
             });
+    when(listingReviewStatsRepository.findByListingIdForUpdate(100L))
+        .thenReturn(Optional.of(stats(100L, 0, 0)));
     when(listingReviewRepository.findAll()).thenReturn(List.of());
 
     ListingReviewResponse created = listingReviewService.createReview(10L, request);
@@ -70,6 +84,35 @@ class ListingReviewServiceTest {
     assertEquals("Excellent", created.getComment());
     assertEquals(10L, created.getConsumerId());
     assertNotNull(created.getCreatedAt());
+
+    verify(listingReviewStatsRepository).insertIfAbsent(100L);
+    ArgumentCaptor<ListingReviewStats> statsCaptor =
+        ArgumentCaptor.forClass(ListingReviewStats.class);
+    verify(listingReviewStatsRepository).save(statsCaptor.capture());
+    assertEquals(1, statsCaptor.getValue().getReviewCount());
+    assertEquals(5, statsCaptor.getValue().getStoreRatingSum());
+    verify(eventPublisher).publishEvent(any(ListingChangedEvent.class));
+  }
+
+  @Test
+  void createReview_addsToExistingStats() {
+    Order order = order(1L, 10L, "COMPLETED", 100L);
+    CreateListingReviewRequest request = request(1L, 100L, 3, "Okay");
+    ListingReviewStats stats = stats(100L, 1, 5);
+
+    when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+    when(listingReviewRepository.save(any(ListingReview.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(listingReviewStatsRepository.findByListingIdForUpdate(100L))
+        .thenReturn(Optional.of(stats));
+    when(listingReviewRepository.findAll()).thenReturn(List.of());
+
+    listingReviewService.createReview(10L, request);
+
+    assertEquals(2, stats.getReviewCount());
+    assertEquals(8, stats.getListingAccuracySum());
+    assertEquals(4.0, stats.getAvgOnTimePickup(), 0.0001);
+    verify(listingReviewStatsRepository).save(stats);
   }
 
   @Test
@@ -351,6 +394,41 @@ class ListingReviewServiceTest {
     verify(listingReviewRepository).delete(review);
   }
 
+  @Test
+  void deleteReview_subtractsFromStats() {
+    ListingReview review =
+        review(8L, order(1L, 10L, "COMPLETED", 100L), consumer(10L), listing(100L));
+    ListingReviewStats stats = stats(100L, 2, 9);
+    when(listingReviewRepository.findById(8L)).thenReturn(Optional.of(review));
+    when(listingReviewStatsRepository.findByListingIdForUpdate(100L))
+        .thenReturn(Optional.of(stats));
+
+    listingReviewService.deleteReview(8L, 10L);
+
+    assertEquals(1, stats.getReviewCount());
+    assertEquals(4, stats.getListingAccuracySum());
+    verify(listingReviewStatsRepository).save(stats);
+    verify(eventPublisher).publishEvent(any(ListingChangedEvent.class));
+  }
+
+  @Test
+  void backfillReviewStats_createsRowsFromAggregates() {
+    Listing listing = listing(100L);
+    when(listingReviewRepository.aggregateReviewsWithoutStats())
+        .thenReturn(List.<Object[]>of(new Object[] {100L, 3L, 12L, 11L, 14L}));
+    when(listingRepository.getReferenceById(100L)).thenReturn(listing);
+
+    listingReviewService.backfillReviewStats();
+
+    ArgumentCaptor<ListingReviewStats> captor = ArgumentCaptor.forClass(ListingReviewStats.class);
+    verify(listingReviewStatsRepository).save(captor.capture());
+    assertEquals(listing, captor.getValue().getListing());
+    assertEquals(3, captor.getValue().getReviewCount());
+    assertEquals(12, captor.getValue().getListingAccuracySum());
+    assertEquals(11, captor.getValue().getOnTimePickupSum());
+    assertEquals(14, captor.getValue().getStoreRatingSum());
+  }
+
   @Test
   void getReviewsByListing_mapsReviews() {
     ListingReview review =
@@ -429,5 +507,14 @@ class ListingReviewServiceTest {
 
     return listing;
   }
-}
 
+  private ListingReviewStats stats(Long listingId, int count, int perFieldSum) {
+    ListingReviewStats stats = new ListingReviewStats();
+    stats.setListingId(listingId);
+    stats.setReviewCount(count);
+    stats.setListingAccuracySum(perFieldSum);
+    stats.setOnTimePickupSum(perFieldSum);
+    stats.setStoreRatingSum(perFieldSum);
+    return stats;
+  }
+}
@@ -0,0 +1,213 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSearchIndexTest {
+
+  @Mock private ListingRepository listingRepository;
+
+  private ListingSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ListingSearchIndex(listingRepository);
+  }
+
+  @Test
+  void search_matchesTitleOrDescription() {
+    load(
+        row(201L, "Chicken Rice", "Hawker"),
+        row(202L, "Meal Set", "Great rice bowl"),
+        row(203L, "Pasta", "Creamy sauce"));
+
+    assertEquals(List.of(201L, 202L), index.search("rice"));
+    assertEquals(List.of(203L), index.search("  CREAMY "));
+  }
+
+  @Test
+  void search_matchesPrefixesAndPluralForms() {
+    load(row(1L, "Sourdough Breads", null), row(2L, "Mixed Berries", "Fresh boxes"));
+
+    assertEquals(List.of(1L), index.search("bre"));
+    assertEquals(List.of(1L), index.search("bread"));
+    assertEquals(List.of(2L), index.search("berry"));
+    assertEquals(List.of(2L), index.search("box"));
+  }
+
+  @Test
+  void search_matchesIesPluralsFromEitherSide() {
+    load(
+        row(1L, "Chocolate Cookies", null),
+        row(2L, "Fudge Brownies", null),
+        row(3L, "Oat Cookie", null),
+        row(4L, "Walnut Brownie", null));
+
+    assertEquals(List.of(1L, 3L), index.search("cookie"));
+    assertEquals(List.of(1L, 3L), index.search("cookies"));
+    assertEquals(List.of(2L, 4L), index.search("brownie"));
+    assertEquals(List.of(2L, 4L), index.search("brownies"));
+    assertEquals(List.of(1L), index.search("chocolate cookie"));
+  }
+
+  @Test
+  void search_requiresEveryWord() {
+    load(row(1L, "Chicken Rice", null), row(2L, "Chicken Pie", null));
+
+    assertEquals(List.of(2L), index.search("chicken pie"));
+    assertTrue(index.search("chicken sushi").isEmpty());
+  }
+
+  @Test
+  void search_blankQueryDoesNotLoadIndex() {
+    assertTrue(index.search(" - ").isEmpty());
+
+    verify(listingRepository, never()).findActiveSearchText();
+  }
+
+  @Test
+  void search_loadsIndexOnce() {
+    load(row(1L, "Bagel", null));
+
+    index.search("bagel");
+    index.search("bagel");
+
+    verify(listingRepository, times(1)).findActiveSearchText();
+  }
+
+  @Test
+  void onListingChanged_reindexesAndRemovesStaleTerms() {
+    load(row(1L, "Bagel", null));
+    index.search("bagel");
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(row(1L, "Croissant", null)));
+
+    index.onListingChanged(new ListingChangedEvent(1L));
+
+    assertTrue(index.search("bagel").isEmpty());
+    assertEquals(List.of(1L), index.search("croissant"));
+    assertEquals(1, index.termCount());
+  }
+
+  @Test
+  void onListingChanged_dropsListingThatIsNoLongerActive() {
+    load(row(1L, "Bagel", null));
+    index.search("bagel");
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L))).thenReturn(List.of());
+
+    index.onListingChanged(new ListingChangedEvent(1L));
+
+    assertTrue(index.search("bagel").isEmpty());
+    assertEquals(0, index.termCount());
+  }
+
+  @Test
+  void onListingChanged_ignoredBeforeFirstLoad() {
+    index.onListingChanged(new ListingChangedEvent(1L));
+
+    verify(listingRepository, never()).findActiveSearchTextByIdIn(anyList());
+  }
+
+  @Test
+  void onListingsExpired_removesListings() {
+    load(row(1L, "Bagel", null), row(2L, "Bagel Box", null));
+    index.search("bagel");
+
+    index.onListingsExpired(new ListingsExpiredEvent(List.of(1L)));
+
+    assertEquals(List.of(2L), index.search("bagel"));
+  }
+
+  @Test
+  void reload_keepsChangesThatLandDuringTheRead() {
+    load(row(1L, "Bagel", null), row(2L, "Bagel Box", null));
+    index.search("bagel");
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(row(1L, "Croissant", null)));
+    when(listingRepository.findActiveSearchText())
+        .thenAnswer(
+            invocation -> {
+              index.onListingChanged(new ListingChangedEvent(1L));
+              index.onListingsExpired(new ListingsExpiredEvent(List.of(2L)));
+              return List.of(row(1L, "Bagel", null), row(2L, "Bagel Box", null));
+            });
+
+    index.reload();
+
+    assertTrue(index.search("bagel").isEmpty());
+    assertEquals(List.of(1L), index.search("croissant"));
+    assertEquals(List.of(1L), index.fuzzySearch("croisant"));
+  }
+
+  @Test
+  void fuzzySearch_toleratesTyposInTitlesAndStoreNames() {
+    load(
+        row(1L, "Butter Croissant", null, "Tiong Bahru Bakery"),
+        row(2L, "Egg Sandwich", null, "Corner Cafe"),
+        row(3L, "Chicken Rice", null, "Hawker Stall"));
+
+    assertEquals(List.of(1L), index.fuzzySearch("croisant"));
+    assertEquals(List.of(2L), index.fuzzySearch("sandwhich"));
+    assertEquals(List.of(1L), index.fuzzySearch("bakry"));
+    assertEquals(List.of(2L), index.fuzzySearch("egg sandwhich"));
+    assertTrue(index.fuzzySearch("pizza").isEmpty());
+    assertTrue(index.fuzzySearch("croisant pizza").isEmpty());
+  }
+
+  @Test
+  void fuzzySearch_ranksCloserMatchesFirstAndIsBounded() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1L, "Croissant", null, null));
+    rows.add(row(2L, "Croissants Box", null, null));
+    for (long id = 10; id < 10 + ListingSearchIndex.MAX_FUZZY_RESULTS + 5; id++) {
+      rows.add(row(id, "Croissant", null, null));
+    }
+    when(listingRepository.findActiveSearchText()).thenReturn(rows);
+
+    List<Long> result = index.fuzzySearch("croissants");
+
+    assertEquals(ListingSearchIndex.MAX_FUZZY_RESULTS, result.size());
+    assertEquals(2L, result.get(0));
+  }
+
+  @Test
+  void onListingsExpired_dropsWordsNoLongerUsed() {
+    load(row(1L, "Croissant", null, "Bakery"), row(2L, "Bagel", null, "Bakery"));
+    index.fuzzySearch("bakery");
+
+    index.onListingsExpired(new ListingsExpiredEvent(List.of(1L)));
+
+    assertTrue(index.fuzzySearch("croisant").isEmpty());
+    assertEquals(List.of(2L), index.fuzzySearch("bakry"));
+    assertEquals(2, index.vocabularySize());
+  }
+
+  private void load(Object[]... rows) {
+    when(listingRepository.findActiveSearchText()).thenReturn(List.of(rows));
+  }
+
+  private static Object[] row(Long id, String title, String description) {
+    return new Object[] {id, title, description};
+  }
+
+  private static Object[] row(Long id, String title, String description, String storeName) {
+    return new Object[] {id, title, description, storeName};
+  }
+}
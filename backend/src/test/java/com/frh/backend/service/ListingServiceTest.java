@@ -3,39 +3,55 @@ package com.frh.backend.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
 import com.frh.backend.model.FoodCategory;
-import com.frh.backend.model.Inventory;
 import com.frh.backend.model.Listing;
 import com.frh.backend.model.ListingFoodCategory;
-import com.frh.backend.model.ListingPhoto;
+import com.frh.backend.model.ListingReviewStats;
 import com.frh.backend.model.Store;
 import com.frh.backend.model.StoreType;
 import com.frh.backend.model.SupplierProfile;
 import com.frh.backend.dto.ListingCategoryWeightDTO;
 import com.frh.backend.dto.ListingDTO;
+import com.frh.backend.dto.ListingFacetResultDTO;
+import com.frh.backend.dto.ListingPageDTO;
+import com.frh.backend.dto.ListingRowDTO;
 import com.frh.backend.repository.FoodCategoryRepository;
 import com.frh.backend.repository.ListingRepository;
-import com.frh.backend.repository.ListingReviewRepository;
+import com.frh.backend.repository.ListingReviewStatsRepository;
 import com.frh.backend.repository.StoreRepository;
+import com.frh.backend.util.ListingCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 class ListingServiceTest {
@@ -46,21 +62,39 @@ class ListingServiceTest {
 
   @Mock private StoreRepository storeRepository;
 
-  @Mock private ListingReviewRepository listingReviewRepository;
+  @Mock private ListingReviewStatsRepository listingReviewStatsRepository;
+
+  @Mock private ListingCatalogService listingCatalogService;
+
+  @Mock private ListingFacetIndex listingFacetIndex;
+
+  @Mock private ListingJsonCache listingJsonCache;
+
+  @Mock private StoreGeoIndex storeGeoIndex;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Spy private RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
 
   @InjectMocks private ListingService listingService;
 
   @BeforeEach
   void setUp() {
-    lenient().when(listingReviewRepository.findByListing_ListingIdOrderByCreatedAtDesc(anyLong()))
-        .thenReturn(List.of());
+    // rebuilds go through a real snapshot, which the facet index is then built from
+    lenient()
+        .when(listingCatalogService.replaceAll(anyList(), anyLong()))
+        .thenAnswer(
+            invocation -> new ListingCatalogService().replaceAll(invocation.getArgument(0)));
   }
 
   @Test
-  void getAllActiveListings_mapsListingToDto() {
-    Listing listing = buildListing(1L, "Croissant", "Bakery", LocalDateTime.now().plusHours(2));
+  void getAllActiveListings_mapsRowsToDto() {
+    ListingRowDTO row = buildRow(1L, "Croissant", "Bakery", LocalDateTime.now().plusHours(2));
 
-    when(listingRepository.findAllActiveListingsWithDetails()).thenReturn(List.of(listing));
+    when(listingRepository.findAllActiveListingRows()).thenReturn(List.of(row));
+    when(listingRepository.findPhotoUrlsByListingIds(List.of(1L)))
+        .thenReturn(
+            List.of(new Object[] {1L, "https://img/1.png"}, new Object[] {1L, "https://img/2.png"}));
 
     List<ListingDTO> results = listingService.getAllActiveListings();
 
@@ -73,15 +107,36 @@ class ListingServiceTest {
     assertEquals(new BigDecimal("6.00"), dto.getSavingsAmount());
     assertEquals("Worth $12+", dto.getSavingsLabel());
     assertTrue(dto.getTimeRemaining().contains("left"));
+    verify(listingRepository, never()).findAllActiveListingsWithDetails();
+  }
+
+  @Test
+  void getAllActiveListings_readsReviewAggregatesInOneBatch() {
+    ListingRowDTO reviewed = buildRow(1L, "Croissant", "Bakery");
+    ListingRowDTO unreviewed = buildRow(2L, "Muffin", "Bakery");
+    ListingReviewStats stats = new ListingReviewStats();
+    stats.setListingId(1L);
+    stats.setReviewCount(2);
+    stats.setListingAccuracySum(9);
+    stats.setOnTimePickupSum(8);
+
+    when(listingRepository.findAllActiveListingRows()).thenReturn(List.of(reviewed, unreviewed));
+    when(listingReviewStatsRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(stats));
+
+    List<ListingDTO> results = listingService.getAllActiveListings();
+
+    assertEquals(90.0, results.get(0).getAvgListingAccuracy(), 0.0001);
+    assertEquals(80.0, results.get(0).getAvgOnTimePickup(), 0.0001);
+    assertNull(results.get(1).getAvgListingAccuracy());
+    verify(listingReviewStatsRepository, never()).findById(anyLong());
   }
 
   @Test
   void getAllActiveListings_expiredAndNullPickupEnd() {
-    Listing expiredListing = buildListing(2L, "Soup", "Cafe", LocalDateTime.now().minusMinutes(5));
-    Listing nullPickupEndListing = buildListing(3L, "Salad", "Cafe", null);
+    ListingRowDTO expired = buildRow(2L, "Soup", "Cafe", LocalDateTime.now().minusMinutes(5));
+    ListingRowDTO nullPickupEnd = buildRow(3L, "Salad", "Cafe", null);
 
-    when(listingRepository.findAllActiveListingsWithDetails())
-        .thenReturn(List.of(expiredListing, nullPickupEndListing));
+    when(listingRepository.findAllActiveListingRows()).thenReturn(List.of(expired, nullPickupEnd));
 
     List<ListingDTO> results = listingService.getAllActiveListings();
 
@@ -89,53 +144,325 @@ class ListingServiceTest {
     assertEquals("N/A", results.get(1).getTimeRemaining());
   }
 
+  @Test
+  void getAllActiveListings_buildsCatalogOnFirstRead() {
+    when(listingRepository.findAllActiveListingRows())
+        .thenReturn(List.of(buildRow(1L, "Croissant", "Bakery")));
+
+    listingService.getAllActiveListings();
+
+    ArgumentCaptor<List<ListingDTO>> captor = ArgumentCaptor.forClass(List.class);
+    verify(listingCatalogService).replaceAll(captor.capture(), eq(0L));
+    assertEquals(1L, captor.getValue().get(0).getListingId());
+    verify(listingFacetIndex).replaceAll(captor.getValue());
+  }
+
+  @Test
+  void getAllActiveListings_loadsDietaryTagsInOneBatch() {
+    when(listingRepository.findAllActiveListingRows())
+        .thenReturn(List.of(buildRow(1L, "Salad", "Cafe"), buildRow(2L, "Bun", "Bakery")));
+    when(listingRepository.findDietaryTagNamesByListingIds(List.of(1L, 2L)))
+        .thenReturn(List.of(new Object[] {1L, "Halal"}, new Object[] {1L, "Vegan"}));
+
+    List<ListingDTO> results = listingService.getAllActiveListings();
+
+    assertEquals(List.of("Halal", "Vegan"), results.get(0).getDietaryTags());
+    assertEquals(List.of(), results.get(1).getDietaryTags());
+  }
+
+  @Test
+  void filterListings_buildsCatalogBeforeFirstFilter() {
+    Map<ListingFacetIndex.Facet, List<String>> selected =
+        Map.of(ListingFacetIndex.Facet.DIETARY, List.of("Vegan"));
+    ListingFacetResultDTO expected = new ListingFacetResultDTO(List.of(), 0, Map.of());
+    when(listingFacetIndex.isLoaded()).thenReturn(false);
+    when(listingRepository.findAllActiveListingRows()).thenReturn(List.of());
+    when(listingFacetIndex.filter(selected)).thenReturn(expected);
+
+    assertSame(expected, listingService.filterListings(selected));
+    verify(listingCatalogService).replaceAll(List.of(), 0L);
+    verify(listingFacetIndex).replaceAll(List.of());
+  }
+
+  @Test
+  void filterListings_servedFromIndexOnceLoaded() {
+    when(listingFacetIndex.isLoaded()).thenReturn(true);
+
+    listingService.filterListings(Map.of());
+
+    verify(listingFacetIndex).filter(Map.of());
+    verify(listingRepository, never()).findAllActiveListingRows();
+  }
+
+  @Test
+  void getAllActiveListings_servedFromSnapshotWithoutQuery() {
+    ListingCatalogService catalog = new ListingCatalogService();
+    ListingDTO cached = new ListingDTO();
+    cached.setListingId(11L);
+    ListingCatalogService.Snapshot snapshot = catalog.replaceAll(List.of(cached));
+    when(listingCatalogService.current()).thenReturn(snapshot);
+
+    List<ListingDTO> results = listingService.getAllActiveListings();
+
+    assertEquals(List.of(cached), results);
+    verify(listingRepository, never()).findAllActiveListingRows();
+  }
+
+  @Test
+  void getAllActiveListingsJson_buildsCatalogOnceThenDelegatesToCache() {
+    ListingCatalogService.Snapshot snapshot = new ListingCatalogService().replaceAll(List.of());
+    ListingJsonCache.Entry entry = new ListingJsonCache.Entry(1L, new byte[0], "\"e\"");
+    when(listingRepository.findAllActiveListingRows()).thenReturn(List.of());
+    when(listingCatalogService.replaceAll(anyList(), anyLong())).thenReturn(snapshot);
+    when(listingJsonCache.get(snapshot)).thenReturn(entry);
+
+    assertEquals(entry, listingService.getAllActiveListingsJson());
+  }
+
+  @Test
+  void onListingChanged_upsertsActiveInStockListing() {
+    when(listingCatalogService.current())
+        .thenReturn(new ListingCatalogService().replaceAll(List.of()));
+    when(listingRepository.findListingRowsByIdIn(List.of(12L)))
+        .thenReturn(List.of(buildRow(12L, "Bagel", "Bakery")));
+
+    listingService.onListingChanged(new ListingChangedEvent(12L));
+
+    ArgumentCaptor<ListingDTO> captor = ArgumentCaptor.forClass(ListingDTO.class);
+    verify(listingCatalogService).upsert(captor.capture());
+    assertEquals("Bagel", captor.getValue().getTitle());
+    verify(listingFacetIndex).upsert(captor.getValue());
+  }
+
+  @Test
+  void onListingChanged_removesSoldOutOrMissingListing() {
+    ListingRowDTO soldOut =
+        new ListingRowDTO(
+            13L, "Pie", null, new BigDecimal("5.00"), new BigDecimal("2.00"), null, null, null,
+            null, "ACTIVE", null, 33L, "Store", null, "Address", null, null, null, null, null,
+            "Bakery", 0, 0);
+    when(listingCatalogService.current())
+        .thenReturn(new ListingCatalogService().replaceAll(List.of()));
+    when(listingRepository.findListingRowsByIdIn(List.of(13L))).thenReturn(List.of(soldOut));
+    when(listingRepository.findListingRowsByIdIn(List.of(14L))).thenReturn(List.of());
+
+    listingService.onListingChanged(new ListingChangedEvent(13L));
+    listingService.onListingChanged(new ListingChangedEvent(14L));
+
+    verify(listingCatalogService).remove(13L);
+    verify(listingCatalogService).remove(14L);
+    verify(listingCatalogService, never()).upsert(any());
+    verify(listingFacetIndex).remove(13L);
+    verify(listingFacetIndex).remove(14L);
+  }
+
+  @Test
+  void onListingChanged_ignoredBeforeCatalogIsBuilt() {
+    listingService.onListingChanged(new ListingChangedEvent(15L));
+
+    verify(listingRepository, never()).findListingRowsByIdIn(anyList());
+  }
+
+  @Test
+  void onListingsExpired_removesWholeBatchFromCatalog() {
+    listingService.onListingsExpired(new ListingsExpiredEvent(List.of(16L, 17L)));
+
+    verify(listingCatalogService).removeAll(List.of(16L, 17L));
+    verify(listingFacetIndex).removeAll(List.of(16L, 17L));
+  }
+
   @Test
   void getNearbyListings_usesDefaultRadiusWhenMissing() {
-    when(listingRepository.findNearbyListings(1.30, 103.80, 5.0)).thenReturn(List.of());
+    when(storeGeoIndex.findStoreIdsWithin(1.30, 103.80, 5.0)).thenReturn(List.of());
 
     List<ListingDTO> results = listingService.getNearbyListings(1.30, 103.80, null);
 
     assertNotNull(results);
-    verify(listingRepository).findNearbyListings(1.30, 103.80, 5.0);
+    assertTrue(results.isEmpty());
+    verify(storeGeoIndex).findStoreIdsWithin(1.30, 103.80, 5.0);
+    verify(listingRepository, never()).findActiveListingRowsByStoreIds(anyList());
   }
 
   @Test
   void getNearbyListings_usesDefaultRadiusWhenNonPositive() {
-    when(listingRepository.findNearbyListings(1.30, 103.80, 5.0)).thenReturn(List.of());
+    when(storeGeoIndex.findStoreIdsWithin(1.30, 103.80, 5.0)).thenReturn(List.of());
 
     listingService.getNearbyListings(1.30, 103.80, 0.0);
 
-    verify(listingRepository).findNearbyListings(1.30, 103.80, 5.0);
+    verify(storeGeoIndex).findStoreIdsWithin(1.30, 103.80, 5.0);
   }
 
   @Test
   void getNearbyListings_usesProvidedRadius() {
-    Listing listing = buildListing(4L, "Noodles", "Hawker", LocalDateTime.now().plusMinutes(30));
-    when(listingRepository.findNearbyListings(1.31, 103.81, 3.5)).thenReturn(List.of(listing));
+    when(storeGeoIndex.findStoreIdsWithin(1.31, 103.81, 3.5)).thenReturn(List.of(9L));
+    when(listingRepository.findActiveListingRowsByStoreIds(List.of(9L)))
+        .thenReturn(List.of(buildRow(4L, "Noodles", "Hawker")));
 
     List<ListingDTO> results = listingService.getNearbyListings(1.31, 103.81, 3.5);
 
     assertEquals(1, results.size());
-    verify(listingRepository).findNearbyListings(1.31, 103.81, 3.5);
+    verify(storeGeoIndex).findStoreIdsWithin(1.31, 103.81, 3.5);
+    verify(listingRepository, never()).findNearbyListings(anyDouble(), anyDouble(), anyDouble());
   }
 
   @Test
-  void getListingsByCategory_filtersCorrectly() {
-    Listing bakery = buildListing(5L, "Bread Box", "Bakery", LocalDateTime.now().plusHours(1));
-    Listing unknown = buildListing(6L, "Mixed Meal", null, LocalDateTime.now().plusHours(1));
+  void getTopActiveListings_selectsFirstKFromSnapshot() {
+    List<ListingDTO> feed = new ArrayList<>();
+    for (long id = 1; id <= 5; id++) {
+      ListingDTO dto = new ListingDTO();
+      dto.setListingId(id);
+      dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0).plusMinutes(id));
+      dto.setRescuePrice(BigDecimal.valueOf(10 - (id % 3)));
+      feed.add(dto);
+    }
+    when(listingCatalogService.current())
+        .thenReturn(new ListingCatalogService().replaceAll(feed));
+
+    List<ListingDTO> cheapest =
+        listingService.getTopActiveListings(ListingSort.PRICE, null, null, 2);
+    List<ListingDTO> newest =
+        listingService.getTopActiveListings(ListingSort.NEWEST, null, null, 2);
+
+    // prices: 1 -> 9, 2 -> 8, 3 -> 10, 4 -> 9, 5 -> 8; ties go to the newer listing
+    assertEquals(List.of(5L, 2L), cheapest.stream().map(ListingDTO::getListingId).toList());
+    assertEquals(List.of(5L, 4L), newest.stream().map(ListingDTO::getListingId).toList());
+    verify(listingRepository, never()).findAllActiveListingRows();
+  }
+
+  @Test
+  void getTopNearbyListings_returnsSoonestExpiring() {
+    ListingRowDTO later = buildRow(6L, "Late Bun", "Bakery", LocalDateTime.now().plusHours(3));
+    ListingRowDTO sooner = buildRow(7L, "Early Bun", "Bakery", LocalDateTime.now().plusHours(1));
+    when(storeGeoIndex.findStoreIdsWithin(1.30, 103.80, 10.0)).thenReturn(List.of(9L));
+    when(listingRepository.findActiveListingRowsByStoreIds(List.of(9L)))
+        .thenReturn(List.of(later, sooner));
 
-    when(listingRepository.findAllActiveListingsWithDetails()).thenReturn(List.of(bakery, unknown));
+    List<ListingDTO> results =
+        listingService.getTopNearbyListings(1.30, 103.80, 10.0, ListingSort.EXPIRY, 1);
+
+    assertEquals(1, results.size());
+    assertEquals("Early Bun", results.get(0).getTitle());
+  }
+
+  @Test
+  void filterListings_sortedPassesComparatorAndClampedLimit() {
+    when(listingFacetIndex.isLoaded()).thenReturn(true);
+
+    listingService.filterListings(Map.of(), ListingSort.PRICE, null, null, 500);
+
+    verify(listingFacetIndex).filter(anyMap(), any(), eq(ListingService.MAX_PAGE_SIZE));
+  }
+
+  @Test
+  void getActiveListingsPage_seeksPastCursorInSnapshot() {
+    List<ListingDTO> feed = new ArrayList<>();
+    for (long id = 1; id <= 5; id++) {
+      ListingDTO dto = new ListingDTO();
+      dto.setListingId(id);
+      dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0).plusMinutes(id));
+      feed.add(dto);
+    }
+    when(listingCatalogService.current())
+        .thenReturn(new ListingCatalogService().replaceAll(feed));
+
+    ListingPageDTO first = listingService.getActiveListingsPage(ListingCursor.START, 2);
+    ListingPageDTO second =
+        listingService.getActiveListingsPage(ListingCursor.decode(first.getNextCursor()), 2);
+    ListingPageDTO last =
+        listingService.getActiveListingsPage(ListingCursor.decode(second.getNextCursor()), 2);
+
+    assertEquals(List.of(5L, 4L), ids(first));
+    assertEquals(List.of(3L, 2L), ids(second));
+    assertEquals(List.of(1L), ids(last));
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  void getNearbyListingsPage_fetchesOneExtraIdToDetectMorePages() {
+    ListingRowDTO newest = buildRow(4L, "Noodles", "Hawker");
+    ListingCursor cursor = new ListingCursor(LocalDateTime.of(2026, 1, 2, 0, 0), 99L);
+    when(storeGeoIndex.findStoreIdsWithin(1.31, 103.81, 3.5)).thenReturn(List.of(9L));
+    when(listingRepository.findActiveListingIdsByStoreIdsAfter(
+            List.of(9L), cursor.getCreatedAt(), 99L, Limit.of(2)))
+        .thenReturn(List.of(4L, 3L));
+    when(listingRepository.findListingRowsByIdIn(List.of(4L))).thenReturn(List.of(newest));
+
+    ListingPageDTO page = listingService.getNearbyListingsPage(1.31, 103.81, 3.5, cursor, 1);
+
+    assertEquals(List.of(4L), ids(page));
+    ListingCursor next = ListingCursor.decode(page.getNextCursor());
+    assertEquals(newest.getCreatedAt(), next.getCreatedAt());
+    assertEquals(4L, next.getListingId());
+  }
+
+  @Test
+  void getListingsByCategoryPage_usesSeekQueryAndClampsLimit() {
+    when(listingRepository.findActiveListingIdsByCategoryAfter(
+            "Bakery",
+            ListingCursor.START.getCreatedAt(),
+            Long.MAX_VALUE,
+            Limit.of(ListingService.MAX_PAGE_SIZE + 1)))
+        .thenReturn(List.of());
+
+    ListingPageDTO page =
+        listingService.getListingsByCategoryPage("Bakery", ListingCursor.START, 1000);
+
+    assertTrue(page.getListings().isEmpty());
+    assertNull(page.getNextCursor());
+    verify(listingRepository, never()).findListingRowsByIdIn(anyList());
+  }
+
+  @Test
+  void getListingsByCategory_filtersInDatabaseAndAssemblesRows() {
+    ListingRowDTO bread = buildRow(5L, "Bread Box", "Bakery");
+    ListingRowDTO bun = buildRow(6L, "Bun", "Bakery");
+    ListingReviewStats stats = new ListingReviewStats();
+    stats.setListingId(6L);
+    stats.setReviewCount(1);
+    stats.setListingAccuracySum(5);
+    stats.setOnTimePickupSum(4);
+
+    when(listingRepository.findActiveListingRowsByCategory("Bakery"))
+        .thenReturn(List.of(bread, bun));
+    when(listingRepository.findPhotoUrlsByListingIds(List.of(5L, 6L)))
+        .thenReturn(
+            List.of(
+                new Object[] {5L, "https://img/5a.png"}, new Object[] {5L, "https://img/5b.png"}));
+    when(listingRepository.findCategoryWeightsByListingIds(List.of(5L, 6L)))
+        .thenReturn(List.<Object[]>of(new Object[] {6L, 3L, "Grains", new BigDecimal("0.500")}));
+    when(listingReviewStatsRepository.findAllById(List.of(5L, 6L))).thenReturn(List.of(stats));
+
+    List<ListingDTO> results = listingService.getListingsByCategory("Bakery");
+
+    assertEquals(List.of(5L, 6L), results.stream().map(ListingDTO::getListingId).toList());
+    ListingDTO first = results.get(0);
+    assertEquals("Bakery", first.getCategory());
+    assertEquals(List.of("https://img/5a.png", "https://img/5b.png"), first.getPhotoUrls());
+    assertTrue(first.getCategoryIds().isEmpty());
+    assertEquals(new BigDecimal("6.00"), first.getSavingsAmount());
+    assertNull(first.getAvgListingAccuracy());
+    ListingDTO second = results.get(1);
+    assertNull(second.getPhotoUrls());
+    assertEquals(List.of(3L), second.getCategoryIds());
+    assertEquals(List.of("Grains"), second.getCategoryNames());
+    assertEquals(100.0, second.getAvgListingAccuracy(), 0.0001);
+    verify(listingRepository, never()).findAllActiveListingRows();
+  }
+
+  @Test
+  void getListingsByCategory_allServesWholeCatalog() {
+    when(listingRepository.findAllActiveListingRows())
+        .thenReturn(List.of(buildRow(5L, "Bread Box", "Bakery"), buildRow(6L, "Mixed Meal", null)));
 
-    List<ListingDTO> bakeryOnly = listingService.getListingsByCategory("Bakery");
     List<ListingDTO> all = listingService.getListingsByCategory("All");
 
-    assertEquals(1, bakeryOnly.size());
-    assertEquals(5L, bakeryOnly.get(0).getListingId());
     assertEquals(2, all.size());
+    assertEquals("Unknown", all.get(1).getCategory());
+    verify(listingRepository, never()).findActiveListingRowsByCategory(any());
   }
 
   @Test
-  void getAllActiveListings_handlesMissingOptionalRelations() {
+  void getListingsBySupplier_handlesMissingOptionalRelations() {
     Listing listing = new Listing();
     listing.setListingId(7L);
     listing.setTitle("Simple Item");
@@ -151,9 +478,9 @@ class ListingServiceTest {
     listing.setPhotos(List.of());
     listing.setListingFoodCategories(null);
 
-    when(listingRepository.findAllActiveListingsWithDetails()).thenReturn(List.of(listing));
+    when(listingRepository.findByStore_SupplierProfile_SupplierId(1L)).thenReturn(List.of(listing));
 
-    List<ListingDTO> results = listingService.getAllActiveListings();
+    List<ListingDTO> results = listingService.getListingsBySupplier(1L);
 
     assertEquals(1, results.size());
     ListingDTO dto = results.get(0);
@@ -218,6 +545,7 @@ class ListingServiceTest {
     assertEquals(2, saved.getListingFoodCategories().size());
 
     assertEquals(900L, result.getListingId());
+    verify(eventPublisher).publishEvent(any(ListingChangedEvent.class));
     assertEquals(List.of(1L, 3L), result.getCategoryIds());
     assertEquals(List.of("Meat", "Vegetable"), result.getCategoryNames());
     assertEquals("Bakery", result.getCategory());
@@ -311,54 +639,40 @@ class ListingServiceTest {
     return store;
   }
 
-  private static Listing buildListing(
-      Long id, String title, String storeTypeName, LocalDateTime pickupEnd) {
-    SupplierProfile supplier = new SupplierProfile();
-    if (storeTypeName != null) {
-      StoreType storeType = new StoreType();
-      storeType.setTypeName(storeTypeName);
-      supplier.setStoreType(storeType);
-    }
-
-    Store store = new Store();
-    store.setStoreId(20L + id);
-    store.setStoreName("Store " + id);
-    store.setDescription("Description " + id);
-    store.setAddressLine("Address " + id);
-    store.setPostalCode("00000" + id);
-    store.setLat(new BigDecimal("1.3000000"));
-    store.setLng(new BigDecimal("103.8000000"));
-    store.setPickupInstructions("Pick at counter");
-    store.setOpeningHours("09:00-18:00");
-    store.setSupplierProfile(supplier);
+  private static List<Long> ids(ListingPageDTO page) {
+    return page.getListings().stream().map(ListingDTO::getListingId).toList();
+  }
 
-    Listing listing = new Listing();
-    listing.setListingId(id);
-    listing.setStore(store);
-    listing.setTitle(title);
-    listing.setDescription("Fresh food");
-    listing.setOriginalPrice(new BigDecimal("12.00"));
-    listing.setRescuePrice(new BigDecimal("6.00"));
-    listing.setPickupStart(LocalDateTime.now().minusMinutes(30));
-    listing.setPickupEnd(pickupEnd);
-    listing.setExpiryAt(LocalDateTime.now().plusHours(4));
-    listing.setStatus("ACTIVE");
+  private static ListingRowDTO buildRow(Long id, String title, String category) {
+    return buildRow(id, title, category, LocalDateTime.now().plusHours(1));
+  }
 
-    Inventory inventory = new Inventory();
-    inventory.setListing(listing);
-    inventory.setQtyAvailable(8);
-    inventory.setQtyReserved(1);
-    listing.setInventory(inventory);
-
-    ListingPhoto photo2 = new ListingPhoto();
-    photo2.setSortOrder(2);
-    photo2.setPhotoUrl("https://img/2.png");
-    ListingPhoto photo1 = new ListingPhoto();
-    photo1.setSortOrder(1);
-    photo1.setPhotoUrl("https://img/1.png");
-    listing.setPhotos(List.of(photo2, photo1));
-
-    return listing;
+  private static ListingRowDTO buildRow(
+      Long id, String title, String category, LocalDateTime pickupEnd) {
+    return new ListingRowDTO(
+        id,
+        title,
+        "Fresh food",
+        new BigDecimal("12.00"),
+        new BigDecimal("6.00"),
+        null,
+        LocalDateTime.now().minusMinutes(30),
+        pickupEnd,
+        LocalDateTime.now().plusHours(4),
+        "ACTIVE",
+        LocalDateTime.of(2026, 1, 1, 12, 0).minusHours(id),
+        20L + id,
+        "Store " + id,
+        "Description " + id,
+        "Address " + id,
+        "00000" + id,
+        new BigDecimal("1.3000000"),
+        new BigDecimal("103.8000000"),
+        "Pick at counter",
+        "09:00-18:00",
+        category,
+        8,
+        1);
   }
 }
 
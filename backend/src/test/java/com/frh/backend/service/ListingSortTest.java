@@ -0,0 +1,85 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.frh.backend.dto.ListingDTO;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ListingSortTest {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+  // 1: cheap, 50% off, far, expires last; 2: mid, 75% off, near; 3: dear, 10% off, expires first
+  private final List<ListingDTO> listings =
+      List.of(
+          listing(1L, "2.00", "4.00", 1.40, 5),
+          listing(2L, "5.00", "20.00", 1.30, 3),
+          listing(3L, "9.00", "10.00", 1.35, 1));
+
+  @Test
+  void fromParam_parsesCaseInsensitivelyAndRejectsUnknown() {
+    assertEquals(ListingSort.PRICE_DESC, ListingSort.fromParam(" Price_Desc "));
+    assertThrows(IllegalArgumentException.class, () -> ListingSort.fromParam("rating"));
+    assertThrows(IllegalArgumentException.class, () -> ListingSort.fromParam(null));
+  }
+
+  @Test
+  void comparator_ordersBySortKey() {
+    assertEquals(List.of(1L, 2L, 3L), sorted(ListingSort.PRICE));
+    assertEquals(List.of(3L, 2L, 1L), sorted(ListingSort.PRICE_DESC));
+    assertEquals(List.of(2L, 1L, 3L), sorted(ListingSort.DISCOUNT));
+    assertEquals(List.of(3L, 2L, 1L), sorted(ListingSort.EXPIRY));
+    assertEquals(List.of(3L, 2L, 1L), sorted(ListingSort.NEWEST));
+  }
+
+  @Test
+  void distance_measuredFromCaller() {
+    List<ListingDTO> copy = new ArrayList<>(listings);
+    copy.sort(ListingSort.DISTANCE.comparator(1.30, 103.8));
+
+    assertEquals(List.of(2L, 3L, 1L), ids(copy));
+    assertTrue(ListingSort.DISTANCE.requiresLocation());
+    assertThrows(
+        IllegalArgumentException.class, () -> ListingSort.DISTANCE.comparator(null, 103.8));
+  }
+
+  @Test
+  void ties_fallBackToNewestFirst() {
+    List<ListingDTO> same =
+        new ArrayList<>(
+            List.of(listing(4L, "3.00", "6.00", 1.3, 2), listing(5L, "3.00", "6.00", 1.3, 2)));
+    same.sort(ListingSort.PRICE.comparator(null, null));
+
+    assertEquals(List.of(5L, 4L), ids(same));
+  }
+
+  private List<Long> sorted(ListingSort sort) {
+    List<ListingDTO> copy = new ArrayList<>(listings);
+    copy.sort(sort.comparator(null, null));
+    return ids(copy);
+  }
+
+  private static List<Long> ids(List<ListingDTO> listings) {
+    return listings.stream().map(ListingDTO::getListingId).collect(Collectors.toList());
+  }
+
+  private static ListingDTO listing(
+      Long id, String rescuePrice, String originalPrice, double lat, int hoursLeft) {
+    ListingDTO dto = new ListingDTO();
+    dto.setListingId(id);
+    dto.setRescuePrice(new BigDecimal(rescuePrice));
+    dto.setOriginalPrice(new BigDecimal(originalPrice));
+    dto.setLat(BigDecimal.valueOf(lat));
+    dto.setLng(BigDecimal.valueOf(103.8));
+    dto.setPickupEnd(BASE.plusHours(hoursLeft));
+    dto.setCreatedAt(BASE.minusDays(1).plusMinutes(id));
+    return dto;
+  }
+}
@@ -0,0 +1,109 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+class NdjsonExportServiceTest {
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Mock private TransactionStatus transactionStatus;
+
+  private NdjsonExportService service;
+
+  @BeforeEach
+  void setUp() {
+    when(transactionManager.getTransaction(any(TransactionDefinition.class)))
+        .thenReturn(transactionStatus);
+    service = new NdjsonExportService(new ObjectMapper(), entityManager, transactionManager);
+  }
+
+  @Test
+  void stream_writesOneLinePerRowAndDetachesEach() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<String> rows = List.of("a", "b");
+
+    service.stream(rows::stream, row -> Map.of("name", row)).writeTo(out);
+
+    assertEquals(
+        "{\"name\":\"a\"}\n{\"name\":\"b\"}\n", out.toString(StandardCharsets.UTF_8));
+    verify(entityManager).detach("a");
+    verify(entityManager).detach("b");
+    verify(entityManager, never()).clear();
+    verify(transactionManager).commit(transactionStatus);
+  }
+
+  @Test
+  void stream_runsInReadOnlyTransactionAndClosesSource() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean();
+
+    service
+        .stream(() -> Stream.of(1).onClose(() -> closed.set(true)), row -> row)
+        .writeTo(new ByteArrayOutputStream());
+
+    assertTrue(closed.get());
+    verify(transactionManager)
+        .getTransaction(
+            argThat(TransactionDefinition::isReadOnly));
+  }
+
+  @Test
+  void stream_clearsPersistenceContextPeriodically() throws IOException {
+    int count = NdjsonExportService.CLEAR_INTERVAL * 2 + 1;
+
+    service
+        .stream(() -> IntStream.range(0, count).boxed(), row -> row)
+        .writeTo(new ByteArrayOutputStream());
+
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  void stream_propagatesWriteFailureAndRollsBack() {
+    OutputStream broken =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+          }
+        };
+
+    IOException ex =
+        assertThrows(
+            IOException.class,
+            () -> service.stream(() -> Stream.of("a"), row -> row).writeTo(broken));
+
+    assertEquals("Broken pipe", ex.getMessage());
+    verify(transactionManager).rollback(transactionStatus);
+  }
+}
@@ -38,6 +38,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
@@ -57,6 +58,8 @@ class OrderServiceTest {
 
   @Mock private CartItemRepository cartItemRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private OrderService orderService;
 
   @Test
@@ -0,0 +1,146 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.ListingStatsRepository;
+import com.frh.backend.repository.StoreStatsRepository;
+import com.frh.backend.repository.UserStoreInteractionRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationCandidateGeneratorTest {
+
+  private static final double USER_LAT = 1.3000;
+  private static final double USER_LNG = 103.8000;
+
+  @Mock private ListingRepository listingRepository;
+
+  @Mock private ListingStatsRepository listingStatsRepository;
+
+  @Mock private StoreStatsRepository storeStatsRepository;
+
+  @Mock private UserStoreInteractionRepository userStoreInteractionRepository;
+
+  private RecommendationFeatureStore featureStore;
+  private RecommendationRanker ranker;
+
+  @BeforeEach
+  void setUp() {
+    featureStore =
+        new RecommendationFeatureStore(
+            listingRepository,
+            new RecommendationFeatureLoader(
+                listingStatsRepository, storeStatsRepository, userStoreInteractionRepository));
+    ranker = new RecommendationRanker(false, 0.3, 0.2, 0.2, 0.1, 0.1, 0.1);
+    lenient()
+        .when(listingRepository.findPhotoUrlsByListingIds(anyCollection()))
+        .thenReturn(List.of());
+    lenient().when(listingStatsRepository.findByListingIdIn(anyCollection())).thenReturn(List.of());
+    lenient().when(storeStatsRepository.findByStoreIdIn(anyCollection())).thenReturn(List.of());
+  }
+
+  @Test
+  void generate_dropsFarSoldOutAndClosingListings() {
+    LocalDateTime now = LocalDateTime.now();
+    givenActive(
+        row(1L, 10L, "1.3050", "103.8050", 5, now.plusHours(2), "4.00"),
+        row(2L, 11L, "1.3050", "103.8050", 0, now.plusHours(2), "4.00"), // sold out
+        row(3L, 12L, "1.7500", "103.8000", 5, now.plusHours(2), "4.00"), // ~50 km away
+        row(4L, 13L, "1.3050", "103.8050", 5, now.plusMinutes(10), "4.00"), // pickup ending
+        row(5L, 14L, null, null, 5, now.plusHours(2), "4.00")); // location unknown
+
+    assertEquals(List.of(1L), generator(10, 200).generate(USER_LAT, USER_LNG));
+  }
+
+  @Test
+  void generate_withoutLocationKeepsAnyDistance() {
+    LocalDateTime now = LocalDateTime.now();
+    givenActive(
+        row(1L, 10L, "1.3050", "103.8050", 5, now.plusHours(2), "4.00"),
+        row(3L, 12L, "1.7500", "103.8000", 5, now.plusHours(2), "4.00"),
+        row(5L, 14L, null, null, 5, now.plusHours(2), "4.00"));
+
+    List<Long> ids = generator(10, 200).generate(null, null);
+
+    assertEquals(3, ids.size());
+    assertTrue(ids.containsAll(List.of(1L, 3L, 5L)));
+  }
+
+  @Test
+  void generate_dropsRadiusWhenNothingIsNearby() {
+    LocalDateTime now = LocalDateTime.now();
+    givenActive(
+        row(3L, 12L, "1.7500", "103.8000", 5, now.plusHours(2), "4.00"),
+        row(6L, 15L, "1.4000", "103.8000", 5, now.plusHours(2), "4.00"));
+
+    // the closer store ranks first
+    assertEquals(List.of(6L, 3L), generator(1, 200).generate(USER_LAT, USER_LNG));
+  }
+
+  @Test
+  void generate_capsShortlistByPriorScore() {
+    LocalDateTime now = LocalDateTime.now();
+    givenActive(
+        row(1L, 10L, "1.3050", "103.8050", 5, now.plusHours(2), "8.00"),
+        row(2L, 10L, "1.3050", "103.8050", 5, now.plusHours(2), "2.00"),
+        row(3L, 10L, "1.3050", "103.8050", 5, now.plusHours(2), "5.00"));
+
+    // same store and pickup, so the deepest discounts win
+    assertEquals(List.of(2L, 3L), generator(10, 2).generate(USER_LAT, USER_LNG));
+  }
+
+  private RecommendationCandidateGenerator generator(double radiusKm, int maxCandidates) {
+    return new RecommendationCandidateGenerator(featureStore, ranker, radiusKm, 30, maxCandidates);
+  }
+
+  private void givenActive(ListingRowDTO... rows) {
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(List.of(rows));
+  }
+
+  private static ListingRowDTO row(
+      Long listingId,
+      Long storeId,
+      String lat,
+      String lng,
+      int qtyAvailable,
+      LocalDateTime pickupEnd,
+      String rescuePrice) {
+    return new ListingRowDTO(
+        listingId,
+        "Listing " + listingId,
+        null,
+        new BigDecimal("10.00"),
+        new BigDecimal(rescuePrice),
+        null,
+        pickupEnd.minusHours(1),
+        pickupEnd,
+        pickupEnd.plusHours(1),
+        "ACTIVE",
+        pickupEnd.minusDays(1),
+        storeId,
+        "Store " + storeId,
+        null,
+        "Address " + storeId,
+        null,
+        lat == null ? null : new BigDecimal(lat),
+        lng == null ? null : new BigDecimal(lng),
+        null,
+        null,
+        "Bakery",
+        qtyAvailable,
+        0);
+  }
+}
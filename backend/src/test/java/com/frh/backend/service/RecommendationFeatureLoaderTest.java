@@ -0,0 +1,80 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.model.ListingStats;
+import com.frh.backend.model.StoreStats;
+import com.frh.backend.model.UserStoreInteraction;
+import com.frh.backend.repository.ListingStatsRepository;
+import com.frh.backend.repository.StoreStatsRepository;
+import com.frh.backend.repository.UserStoreInteractionRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationFeatureLoaderTest {
+
+  @Mock private ListingStatsRepository listingStatsRepository;
+
+  @Mock private StoreStatsRepository storeStatsRepository;
+
+  @Mock private UserStoreInteractionRepository userStoreInteractionRepository;
+
+  @InjectMocks private RecommendationFeatureLoader recommendationFeatureLoader;
+
+  @Test
+  void load_readsAllIdsWithOneQueryPerTable() {
+    ListingStats listingStats = new ListingStats();
+    listingStats.setListingId(1L);
+    StoreStats storeStats = new StoreStats();
+    storeStats.setStoreId(10L);
+
+    when(listingStatsRepository.findByListingIdIn(List.of(1L, 2L, 3L)))
+        .thenReturn(List.of(listingStats));
+    when(storeStatsRepository.findByStoreIdIn(Set.of(10L, 20L))).thenReturn(List.of(storeStats));
+
+    RecommendationFeatureLoader.CandidateStats stats =
+        recommendationFeatureLoader.load(List.of(1L, 2L, 3L), Set.of(10L, 20L));
+
+    assertSame(listingStats, stats.listingStats(1L));
+    assertNull(stats.listingStats(2L));
+    assertSame(storeStats, stats.storeStats(10L));
+    assertNull(stats.storeStats(20L));
+  }
+
+  @Test
+  void load_emptyIdsRunNoQueries() {
+    recommendationFeatureLoader.load(List.of(), Set.of());
+
+    verifyNoInteractions(listingStatsRepository, storeStatsRepository);
+  }
+
+  @Test
+  void loadInteractions_keysByStore() {
+    UserStoreInteraction interaction = new UserStoreInteraction();
+    interaction.setStoreId(20L);
+    when(userStoreInteractionRepository.findByConsumerId(7L)).thenReturn(List.of(interaction));
+
+    Map<Long, UserStoreInteraction> interactions = recommendationFeatureLoader.loadInteractions(7L);
+
+    assertSame(interaction, interactions.get(20L));
+    assertNull(interactions.get(10L));
+  }
+
+  @Test
+  void loadInteractions_withoutConsumerRunsNoQuery() {
+    assertTrue(recommendationFeatureLoader.loadInteractions(null).isEmpty());
+
+    verifyNoInteractions(userStoreInteractionRepository);
+  }
+}
@@ -0,0 +1,324 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingStatsChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.model.ListingStats;
+import com.frh.backend.model.StoreStats;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.ListingStatsRepository;
+import com.frh.backend.repository.StoreStatsRepository;
+import com.frh.backend.repository.UserStoreInteractionRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationFeatureStoreTest {
+
+  private static final LocalDateTime PICKUP = LocalDateTime.of(2026, 3, 1, 18, 0);
+
+  @Mock private ListingRepository listingRepository;
+
+  @Mock private ListingStatsRepository listingStatsRepository;
+
+  @Mock private StoreStatsRepository storeStatsRepository;
+
+  @Mock private UserStoreInteractionRepository userStoreInteractionRepository;
+
+  private RecommendationFeatureStore store;
+
+  @BeforeEach
+  void setUp() {
+    store =
+        new RecommendationFeatureStore(
+            listingRepository,
+            new RecommendationFeatureLoader(
+                listingStatsRepository, storeStatsRepository, userStoreInteractionRepository));
+    // photos in display order
+    List<Object[]> photos = List.of(new Object[] {1L, "/a-1.png"}, new Object[] {1L, "/a-2.png"});
+    lenient().when(listingRepository.findPhotoUrlsByListingIds(anyCollection())).thenReturn(photos);
+    lenient().when(listingStatsRepository.findByListingIdIn(anyCollection())).thenReturn(List.of());
+    lenient().when(storeStatsRepository.findByStoreIdIn(anyCollection())).thenReturn(List.of());
+  }
+
+  @Test
+  void reload_fillsListingAndSharedStoreColumns() {
+    ListingRowDTO first = row(1L, 10L, "Bakery", "10.00", "4.00");
+    ListingRowDTO second = row(2L, 10L, "Bakery", "8.00", "6.00");
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(List.of(first, second));
+    when(listingStatsRepository.findByListingIdIn(List.of(1L, 2L)))
+        .thenReturn(List.of(listingStats(1L, 40, "0.2500")));
+    when(storeStatsRepository.findByStoreIdIn(anyCollection()))
+        .thenReturn(List.of(storeStats(10L, "4.60")));
+
+    Map<Long, RowValues> rows = snapshot();
+
+    assertEquals(2, store.size());
+    RowValues withStats = rows.get(1L);
+    assertEquals(10L, withStats.storeId);
+    assertEquals("/a-1.png", withStats.photoUrl);
+    assertEquals(0.6, withStats.discountRate, 1e-9);
+    assertEquals(40, withStats.viewCount);
+    assertEquals(0.25, withStats.ctr, 1e-9);
+    assertEquals(4.6, withStats.avgRating, 1e-9);
+    assertEquals(3, withStats.pickupWindowHours);
+    assertEquals(PICKUP, withStats.pickupStart);
+    assertEquals("Address 10", withStats.storeAddress);
+    // no photo and no listing stats, but the store's features are shared
+    RowValues withoutStats = rows.get(2L);
+    assertEquals("", withoutStats.photoUrl);
+    assertEquals(0, withoutStats.viewCount);
+    assertEquals(4.6, withoutStats.avgRating, 1e-9);
+    assertEquals("Bakery", withoutStats.storeType);
+  }
+
+  @Test
+  void forEach_visitsOnlyRequestedActiveListings() {
+    when(listingRepository.findListingRowsByStatus("ACTIVE"))
+        .thenReturn(List.of(row(1L, 10L, "Bakery", "10.00", "4.00")));
+
+    List<Long> visited = new ArrayList<>();
+    int count = store.forEach(List.of(9L, 1L), row -> visited.add(row.listingId()));
+
+    assertEquals(1, count);
+    assertEquals(List.of(1L), visited);
+  }
+
+  @Test
+  void onListingChanged_refreshesListingAndItsStore() {
+    ListingRowDTO first = row(1L, 10L, "Bakery", "10.00", "4.00");
+    ListingRowDTO second = row(2L, 10L, "Bakery", "8.00", "6.00");
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(List.of(first, second));
+    store.reload();
+    long version = store.version();
+
+    when(listingRepository.findListingRowsByIdIn(List.of(2L)))
+        .thenReturn(List.of(row(2L, 10L, "Cafe", "8.00", "2.00")));
+    when(storeStatsRepository.findByStoreIdIn(anyCollection()))
+        .thenReturn(List.of(storeStats(10L, "3.90")));
+    store.onListingChanged(new ListingChangedEvent(2L));
+
+    Map<Long, RowValues> rows = snapshot();
+    assertEquals(0.75, rows.get(2L).discountRate, 1e-9);
+    // store features are shared, so listing 1 sees the new type and rating too
+    assertEquals("Cafe", rows.get(1L).storeType);
+    assertEquals(3.9, rows.get(1L).avgRating, 1e-9);
+    assertTrue(store.version() > version);
+  }
+
+  @Test
+  void onListingChanged_dropsListingThatIsNoLongerActive() {
+    when(listingRepository.findListingRowsByStatus("ACTIVE"))
+        .thenReturn(List.of(row(1L, 10L, "Bakery", "10.00", "4.00")));
+    store.reload();
+
+    ListingRowDTO soldOut = row(1L, 10L, "Bakery", "10.00", "4.00", "SOLD_OUT");
+    when(listingRepository.findListingRowsByIdIn(List.of(1L))).thenReturn(List.of(soldOut));
+    store.onListingChanged(new ListingChangedEvent(1L));
+
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  void onListingStatsChanged_updatesCountersOnly() {
+    when(listingRepository.findListingRowsByStatus("ACTIVE"))
+        .thenReturn(List.of(row(1L, 10L, "Bakery", "10.00", "4.00")));
+    store.reload();
+
+    when(listingStatsRepository.findByListingIdIn(List.of(1L)))
+        .thenReturn(List.of(listingStats(1L, 41, "0.5000")));
+    store.onListingStatsChanged(new ListingStatsChangedEvent(1L));
+
+    RowValues row = snapshot().get(1L);
+    assertEquals(41, row.viewCount);
+    assertEquals(0.5, row.ctr, 1e-9);
+  }
+
+  @Test
+  void onListingsExpired_removesAndReusesOrdinals() {
+    ListingRowDTO first = row(1L, 10L, "Bakery", "10.00", "4.00");
+    ListingRowDTO second = row(2L, 11L, "Cafe", "8.00", "6.00");
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(List.of(first, second));
+    store.reload();
+
+    store.onListingsExpired(new ListingsExpiredEvent(List.of(1L)));
+    when(listingRepository.findListingRowsByIdIn(List.of(3L)))
+        .thenReturn(List.of(row(3L, 12L, "Deli", "5.00", "1.00")));
+    store.onListingChanged(new ListingChangedEvent(3L));
+
+    assertEquals(List.of(3L, 2L), visitOrder());
+  }
+
+  @Test
+  void reload_keepsWhatEventsWroteWhileItWasReading() {
+    List<ListingRowDTO> active =
+        List.of(
+            row(1L, 10L, "Bakery", "10.00", "4.00"),
+            row(2L, 10L, "Bakery", "8.00", "6.00"),
+            row(3L, 10L, "Bakery", "5.00", "1.00"));
+    when(listingRepository.findListingRowsByIdIn(List.of(1L)))
+        .thenReturn(List.of(row(1L, 10L, "Bakery", "10.00", "4.00", "SOLD_OUT")));
+    when(listingRepository.findListingRowsByIdIn(List.of(2L)))
+        .thenReturn(List.of(row(2L, 10L, "Bakery", "8.00", "2.00")));
+    when(listingRepository.findListingRowsByStatus("ACTIVE"))
+        .thenReturn(active)
+        .thenAnswer(
+            invocation -> {
+              // both commit after the rows below were read
+              store.onListingChanged(new ListingChangedEvent(1L));
+              store.onListingChanged(new ListingChangedEvent(2L));
+              return active;
+            });
+    store.reload();
+
+    store.reload();
+
+    Map<Long, RowValues> rows = snapshot();
+    assertEquals(List.of(2L, 3L), List.copyOf(rows.keySet()));
+    assertEquals(0.75, rows.get(2L).discountRate, 1e-9);
+  }
+
+  @Test
+  void reload_dropsListingsNoLongerActive() {
+    when(listingRepository.findListingRowsByStatus("ACTIVE"))
+        .thenReturn(
+            List.of(row(1L, 10L, "Bakery", "10.00", "4.00"), row(2L, 10L, "Cafe", "8.00", "6.00")))
+        .thenReturn(List.of(row(2L, 10L, "Cafe", "8.00", "6.00")));
+    store.reload();
+
+    store.reload();
+
+    assertEquals(List.of(2L), visitOrder());
+  }
+
+  @Test
+  void reload_growsColumnsPastInitialCapacity() {
+    List<ListingRowDTO> rows = new ArrayList<>();
+    for (long id = 1; id <= 600; id++) {
+      rows.add(row(id, id % 300, "Bakery", "10.00", "5.00"));
+    }
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(rows);
+
+    Map<Long, RowValues> snapshot = snapshot();
+
+    assertEquals(600, snapshot.size());
+    assertEquals(299L, snapshot.get(599L).storeId);
+  }
+
+  @Test
+  void events_ignoredBeforeFirstLoad() {
+    store.onListingChanged(new ListingChangedEvent(1L));
+    store.onListingStatsChanged(new ListingStatsChangedEvent(1L));
+
+    verifyNoInteractions(listingRepository, listingStatsRepository, storeStatsRepository);
+  }
+
+  private List<Long> visitOrder() {
+    List<Long> ids = new ArrayList<>();
+    store.forEach(null, row -> ids.add(row.listingId()));
+    return ids;
+  }
+
+  private Map<Long, RowValues> snapshot() {
+    Map<Long, RowValues> rows = new TreeMap<>();
+    store.forEach(null, row -> rows.put(row.listingId(), new RowValues(row)));
+    return rows;
+  }
+
+  /** Copy of a {@link RecommendationFeatureStore.Row}, which must not escape the visitor. */
+  private static final class RowValues {
+    final long storeId;
+    final String storeType;
+    final String photoUrl;
+    final double discountRate;
+    final int viewCount;
+    final double ctr;
+    final double avgRating;
+    final long pickupWindowHours;
+    final String storeAddress;
+    final LocalDateTime pickupStart;
+
+    RowValues(RecommendationFeatureStore.Row row) {
+      storeId = row.storeId();
+      storeType = row.storeType();
+      photoUrl = row.photoUrl();
+      discountRate = row.discountRate();
+      viewCount = row.viewCount();
+      ctr = row.ctr();
+      avgRating = row.storeAvgRating();
+      pickupWindowHours = row.pickupWindowHours();
+      storeAddress = row.storeAddress();
+      pickupStart = row.pickupStart();
+    }
+  }
+
+  private static ListingStats listingStats(Long listingId, int views, String ctr) {
+    ListingStats stats = new ListingStats();
+    stats.setListingId(listingId);
+    stats.setViewCount(views);
+    stats.setCtr(new BigDecimal(ctr));
+    return stats;
+  }
+
+  private static StoreStats storeStats(Long storeId, String avgRating) {
+    StoreStats stats = new StoreStats();
+    stats.setStoreId(storeId);
+    stats.setAvgRating(new BigDecimal(avgRating));
+    return stats;
+  }
+
+  private static ListingRowDTO row(
+      Long listingId, Long storeId, String storeType, String originalPrice, String rescuePrice) {
+    return row(listingId, storeId, storeType, originalPrice, rescuePrice, "ACTIVE");
+  }
+
+  private static ListingRowDTO row(
+      Long listingId,
+      Long storeId,
+      String storeType,
+      String originalPrice,
+      String rescuePrice,
+      String status) {
+    return new ListingRowDTO(
+        listingId,
+        "Listing " + listingId,
+        null,
+        new BigDecimal(originalPrice),
+        new BigDecimal(rescuePrice),
+        null,
+        PICKUP,
+        PICKUP.plusHours(3),
+        PICKUP.plusHours(5),
+        status,
+        PICKUP.minusDays(1),
+        storeId,
+        "Store " + storeId,
+        null,
+        "Address " + storeId,
+        null,
+        new BigDecimal("1.3000000"),
+        new BigDecimal("103.8000000"),
+        null,
+        null,
+        storeType,
+        5,
+        0);
+  }
+}
@@ -0,0 +1,82 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RecommendationRankerTest {
+
+  private final RecommendationRanker ranker =
+      new RecommendationRanker(false, 0.3, 0.2, 0.2, 0.1, 0.1, 0.1);
+
+  @Test
+  void rank_ordersByWeightedScoreAndKeepsTopK() {
+    List<Map<String, Object>> candidates = new ArrayList<>();
+    candidates.add(candidate(1L, 8.0, 0.3, 4.0)); // far away
+    candidates.add(candidate(2L, 0.5, 0.6, 4.5)); // near, cheap, well rated
+    candidates.add(candidate(3L, 0.5, 0.2, 3.0));
+
+    List<Map<String, Object>> ranked = ranker.rank(candidates, 2);
+
+    assertEquals(List.of(2L, 3L), ids(ranked));
+    assertTrue(
+        (Double) ranked.get(0).get("predicted_score")
+            > (Double) ranked.get(1).get("predicted_score"));
+    // the rest of the candidate travels along for the DTO
+    assertEquals("Store 2", ranked.get(0).get("store_name"));
+  }
+
+  @Test
+  void rank_missingFeaturesCountAsUnknown() {
+    Map<String, Object> bare = new HashMap<>();
+    bare.put("listing_id", 9L);
+
+    List<Map<String, Object>> ranked = ranker.rank(new ArrayList<>(List.of(bare)), 5);
+
+    assertEquals(1, ranked.size());
+    assertEquals(0.0, (Double) ranked.get(0).get("predicted_score"), 0.001);
+  }
+
+  @Test
+  void score_rewardsUrgencyAndAffinity() {
+    double base = ranker.score(1.0, 0.5, 4.0, 0.1, 48, 0, false);
+
+    assertTrue(ranker.score(1.0, 0.5, 4.0, 0.1, 2, 0, false) > base);
+    assertTrue(ranker.score(1.0, 0.5, 4.0, 0.1, 48, 3, false) > base);
+    assertTrue(ranker.score(1.0, 0.5, 4.0, 0.1, 48, 0, true) > base);
+    // already expired is no more urgent than anything else
+    assertTrue(ranker.score(1.0, 0.5, 4.0, 0.1, -1, 0, false) < base);
+  }
+
+  @Test
+  void score_isBoundedBySumOfWeights() {
+    assertEquals(1.0, ranker.score(0, 1.5, 6.0, 2.0, 0, 1_000_000, true), 1e-5);
+    assertFalse(ranker.isPrimary());
+  }
+
+  private static List<Long> ids(List<Map<String, Object>> ranked) {
+    return ranked.stream().map(r -> (Long) r.get("listing_id")).collect(Collectors.toList());
+  }
+
+  private static Map<String, Object> candidate(
+      Long listingId, double distance, double discountRate, double avgRating) {
+    Map<String, Object> candidate = new HashMap<>();
+    candidate.put("listing_id", listingId);
+    candidate.put("store_name", "Store " + listingId);
+    candidate.put("distance", distance);
+    candidate.put("discount_rate", discountRate);
+    candidate.put("store_avg_rating", avgRating);
+    candidate.put("listing_ctr", 0.1);
+    candidate.put("time_until_expiry", 6L);
+    candidate.put("user_store_order_count", 0);
+    candidate.put("user_store_type_order_count", 0);
+    return candidate;
+  }
+}
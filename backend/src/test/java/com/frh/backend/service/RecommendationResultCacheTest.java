@@ -0,0 +1,195 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.frh.backend.dto.StoreRecommendationDTO;
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecommendationResultCacheTest {
+
+  private static final long MINUTE = 60_000;
+
+  private long now;
+  private SimpleMeterRegistry meterRegistry;
+  private RecommendationResultCache cache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    // 30 minutes into an hour bucket
+    now = 1_000 * 60 * MINUTE + 30 * MINUTE;
+    meterRegistry = new SimpleMeterRegistry();
+    cache =
+        new RecommendationResultCache(
+            2, 600, 60, 5, new RequestCoalescer(meterRegistry), meterRegistry, () -> now);
+  }
+
+  @Test
+  void get_servesRepeatsFromCacheAndCountsHitsAndMisses() {
+    List<StoreRecommendationDTO> first = cache.get(1L, 5, 1.3000, 103.8000, loader(10L, 11L));
+    List<StoreRecommendationDTO> second = cache.get(1L, 5, 1.3050, 103.8050, loader(10L, 11L));
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(1.0, requests("hit"), 0);
+    assertEquals(1.0, requests("miss"), 0);
+  }
+
+  @Test
+  void get_keysOnConsumerTopKCellAndTimeBucket() {
+    cache.get(1L, 5, 1.30, 103.80, loader(10L));
+    cache.get(2L, 5, 1.30, 103.80, loader(10L));
+    cache.get(1L, 3, 1.30, 103.80, loader(10L));
+    cache.get(1L, 5, 1.45, 103.95, loader(10L));
+    cache.get(1L, 5, null, null, loader(10L));
+    now += 30 * MINUTE; // next hour
+    cache.get(1L, 5, 1.30, 103.80, loader(10L));
+
+    assertEquals(6, loads.get());
+  }
+
+  @Test
+  void get_reloadsAfterTtl() {
+    cache.get(1L, 5, 1.30, 103.80, loader(10L));
+    now += 10 * MINUTE;
+    cache.get(1L, 5, 1.30, 103.80, loader(10L));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_evictsLeastRecentlyUsed() {
+    cache.get(1L, 5, null, null, loader(10L));
+    cache.get(2L, 5, null, null, loader(10L));
+    cache.get(1L, 5, null, null, loader(10L)); // 1 is now the most recent
+    cache.get(3L, 5, null, null, loader(10L)); // evicts 2
+
+    assertEquals(2, cache.size());
+    cache.get(1L, 5, null, null, loader(10L));
+    assertEquals(3, loads.get());
+    cache.get(2L, 5, null, null, loader(10L));
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  void listingEvents_dropResultsContainingThatListing() {
+    cache.get(1L, 5, null, null, loader(10L, 11L));
+    cache.get(2L, 5, null, null, loader(12L));
+
+    cache.onListingChanged(new ListingChangedEvent(11L));
+    assertEquals(1, cache.size());
+    cache.onListingsExpired(new ListingsExpiredEvent(List.of(12L)));
+    assertEquals(0, cache.size());
+    assertEquals(
+        2.0, meterRegistry.get("recommendation.cache.invalidations").counter().count(), 0);
+  }
+
+  @Test
+  void get_doesNotStoreResultRankedDuringAChangeOfItsListings() {
+    cache.get(
+        1L,
+        5,
+        null,
+        null,
+        () -> {
+          cache.onListingChanged(new ListingChangedEvent(10L));
+          return List.of(dto(10L));
+        });
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void get_storesResultRankedDuringAChangeOfOtherListings() {
+    cache.get(
+        1L,
+        5,
+        null,
+        null,
+        () -> {
+          cache.onListingChanged(new ListingChangedEvent(99L));
+          return List.of(dto(10L));
+        });
+
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void put_isServedToRequestsFromTheSameCellWithItsOwnTtl() {
+    cache.put(1L, 5, 1.3000, 103.8000, 1200, cache.generation(), loader(10L));
+    now += 15 * MINUTE; // past the request ttl, within the precompute ttl
+
+    List<StoreRecommendationDTO> result = cache.get(1L, 5, 1.3050, 103.8050, loader(11L));
+
+    assertEquals(10L, result.get(0).getListingId());
+    assertEquals(1, loads.get());
+    assertEquals(1.0, requests("hit"), 0);
+    assertEquals(1.0, meterRegistry.get("recommendation.cache.precomputed").counter().count(), 0);
+  }
+
+  @Test
+  void put_doesNotStoreResultBuiltBeforeAChangeOfItsListings() {
+    long generation = cache.generation();
+    cache.onListingChanged(new ListingChangedEvent(99L));
+    cache.onListingsExpired(new ListingsExpiredEvent(List.of(11L)));
+
+    cache.put(1L, 5, 1.30, 103.80, 1200, generation, loader(10L));
+    cache.put(2L, 5, 1.30, 103.80, 1200, generation, loader(10L, 11L));
+
+    assertEquals(1, cache.size());
+    assertEquals(1.0, meterRegistry.get("recommendation.cache.precomputed").counter().count(), 0);
+  }
+
+  @Test
+  void changedSince_isConservativeOnceChangesAreForgotten() {
+    long generation = cache.generation();
+    cache.onListingChanged(new ListingChangedEvent(99L));
+    assertTrue(cache.changedSince(List.of(99L), generation));
+    assertFalse(cache.changedSince(List.of(10L), generation));
+
+    List<Long> many = new ArrayList<>();
+    for (long id = 1_000; id < 1_000 + RecommendationResultCache.MAX_TRACKED_CHANGES; id++) {
+      many.add(id);
+    }
+    long beforeBatch = cache.generation();
+    cache.onListingsExpired(new ListingsExpiredEvent(many));
+
+    // too many changes to remember: anything loaded before them counts as changed
+    assertTrue(cache.changedSince(List.of(10L), generation));
+    assertTrue(cache.changedSince(List.of(1_000L), beforeBatch));
+    assertFalse(cache.changedSince(List.of(10L), beforeBatch));
+  }
+
+  private double requests(String result) {
+    return meterRegistry
+        .get("recommendation.cache.requests")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private Supplier<List<StoreRecommendationDTO>> loader(Long... listingIds) {
+    return () -> {
+      loads.incrementAndGet();
+      return Arrays.stream(listingIds).map(RecommendationResultCacheTest::dto).toList();
+    };
+  }
+
+  private static StoreRecommendationDTO dto(Long listingId) {
+    StoreRecommendationDTO dto = new StoreRecommendationDTO();
+    dto.setListingId(listingId);
+    return dto;
+  }
+}
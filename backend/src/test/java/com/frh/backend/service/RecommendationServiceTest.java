@@ -4,8 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
@@ -13,6 +17,9 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frh.backend.dto.ListingRowDTO;
+import com.frh.backend.dto.StoreRecommendationDTO;
 import com.frh.backend.model.ConsumerStats;
 import com.frh.backend.model.Inventory;
 import com.frh.backend.model.Listing;
@@ -23,23 +30,23 @@ import com.frh.backend.model.StoreStats;
 import com.frh.backend.model.StoreType;
 import com.frh.backend.model.SupplierProfile;
 import com.frh.backend.model.UserStoreInteraction;
-import com.frh.backend.dto.StoreRecommendationDTO;
 import com.frh.backend.repository.ConsumerStatsRepository;
 import com.frh.backend.repository.ListingRepository;
 import com.frh.backend.repository.ListingStatsRepository;
-import com.frh.backend.repository.StoreRepository;
 import com.frh.backend.repository.StoreStatsRepository;
 import com.frh.backend.repository.UserStoreInteractionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpMethod;
@@ -54,8 +61,6 @@ class RecommendationServiceTest {
 
   @Mock private ListingRepository listingRepository;
 
-  @Mock private StoreRepository storeRepository;
-
   @Mock private ConsumerStatsRepository consumerStatsRepository;
 
   @Mock private ListingStatsRepository listingStatsRepository;
@@ -64,28 +69,67 @@ class RecommendationServiceTest {
 
   @Mock private UserStoreInteractionRepository userStoreInteractionRepository;
 
-  @InjectMocks private RecommendationService recommendationService;
+  @Mock private ListingSearchIndex listingSearchIndex;
+
+  private RecommendationService recommendationService;
+
+  private RecommenderClient recommenderClient;
 
   @BeforeEach
   void setUp() {
-    ReflectionTestUtils.setField(
-        recommendationService, "recommendationServiceUrl", "http://rec-service");
+    RecommendationFeatureLoader featureLoader =
+        new RecommendationFeatureLoader(
+            listingStatsRepository, storeStatsRepository, userStoreInteractionRepository);
+    recommenderClient =
+        new RecommenderClient(
+            "http://rec-service",
+            500,
+            2000,
+            16,
+            20,
+            0.5,
+            1000,
+            10000,
+            true,
+            true,
+            new ObjectMapper(),
+            new SimpleMeterRegistry());
+    RecommendationFeatureStore featureStore =
+        new RecommendationFeatureStore(listingRepository, featureLoader);
+    RecommendationRanker ranker = new RecommendationRanker(false, 0.3, 0.2, 0.2, 0.1, 0.1, 0.1);
+    recommendationService =
+        new RecommendationService(
+            consumerStatsRepository,
+            featureLoader,
+            featureStore,
+            new RecommendationCandidateGenerator(featureStore, ranker, 10, 30, 200),
+            listingSearchIndex,
+            recommenderClient,
+            new ShardedRecommender(recommenderClient, 500, 800, 2, new SimpleMeterRegistry()),
+            ranker,
+            new RecommendationResultCache(
+                100,
+                300,
+                60,
+                5,
+                new RequestCoalescer(new SimpleMeterRegistry()),
+                new SimpleMeterRegistry()));
 
     lenient()
         .when(consumerStatsRepository.findByConsumerId(anyLong()))
         .thenReturn(Optional.empty());
-    lenient().when(listingStatsRepository.findByListingId(anyLong())).thenReturn(Optional.empty());
-    lenient().when(storeStatsRepository.findByStoreId(anyLong())).thenReturn(Optional.empty());
     lenient()
-        .when(userStoreInteractionRepository.findByConsumerIdAndStoreId(anyLong(), anyLong()))
-        .thenReturn(Optional.empty());
-    lenient().when(storeRepository.findById(anyLong())).thenReturn(Optional.empty());
-    lenient().when(listingRepository.findById(anyLong())).thenReturn(Optional.empty());
+        .when(listingStatsRepository.findByListingIdIn(anyCollection()))
+        .thenReturn(List.of());
+    lenient().when(storeStatsRepository.findByStoreIdIn(anyCollection())).thenReturn(List.of());
+    lenient()
+        .when(userStoreInteractionRepository.findByConsumerId(anyLong()))
+        .thenReturn(List.of());
   }
 
   @Test
   void recommendStoresForHomepage_noActiveListings_returnsEmpty() {
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of());
+    givenActive();
 
     List<StoreRecommendationDTO> result =
         recommendationService.recommendStoresForHomepage(1L, null, 1.30, 103.80);
@@ -106,28 +150,30 @@ class RecommendationServiceTest {
     consumerStats.setFavoriteStoreType("Bakery");
 
     ListingStats listingStats = new ListingStats();
+    listingStats.setListingId(100L);
     listingStats.setViewCount(10);
     listingStats.setClickCount(5);
     listingStats.setOrderCount(2);
     listingStats.setCtr(new BigDecimal("0.5000"));
 
     StoreStats storeStats = new StoreStats();
+    storeStats.setStoreId(50L);
     storeStats.setAvgRating(new BigDecimal("4.70"));
     storeStats.setTotalOrders(100);
     storeStats.setCompletionRate(new BigDecimal("0.9000"));
     storeStats.setOnTimeRate(new BigDecimal("0.9500"));
 
     UserStoreInteraction userStoreInteraction = new UserStoreInteraction();
+    userStoreInteraction.setStoreId(50L);
     userStoreInteraction.setOrderCount(3);
 
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
     when(consumerStatsRepository.findByConsumerId(7L)).thenReturn(Optional.of(consumerStats));
-    when(listingStatsRepository.findByListingId(100L)).thenReturn(Optional.of(listingStats));
-    when(storeStatsRepository.findByStoreId(50L)).thenReturn(Optional.of(storeStats));
-    when(userStoreInteractionRepository.findByConsumerIdAndStoreId(7L, 50L))
-        .thenReturn(Optional.of(userStoreInteraction));
-    when(storeRepository.findById(50L)).thenReturn(Optional.of(listing.getStore()));
-    when(listingRepository.findById(100L)).thenReturn(Optional.of(listing));
+    when(listingStatsRepository.findByListingIdIn(List.of(100L)))
+        .thenReturn(List.of(listingStats));
+    when(storeStatsRepository.findByStoreIdIn(Set.of(50L))).thenReturn(List.of(storeStats));
+    when(userStoreInteractionRepository.findByConsumerId(7L))
+        .thenReturn(List.of(userStoreInteraction));
 
     MockRestServiceServer server = server();
     server
@@ -160,10 +206,36 @@ class RecommendationServiceTest {
   }
 
   @Test
-  void recommendStoresForHomepage_recommendationServiceError_returnsEmpty() {
+  void recommendStoresForHomepage_repeatedRequestServedFromCache() {
     Listing listing =
+        buildListing(
+            105L, 55L, "Kaya Toast", "Cafe", new BigDecimal("6.00"), new BigDecimal("3.00"));
+    givenActive(listing);
+
+    MockRestServiceServer server = server();
+    server
+        .expect(requestTo("http://rec-service/api/recommend/stores"))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withServerError());
+
+    List<StoreRecommendationDTO> first =
+        recommendationService.recommendStoresForHomepage(1L, 5, 1.30, 103.80);
+    // a few metres away, same cell
+    List<StoreRecommendationDTO> second =
+        recommendationService.recommendStoresForHomepage(1L, 5, 1.3001, 103.8001);
+    server.verify();
+
+    assertEquals(1, first.size());
+    assertEquals(first, second);
+  }
+
+  @Test
+  void recommendStoresForHomepage_recommendationServiceError_ranksLocally() {
+    Listing pasta =
         buildListing(101L, 51L, "Pasta", "Italian", new BigDecimal("9.00"), new BigDecimal("6.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    Listing pizza =
+        buildListing(102L, 52L, "Pizza", "Italian", new BigDecimal("9.00"), new BigDecimal("3.00"));
+    givenActive(pasta, pizza);
 
     MockRestServiceServer server = server();
     server
@@ -175,7 +247,32 @@ class RecommendationServiceTest {
         recommendationService.recommendStoresForHomepage(1L, 5, 1.30, 103.80);
     server.verify();
 
-    assertTrue(result.isEmpty());
+    // same store features, so the bigger discount wins
+    assertEquals(2, result.size());
+    assertEquals(102L, result.get(0).getListingId());
+    assertEquals(101L, result.get(1).getListingId());
+    assertTrue(result.get(0).getPredictedScore() > result.get(1).getPredictedScore());
+  }
+
+  @Test
+  void recommendStoresForHomepage_primaryLocalRanker_skipsRecommendationService() {
+    ReflectionTestUtils.setField(
+        recommendationService,
+        "recommendationRanker",
+        new RecommendationRanker(true, 0.3, 0.2, 0.2, 0.1, 0.1, 0.1));
+    givenActive(
+        buildListing(
+            103L, 53L, "Laksa", "Hawker", new BigDecimal("8.00"), new BigDecimal("4.00")),
+        buildListing(
+            104L, 54L, "Satay", "Hawker", new BigDecimal("8.00"), new BigDecimal("5.00")));
+
+    MockRestServiceServer server = server();
+    List<StoreRecommendationDTO> result =
+        recommendationService.recommendStoresForHomepage(1L, 1, 1.30, 103.80);
+    server.verify();
+
+    assertEquals(1, result.size());
+    assertEquals(103L, result.get(0).getListingId());
   }
 
   @Test
@@ -194,13 +291,9 @@ class RecommendationServiceTest {
         buildListing(
             202L, 62L, "Meal Set", "Hawker", new BigDecimal("10.00"), new BigDecimal("7.00"));
     matchByDescription.setDescription("Great rice bowl");
-    Listing notMatched =
-        buildListing(
-            203L, 63L, "Pasta", "Italian", new BigDecimal("12.00"), new BigDecimal("8.00"));
-    notMatched.setDescription("Creamy sauce");
 
-    when(listingRepository.findByStatus("ACTIVE"))
-        .thenReturn(List.of(matchByTitle, matchByDescription, notMatched));
+    when(listingSearchIndex.search("rice")).thenReturn(List.of(201L, 202L));
+    givenActive(matchByTitle, matchByDescription);
 
     MockRestServiceServer server = server();
     server
@@ -229,15 +322,26 @@ class RecommendationServiceTest {
 
   @Test
   void searchWithRecommendations_noKeywordMatches_returnsEmpty() {
-    Listing listing =
-        buildListing(
-            300L, 70L, "Burger", "FastFood", new BigDecimal("11.00"), new BigDecimal("7.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    when(listingSearchIndex.search("sushi")).thenReturn(List.of());
 
     List<StoreRecommendationDTO> result =
         recommendationService.searchWithRecommendations(2L, "sushi", 5, 1.30, 103.80);
 
     assertTrue(result.isEmpty());
+    verify(listingRepository, never()).findListingRowsByStatus(anyString());
+  }
+
+  @Test
+  void searchWithRecommendations_fallsBackToFuzzySearch() {
+    when(listingSearchIndex.search("croisant")).thenReturn(List.of());
+    when(listingSearchIndex.fuzzySearch("croisant")).thenReturn(List.of(601L, 602L));
+    givenActive();
+
+    List<StoreRecommendationDTO> result =
+        recommendationService.searchWithRecommendations(2L, "croisant", 5, 1.30, 103.80);
+
+    assertTrue(result.isEmpty());
+    verify(listingSearchIndex).fuzzySearch("croisant");
   }
 
   @Test
@@ -245,7 +349,7 @@ class RecommendationServiceTest {
     Listing listing =
         buildListing(
             400L, 80L, "Daily Box", "Mixed", new BigDecimal("20.00"), new BigDecimal("10.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
 
     MockRestServiceServer server = server();
     server
@@ -287,7 +391,8 @@ class RecommendationServiceTest {
     listing.getStore().setSupplierProfile(null);
     listing.getStore().setLat(null);
     listing.getStore().setLng(null);
-    listing.setInventory(null);
+    listing.setPickupStart(null);
+    listing.setPickupEnd(null);
     listing.setPhotos(null);
 
     ConsumerStats consumerStats = new ConsumerStats();
@@ -298,34 +403,30 @@ class RecommendationServiceTest {
     consumerStats.setFavoriteStoreType("Bakery");
 
     ListingStats listingStats = new ListingStats();
+    listingStats.setListingId(500L);
     listingStats.setViewCount(5);
     listingStats.setClickCount(1);
     listingStats.setOrderCount(1);
     listingStats.setCtr(null);
 
     StoreStats storeStats = new StoreStats();
+    storeStats.setStoreId(90L);
     storeStats.setAvgRating(null);
     storeStats.setTotalOrders(7);
     storeStats.setCompletionRate(null);
     storeStats.setOnTimeRate(null);
 
     UserStoreInteraction userStoreInteraction = new UserStoreInteraction();
+    userStoreInteraction.setStoreId(90L);
     userStoreInteraction.setOrderCount(0);
 
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
     when(consumerStatsRepository.findByConsumerId(10L)).thenReturn(Optional.of(consumerStats));
-    when(listingStatsRepository.findByListingId(500L)).thenReturn(Optional.of(listingStats));
-    when(storeStatsRepository.findByStoreId(90L)).thenReturn(Optional.of(storeStats));
-    when(userStoreInteractionRepository.findByConsumerIdAndStoreId(10L, 90L))
-        .thenReturn(Optional.of(userStoreInteraction));
-    when(storeRepository.findById(90L)).thenReturn(Optional.of(listing.getStore()));
-
-    Listing listingWithNullPickup =
-        buildListing(
-            500L, 90L, "Fallback Box", "Bakery", new BigDecimal("12.00"), new BigDecimal("9.00"));
-    listingWithNullPickup.setPickupStart(null);
-    listingWithNullPickup.setPickupEnd(null);
-    when(listingRepository.findById(500L)).thenReturn(Optional.of(listingWithNullPickup));
+    when(listingStatsRepository.findByListingIdIn(List.of(500L)))
+        .thenReturn(List.of(listingStats));
+    when(storeStatsRepository.findByStoreIdIn(Set.of(90L))).thenReturn(List.of(storeStats));
+    when(userStoreInteractionRepository.findByConsumerId(10L))
+        .thenReturn(List.of(userStoreInteraction));
 
     MockRestServiceServer server = server();
     server
@@ -359,7 +460,7 @@ class RecommendationServiceTest {
   void recommendStoresForHomepage_nonOkResponse_returnsEmpty() {
     Listing listing =
         buildListing(510L, 91L, "Soup", "Mixed", new BigDecimal("8.00"), new BigDecimal("6.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
 
     MockRestServiceServer server = server();
     server
@@ -379,7 +480,7 @@ class RecommendationServiceTest {
   void recommendStoresForHomepage_okNullBody_returnsEmpty() {
     Listing listing =
         buildListing(511L, 92L, "Rice", "Mixed", new BigDecimal("9.00"), new BigDecimal("7.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
 
     MockRestServiceServer server = server();
     server
@@ -395,12 +496,11 @@ class RecommendationServiceTest {
   }
 
   @Test
-  void recommendStoresForHomepage_enrichmentException_isHandled() {
+  void recommendStoresForHomepage_resultOutsideCandidates_keepsRecommenderFields() {
     Listing listing =
         buildListing(
             520L, 93L, "Noodles", "Asian", new BigDecimal("10.00"), new BigDecimal("8.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
-    when(storeRepository.findById(93L)).thenThrow(new RuntimeException("db failure"));
+    givenActive(listing);
 
     MockRestServiceServer server = server();
     server
@@ -408,7 +508,7 @@ class RecommendationServiceTest {
         .andExpect(method(HttpMethod.POST))
         .andRespond(
             withSuccess(
-                "{\"recommendations\":[{\"store_id\":93,\"listing_id\":520,\"store_name\":\"Store"
+                "{\"recommendations\":[{\"store_id\":93,\"listing_id\":521,\"store_name\":\"Store"
                     + " 93\","
                     + "\"listing_title\":\"Noodles\",\"rescue_price\":8.0,\"original_price\":10.0,"
                     + "\"distance\":2.5,\"store_avg_rating\":4.0,\"predicted_score\":0.5,"
@@ -421,6 +521,8 @@ class RecommendationServiceTest {
 
     assertEquals(1, result.size());
     assertEquals(93L, result.get(0).getStoreId());
+    assertNull(result.get(0).getAddressLine());
+    assertNull(result.get(0).getPickupStart());
   }
 
   @Test
@@ -442,7 +544,8 @@ class RecommendationServiceTest {
             601L, 101L, "Rice Deal", "Mixed", new BigDecimal("9.00"), new BigDecimal("6.00"));
     descNull.setDescription(null);
 
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(titleNull, descNull));
+    when(listingSearchIndex.search("rice")).thenReturn(List.of(600L, 601L));
+    givenActive(titleNull, descNull);
 
     MockRestServiceServer server = server();
     server
@@ -471,7 +574,8 @@ class RecommendationServiceTest {
     Listing listing =
         buildListing(
             610L, 110L, "Rice Pack", "Mixed", new BigDecimal("10.00"), new BigDecimal("7.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    when(listingSearchIndex.search("rice")).thenReturn(List.of(610L));
+    givenActive(listing);
 
     MockRestServiceServer server = server();
     server
@@ -543,7 +647,7 @@ class RecommendationServiceTest {
     Listing listing =
         buildListing(
             700L, 120L, "Zero Original", "Mixed", new BigDecimal("10.00"), new BigDecimal("5.00"));
-    when(listingRepository.findByStatus("ACTIVE")).thenReturn(List.of(listing));
+    givenActive(listing);
 
     Map<String, Object> rec = new HashMap<>();
     rec.put("store_id", 120);
@@ -577,10 +681,57 @@ class RecommendationServiceTest {
 
   private MockRestServiceServer server() {
     RestTemplate restTemplate =
-        (RestTemplate) ReflectionTestUtils.getField(recommendationService, "restTemplate");
+        (RestTemplate) ReflectionTestUtils.getField(recommenderClient, "restTemplate");
     return MockRestServiceServer.bindTo(restTemplate).build();
   }
 
+  /** The feature store loads exactly these listings as the active catalog. */
+  private void givenActive(Listing... listings) {
+    List<ListingRowDTO> rows = new ArrayList<>();
+    List<Object[]> photos = new ArrayList<>();
+    for (Listing listing : listings) {
+      rows.add(toRow(listing));
+      if (listing.getPhotos() != null) {
+        for (ListingPhoto photo : listing.getPhotos()) {
+          photos.add(new Object[] {listing.getListingId(), photo.getPhotoUrl()});
+        }
+      }
+    }
+    when(listingRepository.findListingRowsByStatus("ACTIVE")).thenReturn(rows);
+    lenient().when(listingRepository.findPhotoUrlsByListingIds(anyCollection())).thenReturn(photos);
+  }
+
+  private static ListingRowDTO toRow(Listing listing) {
+    Store store = listing.getStore();
+    SupplierProfile supplier = store.getSupplierProfile();
+    return new ListingRowDTO(
+        listing.getListingId(),
+        listing.getTitle(),
+        listing.getDescription(),
+        listing.getOriginalPrice(),
+        listing.getRescuePrice(),
+        null,
+        listing.getPickupStart(),
+        listing.getPickupEnd(),
+        listing.getExpiryAt(),
+        listing.getStatus(),
+        listing.getCreatedAt(),
+        store.getStoreId(),
+        store.getStoreName(),
+        null,
+        store.getAddressLine(),
+        null,
+        store.getLat(),
+        store.getLng(),
+        null,
+        null,
+        supplier != null && supplier.getStoreType() != null
+            ? supplier.getStoreType().getTypeName()
+            : null,
+        listing.getInventory() != null ? listing.getInventory().getQtyAvailable() : null,
+        listing.getInventory() != null ? listing.getInventory().getQtyReserved() : null);
+  }
+
   private static String toJsonObject(Map<String, Object> map) {
     StringBuilder sb = new StringBuilder("{");
     boolean first = true;
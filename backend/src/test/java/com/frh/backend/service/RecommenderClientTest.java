@@ -0,0 +1,298 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.frh.backend.exception.RecommenderUnavailableException;
+import com.frh.backend.util.CircuitBreaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/** Runs {@link RecommenderClient} against a stub recommender on a local port. */
+class RecommenderClientTest {
+
+  private static final String RECOMMENDATIONS =
+      "{\"recommendations\":[{\"store_id\":10,\"listing_id\":1,\"predicted_score\":0.9}]}";
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private SimpleMeterRegistry meterRegistry;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private volatile Handler handler;
+  private volatile byte[] lastBody;
+  private volatile String lastContentEncoding;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    executor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/api/recommend/stores",
+        exchange -> {
+          requests.incrementAndGet();
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          lastBody = exchange.getRequestBody().readAllBytes();
+          lastContentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+          try {
+            handler.handle(exchange);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            exchange.close();
+          }
+        });
+    server.setExecutor(executor);
+    server.start();
+    meterRegistry = new SimpleMeterRegistry();
+    handler = exchange -> respond(exchange, 200, RECOMMENDATIONS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void recommend_returnsRecommendationsOverOneKeptAliveConnection() {
+    RecommenderClient client = client(2000, 4, 10);
+
+    List<Map<String, Object>> first = client.recommend(Map.of("user_id", 1));
+    client.recommend(Map.of("user_id", 1));
+    client.recommend(Map.of("user_id", 1));
+
+    assertEquals(1, first.size());
+    assertEquals(10, ((Number) first.get(0).get("store_id")).intValue());
+    assertEquals(3, requests.get());
+    assertEquals(1, clientPorts.size());
+    assertEquals(3, latencyCount("success"));
+  }
+
+  @Test
+  void recommend_returnsEmptyListWithoutRecommendations() {
+    handler = exchange -> respond(exchange, 200, "{}");
+
+    assertTrue(client(2000, 4, 10).recommend(Map.of()).isEmpty());
+  }
+
+  @Test
+  void recommend_timesOutSlowResponse() {
+    handler =
+        exchange -> {
+          Thread.sleep(1_000);
+          respond(exchange, 200, RECOMMENDATIONS);
+        };
+    RecommenderClient client = client(200, 4, 10);
+
+    long start = System.nanoTime();
+    assertThrows(ResourceAccessException.class, () -> client.recommend(Map.of()));
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 900);
+    assertEquals(1, latencyCount("timeout"));
+  }
+
+  @Test
+  void recommend_rejectsWhenBulkheadIsFull() throws Exception {
+    CountDownLatch arrived = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    handler =
+        exchange -> {
+          arrived.countDown();
+          release.await();
+          respond(exchange, 200, RECOMMENDATIONS);
+        };
+    RecommenderClient client = client(5000, 1, 10);
+
+    Future<List<Map<String, Object>>> busy = executor.submit(() -> client.recommend(Map.of()));
+    assertTrue(arrived.await(5, TimeUnit.SECONDS));
+    assertThrows(RecommenderUnavailableException.class, () -> client.recommend(Map.of()));
+    release.countDown();
+
+    assertEquals(1, busy.get(5, TimeUnit.SECONDS).size());
+    assertEquals(1, requests.get());
+    assertEquals(0, client.inFlight());
+    assertEquals(1.0, rejected("bulkhead"), 0);
+  }
+
+  @Test
+  void recommend_shortCircuitsOnceErrorRateTripsBreaker() {
+    handler = exchange -> respond(exchange, 500, "{}");
+    RecommenderClient client = client(2000, 4, 2);
+
+    assertThrows(HttpServerErrorException.class, () -> client.recommend(Map.of()));
+    assertThrows(HttpServerErrorException.class, () -> client.recommend(Map.of()));
+    assertThrows(RecommenderUnavailableException.class, () -> client.recommend(Map.of()));
+
+    assertEquals(CircuitBreaker.State.OPEN, client.getBreakerState());
+    assertEquals(2, requests.get());
+    assertEquals(2, latencyCount("error"));
+    assertEquals(1.0, rejected("circuit_open"), 0);
+    assertEquals(0, client.inFlight());
+  }
+
+  @Test
+  void recommend_recordsLatencyBuckets() {
+    client(2000, 4, 10).recommend(Map.of());
+
+    CountAtBucket[] buckets =
+        meterRegistry
+            .get("recommender.client.latency")
+            .tag("outcome", "success")
+            .timer()
+            .takeSnapshot()
+            .histogramCounts();
+    assertEquals(6, buckets.length);
+    // a local stub answers well within the largest bucket
+    assertEquals(1.0, buckets[buckets.length - 1].count(), 0);
+  }
+
+  @Test
+  void recommend_sendsAdvertisedColumnarGzipBody() throws IOException {
+    handler =
+        exchange -> {
+          exchange.getResponseHeaders().set(RecommenderClient.ACCEPT_HEADER, "columnar, gzip");
+          respond(exchange, 200, RECOMMENDATIONS);
+        };
+    RecommenderClient client = client(2000, 4, 10);
+
+    client.recommend(request());
+    JsonNode rows = new ObjectMapper().readTree(lastBody);
+    assertNull(lastContentEncoding);
+    assertEquals(2, rows.get("candidates").size());
+
+    assertEquals(1, client.recommend(request()).size());
+    assertEquals("gzip", lastContentEncoding);
+    JsonNode columnar = new ObjectMapper().readTree(gunzip(lastBody));
+    assertEquals("columnar", columnar.get("format").asText());
+    assertEquals(2, columnar.get("count").asInt());
+    assertEquals("homepage", columnar.get("shared").get("page_context").asText());
+    assertEquals(12, columnar.get("columns").get("listing_id").get(1).asInt());
+    assertEquals(1, summaryCount("rows"));
+    assertEquals(1, summaryCount("columnar"));
+  }
+
+  @Test
+  void recommend_resendsRowsWhenNegotiatedBodyIsRejected() throws IOException {
+    handler =
+        exchange -> {
+          exchange.getResponseHeaders().set(RecommenderClient.ACCEPT_HEADER, "columnar");
+          respond(exchange, 200, RECOMMENDATIONS);
+        };
+    RecommenderClient client = client(2000, 4, 10);
+    client.recommend(request());
+
+    // rolled back to a recommender that only takes rows
+    handler =
+        exchange -> {
+          boolean columnar = new String(lastBody, StandardCharsets.UTF_8).contains("\"columns\"");
+          respond(exchange, columnar ? 415 : 200, columnar ? "{}" : RECOMMENDATIONS);
+        };
+    assertEquals(1, client.recommend(request()).size());
+    client.recommend(request());
+
+    assertEquals(4, requests.get());
+    assertTrue(new ObjectMapper().readTree(lastBody).has("candidates"));
+    assertEquals(3, latencyCount("success"));
+  }
+
+  private RecommenderClient client(int readTimeoutMs, int maxConcurrentCalls, int windowSize) {
+    return new RecommenderClient(
+        "http://127.0.0.1:" + server.getAddress().getPort(),
+        500,
+        readTimeoutMs,
+        maxConcurrentCalls,
+        windowSize,
+        0.5,
+        1000,
+        60_000,
+        true,
+        true,
+        new ObjectMapper(),
+        meterRegistry);
+  }
+
+  private long summaryCount(String format) {
+    return meterRegistry
+        .get("recommender.client.request.size")
+        .tag("format", format)
+        .summary()
+        .count();
+  }
+
+  private static Map<String, Object> request() {
+    List<Map<String, Object>> candidates = new ArrayList<>();
+    for (long listingId : new long[] {11, 12}) {
+      Map<String, Object> candidate = new HashMap<>();
+      candidate.put("listing_id", listingId);
+      candidate.put("page_context", "homepage");
+      candidates.add(candidate);
+    }
+    Map<String, Object> request = new HashMap<>();
+    request.put("user_id", 1L);
+    request.put("candidates", candidates);
+    request.put("top_k", 1);
+    return request;
+  }
+
+  private static byte[] gunzip(byte[] body) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return in.readAllBytes();
+    }
+  }
+
+  private long latencyCount(String outcome) {
+    return meterRegistry
+        .get("recommender.client.latency")
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
+  private double rejected(String reason) {
+    return meterRegistry.get("recommender.client.rejected").tag("reason", reason).counter().count();
+  }
+
+  private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Handler {
+    void handle(HttpExchange exchange) throws IOException, InterruptedException;
+  }
+}
@@ -0,0 +1,158 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestCoalescerTest {
+
+  private static final int CALLERS = 4;
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestCoalescer coalescer;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    coalescer = new RequestCoalescer(meterRegistry);
+    executor = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void coalesce_concurrentEqualCallsShareOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    List<Object> shared = List.of("catalog");
+
+    List<Future<Object>> callers =
+        callConcurrently(
+            () -> {
+              loads.incrementAndGet();
+              await(release);
+              return shared;
+            });
+    release.countDown();
+
+    for (Future<Object> caller : callers) {
+      assertSame(shared, caller.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    assertEquals(1.0, calls("leader"), 0);
+    assertEquals(CALLERS - 1.0, calls("follower"), 0);
+    assertEquals((CALLERS - 1.0) / CALLERS, ratio(), 1e-9);
+  }
+
+  @Test
+  void coalesce_followersGetTheLeadersException() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<Future<Object>> callers =
+        callConcurrently(
+            () -> {
+              await(release);
+              throw new IllegalStateException("boom");
+            });
+    release.countDown();
+
+    for (Future<Object> caller : callers) {
+      ExecutionException e =
+          assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof IllegalStateException);
+      assertEquals("boom", e.getCause().getMessage());
+    }
+    assertEquals(1.0, calls("leader"), 0);
+  }
+
+  @Test
+  void coalesce_loadsAgainOnceTheCallCompleted() {
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(1, (int) coalescer.coalesce("test", "k", loads::incrementAndGet));
+    assertEquals(2, (int) coalescer.coalesce("test", "k", loads::incrementAndGet));
+
+    assertEquals(2.0, calls("leader"), 0);
+    assertEquals(0.0, ratio(), 0);
+  }
+
+  @Test
+  void coalesce_differentKeysDoNotWaitForEachOther() {
+    CountDownLatch never = new CountDownLatch(1);
+    executor.submit(() -> coalescer.coalesce("test", "slow", () -> await(never)));
+
+    assertEquals("fast", coalescer.coalesce("test", "fast", () -> "fast"));
+    never.countDown();
+  }
+
+  /**
+   * Starts {@link #CALLERS} equal calls of {@code loader} and returns once all of them are either
+   * loading or waiting for the one that is.
+   */
+  private List<Future<Object>> callConcurrently(Supplier<Object> loader)
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    List<Future<Object>> callers = new ArrayList<>();
+    callers.add(
+        executor.submit(
+            () ->
+                coalescer.coalesce(
+                    "test",
+                    "k",
+                    () -> {
+                      started.countDown();
+                      return loader.get();
+                    })));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i < CALLERS; i++) {
+      callers.add(executor.submit(() -> coalescer.coalesce("test", "k", loader)));
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (calls("follower") < CALLERS - 1 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    return callers;
+  }
+
+  private double calls(String role) {
+    return meterRegistry
+        .get("request.coalescing.calls")
+        .tag("name", "test")
+        .tag("role", role)
+        .counter()
+        .count();
+  }
+
+  private double ratio() {
+    return meterRegistry.get("request.coalescing.ratio").tag("name", "test").gauge().value();
+  }
+
+  private static Object await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+}
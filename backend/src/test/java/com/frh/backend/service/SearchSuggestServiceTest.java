@@ -0,0 +1,141 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.event.ListingChangedEvent;
+import com.frh.backend.event.ListingsExpiredEvent;
+import com.frh.backend.repository.ListingRepository;
+import com.frh.backend.repository.SearchLogRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class SearchSuggestServiceTest {
+
+  @Mock private ListingRepository listingRepository;
+
+  @Mock private SearchLogRepository searchLogRepository;
+
+  private SearchSuggestService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new SearchSuggestService(listingRepository, searchLogRepository, 100);
+  }
+
+  @Test
+  void suggest_weightsByQueryCountPlusTitleCount() {
+    load(
+        List.of(title(1L, "Chicken Rice"), title(2L, "chicken rice"), title(3L, "Chilli Crab")),
+        List.<Object[]>of(query("chilli crab", 5L), query("chips", 1L)));
+
+    // chilli crab: 5 searches + 1 title; chicken rice: 2 titles; chips: 1 search
+    assertEquals(List.of("Chilli Crab", "Chicken Rice", "chips"), service.suggest("ch", null));
+    verify(searchLogRepository).findPopularQueries(Limit.of(100));
+  }
+
+  @Test
+  void suggest_blankQueryDoesNotLoad() {
+    assertTrue(service.suggest("  ", 5).isEmpty());
+
+    verify(listingRepository, never()).findActiveSearchText();
+  }
+
+  @Test
+  void suggest_clampsLimitAndLoadsOnce() {
+    load(List.<Object[]>of(title(1L, "Bagel")), List.of());
+
+    service.suggest("b", 500);
+    service.suggest("b", 0);
+
+    verify(listingRepository, times(1)).findActiveSearchText();
+  }
+
+  @Test
+  void onListingChanged_replacesOldTitle() {
+    load(List.<Object[]>of(title(1L, "Bagel")), List.of());
+    service.suggest("b", null);
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(title(1L, "Blueberry Muffin")));
+
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    assertEquals(List.of("Blueberry Muffin"), service.suggest("b", null));
+  }
+
+  @Test
+  void onListingChanged_keepsPhraseThatIsStillSearchedFor() {
+    load(List.<Object[]>of(title(1L, "Bagel")), List.<Object[]>of(query("bagel", 4L)));
+    service.suggest("b", null);
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L))).thenReturn(List.of());
+
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    assertEquals(List.of("Bagel"), service.suggest("bag", null));
+  }
+
+  @Test
+  void onListingChanged_ignoredBeforeFirstLoad() {
+    service.onListingChanged(new ListingChangedEvent(1L));
+
+    verify(listingRepository, never()).findActiveSearchTextByIdIn(anyList());
+  }
+
+  @Test
+  void onListingsExpired_dropsTitlesWithNoOtherListing() {
+    load(List.of(title(1L, "Bagel"), title(2L, "Bagel"), title(3L, "Brownie")), List.of());
+    service.suggest("b", null);
+
+    service.onListingsExpired(new ListingsExpiredEvent(List.of(1L, 3L)));
+
+    assertEquals(List.of("Bagel"), service.suggest("b", null));
+  }
+
+  @Test
+  void reload_keepsTitleChangesThatLandDuringTheRead() {
+    load(List.of(title(1L, "Bagel"), title(2L, "Brownie")), List.of());
+    service.suggest("b", null);
+    when(listingRepository.findActiveSearchTextByIdIn(List.of(1L)))
+        .thenReturn(List.<Object[]>of(title(1L, "Blueberry Muffin")));
+    when(listingRepository.findActiveSearchText())
+        .thenAnswer(
+            invocation -> {
+              service.onListingChanged(new ListingChangedEvent(1L));
+              service.onListingsExpired(new ListingsExpiredEvent(List.of(2L)));
+              return List.of(title(1L, "Bagel"), title(2L, "Brownie"));
+            });
+
+    service.reload();
+
+    assertEquals(List.of("Blueberry Muffin"), service.suggest("b", null));
+
+    service.onListingsExpired(new ListingsExpiredEvent(List.of(1L)));
+
+    assertTrue(service.suggest("b", null).isEmpty());
+  }
+
+  private void load(List<Object[]> titles, List<Object[]> queries) {
+    when(listingRepository.findActiveSearchText()).thenReturn(titles);
+    when(searchLogRepository.findPopularQueries(any(Limit.class))).thenReturn(queries);
+  }
+
+  private static Object[] title(Long id, String title) {
+    return new Object[] {id, title, null};
+  }
+
+  private static Object[] query(String text, Long count) {
+    return new Object[] {text, count};
+  }
+}
@@ -0,0 +1,179 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frh.backend.exception.RecommenderUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link ShardedRecommender} against a stub recommender that scores a listing by its ID, is
+ * slow for shards containing a listing in {@link #slow} and fails for those in {@link #broken}.
+ */
+class ShardedRecommenderTest {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private SimpleMeterRegistry meterRegistry;
+  private ShardedRecommender sharded;
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile Set<Long> slow = Set.of();
+  private volatile Set<Long> broken = Set.of();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    executor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/api/recommend/stores",
+        exchange -> {
+          requests.incrementAndGet();
+          JsonNode request = JSON.readTree(exchange.getRequestBody());
+          List<Map<String, Object>> scored = new ArrayList<>();
+          int status = 200;
+          for (JsonNode candidate : request.get("candidates")) {
+            long listingId = candidate.get("listing_id").asLong();
+            if (slow.contains(listingId)) {
+              sleep(3_000);
+            }
+            if (broken.contains(listingId)) {
+              status = 500;
+            }
+            scored.add(Map.of("listing_id", listingId, "predicted_score", listingId / 100.0));
+          }
+          scored.sort(
+              (a, b) -> Long.compare((Long) b.get("listing_id"), (Long) a.get("listing_id")));
+          byte[] body =
+              JSON.writeValueAsBytes(
+                  Map.of("recommendations", scored.subList(0, request.get("top_k").asInt())));
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          exchange.sendResponseHeaders(status, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.setExecutor(executor);
+    server.start();
+    meterRegistry = new SimpleMeterRegistry();
+    RecommenderClient client =
+        new RecommenderClient(
+            "http://127.0.0.1:" + server.getAddress().getPort(),
+            500,
+            5000,
+            16,
+            20,
+            0.5,
+            5000,
+            10000,
+            true,
+            false,
+            JSON,
+            meterRegistry);
+    sharded = new ShardedRecommender(client, 3, 1_000, 4, meterRegistry);
+    // connect and load classes outside the deadline of the first test
+    client.recommend(request(1, 1));
+    requests.set(0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    sharded.shutdown();
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shards_onlyAboveShardSize() {
+    assertFalse(sharded.shards(3));
+    assertTrue(sharded.shards(4));
+  }
+
+  @Test
+  void recommend_mergesTopKOfAllShards() {
+    List<Map<String, Object>> result = sharded.recommend(request(10, 4));
+
+    assertEquals(List.of(10L, 9L, 8L, 7L), listingIds(result));
+    assertEquals(4, requests.get());
+    assertEquals(4.0, shards("answered"), 0);
+  }
+
+  @Test
+  void recommend_leavesOutShardsPastTheDeadline() {
+    slow = Set.of(10L);
+    broken = Set.of(1L);
+
+    long start = System.nanoTime();
+    List<Map<String, Object>> result = sharded.recommend(request(10, 4));
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_500);
+    // listing 10 is in the slow shard, 1-3 in the broken one
+    assertEquals(List.of(9L, 8L, 7L, 6L), listingIds(result));
+    assertEquals(1.0, shards("late"), 0);
+    assertEquals(1.0, shards("failed"), 0);
+    assertEquals(2.0, shards("answered"), 0);
+  }
+
+  @Test
+  void recommend_throwsWhenNoShardAnswers() {
+    broken = Set.of(1L, 4L);
+
+    assertThrows(RecommenderUnavailableException.class, () -> sharded.recommend(request(6, 2)));
+  }
+
+  private double shards(String outcome) {
+    return meterRegistry.get("recommendation.shards").tag("outcome", outcome).counter().count();
+  }
+
+  /** Listings 1..count, best (highest ID) last. */
+  private static Map<String, Object> request(int count, int topK) {
+    List<Map<String, Object>> candidates = new ArrayList<>();
+    for (long listingId = 1; listingId <= count; listingId++) {
+      Map<String, Object> candidate = new HashMap<>();
+      candidate.put("listing_id", listingId);
+      candidates.add(candidate);
+    }
+    Map<String, Object> request = new HashMap<>();
+    request.put("user_id", 1L);
+    request.put("candidates", candidates);
+    request.put("top_k", topK);
+    return request;
+  }
+
+  private static List<Long> listingIds(List<Map<String, Object>> recommendations) {
+    List<Long> ids = new ArrayList<>();
+    for (Map<String, Object> recommendation : recommendations) {
+      ids.add(((Number) recommendation.get("listing_id")).longValue());
+    }
+    return ids;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.frh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.frh.backend.repository.StoreRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StoreGeoIndexTest {
+
+  @Mock private StoreRepository storeRepository;
+
+  @Test
+  void findStoreIdsWithin_loadsOnceAndFiltersByExactDistance() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1L, "1.3000000", "103.8000000")); // origin
+    rows.add(row(2L, "1.3100000", "103.8000000")); // ~1.1 km north
+    rows.add(row(3L, "1.3400000", "103.8400000")); // ~6.3 km north-east
+    rows.add(row(4L, "1.4500000", "103.9500000")); // ~23 km away
+    when(storeRepository.findAllCoordinates()).thenReturn(rows);
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+
+    List<Long> within5 = index.findStoreIdsWithin(1.30, 103.80, 5.0);
+    List<Long> within10 = index.findStoreIdsWithin(1.30, 103.80, 10.0);
+
+    assertEquals(List.of(1L, 2L), sorted(within5));
+    assertEquals(List.of(1L, 2L, 3L), sorted(within10));
+    verify(storeRepository, times(1)).findAllCoordinates();
+  }
+
+  @Test
+  void findStoreIdsWithin_keepsStoresOnTheEdgeOfTheRadius() {
+    List<Object[]> rows = new ArrayList<>();
+    // 4.990 km north by Haversine and just across a cell boundary the box has to reach
+    rows.add(row(1L, "1.3000100", "103.8000000"));
+    when(storeRepository.findAllCoordinates()).thenReturn(rows);
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+
+    assertEquals(List.of(1L), index.findStoreIdsWithin(1.25513, 103.80, 4.9935));
+  }
+
+  @Test
+  void findStoreIdsWithin_wideRadiusWalksPopulatedCells() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1L, "1.3000000", "103.8000000"));
+    rows.add(row(2L, "51.5000000", "-0.1200000")); // ~10,850 km away
+    when(storeRepository.findAllCoordinates()).thenReturn(rows);
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+
+    // the box of this radius spans millions of cells
+    assertEquals(List.of(1L), index.findStoreIdsWithin(1.30, 103.80, 5_000.0));
+    assertEquals(List.of(1L, 2L), sorted(index.findStoreIdsWithin(1.30, 103.80, 20_000.0)));
+  }
+
+  @Test
+  void put_movesStoreBetweenCellsAndRemoveDropsIt() {
+    when(storeRepository.findAllCoordinates()).thenReturn(new ArrayList<>());
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+
+    index.put(7L, new BigDecimal("1.30"), new BigDecimal("103.80"));
+    assertEquals(List.of(7L), index.findStoreIdsWithin(1.30, 103.80, 1.0));
+
+    index.put(7L, new BigDecimal("1.40"), new BigDecimal("103.90"));
+    assertTrue(index.findStoreIdsWithin(1.30, 103.80, 1.0).isEmpty());
+    assertEquals(List.of(7L), index.findStoreIdsWithin(1.40, 103.90, 1.0));
+
+    index.remove(7L);
+    assertTrue(index.findStoreIdsWithin(1.40, 103.90, 1.0).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void put_withoutCoordinatesRemovesStore() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1L, "1.3000000", "103.8000000"));
+    when(storeRepository.findAllCoordinates()).thenReturn(rows);
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+    index.size();
+
+    index.put(1L, null, null);
+
+    assertTrue(index.findStoreIdsWithin(1.30, 103.80, 5.0).isEmpty());
+  }
+
+  @Test
+  void findStoreIdsWithin_handlesAntimeridian() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(row(1L, "0.0000000", "179.9990000"));
+    rows.add(row(2L, "0.0000000", "-179.9990000"));
+    when(storeRepository.findAllCoordinates()).thenReturn(rows);
+    StoreGeoIndex index = new StoreGeoIndex(storeRepository, 0.01);
+
+    assertEquals(List.of(1L, 2L), sorted(index.findStoreIdsWithin(0.0, 180.0, 1.0)));
+  }
+
+  @Test
+  void constructor_rejectsNonPositiveCellSize() {
+    assertThrows(IllegalArgumentException.class, () -> new StoreGeoIndex(storeRepository, 0));
+  }
+
+  private static Object[] row(Long storeId, String lat, String lng) {
+    return new Object[] {storeId, new BigDecimal(lat), new BigDecimal(lng)};
+  }
+
+  private static List<Long> sorted(List<Long> ids) {
+    List<Long> copy = new ArrayList<>(ids);
+    copy.sort(null);
+    return copy;
+  }
+}
@@ -28,6 +28,8 @@ public class StoreServiceTest {
 
   @Mock private SupplierProfileRepository supplierProfileRepository;
 
+  @Mock private StoreGeoIndex storeGeoIndex;
+
   @InjectMocks private StoreService storeService;
 
   @Test
@@ -77,6 +79,7 @@ public class StoreServiceTest {
     // Verify dependencies were actually called
     verify(supplierProfileRepository, times(1)).findById(supplierId);
     verify(storeRepository, times(1)).save(any(Store.class));
+    verify(storeGeoIndex).put(10L, new BigDecimal("1.29"), new BigDecimal("103.85"));
   }
 
   @Test
@@ -119,6 +122,7 @@ public class StoreServiceTest {
 
     // Assert
     verify(storeRepository, times(1)).deleteById(storeId);
+    verify(storeGeoIndex).remove(storeId);
   }
 
   @Test
@@ -218,6 +222,7 @@ public class StoreServiceTest {
     assertEquals("654321", response.getPostalCode());
     assertEquals(3L, response.getSupplierId());
     verify(storeRepository).save(existingStore);
+    verify(storeGeoIndex).put(storeId, new BigDecimal("1.31"), new BigDecimal("103.91"));
   }
 
   @Test
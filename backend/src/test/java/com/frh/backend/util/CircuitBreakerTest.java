@@ -0,0 +1,120 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.frh.backend.util.CircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final long SLOW = 100;
+  private static final long OPEN = 1_000;
+
+  private long now;
+  private CircuitBreaker breaker;
+
+  @BeforeEach
+  void setUp() {
+    now = 0;
+    breaker = new CircuitBreaker(4, 0.5, SLOW, OPEN, () -> now);
+  }
+
+  @Test
+  void staysClosedUntilWindowIsFull() {
+    call(false);
+    call(false);
+    call(false);
+
+    assertEquals(State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  void opensOnFailureRate() {
+    call(true);
+    call(false);
+    call(true);
+    call(false);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  void opensOnSlowCallRate() {
+    for (int i = 0; i < 2; i++) {
+      call(true);
+      breaker.tryAcquire();
+      breaker.onSuccess(SLOW);
+    }
+
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void oldOutcomesSlideOutOfWindow() {
+    call(false);
+    call(true);
+    call(true);
+    call(true);
+    // one failure left in the window of four
+    call(true);
+    call(true);
+
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void halfOpenAdmitsOneTrialThatClosesOnSuccess() {
+    trip();
+    now += OPEN;
+
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+    breaker.onSuccess(1);
+
+    assertEquals(State.CLOSED, breaker.getState());
+    // the window starts over
+    call(false);
+    call(false);
+    call(false);
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void failedOrSlowTrialReopens() {
+    trip();
+    now += OPEN;
+    breaker.tryAcquire();
+    breaker.onFailure();
+
+    assertEquals(State.OPEN, breaker.getState());
+    now += OPEN - 1;
+    assertFalse(breaker.tryAcquire());
+
+    now += 1;
+    breaker.tryAcquire();
+    breaker.onSuccess(SLOW);
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  private void trip() {
+    for (int i = 0; i < 4; i++) {
+      call(false);
+    }
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  private void call(boolean ok) {
+    assertTrue(breaker.tryAcquire());
+    if (ok) {
+      breaker.onSuccess(1);
+    } else {
+      breaker.onFailure();
+    }
+  }
+}
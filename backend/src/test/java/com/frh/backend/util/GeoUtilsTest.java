@@ -0,0 +1,37 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GeoUtilsTest {
+
+  @Test
+  void haversineKm_matchesKnownDistance() {
+    // one degree of latitude
+    assertEquals(111.19, GeoUtils.haversineKm(1.0, 103.8, 2.0, 103.8), 0.01);
+    assertEquals(0.0, GeoUtils.haversineKm(1.3, 103.8, 1.3, 103.8), 1e-9);
+  }
+
+  @Test
+  void kmPerDegreeLat_matchesHaversine() {
+    assertEquals(
+        GeoUtils.haversineKm(1.0, 103.8, 2.0, 103.8), GeoUtils.KM_PER_DEGREE_LAT, 1e-9);
+  }
+
+  @Test
+  void geohash_matchesReferenceValues() {
+    assertEquals("u4pruydqqvj", GeoUtils.geohash(57.64911, 10.40744, 11));
+    assertEquals("w21z", GeoUtils.geohash(1.3521, 103.8198, 4));
+    assertEquals("", GeoUtils.geohash(1.3521, 103.8198, 0));
+  }
+
+  @Test
+  void geohash_nearbyPointsShareCoarseCell() {
+    String cell = GeoUtils.geohash(1.3000, 103.8000, 5);
+
+    assertEquals(cell, GeoUtils.geohash(1.3050, 103.8050, 5));
+    assertNotEquals(cell, GeoUtils.geohash(1.4000, 103.9000, 5));
+  }
+}
@@ -0,0 +1,36 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class ListingCursorTest {
+
+  @Test
+  void encode_roundTripsAndIsUrlSafe() {
+    ListingCursor cursor = new ListingCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 8000), 42L);
+
+    String encoded = cursor.encode();
+    ListingCursor decoded = ListingCursor.decode(encoded);
+
+    assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    assertEquals(cursor.getCreatedAt(), decoded.getCreatedAt());
+    assertEquals(42L, decoded.getListingId());
+  }
+
+  @Test
+  void decode_blankMeansFirstPage() {
+    assertSame(ListingCursor.START, ListingCursor.decode(null));
+    assertSame(ListingCursor.START, ListingCursor.decode(" "));
+  }
+
+  @Test
+  void decode_rejectsGarbage() {
+    assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode("%%%"));
+    assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode("bm90LWEtY3Vyc29y"));
+  }
+}
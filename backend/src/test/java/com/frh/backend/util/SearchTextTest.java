@@ -0,0 +1,50 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SearchTextTest {
+
+  @Test
+  void tokenize_lowercasesAndSplitsOnPunctuation() {
+    assertEquals(
+        List.of("baker", "s", "half", "price", "box", "2"),
+        SearchText.tokenize("Baker s HALF-price box #2"));
+    assertEquals(List.of("bakers", "dozen"), SearchText.tokenize("Baker's dozen"));
+    assertTrue(SearchText.tokenize(null).isEmpty());
+    assertTrue(SearchText.tokenize(" -- ").isEmpty());
+  }
+
+  @Test
+  void stem_stripsPluralEndingsOnly() {
+    assertEquals("berry", SearchText.stem("berries"));
+    assertEquals("box", SearchText.stem("boxes"));
+    assertEquals("sandwich", SearchText.stem("sandwiches"));
+    assertEquals("bread", SearchText.stem("breads"));
+    assertEquals("cheese", SearchText.stem("cheeses"));
+    assertEquals("glass", SearchText.stem("glasses"));
+    assertEquals("hummus", SearchText.stem("hummus"));
+    assertEquals("pie", SearchText.stem("pies"));
+    assertEquals("baking", SearchText.stem("baking"));
+    assertEquals("bus", SearchText.stem("bus"));
+  }
+
+  @Test
+  void forms_keepTheWordAndBothSingularsOfIesPlurals() {
+    assertEquals(Set.of("cookies", "cooky", "cookie"), SearchText.forms("cookies"));
+    assertEquals(Set.of("brownies", "browny", "brownie"), SearchText.forms("brownies"));
+    assertEquals(Set.of("cookie"), SearchText.forms("cookie"));
+    assertEquals(Set.of("breads", "bread"), SearchText.forms("breads"));
+  }
+
+  @Test
+  void terms_expandEveryToken() {
+    assertEquals(
+        Set.of("chocolate", "cookies", "cooky", "cookie"), SearchText.terms("Chocolate Cookies"));
+    assertTrue(SearchText.terms(null).isEmpty());
+  }
+}
@@ -0,0 +1,71 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+  @Test
+  void suggest_ordersByWeightThenAlphabetically() {
+    SuggestionTrie trie = new SuggestionTrie();
+    trie.put("Chicken Rice", 3);
+    trie.put("chilli crab", 10);
+    trie.put("Chickpea Salad", 3);
+    trie.put("Cheese Cake", 50);
+
+    assertEquals(List.of("chilli crab", "Chicken Rice", "Chickpea Salad"), trie.suggest("chi", 5));
+    assertEquals(List.of("chilli crab"), trie.suggest("CHI", 1));
+  }
+
+  @Test
+  void suggest_matchesStartOfEveryWordOnce() {
+    SuggestionTrie trie = new SuggestionTrie();
+    trie.put("Rice Rice Baby", 1);
+    trie.put("Chicken Rice", 2);
+
+    assertEquals(List.of("Chicken Rice", "Rice Rice Baby"), trie.suggest("ric", 10));
+    assertTrue(trie.suggest("ice", 10).isEmpty());
+  }
+
+  @Test
+  void suggest_trailingSpaceRequiresCompleteWord() {
+    SuggestionTrie trie = new SuggestionTrie();
+    trie.put("Chicken", 5);
+    trie.put("Chicken Rice", 1);
+
+    assertEquals(List.of("Chicken", "Chicken Rice"), trie.suggest("chicken", 10));
+    assertEquals(List.of("Chicken Rice"), trie.suggest("chicken ", 10));
+  }
+
+  @Test
+  void put_updatesWeightAndDisplayText() {
+    SuggestionTrie trie = new SuggestionTrie();
+    trie.put("bagel", 1);
+    trie.put("banana bread", 5);
+
+    trie.put("Bagel", 9);
+
+    assertEquals(List.of("Bagel", "banana bread"), trie.suggest("ba", 5));
+    assertEquals(2, trie.size());
+  }
+
+  @Test
+  void remove_dropsPhraseAndSplitEdgesStillWork() {
+    SuggestionTrie trie = new SuggestionTrie();
+    trie.put("bread", 1);
+    trie.put("breakfast box", 2);
+    trie.put("brownie", 3);
+
+    trie.remove("BREAD");
+    trie.put("nonpositive", 0);
+
+    assertEquals(List.of("brownie", "breakfast box"), trie.suggest("br", 5));
+    assertEquals(List.of("breakfast box"), trie.suggest("box", 5));
+    assertTrue(trie.suggest("bread", 5).isEmpty());
+    assertTrue(trie.suggest("non", 5).isEmpty());
+    assertEquals(2, trie.size());
+  }
+}
@@ -0,0 +1,78 @@
+package com.frh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+  @Test
+  void of_returnsFirstKInOrder() {
+    List<Integer> values = List.of(7, 3, 9, 1, 5, 8, 2);
+
+    assertEquals(List.of(1, 2, 3), TopK.of(values, 3, Comparator.naturalOrder()));
+    assertEquals(List.of(9, 8), TopK.of(values, 2, Comparator.reverseOrder()));
+  }
+
+  @Test
+  void of_kLargerThanInputSortsEverything() {
+    assertEquals(List.of(1, 2, 3), TopK.of(List.of(3, 1, 2), 10, Comparator.naturalOrder()));
+    assertEquals(
+        List.of(1, 2, 3), TopK.of(List.of(3, 1, 2), Integer.MAX_VALUE, Comparator.naturalOrder()));
+  }
+
+  @Test
+  void of_emptyInputOrNonPositiveK() {
+    assertTrue(TopK.of(List.<Integer>of(), 5, Comparator.naturalOrder()).isEmpty());
+    assertTrue(TopK.of(List.of(1, 2), 0, Comparator.naturalOrder()).isEmpty());
+  }
+
+  @Test
+  void of_matchesFullSortOnRandomInput() {
+    Random random = new Random(7);
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      values.add(random.nextInt(200)); // plenty of duplicates
+    }
+    List<Integer> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+
+    assertEquals(sorted.subList(0, 20), TopK.of(values, 20, Comparator.naturalOrder()));
+  }
+
+  @Test
+  void indices_returnsHighestScoresBestFirst() {
+    double[] scores = {0.2, 0.9, 0.5, 0.9, 0.1};
+
+    assertArrayEquals(new int[] {1, 3, 2}, TopK.indices(scores, 3));
+    assertArrayEquals(new int[] {1, 3, 2, 0, 4}, TopK.indices(scores, 10));
+    assertEquals(0, TopK.indices(scores, 0).length);
+    assertEquals(0, TopK.indices(new double[0], 3).length);
+  }
+
+  @Test
+  void indices_matchesFullSortOnRandomInput() {
+    Random random = new Random(11);
+    double[] scores = new double[1_000];
+    List<Integer> positions = new ArrayList<>();
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = random.nextInt(100) / 10.0; // plenty of ties
+      positions.add(i);
+    }
+    positions.sort(
+        Comparator.<Integer>comparingDouble(i -> -scores[i])
+            .thenComparing(Comparator.naturalOrder()));
+
+    int[] top = TopK.indices(scores, 25);
+    for (int i = 0; i < top.length; i++) {
+      assertEquals(positions.get(i).intValue(), top[i]);
+    }
+  }
+}